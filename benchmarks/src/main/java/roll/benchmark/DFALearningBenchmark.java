@@ -0,0 +1,110 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import roll.automata.DFA;
+import roll.learner.LearnerBase;
+import roll.learner.dfa.table.LearnerDFATableColumn;
+import roll.learner.dfa.table.LearnerDFATableLStar;
+import roll.learner.dfa.tree.LearnerDFATreeColumn;
+import roll.learner.dfa.tree.LearnerDFATreeKV;
+import roll.learner.nfa.nlstar.LearnerNFANLStar;
+import roll.main.Options;
+import roll.oracle.dfa.TeacherDFAImpl;
+import roll.oracle.nfa.TeacherNFA;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * L*, KV, column-based table/tree and NL* learning of random DFAs
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DFALearningBenchmark {
+    
+    @Param({"lstar", "kv", "column-table", "column-tree", "nlstar"})
+    public String algorithm;
+    
+    @Param({"16", "64", "128"})
+    public int numStates;
+    
+    @Param({"2"})
+    public int numLetters;
+    
+    private DFA target;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        target = Targets.getDFA(numStates, numLetters, 0);
+    }
+    
+    @Benchmark
+    public Object learn() {
+        Options options = Targets.getOptions();
+        options.automaton = Options.TargetAutomaton.DFA;
+        if(algorithm.equals("nlstar")) {
+            options.automaton = Options.TargetAutomaton.NFA;
+            options.algorithm = Options.Algorithm.NFA_NLSTAR;
+            TeacherNFA teacher = new TeacherNFA(options, target);
+            return Targets.learn(new LearnerNFANLStar(options, target.getAlphabet(), teacher), teacher);
+        }
+        TeacherDFAImpl teacher = new TeacherDFAImpl(options, target);
+        LearnerBase<DFA> learner;
+        switch(algorithm) {
+        case "lstar":
+            options.algorithm = Options.Algorithm.DFA_LSTAR;
+            learner = new LearnerDFATableLStar(options, target.getAlphabet(), teacher);
+            break;
+        case "kv":
+            options.algorithm = Options.Algorithm.DFA_KV;
+            learner = new LearnerDFATreeKV(options, target.getAlphabet(), teacher);
+            break;
+        case "column-table":
+            options.algorithm = Options.Algorithm.DFA_COLUMN;
+            learner = new LearnerDFATableColumn(options, target.getAlphabet(), teacher);
+            break;
+        case "column-tree":
+            options.algorithm = Options.Algorithm.DFA_COLUMN;
+            options.structure = Options.Structure.TREE;
+            learner = new LearnerDFATreeColumn(options, target.getAlphabet(), teacher);
+            break;
+        default:
+            throw new UnsupportedOperationException("Unknown DFA learner " + algorithm);
+        }
+        return Targets.learn(learner, teacher);
+    }
+
+}
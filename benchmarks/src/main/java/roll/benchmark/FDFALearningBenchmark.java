@@ -0,0 +1,82 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import roll.automata.NBA;
+import roll.learner.nba.lomega.LearnerNBALOmega;
+import roll.main.Options;
+import roll.oracle.nba.TeacherNBAImpl;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * Table and tree based learning of periodic, syntactic and recurrent FDFAs
+ * for random NBAs
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FDFALearningBenchmark {
+    
+    @Param({"TABLE", "TREE"})
+    public Options.Structure structure;
+    
+    @Param({"PERIODIC", "SYNTACTIC", "RECURRENT"})
+    public Options.Algorithm algorithm;
+    
+    @Param({"4", "6", "8"})
+    public int numStates;
+    
+    @Param({"2"})
+    public int numLetters;
+    
+    private NBA target;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        target = Targets.getNBA(numStates, numLetters, 0);
+    }
+    
+    @Benchmark
+    public NBA learn() {
+        Options options = Targets.getOptions();
+        options.structure = structure;
+        options.algorithm = algorithm;
+        TeacherNBAImpl teacher = new TeacherNBAImpl(options, target);
+        LearnerNBALOmega learner = new LearnerNBALOmega(options, target.getAlphabet(), teacher);
+        return Targets.learn(learner, teacher);
+    }
+
+}
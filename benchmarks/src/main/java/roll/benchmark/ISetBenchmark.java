@@ -0,0 +1,133 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import roll.util.sets.ISet;
+import roll.util.sets.UtilISet;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * Integer set implementations, the sizes and spreads are chosen so that the
+ * adaptive set goes through its array, dense and sparse representations
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ISetBenchmark {
+    
+    @Param({"ADAPTIVE", "BITS", "TINTSET", "TREESET"})
+    public UtilISet.SetType type;
+    
+    @Param({"8", "256", "16384"})
+    public int numElems;
+    
+    // elements are drawn from [0, numElems * spread)
+    @Param({"2", "1024"})
+    public int spread;
+    
+    private int[] elems;
+    private ISet fst;
+    private ISet snd;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        UtilISet.setType(type);
+        Random r = new Random(Targets.SEED);
+        elems = new int[numElems];
+        for(int i = 0; i < numElems; i ++) {
+            elems[i] = r.nextInt(numElems * spread);
+        }
+        fst = build();
+        snd = build();
+        for(int i = 0; i < numElems; i += 2) {
+            snd.set(r.nextInt(numElems * spread));
+        }
+    }
+    
+    private ISet build() {
+        ISet result = UtilISet.newISet();
+        for(int elem : elems) {
+            result.set(elem);
+        }
+        return result;
+    }
+    
+    @Benchmark
+    public ISet set() {
+        return build();
+    }
+    
+    @Benchmark
+    public int iterate() {
+        int sum = 0;
+        for(int elem : fst) {
+            sum += elem;
+        }
+        return sum;
+    }
+    
+    @Benchmark
+    public int get() {
+        int num = 0;
+        for(int elem : elems) {
+            if(snd.get(elem + 1)) {
+                num ++;
+            }
+        }
+        return num;
+    }
+    
+    @Benchmark
+    public ISet or() {
+        ISet result = fst.clone();
+        result.or(snd);
+        return result;
+    }
+    
+    @Benchmark
+    public ISet and() {
+        ISet result = snd.clone();
+        result.and(fst);
+        return result;
+    }
+    
+    @Benchmark
+    public boolean subset() {
+        return fst.subsetOf(snd);
+    }
+
+}
@@ -0,0 +1,95 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mainfiles.RABIT;
+import roll.automata.NBA;
+import roll.automata.operations.nba.inclusion.NBAInclusionAntichain;
+import roll.automata.operations.nba.universality.NBAInclusionCheckRank;
+import roll.main.inclusion.congr.CongruenceSimulation;
+import roll.oracle.nba.rabit.UtilRABIT;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * Language inclusion between random NBAs, the sizes are kept small for the
+ * rank-based check. The native antichain-based check is measured against
+ * RABIT, which is the default inclusion check of the teachers
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NBAInclusionBenchmark {
+    
+    @Param({"3", "4", "5", "6"})
+    public int numStates;
+    
+    @Param({"2"})
+    public int numLetters;
+    
+    private NBA fst;
+    private NBA snd;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        fst = Targets.getNBA(numStates, numLetters, 0);
+        snd = Targets.getNBA(numStates, numLetters, 1);
+    }
+    
+    @Benchmark
+    public Boolean congruence() {
+        CongruenceSimulation checker = new CongruenceSimulation(fst, snd);
+        return checker.isIncluded();
+    }
+    
+    @Benchmark
+    public Boolean antichain() {
+        NBAInclusionAntichain checker = new NBAInclusionAntichain(fst, snd);
+        return checker.isIncluded();
+    }
+    
+    // RABIT changes its input automata, so they are converted in every call
+    @Benchmark
+    public boolean rabit() {
+        return RABIT.isIncluded(UtilRABIT.toRABITNBA(fst), UtilRABIT.toRABITNBA(snd));
+    }
+    
+    @Benchmark
+    public boolean rank() {
+        NBAInclusionCheckRank checker = new NBAInclusionCheckRank(fst, snd);
+        return checker.isIncluded();
+    }
+
+}
@@ -0,0 +1,85 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import roll.automata.NBA;
+import roll.automata.operations.NBAIntersectionCheck;
+import roll.automata.operations.NBAOperations;
+import roll.util.Pair;
+import roll.words.Word;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * Lasso membership and emptiness of the product of random NBAs
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NBAOperationsBenchmark {
+    
+    @Param({"8", "16", "32", "64"})
+    public int numStates;
+    
+    @Param({"2"})
+    public int numLetters;
+    
+    private NBA fst;
+    private NBA snd;
+    private List<Pair<Word, Word>> lassos;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        fst = Targets.getNBA(numStates, numLetters, 0);
+        snd = Targets.getNBA(numStates, numLetters, 1);
+        lassos = Targets.getLassos(fst.getAlphabet(), 256, numStates);
+    }
+    
+    @Benchmark
+    public void accepts(Blackhole hole) {
+        for(Pair<Word, Word> lasso : lassos) {
+            hole.consume(NBAOperations.accepts(fst, lasso.getLeft(), lasso.getRight()));
+        }
+    }
+    
+    @Benchmark
+    public boolean intersection() {
+        NBAIntersectionCheck checker = new NBAIntersectionCheck(fst, snd);
+        return checker.isEmpty();
+    }
+
+}
@@ -0,0 +1,110 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.benchmark;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import roll.automata.NBA;
+import roll.automata.operations.nba.inclusion.NBAInclusionCheckTool;
+import roll.main.Options;
+import roll.parser.Parser;
+import roll.parser.ba.ParserBA;
+import roll.parser.hoa.ParserHOA;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * Parsing random NBAs written in BA and HOA format
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParserBenchmark {
+    
+    @Param({"64", "256", "1024"})
+    public int numStates;
+    
+    @Param({"4"})
+    public int numLetters;
+    
+    private File fileBA;
+    private File fileHOA;
+    
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        NBA nba = Targets.getNBA(numStates, numLetters, 0);
+        fileBA = File.createTempFile("roll", ".ba");
+        fileHOA = File.createTempFile("roll", ".hoa");
+        write(fileBA, nba, false);
+        write(fileHOA, nba, true);
+    }
+    
+    private static void write(File file, NBA nba, boolean hoa) throws FileNotFoundException {
+        PrintStream out = new PrintStream(file);
+        if(hoa) {
+            NBAInclusionCheckTool.outputHOAStream(nba, out);
+        }else {
+            out.print(nba.toBA());
+        }
+        out.close();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fileBA.delete();
+        fileHOA.delete();
+    }
+    
+    @Benchmark
+    public NBA parseBA() {
+        Options options = Targets.getOptions();
+        Parser parser = new ParserBA(options, fileBA.getAbsolutePath());
+        NBA result = parser.parse();
+        parser.close();
+        return result;
+    }
+    
+    @Benchmark
+    public NBA parseHOA() {
+        Options options = Targets.getOptions();
+        Parser parser = new ParserHOA(options, fileHOA.getAbsolutePath());
+        NBA result = parser.parse();
+        parser.close();
+        return result;
+    }
+
+}
@@ -0,0 +1,150 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.benchmark;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import dk.brics.automaton.Automaton;
+import roll.automata.DFA;
+import roll.automata.NBA;
+import roll.automata.operations.DFAGenerator;
+import roll.automata.operations.DFAOperations;
+import roll.automata.operations.NBAIntersectionCheck;
+import roll.automata.operations.NBAGenerator;
+import roll.learner.LearnerBase;
+import roll.main.Options;
+import roll.oracle.Teacher;
+import roll.query.Query;
+import roll.table.HashableValue;
+import roll.util.Pair;
+import roll.words.Alphabet;
+import roll.words.Word;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * Seeded inputs and the learning loop shared by the benchmarks, the same
+ * parameters always give the same automata so that runs are comparable
+ * */
+final class Targets {
+    
+    static final long SEED = 20170101L;
+    
+    // upper bound on equivalence queries, some learners do not converge on every target
+    static final int MAX_ROUNDS = 64;
+    
+    private static final int MAX_ATTEMPTS = 100;
+    
+    private Targets() {
+    }
+    
+    static Options getOptions() {
+        Options options = new Options(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        });
+        options.verbose = 0;
+        return options;
+    }
+    
+    static Alphabet getAlphabet(int numLetter) {
+        Alphabet alphabet = new Alphabet();
+        for(int letter = 0; letter < numLetter; letter ++) {
+            alphabet.addLetter((char)('a' + letter));
+        }
+        return alphabet;
+    }
+    
+    private static long getSeed(int numState, int index, int attempt) {
+        return SEED + 1009L * attempt + 31L * index + numState;
+    }
+    
+    // many generated DFAs collapse to a few states, take the first seed whose
+    // minimal DFA keeps at least half of the states
+    static DFA getDFA(int numState, int numLetter, int index) {
+        Alphabet alphabet = getAlphabet(numLetter);
+        DFA result = null;
+        for(int attempt = 0; attempt < MAX_ATTEMPTS; attempt ++) {
+            result = DFAGenerator.getRandomDFA(alphabet, numState, getSeed(numState, index, attempt));
+            Automaton dkDFA = DFAOperations.toDkDFA(result);
+            dkDFA.minimize();
+            if(2 * dkDFA.getNumberOfStates() >= numState) break;
+        }
+        return result;
+    }
+    
+    // take the first seed whose NBA has a nonempty language and at least as
+    // many transitions as states in total, single states may have none
+    static NBA getNBA(int numState, int numLetter, int index) {
+        for(int attempt = 0; attempt < MAX_ATTEMPTS; attempt ++) {
+            NBA result = NBAGenerator.getRandomNBA(numState, numLetter, getSeed(numState, index, attempt));
+            int numTrans = 0;
+            for(int state = 0; state < numState; state ++) {
+                for(int letter = 0; letter < numLetter; letter ++) {
+                    numTrans += result.getSuccessors(state, letter).cardinality();
+                }
+            }
+            if(numTrans >= numState && ! new NBAIntersectionCheck(result, result).isEmpty()) {
+                return result;
+            }
+        }
+        throw new UnsupportedOperationException("No random NBA with " + numState + " states and "
+                + numLetter + " letters has enough transitions and a nonempty language after " + MAX_ATTEMPTS + " seeds");
+    }
+    
+    // random lasso words u v^w with |u| < maxLength and 0 < |v| <= maxLength
+    static List<Pair<Word, Word>> getLassos(Alphabet alphabet, int num, int maxLength) {
+        Random r = new Random(SEED);
+        List<Pair<Word, Word>> lassos = new ArrayList<>(num);
+        for(int i = 0; i < num; i ++) {
+            int[] stem = new int[r.nextInt(maxLength)];
+            int[] loop = new int[1 + r.nextInt(maxLength)];
+            for(int j = 0; j < stem.length; j ++) {
+                stem[j] = r.nextInt(alphabet.getLetterSize());
+            }
+            for(int j = 0; j < loop.length; j ++) {
+                loop[j] = r.nextInt(alphabet.getLetterSize());
+            }
+            lassos.add(new Pair<>(alphabet.getArrayWord(stem), alphabet.getArrayWord(loop)));
+        }
+        return lassos;
+    }
+    
+    /**
+     * the loop of Executor, returns the final hypothesis after at most MAX_ROUNDS
+     * equivalence queries
+     * */
+    static <M> M learn(LearnerBase<M> learner, Teacher<M, Query<HashableValue>, HashableValue> teacher) {
+        learner.startLearning();
+        for(int round = 0; round < MAX_ROUNDS; round ++) {
+            M hypothesis = learner.getHypothesis();
+            Query<HashableValue> ceQuery = teacher.answerEquivalenceQuery(hypothesis);
+            boolean isEq = ceQuery.getQueryAnswer().get();
+            if(isEq) {
+                break;
+            }
+            ceQuery.answerQuery(null);
+            learner.refineHypothesis(ceQuery);
+        }
+        return learner.getHypothesis();
+    }
+
+}
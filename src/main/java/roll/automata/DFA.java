@@ -34,6 +34,16 @@ public class DFA extends NFA {
         return AutType.DFA;
     }
     
+    @Override
+    public FrozenDFA freeze() {
+        return (FrozenDFA)super.freeze();
+    }
+    
+    @Override
+    protected FrozenNFA makeFrozen() {
+        return new FrozenDFA(this);
+    }
+    
     // specialized for DFA
     public int getSuccessor(Word word) {
         return getSuccessor(getInitialState(), word);
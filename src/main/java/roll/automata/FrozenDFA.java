@@ -0,0 +1,88 @@
+/* Copyright (c) 2018 -                                                   */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.automata;
+
+import roll.words.Word;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * Immutable snapshot of the transition function of a DFA as a dense table,
+ * the successor of state s on letter a is stored at s * |alphabet| + a and
+ * is -1 if it is undefined.
+ * <br>
+ * The index range of {@link FrozenNFA} is supported as well, which makes a
+ * snapshot of a DFA usable wherever a snapshot of an NFA is expected.
+ * */
+
+public class FrozenDFA extends FrozenNFA {
+    
+    private final int[] successors;
+    
+    FrozenDFA(DFA dfa) {
+        super(dfa, false);
+        this.successors = new int[numStates * numLetters];
+        for(int state = 0; state < numStates; state ++) {
+            for(int letter = 0; letter < numLetters; letter ++) {
+                successors[state * numLetters + letter] = dfa.getState(state).getSuccessor(letter);
+            }
+        }
+    }
+    
+    @Override
+    public int getTransitionSize() {
+        int num = 0;
+        for(final int succ : successors) {
+            if(succ >= 0) ++ num;
+        }
+        return num;
+    }
+    
+    @Override
+    public int getBegin(int state, int letter) {
+        return state * numLetters + letter;
+    }
+    
+    @Override
+    public int getEnd(int state, int letter) {
+        int index = state * numLetters + letter;
+        return successors[index] < 0 ? index : index + 1;
+    }
+    
+    @Override
+    public int getTarget(int index) {
+        return successors[index];
+    }
+    
+    @Override
+    public int getSuccessor(int state, int letter) {
+        return successors[state * numLetters + letter];
+    }
+    
+    public int getSuccessor(int state, Word word) {
+        int currState = state;
+        for(int index = 0; index < word.length() && currState >= 0; index ++) {
+            currState = successors[currState * numLetters + word.getLetter(index)];
+        }
+        return currState;
+    }
+    
+    public int getSuccessor(Word word) {
+        return getSuccessor(initialState, word);
+    }
+
+}
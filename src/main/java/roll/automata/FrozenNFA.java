@@ -0,0 +1,145 @@
+/* Copyright (c) 2018 -                                                   */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.automata;
+
+import roll.util.sets.ISet;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * Immutable snapshot of the transition relation of an NFA in compressed
+ * sparse row form: the successors of state s on letter a are
+ * getTarget(i) for getBegin(s, a) <= i < getEnd(s, a).
+ * <br>
+ * None of the read methods allocates, so they can be used in inner loops.
+ * A snapshot is obtained via {@link NFA#freeze()}.
+ * */
+
+public class FrozenNFA {
+    
+    protected final int numStates;
+    protected final int numLetters;
+    protected final int initialState;
+    protected final long[] finalStates;
+    // offsets has numStates * numLetters + 1 entries
+    private final int[] offsets;
+    private final int[] targets;
+    
+    protected FrozenNFA(NFA nfa, boolean sparse) {
+        this.numStates = nfa.getStateSize();
+        this.numLetters = nfa.getAlphabetSize();
+        this.initialState = nfa.getInitialState();
+        this.finalStates = new long[(numStates + 63) >>> 6];
+        for(final int fin : nfa.finalStates) {
+            finalStates[fin >>> 6] |= 1L << fin;
+        }
+        if(! sparse) {
+            this.offsets = null;
+            this.targets = null;
+            return;
+        }
+        this.offsets = new int[numStates * numLetters + 1];
+        int numTrans = 0;
+        for(int state = 0; state < numStates; state ++) {
+            for(int letter = 0; letter < numLetters; letter ++) {
+                offsets[state * numLetters + letter] = numTrans;
+                numTrans += nfa.getState(state).getSuccessorSize(letter);
+            }
+        }
+        offsets[numStates * numLetters] = numTrans;
+        this.targets = new int[numTrans];
+        int index = 0;
+        for(int state = 0; state < numStates; state ++) {
+            for(int letter = 0; letter < numLetters; letter ++) {
+                ISet succs = nfa.getState(state).getSuccessorsOrNull(letter);
+                if(succs == null) continue;
+                for(final int succ : succs) {
+                    targets[index ++] = succ;
+                }
+            }
+        }
+    }
+    
+    FrozenNFA(NFA nfa) {
+        this(nfa, true);
+    }
+    
+    public int getStateSize() {
+        return numStates;
+    }
+    
+    public int getAlphabetSize() {
+        return numLetters;
+    }
+    
+    public int getInitialState() {
+        return initialState;
+    }
+    
+    public boolean isFinal(int state) {
+        return (finalStates[state >>> 6] & (1L << state)) != 0;
+    }
+    
+    // number of transitions
+    public int getTransitionSize() {
+        return targets.length;
+    }
+    
+    // first index of the successors of state on letter
+    public int getBegin(int state, int letter) {
+        return offsets[state * numLetters + letter];
+    }
+    
+    // last index (exclusive) of the successors of state on letter
+    public int getEnd(int state, int letter) {
+        return offsets[state * numLetters + letter + 1];
+    }
+    
+    public int getTarget(int index) {
+        return targets[index];
+    }
+    
+    public int getSuccessorSize(int state, int letter) {
+        return getEnd(state, letter) - getBegin(state, letter);
+    }
+    
+    // get first successor, -1 if there is none
+    public int getSuccessor(int state, int letter) {
+        int begin = getBegin(state, letter);
+        return begin < getEnd(state, letter) ? getTarget(begin) : -1;
+    }
+    
+    public boolean hasSuccessor(int state, int letter, int succ) {
+        for(int index = getBegin(state, letter); index < getEnd(state, letter); index ++) {
+            if(getTarget(index) == succ) return true;
+        }
+        return false;
+    }
+    
+    public boolean isEnabled(int state, int letter) {
+        return getBegin(state, letter) < getEnd(state, letter);
+    }
+    
+    // the first enabled letter of state which is not less than fromLetter, -1 if there is none
+    public int nextEnabledLetter(int state, int fromLetter) {
+        for(int letter = fromLetter; letter < numLetters; letter ++) {
+            if(isEnabled(state, letter)) return letter;
+        }
+        return -1;
+    }
+
+}
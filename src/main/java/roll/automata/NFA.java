@@ -37,6 +37,7 @@ public class NFA implements Acceptor {
     protected int initialState = -1;  // no initial state available at first
     protected final ISet finalStates; // final states
     protected Accept accept;
+    private FrozenNFA frozen;     // snapshot of the transitions, dropped on modification
     
     public NFA(final Alphabet alphabet) {
         this.alphabet = alphabet;
@@ -112,8 +113,31 @@ public class NFA implements Acceptor {
     
     // -------------------------------------------
     
+    /**
+     * get an immutable compact copy of the transitions, it is cached until
+     * this automaton is modified
+     * */
+    public FrozenNFA freeze() {
+        if(frozen == null || frozen.getStateSize() != getStateSize()
+        || frozen.getAlphabetSize() != getAlphabetSize()) {
+            frozen = makeFrozen();
+        }
+        return frozen;
+    }
+    
+    protected FrozenNFA makeFrozen() {
+        return new FrozenNFA(this);
+    }
+    
+    void modified() {
+        frozen = null;
+    }
+    
+    // -------------------------------------------
+    
     public void setInitial(int state) {
         initialState = state;
+        modified();
     }
     
     public void setInitial(StateNFA state) {
@@ -123,12 +147,14 @@ public class NFA implements Acceptor {
     public void setFinal(int state) {
         assert checkValidState(state);
         finalStates.set(state);
+        modified();
     }
     
     // -------------------------------------------
     public StateNFA createState() {
         StateNFA state = makeState(states.size());
         states.add(state);
+        modified();
         return state;
     }
     
@@ -63,6 +63,7 @@ public class StateNFA {
         }
         succs.set(state);
         successors.put(letter, succs);
+        nfa.modified();
     }
     
     public ISet getSuccessors(int letter) {
@@ -74,10 +75,21 @@ public class StateNFA {
         return succs;
     }
     
+    // null if there is no successor
+    ISet getSuccessorsOrNull(int letter) {
+        return successors.get(letter);
+    }
+    
+    public int getSuccessorSize(int letter) {
+        ISet succs = successors.get(letter);
+        return succs == null ? 0 : succs.cardinality();
+    }
+    
     // get first successor
     public int getSuccessor(int letter) {
-        ISet succs = getSuccessors(letter);
-        if(succs.isEmpty()) {
+        assert nfa.checkValidLetter(letter);
+        ISet succs = successors.get(letter);
+        if(succs == null || succs.isEmpty()) {
             return -1;
         }else {
             return succs.iterator().next();
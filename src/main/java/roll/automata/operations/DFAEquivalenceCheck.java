@@ -0,0 +1,193 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.automata.operations;
+
+import roll.automata.DFA;
+import roll.automata.FrozenDFA;
+import roll.words.Alphabet;
+import roll.words.Word;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * Equivalence check of two DFAs by the algorithm of Hopcroft and Karp
+ * <br>
+ * States of both DFAs are the elements of one union-find structure, the pair
+ * of initial states is merged first and the pairs of successors are merged in
+ * breadth-first order unless they are already in the same class. The DFAs are
+ * not equivalent iff a merged pair disagrees on acceptance. Since pairs are
+ * merged in the order of their depth, the word leading to the first such pair
+ * is a shortest distinguishing word.
+ * <br>
+ * Undefined successors go to a rejecting sink added to each DFA.
+ * */
+
+public class DFAEquivalenceCheck {
+    
+    private final FrozenDFA fstOp;
+    private final FrozenDFA sndOp;
+    private final Alphabet alphabet;
+    private final int numLetters;
+    // sink of fstOp is numFst - 1, sink of sndOp is numFst + numSnd - 1
+    private final int numFst;
+    private final int numSnd;
+    
+    private int[] parents;
+    private int[] ranks;
+    
+    private Boolean equivalent;
+    private Word counterexample;
+    
+    public DFAEquivalenceCheck(DFA fstOp, DFA sndOp) {
+        this(fstOp.freeze(), sndOp.freeze(), fstOp.getAlphabet());
+    }
+    
+    public DFAEquivalenceCheck(FrozenDFA fstOp, FrozenDFA sndOp, Alphabet alphabet) {
+        assert fstOp != null && sndOp != null;
+        assert fstOp.getAlphabetSize() == sndOp.getAlphabetSize();
+        this.fstOp = fstOp;
+        this.sndOp = sndOp;
+        this.alphabet = alphabet;
+        this.numLetters = fstOp.getAlphabetSize();
+        this.numFst = fstOp.getStateSize() + 1;
+        this.numSnd = sndOp.getStateSize() + 1;
+    }
+    
+    public boolean isEquivalent() {
+        if(equivalent == null) {
+            equivalent = check();
+        }
+        return equivalent;
+    }
+    
+    /**
+     * @return a shortest word accepted by exactly one of the DFAs, null if they
+     *         are equivalent
+     * */
+    public Word getCounterexample() {
+        isEquivalent();
+        return counterexample;
+    }
+    
+    private int getFstSuccessor(int state, int letter) {
+        if(state == numFst - 1) {
+            return state;
+        }
+        int succ = fstOp.getSuccessor(state, letter);
+        return succ < 0 ? numFst - 1 : succ;
+    }
+    
+    private int getSndSuccessor(int state, int letter) {
+        if(state == numSnd - 1) {
+            return state;
+        }
+        int succ = sndOp.getSuccessor(state, letter);
+        return succ < 0 ? numSnd - 1 : succ;
+    }
+    
+    private boolean isFstFinal(int state) {
+        return state < numFst - 1 && fstOp.isFinal(state);
+    }
+    
+    private boolean isSndFinal(int state) {
+        return state < numSnd - 1 && sndOp.isFinal(state);
+    }
+    
+    private int find(int elem) {
+        while(parents[elem] != elem) {
+            // path halving
+            parents[elem] = parents[parents[elem]];
+            elem = parents[elem];
+        }
+        return elem;
+    }
+    
+    // merge the classes of fst and snd, false if they are the same class
+    private boolean union(int fst, int snd) {
+        int fstRoot = find(fst), sndRoot = find(snd + numFst);
+        if(fstRoot == sndRoot) {
+            return false;
+        }
+        if(ranks[fstRoot] < ranks[sndRoot]) {
+            parents[fstRoot] = sndRoot;
+        }else if(ranks[fstRoot] > ranks[sndRoot]) {
+            parents[sndRoot] = fstRoot;
+        }else {
+            parents[sndRoot] = fstRoot;
+            ranks[fstRoot] ++;
+        }
+        return true;
+    }
+    
+    private boolean check() {
+        parents = new int[numFst + numSnd];
+        ranks = new int[numFst + numSnd];
+        for(int elem = 0; elem < parents.length; elem ++) {
+            parents[elem] = elem;
+        }
+        // every merge joins two classes, so there are less than numFst + numSnd pairs
+        int capacity = numFst + numSnd;
+        int[] fstStates = new int[capacity];
+        int[] sndStates = new int[capacity];
+        int[] preds = new int[capacity];
+        int[] letters = new int[capacity];
+        int size = 0;
+        fstStates[0] = fstOp.getInitialState();
+        sndStates[0] = sndOp.getInitialState();
+        preds[0] = -1;
+        union(fstStates[0], sndStates[0]);
+        size ++;
+        if(isFstFinal(fstStates[0]) != isSndFinal(sndStates[0])) {
+            counterexample = getWord(preds, letters, 0);
+            return false;
+        }
+        for(int head = 0; head < size; head ++) {
+            final int fst = fstStates[head], snd = sndStates[head];
+            for(int letter = 0; letter < numLetters; letter ++) {
+                int fstSucc = getFstSuccessor(fst, letter);
+                int sndSucc = getSndSuccessor(snd, letter);
+                if(! union(fstSucc, sndSucc)) {
+                    continue;
+                }
+                fstStates[size] = fstSucc;
+                sndStates[size] = sndSucc;
+                preds[size] = head;
+                letters[size] = letter;
+                size ++;
+                if(isFstFinal(fstSucc) != isSndFinal(sndSucc)) {
+                    counterexample = getWord(preds, letters, size - 1);
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    // the letters on the trace from the initial pair to the pair at index
+    private Word getWord(int[] preds, int[] letters, int index) {
+        int length = 0;
+        for(int curr = index; preds[curr] >= 0; curr = preds[curr]) {
+            length ++;
+        }
+        int[] word = new int[length];
+        for(int curr = index; preds[curr] >= 0; curr = preds[curr]) {
+            word[-- length] = letters[curr];
+        }
+        return alphabet.getArrayWord(word);
+    }
+
+}
@@ -0,0 +1,362 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.automata.operations;
+
+import java.util.Arrays;
+
+import roll.automata.DFA;
+import roll.automata.FrozenDFA;
+import roll.util.sets.ISet;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * Minimization of partial DFAs by the partition refinement of Valmari and
+ * Lehtinen in O(m log n) time, m is the number of transitions.
+ * <br>
+ * States which are not reachable from the initial state or can not reach a
+ * final state are removed first, so the result is the minimal partial DFA
+ * without a sink. The states of the input are mapped to the blocks of the
+ * result, which are the states of the minimal DFA.
+ * <br>
+ * See "Fast brief practical DFA minimization" by Antti Valmari,
+ * Information Processing Letters 112(6), 2012.
+ * */
+
+public class DFAMinimizer {
+    
+    private final DFA dfa;
+    private final FrozenDFA frozen;
+    private final int numStates;
+    private final int numLetters;
+    private final int initialState;
+    private final ISet finalStates;
+    
+    // block of every state, -1 for removed states
+    private final int[] blocks;
+    private int numBlocks;
+    private DFA minimal;
+    
+    public DFAMinimizer(DFA dfa) {
+        this(dfa, dfa.getInitialState(), dfa.getFinalStates());
+    }
+    
+    /**
+     * minimize the DFA with the given initial and final states
+     * */
+    public DFAMinimizer(DFA dfa, int initialState, ISet finalStates) {
+        assert dfa != null && finalStates != null;
+        this.dfa = dfa;
+        this.frozen = dfa.freeze();
+        this.numStates = dfa.getStateSize();
+        this.numLetters = dfa.getAlphabetSize();
+        this.initialState = initialState;
+        this.finalStates = finalStates;
+        this.blocks = new int[numStates];
+        minimize();
+    }
+    
+    // number of states of the minimal DFA
+    public int getBlockSize() {
+        return numBlocks;
+    }
+    
+    /**
+     * @return the state of the minimal DFA which state is mapped to, -1 if state
+     *         is removed since it is unreachable or can not reach a final state
+     * */
+    public int getBlock(int state) {
+        return blocks[state];
+    }
+    
+    public int[] getBlocks() {
+        return blocks.clone();
+    }
+    
+    /**
+     * the minimal DFA, it has a single non-final state if the language is empty
+     * */
+    public DFA getMinimalDFA() {
+        if(minimal == null) {
+            minimal = buildMinimalDFA();
+        }
+        return minimal;
+    }
+    
+    /**
+     * Partition of the integers from 0 to n - 1, the elements of each set are
+     * consecutive in elems and the marked elements are moved to its front
+     * */
+    private static class Partition {
+        int numSets;
+        final int[] elems;
+        final int[] locations;
+        final int[] sets;
+        final int[] firsts;
+        final int[] pasts;
+        // number of marked elements of each set and the touched sets
+        final int[] marked;
+        final int[] touched;
+        int numTouched;
+        
+        Partition(int size) {
+            numSets = size > 0 ? 1 : 0;
+            elems = new int[size];
+            locations = new int[size];
+            sets = new int[size];
+            firsts = new int[size];
+            pasts = new int[size];
+            marked = new int[size + 1];
+            touched = new int[size + 1];
+            for(int i = 0; i < size; i ++) {
+                elems[i] = i;
+                locations[i] = i;
+            }
+            if(size > 0) {
+                pasts[0] = size;
+            }
+        }
+        
+        void mark(int elem) {
+            int set = sets[elem], i = locations[elem], j = firsts[set] + marked[set];
+            if(i < j) {
+                return;
+            }
+            elems[i] = elems[j];
+            locations[elems[i]] = i;
+            elems[j] = elem;
+            locations[elem] = j;
+            if(marked[set] ++ == 0) {
+                touched[numTouched ++] = set;
+            }
+        }
+        
+        // split every touched set into its marked and unmarked parts, the smaller one is new
+        void split() {
+            while(numTouched > 0) {
+                int set = touched[-- numTouched], j = firsts[set] + marked[set];
+                if(j == pasts[set]) {
+                    marked[set] = 0;
+                    continue;
+                }
+                if(marked[set] <= pasts[set] - j) {
+                    firsts[numSets] = firsts[set];
+                    pasts[numSets] = j;
+                    firsts[set] = j;
+                }else {
+                    pasts[numSets] = pasts[set];
+                    firsts[numSets] = j;
+                    pasts[set] = j;
+                }
+                for(int i = firsts[numSets]; i < pasts[numSets]; i ++) {
+                    sets[elems[i]] = numSets;
+                }
+                marked[set] = 0;
+                marked[numSets ++] = 0;
+            }
+        }
+    }
+    
+    private void minimize() {
+        // states reachable from the initial state and reaching a final state
+        boolean[] reachable = new boolean[numStates];
+        int[] queue = new int[numStates];
+        int size = 0;
+        reachable[initialState] = true;
+        queue[size ++] = initialState;
+        int numTrans = 0;
+        for(int head = 0; head < size; head ++) {
+            final int state = queue[head];
+            for(int letter = 0; letter < numLetters; letter ++) {
+                int succ = frozen.getSuccessor(state, letter);
+                if(succ < 0) continue;
+                numTrans ++;
+                if(! reachable[succ]) {
+                    reachable[succ] = true;
+                    queue[size ++] = succ;
+                }
+            }
+        }
+        // predecessors of the reachable states
+        int[] predOffsets = new int[numStates + 1];
+        int[] preds = new int[numTrans];
+        for(int state = 0; state < numStates; state ++) {
+            if(! reachable[state]) continue;
+            for(int letter = 0; letter < numLetters; letter ++) {
+                int succ = frozen.getSuccessor(state, letter);
+                if(succ >= 0) predOffsets[succ + 1] ++;
+            }
+        }
+        for(int state = 0; state < numStates; state ++) {
+            predOffsets[state + 1] += predOffsets[state];
+        }
+        int[] cursors = Arrays.copyOf(predOffsets, numStates);
+        for(int state = 0; state < numStates; state ++) {
+            if(! reachable[state]) continue;
+            for(int letter = 0; letter < numLetters; letter ++) {
+                int succ = frozen.getSuccessor(state, letter);
+                if(succ >= 0) preds[cursors[succ] ++] = state;
+            }
+        }
+        boolean[] live = new boolean[numStates];
+        size = 0;
+        for(final int fin : finalStates) {
+            if(fin < numStates && reachable[fin] && ! live[fin]) {
+                live[fin] = true;
+                queue[size ++] = fin;
+            }
+        }
+        for(int head = 0; head < size; head ++) {
+            final int state = queue[head];
+            for(int i = predOffsets[state]; i < predOffsets[state + 1]; i ++) {
+                if(! live[preds[i]]) {
+                    live[preds[i]] = true;
+                    queue[size ++] = preds[i];
+                }
+            }
+        }
+        
+        Arrays.fill(blocks, -1);
+        if(! live[initialState]) {
+            // empty language
+            blocks[initialState] = 0;
+            numBlocks = 1;
+            return;
+        }
+        // number the live states and their transitions
+        int numLive = size;
+        int[] liveStates = queue;
+        int[] liveIds = new int[numStates];
+        for(int i = 0; i < numLive; i ++) {
+            liveIds[liveStates[i]] = i;
+        }
+        int numLiveTrans = 0;
+        for(int i = 0; i < numLive; i ++) {
+            for(int letter = 0; letter < numLetters; letter ++) {
+                int succ = frozen.getSuccessor(liveStates[i], letter);
+                if(succ >= 0 && live[succ]) numLiveTrans ++;
+            }
+        }
+        // transitions sorted by letters, which are the initial cords
+        int[] tails = new int[numLiveTrans];
+        int[] heads = new int[numLiveTrans];
+        int[] letterOffsets = new int[numLetters + 1];
+        for(int i = 0; i < numLive; i ++) {
+            for(int letter = 0; letter < numLetters; letter ++) {
+                int succ = frozen.getSuccessor(liveStates[i], letter);
+                if(succ >= 0 && live[succ]) letterOffsets[letter + 1] ++;
+            }
+        }
+        for(int letter = 0; letter < numLetters; letter ++) {
+            letterOffsets[letter + 1] += letterOffsets[letter];
+        }
+        int[] letterCursors = Arrays.copyOf(letterOffsets, numLetters);
+        for(int i = 0; i < numLive; i ++) {
+            for(int letter = 0; letter < numLetters; letter ++) {
+                int succ = frozen.getSuccessor(liveStates[i], letter);
+                if(succ >= 0 && live[succ]) {
+                    int trans = letterCursors[letter] ++;
+                    tails[trans] = i;
+                    heads[trans] = liveIds[succ];
+                }
+            }
+        }
+        // incoming transitions of every live state
+        int[] inOffsets = new int[numLive + 1];
+        int[] incoming = new int[numLiveTrans];
+        for(int trans = 0; trans < numLiveTrans; trans ++) {
+            inOffsets[heads[trans] + 1] ++;
+        }
+        for(int i = 0; i < numLive; i ++) {
+            inOffsets[i + 1] += inOffsets[i];
+        }
+        int[] inCursors = Arrays.copyOf(inOffsets, numLive);
+        for(int trans = 0; trans < numLiveTrans; trans ++) {
+            incoming[inCursors[heads[trans]] ++] = trans;
+        }
+        
+        Partition states = new Partition(numLive);
+        for(int i = 0; i < numLive; i ++) {
+            if(finalStates.get(liveStates[i])) {
+                states.mark(i);
+            }
+        }
+        states.split();
+        Partition cords = new Partition(numLiveTrans);
+        if(numLiveTrans > 0) {
+            cords.numSets = 0;
+            for(int letter = 0; letter < numLetters; letter ++) {
+                if(letterOffsets[letter] == letterOffsets[letter + 1]) continue;
+                cords.firsts[cords.numSets] = letterOffsets[letter];
+                cords.pasts[cords.numSets] = letterOffsets[letter + 1];
+                for(int trans = letterOffsets[letter]; trans < letterOffsets[letter + 1]; trans ++) {
+                    cords.sets[trans] = cords.numSets;
+                }
+                cords.numSets ++;
+            }
+        }
+        // the first block needs not be a splitter
+        int block = 1, cord = 0;
+        while(cord < cords.numSets) {
+            for(int i = cords.firsts[cord]; i < cords.pasts[cord]; i ++) {
+                states.mark(tails[cords.elems[i]]);
+            }
+            states.split();
+            cord ++;
+            while(block < states.numSets) {
+                for(int i = states.firsts[block]; i < states.pasts[block]; i ++) {
+                    int state = states.elems[i];
+                    for(int j = inOffsets[state]; j < inOffsets[state + 1]; j ++) {
+                        cords.mark(incoming[j]);
+                    }
+                }
+                cords.split();
+                block ++;
+            }
+        }
+        
+        numBlocks = states.numSets;
+        for(int i = 0; i < numLive; i ++) {
+            blocks[liveStates[i]] = states.sets[i];
+        }
+    }
+    
+    private DFA buildMinimalDFA() {
+        DFA result = new DFA(dfa.getAlphabet());
+        for(int block = 0; block < numBlocks; block ++) {
+            result.createState();
+        }
+        result.setInitial(blocks[initialState]);
+        boolean[] done = new boolean[numBlocks];
+        for(int state = 0; state < numStates; state ++) {
+            int block = blocks[state];
+            if(block < 0 || done[block]) continue;
+            done[block] = true;
+            if(finalStates.get(state)) {
+                result.setFinal(block);
+            }
+            for(int letter = 0; letter < numLetters; letter ++) {
+                int succ = frozen.getSuccessor(state, letter);
+                if(succ >= 0 && blocks[succ] >= 0) {
+                    result.getState(block).addTransition(letter, blocks[succ]);
+                }
+            }
+        }
+        return result;
+    }
+
+}
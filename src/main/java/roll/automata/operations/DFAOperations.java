@@ -17,8 +17,6 @@
 package roll.automata.operations;
 
 import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Queue;
 import java.util.Set;
 
 import dk.brics.automaton.Automaton;
@@ -26,7 +24,6 @@ import dk.brics.automaton.State;
 import dk.brics.automaton.Transition;
 import gnu.trove.map.TIntObjectMap;
 import gnu.trove.map.TObjectIntMap;
-import gnu.trove.map.hash.TIntObjectHashMap;
 import gnu.trove.map.hash.TObjectIntHashMap;
 import roll.automata.DFA;
 import roll.util.sets.ISet;
@@ -84,39 +81,21 @@ public class DFAOperations {
     
     // Transfers a DFA into a dk.brics.automaton
     // with specific initial and final state.
+    // The result is minimal, it is minimized by DFAMinimizer before the transfer
     public static Automaton toDkDFA(DFA dfa, int init, int fin){
-        Automaton dkAut = new Automaton();
-        TIntObjectMap<State> map = new TIntObjectHashMap<>();
-        Queue<Integer> queue = new LinkedList<>();
-        State initState = getState(map, init);
-        dkAut.setInitialState(initState);
-        queue.add(init);
-        ISet visited = UtilISet.newISet();
-        
-        while(! queue.isEmpty()) {
-            int stateNr = queue.poll();
-            if(visited.get(stateNr)) continue;
-            visited.set(stateNr);
-            State state = getState(map, stateNr);
-            for (int letter = 0; letter < dfa.getAlphabetSize(); letter ++) {
-                int succNr =  dfa.getSuccessor(stateNr, letter);
-                State stateSucc = getState(map, succNr);
-                state.addTransition(
-                        new Transition(dfa.getAlphabet().getLetter(letter),
-                        stateSucc));
-                if(! visited.get(succNr)) {
-                    queue.add(succNr);
-                }
-            }
-        }
-        
-        getState(map, fin).setAccept(true);
-        dkAut.setDeterministic(true);
+        ISet finals = UtilISet.newISet();
+        finals.set(fin);
+        DFAMinimizer minimizer = new DFAMinimizer(dfa, init, finals);
+        Automaton dkAut = toDkDFA(minimizer.getMinimalDFA());
         dkAut.restoreInvariant();
-        dkAut.minimize();
         return dkAut;
     }
     
+    // the minimal partial DFA accepting the same language as dfa
+    public static DFA minimize(DFA dfa) {
+        return new DFAMinimizer(dfa).getMinimalDFA();
+    }
+    
     public static DFA fromDkDFA(Automaton dkAut) {
         State init = dkAut.getInitialState();
         TObjectIntMap<State> map = new TObjectIntHashMap<>();
@@ -0,0 +1,238 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.automata.operations;
+
+import java.util.ArrayDeque;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import roll.automata.DFA;
+import roll.automata.FDFA;
+import roll.util.Pair;
+import roll.words.Alphabet;
+import roll.words.Word;
+
+/**
+ * Breadth-first search for the shortest decomposition u'$v' of the lasso word
+ * prefix(suffix)^w, where u' = prefix suffix^k suffix[0..i) and v' is a power of
+ * the i-th rotation of suffix, in the product of the lasso with an FDFA.
+ * <br>
+ * This is the product of D_{u$v} from FDFAOperations.buildDDollar with D_1, D_2
+ * or the dollar automaton of an over-approximation, explored on the fly over
+ * integer letters. Among the shortest words the lexicographically least one in
+ * the order of the characters of the letters and $ is returned.
+ *
+ * @author Yong Li (liyong@ios.ac.cn)
+ * */
+class DollarWordSearch {
+
+    // what v' has to satisfy after u' reaches the leading state s
+    enum Mode {
+        ACCEPTED,     // v' is accepted by A^s and loops on s
+        REJECTED,     // v' is rejected by A^s and loops on s
+        PLUS          // v' is in (L(A^s_f) and loops on s)^+ for the given s and f
+    }
+
+    private final FDFA fdfa;
+    private final DFA leadDFA;
+    private final Mode mode;
+    // the leading state and the final state of A^s in PLUS mode
+    private final int plusState;
+    private final int plusFinal;
+    private final Alphabet alphabet;
+    private final int[] prefix;
+    private final int[] suffix;
+    private final int numLeadStates;
+    private final int maxProgStates;
+
+    DollarWordSearch(FDFA fdfa, Mode mode, int plusState, int plusFinal, Word prefix, Word suffix) {
+        assert suffix.length() > 0;
+        this.fdfa = fdfa;
+        this.leadDFA = fdfa.getLeadingFA();
+        this.mode = mode;
+        this.plusState = plusState;
+        this.plusFinal = plusFinal;
+        this.alphabet = fdfa.getAlphabet();
+        Pair<Word, Word> normalForm = Alphabet.getNormalForm(prefix, suffix);
+        this.prefix = toArray(normalForm.getLeft());
+        this.suffix = toArray(normalForm.getRight());
+        this.numLeadStates = leadDFA.getStateSize();
+        int max = 0;
+        for(int state = 0; state < numLeadStates; state ++) {
+            max = Math.max(max, fdfa.getProgressFA(state).getStateSize());
+        }
+        this.maxProgStates = max;
+    }
+
+    private static int[] toArray(Word word) {
+        int[] letters = new int[word.length()];
+        for(int i = 0; i < word.length(); i ++) {
+            letters[i] = word.getLetter(i);
+        }
+        return letters;
+    }
+
+    /**
+     * A node before $ is (pos, lead), pos < |u| is in the prefix and the others
+     * are in the loop. A node after $ is (rot, start, pos, lead, prog) where rot is
+     * the position in the loop where $ has been read, start the leading state at $,
+     * pos the number of letters read modulo |v| (|v| once a power is complete) and
+     * prog the state of the progress DFA of start.
+     * */
+    private static class Node {
+        final boolean afterDollar;
+        final int rot;
+        final int start;
+        final int pos;
+        final int lead;
+        final int prog;
+        final Node parent;
+        // letter read to reach this node, -1 for $
+        final int letter;
+
+        Node(boolean afterDollar, int rot, int start, int pos, int lead, int prog, Node parent, int letter) {
+            this.afterDollar = afterDollar;
+            this.rot = rot;
+            this.start = start;
+            this.pos = pos;
+            this.lead = lead;
+            this.prog = prog;
+            this.parent = parent;
+            this.letter = letter;
+        }
+    }
+
+    private long getKey(Node node) {
+        if(! node.afterDollar) {
+            return - ((long)node.pos * numLeadStates + node.lead) - 1;
+        }
+        long key = (long)node.rot * numLeadStates + node.start;
+        key = key * (suffix.length + 1) + node.pos;
+        key = key * numLeadStates + node.lead;
+        return key * maxProgStates + node.prog;
+    }
+
+    private int getLetterBeforeDollar(int pos) {
+        return pos < prefix.length ? prefix[pos] : suffix[pos - prefix.length];
+    }
+
+    private int getNextBeforeDollar(int pos) {
+        return pos + 1 < prefix.length + suffix.length ? pos + 1 : prefix.length;
+    }
+
+    private boolean canReadDollar(Node node) {
+        if(node.pos < prefix.length) return false;
+        return mode != Mode.PLUS || node.lead == plusState;
+    }
+
+    private boolean isAccepting(Node node) {
+        if(! node.afterDollar || node.pos != suffix.length || node.lead != node.start) {
+            return false;
+        }
+        switch(mode) {
+        case ACCEPTED:
+            return fdfa.getProgressFA(node.start).isFinal(node.prog);
+        case REJECTED:
+            return ! fdfa.getProgressFA(node.start).isFinal(node.prog);
+        default:
+            return node.prog == plusFinal;
+        }
+    }
+
+    /**
+     * @return the shortest pair (u', v'), or null if there is none
+     * */
+    Pair<Word, Word> search() {
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        TLongSet visited = new TLongHashSet();
+        Node init = new Node(false, 0, 0, 0, leadDFA.getInitialState(), 0, null, -1);
+        queue.add(init);
+        visited.add(getKey(init));
+        while(! queue.isEmpty()) {
+            Node node = queue.poll();
+            if(isAccepting(node)) {
+                return getWordPair(node);
+            }
+            if(node.afterDollar) {
+                exploreAfterDollar(queue, visited, node);
+            }else {
+                exploreBeforeDollar(queue, visited, node);
+            }
+        }
+        return null;
+    }
+
+    private void exploreBeforeDollar(ArrayDeque<Node> queue, TLongSet visited, Node node) {
+        int letter = getLetterBeforeDollar(node.pos);
+        Node letterNode = new Node(false, 0, 0, getNextBeforeDollar(node.pos)
+                , leadDFA.getSuccessor(node.lead, letter), 0, node, letter);
+        Node dollarNode = null;
+        if(canReadDollar(node)) {
+            int start = node.lead;
+            dollarNode = new Node(true, node.pos - prefix.length, start, 0, start
+                    , fdfa.getProgressFA(start).getInitialState(), node, -1);
+        }
+        // keep the order of the characters so that the least word is found first
+        if(dollarNode != null && Alphabet.DOLLAR < alphabet.getLetter(letter)) {
+            addNode(queue, visited, dollarNode);
+            addNode(queue, visited, letterNode);
+        }else {
+            addNode(queue, visited, letterNode);
+            if(dollarNode != null) addNode(queue, visited, dollarNode);
+        }
+    }
+
+    private void exploreAfterDollar(ArrayDeque<Node> queue, TLongSet visited, Node node) {
+        int pos = node.pos == suffix.length ? 0 : node.pos;
+        int letter = suffix[(node.rot + pos) % suffix.length];
+        DFA progDFA = fdfa.getProgressFA(node.start);
+        int lead = leadDFA.getSuccessor(node.lead, letter);
+        addNode(queue, visited, new Node(true, node.rot, node.start, pos + 1, lead
+                , progDFA.getSuccessor(node.prog, letter), node, letter));
+        // a factor of (A^s_f and M^s_s)^+ ends here, start the next one
+        if(mode == Mode.PLUS && node.lead == node.start && node.prog == plusFinal) {
+            addNode(queue, visited, new Node(true, node.rot, node.start, pos + 1, lead
+                    , progDFA.getSuccessor(progDFA.getInitialState(), letter), node, letter));
+        }
+    }
+
+    private void addNode(ArrayDeque<Node> queue, TLongSet visited, Node node) {
+        if(visited.add(getKey(node))) {
+            queue.add(node);
+        }
+    }
+
+    private Pair<Word, Word> getWordPair(Node node) {
+        TIntArrayList period = new TIntArrayList();
+        TIntArrayList stem = new TIntArrayList();
+        boolean afterDollar = true;
+        for(Node curr = node; curr.parent != null; curr = curr.parent) {
+            if(curr.letter < 0) {
+                afterDollar = false;
+            }else if(afterDollar) {
+                period.add(curr.letter);
+            }else {
+                stem.add(curr.letter);
+            }
+        }
+        stem.reverse();
+        period.reverse();
+        return new Pair<>(alphabet.getArrayWord(stem.toArray()), alphabet.getArrayWord(period.toArray()));
+    }
+
+}
@@ -0,0 +1,263 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.automata.operations;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import roll.automata.DFA;
+import roll.automata.FDFA;
+import roll.automata.NBA;
+import roll.automata.StateNFA;
+import roll.util.Pair;
+import roll.util.sets.ISet;
+import roll.util.sets.UtilISet;
+import roll.words.Alphabet;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * Construction of the under or over approximation NBA of an FDFA directly as
+ * an NBA, see {@link FDFAOperations#buildUnderNBA(FDFA)}
+ * <br>
+ * For every leading state a and final state f of the progress DFA A^a, the
+ * component N = M^a_a * A^a_f (* A^f_f) is a minimal DFA with one final state,
+ * and the NBA accepts u N^w for every u reaching a in the leading DFA M.
+ * <br>
+ * All operands are minimal DFAs numbered in BFS order, so two equal operands
+ * are equal objects no matter which leading or progress DFA they come from.
+ * The products are cached with their operands as keys, a builder used in
+ * every equivalence round only computes the products of the operands which
+ * have changed since the last round.
+ * */
+
+public class FDFA2NBA {
+    
+    private final boolean under;
+    private Map<Pair<Component, Component>, Component> products;
+    
+    public FDFA2NBA(boolean under) {
+        this.under = under;
+        this.products = new HashMap<>();
+    }
+    
+    /**
+     * A minimal partial DFA with at most one final state, states are numbered in
+     * the BFS order from the initial state 0, the successor of state s on letter
+     * a is successors[s * |alphabet| + a] and is -1 if it is undefined
+     * */
+    private static class Component {
+        final int numStates;
+        final int finalState;
+        final int[] successors;
+        final int hashCode;
+        
+        Component(int numStates, int finalState, int[] successors) {
+            this.numStates = numStates;
+            this.finalState = finalState;
+            this.successors = successors;
+            this.hashCode = 31 * finalState + Arrays.hashCode(successors);
+        }
+        
+        boolean isEmpty() {
+            return finalState < 0;
+        }
+        
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if(this == obj) return true;
+            if(obj instanceof Component) {
+                Component other = (Component)obj;
+                return hashCode == other.hashCode && finalState == other.finalState
+                    && Arrays.equals(successors, other.successors);
+            }
+            return false;
+        }
+    }
+    
+    // the minimal DFA of the words leading from init to fin in dfa
+    private static Component getComponent(DFA dfa, int init, int fin) {
+        ISet finals = UtilISet.newISet();
+        finals.set(fin);
+        DFAMinimizer minimizer = new DFAMinimizer(dfa, init, finals);
+        DFA minimal = minimizer.getMinimalDFA();
+        final int numLetters = minimal.getAlphabetSize();
+        final int numStates = minimal.getStateSize();
+        // renumber the states in BFS order
+        int[] ids = new int[numStates];
+        Arrays.fill(ids, -1);
+        int[] queue = new int[numStates];
+        int size = 0;
+        ids[minimal.getInitialState()] = size;
+        queue[size ++] = minimal.getInitialState();
+        int[] successors = new int[numStates * numLetters];
+        int finalState = -1;
+        for(int head = 0; head < size; head ++) {
+            final int state = queue[head];
+            if(minimal.isFinal(state)) {
+                finalState = head;
+            }
+            for(int letter = 0; letter < numLetters; letter ++) {
+                int succ = minimal.getSuccessor(state, letter);
+                if(succ >= 0 && ids[succ] < 0) {
+                    ids[succ] = size;
+                    queue[size ++] = succ;
+                }
+                successors[head * numLetters + letter] = succ < 0 ? -1 : ids[succ];
+            }
+        }
+        return new Component(size, finalState, successors);
+    }
+    
+    // the minimal DFA of the intersection of fst and snd
+    private Component getProduct(Map<Pair<Component, Component>, Component> used
+            , Alphabet alphabet, Component fst, Component snd) {
+        Pair<Component, Component> key = new Pair<>(fst, snd);
+        Component result = used.get(key);
+        if(result == null) {
+            result = products.get(key);
+        }
+        if(result == null) {
+            result = computeProduct(alphabet, fst, snd);
+        }
+        used.put(key, result);
+        return result;
+    }
+    
+    private static Component computeProduct(Alphabet alphabet, Component fst, Component snd) {
+        if(fst.isEmpty() || snd.isEmpty()) {
+            return fst.isEmpty() ? fst : snd;
+        }
+        final int numLetters = alphabet.getLetterSize();
+        DFA product = new DFA(alphabet);
+        TLongIntMap ids = new TLongIntHashMap(64, 0.5f, -1L, -1);
+        TLongArrayList pairs = new TLongArrayList();
+        product.createState();
+        ids.put(0L, 0);
+        pairs.add(0L);
+        // states of the product are created in BFS order
+        int finalState = -1;
+        for(int state = 0; state < pairs.size(); state ++) {
+            final long pair = pairs.get(state);
+            final int fstState = (int)(pair >>> 32), sndState = (int)pair;
+            if(fstState == fst.finalState && sndState == snd.finalState) {
+                finalState = state;
+            }
+            for(int letter = 0; letter < numLetters; letter ++) {
+                int fstSucc = fst.successors[fstState * numLetters + letter];
+                int sndSucc = snd.successors[sndState * numLetters + letter];
+                if(fstSucc < 0 || sndSucc < 0) continue;
+                long succPair = ((long)fstSucc << 32) | sndSucc;
+                int succ = ids.get(succPair);
+                if(succ < 0) {
+                    succ = pairs.size();
+                    product.createState();
+                    ids.put(succPair, succ);
+                    pairs.add(succPair);
+                }
+                product.getState(state).addTransition(letter, succ);
+            }
+        }
+        if(finalState < 0) {
+            int[] successors = new int[numLetters];
+            Arrays.fill(successors, -1);
+            return new Component(1, -1, successors);
+        }
+        return getComponent(product, 0, finalState);
+    }
+    
+    public NBA build(FDFA fdfa) {
+        DFA leadDFA = fdfa.getLeadingFA();
+        Alphabet alphabet = fdfa.getAlphabet();
+        final int numLetters = leadDFA.getAlphabetSize();
+        Map<Pair<Component, Component>, Component> used = new HashMap<>();
+        NBA nba = new NBA(alphabet);
+        for(int state = 0; state < leadDFA.getStateSize(); state ++) {
+            nba.createState();
+        }
+        nba.setInitial(leadDFA.getInitialState());
+        for(int state = 0; state < leadDFA.getStateSize(); state ++) {
+            for(int letter = 0; letter < numLetters; letter ++) {
+                int succ = leadDFA.getSuccessor(state, letter);
+                if(succ >= 0) {
+                    nba.getState(state).addTransition(letter, succ);
+                }
+            }
+        }
+        for(int state = 0; state < leadDFA.getStateSize(); state ++) {
+            // M^a_a
+            Component leadComp = getComponent(leadDFA, state, state);
+            if(leadComp.isEmpty()) continue;
+            DFA progDFA = fdfa.getProgressFA(state);
+            int progInit = progDFA.getInitialState();
+            for(final int finalState : progDFA.getFinalStates()) {
+                // M^a_a * A^a_f
+                Component comp = getProduct(used, alphabet, leadComp, getComponent(progDFA, progInit, finalState));
+                if(under) {
+                    // M^a_a * A^a_f * A^f_f
+                    comp = getProduct(used, alphabet, comp, getComponent(progDFA, finalState, finalState));
+                }
+                if(! comp.isEmpty()) {
+                    addComponent(nba, state, comp, numLetters);
+                }
+            }
+        }
+        // only keep the products of this round
+        products = used;
+        return nba;
+    }
+    
+    // add u N^w from the leading state u, the new accepting state is the
+    // final state of N from which N starts again
+    private static void addComponent(NBA nba, int leadState, Component comp, int numLetters) {
+        final int offset = nba.getStateSize();
+        for(int state = 0; state < comp.numStates; state ++) {
+            nba.createState();
+        }
+        StateNFA restart = nba.createState();
+        nba.setFinal(restart.getId());
+        for(int state = 0; state < comp.numStates; state ++) {
+            for(int letter = 0; letter < numLetters; letter ++) {
+                int succ = comp.successors[state * numLetters + letter];
+                if(succ < 0) continue;
+                nba.getState(offset + state).addTransition(letter, offset + succ);
+                if(succ == comp.finalState) {
+                    nba.getState(offset + state).addTransition(letter, restart.getId());
+                }
+                if(state == 0) {
+                    // leadState and restart behave like the initial state of N
+                    nba.getState(leadState).addTransition(letter, offset + succ);
+                    restart.addTransition(letter, offset + succ);
+                    if(succ == comp.finalState) {
+                        nba.getState(leadState).addTransition(letter, restart.getId());
+                        restart.addTransition(letter, restart.getId());
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -156,10 +156,8 @@ public class FDFAOperations {
             for(final int finalStateNr : finalStates) {
                 // A^a_f
                 Automaton dkAutP = DFAOperations.toDkDFA(autP, stateInitP, finalStateNr);
-                dkAutP.minimize();
                 // M^a_a
                 Automaton dkAutLOther = DFAOperations.toDkDFA(fdfa.getLeadingFA(), stateNr, stateNr);
-                dkAutLOther.minimize();
                 // A^a_a * M^a_a
                 Automaton product = dkAutP.intersection(dkAutLOther);
                 product.minimize();
@@ -200,10 +198,8 @@ public class FDFAOperations {
             for (final int finalStateNr : finalStates) {
                 // A^a_f
                 Automaton dkAutP = DFAOperations.toDkDFA(autP, initP, finalStateNr);
-                dkAutP.minimize();
                 // M^a_a
                 Automaton dkAutLOther = DFAOperations.toDkDFA(fdfa.getLeadingFA(), stateNr, stateNr);
-                dkAutLOther.minimize();
                 // M^a_a * A^a_f                
                 dk.brics.automaton.Automaton product = dkAutP.intersection(dkAutLOther);
                 product.minimize();
@@ -211,7 +207,6 @@ public class FDFAOperations {
                 if (under) {
                     //A^f_f
                     Automaton dkAutNq = DFAOperations.toDkDFA(autP, finalStateNr, finalStateNr);
-                    dkAutNq.minimize();
                     // M^a_a * A^a_f * A^f_f
                     product = product.intersection(dkAutNq);
                     product.minimize();
@@ -265,12 +260,31 @@ public class FDFAOperations {
     }
     
     public static Pair<Word, Word> normalize(FDFA fdfa, Word prefix, Word suffix) {
-        Automaton dDollar = buildDDollar(prefix, suffix);
-        Automaton dOne =  buildDOne(fdfa);
-        dOne = dOne.intersection(dDollar);
-        String wordStr = dOne.getShortestExample(true);
-        if(wordStr == null) return null;
-        return fdfa.getAlphabet().getWordPairFromString(wordStr);
+        return getShortestExample(fdfa, prefix, suffix, true);
+    }
+    
+    /**
+     * the shortest u'$v' accepted by both D_{u$v} and D_1 (accepted) or D_2 (!accepted),
+     * that is, u'(v')^w = prefix(suffix)^w and v' is accepted (rejected) by the progress
+     * DFA of u', null if there is no such pair
+     * */
+    public static Pair<Word, Word> getShortestExample(FDFA fdfa, Word prefix, Word suffix, boolean accepted) {
+        DollarWordSearch search = new DollarWordSearch(fdfa
+                , accepted ? DollarWordSearch.Mode.ACCEPTED : DollarWordSearch.Mode.REJECTED
+                , -1, -1, prefix, suffix);
+        return search.search();
+    }
+    
+    /**
+     * the shortest u'$v' such that u'(v')^w = prefix(suffix)^w, u' reaches state in the
+     * leading DFA and v' is in (L(A^state_accState) and L(M^state_state))^+, null if
+     * there is no such pair
+     * */
+    public static Pair<Word, Word> getShortestExample(FDFA fdfa, int state, int accState
+            , Word prefix, Word suffix) {
+        DollarWordSearch search = new DollarWordSearch(fdfa, DollarWordSearch.Mode.PLUS
+                , state, accState, prefix, suffix);
+        return search.search();
     }
     
     public static Automaton buildNegNBA(FDFA fdfa) {
@@ -285,15 +299,12 @@ public class FDFAOperations {
                 // reverse all the states here
                 if(autP.isFinal(accNr)) continue;
                 Automaton dkAutP = DFAOperations.toDkDFA(autP, stateInitP, accNr);
-                dkAutP.minimize();
                 Automaton dkAutLOther = DFAOperations.toDkDFA(autL, stateNr, stateNr);
-                dkAutLOther.minimize();
                 
                 Automaton product = dkAutP.intersection(dkAutLOther);                
                 product.minimize();
                 
                 Automaton dkAutNq = DFAOperations.toDkDFA(autP, accNr, accNr);
-                dkAutNq.minimize();
 
                 product = product.intersection(dkAutNq);
                 product.minimize();
@@ -332,10 +343,8 @@ public class FDFAOperations {
             for (final int finalStateNr : finalStates) {
                 // A^a_f
                 Automaton dkAutP = DFAOperations.toDkDFA(autP, initP, finalStateNr);
-                dkAutP.minimize();
                 // M^a_a
                 Automaton dkAutLOther = DFAOperations.toDkDFA(fdfa.getLeadingFA(), stateNr, stateNr);
-                dkAutLOther.minimize();
                 // M^a_a * A^a_f                
                 dk.brics.automaton.Automaton product = dkAutP.intersection(dkAutLOther);
                 product.minimize();
@@ -343,7 +352,6 @@ public class FDFAOperations {
                 if (under) {
                     //A^f_f
                     Automaton dkAutNq = DFAOperations.toDkDFA(autP, finalStateNr, finalStateNr);
-                    dkAutNq.minimize();
                     // M^a_a * A^a_f * A^f_f
                     product = product.intersection(dkAutNq);
                     product.minimize();
@@ -87,10 +87,8 @@ public class FNFAOperations {
             for(final int finalStateNr : finalStates) {
                 // A^a_f
                 Automaton dkAutP = DFAOperations.toDkDFA(autP, stateInitP, finalStateNr);
-                dkAutP.minimize();
                 // M^a_a
                 Automaton dkAutLOther = DFAOperations.toDkDFA(fnfa.getLeadingFA(), stateNr, stateNr);
-                dkAutLOther.minimize();
                 // A^a_a * M^a_a
                 Automaton product = dkAutP.intersection(dkAutLOther);
                 product.minimize();
@@ -131,7 +129,6 @@ public class FNFAOperations {
             for (final int finalStateNr : finalStates) {
                 // A^a_f
                 Automaton dkAutP = DFAOperations.toDkDFA(autP, initP, finalStateNr);
-                dkAutP.minimize();
                 // M^a_a
                 Automaton dkAutLOther = NFAOperations.toDkNFA(fnfa.getLeadingFA(), stateNr, stateNr);
                 dkAutLOther.minimize();
@@ -142,7 +139,6 @@ public class FNFAOperations {
                 if (under) {
                     //A^f_f
                     Automaton dkAutNq = DFAOperations.toDkDFA(autP, finalStateNr, finalStateNr);
-                    dkAutNq.minimize();
                     // M^a_a * A^a_f * A^f_f
                     product = product.intersection(dkAutNq);
                     product.minimize();
@@ -216,15 +212,12 @@ public class FNFAOperations {
                 // reverse all the states here
                 if(autP.isFinal(accNr)) continue;
                 Automaton dkAutP = DFAOperations.toDkDFA(autP, stateInitP, accNr);
-                dkAutP.minimize();
                 Automaton dkAutLOther = DFAOperations.toDkDFA(autL, stateNr, stateNr);
-                dkAutLOther.minimize();
                 
                 Automaton product = dkAutP.intersection(dkAutLOther);                
                 product.minimize();
                 
                 Automaton dkAutNq = DFAOperations.toDkDFA(autP, accNr, accNr);
-                dkAutNq.minimize();
 
                 product = product.intersection(dkAutNq);
                 product.minimize();
@@ -16,14 +16,9 @@
 
 package roll.automata.operations;
 
-import java.util.Stack;
-
-import gnu.trove.map.TIntIntMap;
-import gnu.trove.map.hash.TIntIntHashMap;
 import roll.automata.NBA;
 import roll.util.Pair;
 import roll.util.sets.ISet;
-import roll.util.sets.UtilISet;
 import roll.words.Word;
 
 /**
@@ -31,11 +26,7 @@ import roll.words.Word;
  * */
 public class NBAEmptinessCheck {
     
-    private int index = 0;
-    private Stack<Integer> SCCs;
     private NBA nba;
-    private TIntIntMap vIndex;
-    private TIntIntMap vLowlink;
     private int fstF = -1;
     private int sndF = -1;
     private ISet scc;
@@ -49,83 +40,36 @@ public class NBAEmptinessCheck {
         this.nba  = nba;
         this.fstAcc = fstAcc;
         this.sndAcc = sndAcc;
-        this.SCCs = new Stack<>();
-        this.scc = UtilISet.newISet();
-        this.vIndex = new TIntIntHashMap();
-        this.vLowlink = new TIntIntHashMap();
     }
     
     public boolean isEmpty() {
         // only check the part where final states can reach
         // all final states are reachable from the initial state
-        for(final int s : fstAcc) {
-            if(!vIndex.containsKey(s)){
-                if(tarjan(s))
-                    return false;
-            }
-        }
-        
-        for(final int s : sndAcc) {
-            if(!vIndex.containsKey(s)){
-                if(tarjan(s))
-                    return false;
-            }
-        }
-
-        return true;
+        TarjanSCCs tarjan = new TarjanSCCs(nba.freeze(), this::isAccepting);
+        return ! tarjan.explore(fstAcc) && ! tarjan.explore(sndAcc);
     }
 
     // terminate on the first accepting loop
-    boolean tarjan(int v) {
-        vIndex.put(v, index);
-        vLowlink.put(v, index);
-        index++;
-        SCCs.push(v);
-
-        boolean selfLoop = false;
-        for(int c = 0; c < nba.getAlphabetSize(); c ++) {
-            ISet vprimes = nba.getSuccessors(v, c);
-            for(final int vp : vprimes) {
-                if(vp == v) selfLoop = true;
-                if(!vIndex.containsKey(vp)){
-                    if(tarjan(vp)) return true;
-                    vLowlink.put(v, Math.min(vLowlink.get(v), vLowlink.get(vp)));
-                }else if(SCCs.contains(vp)){
-                    vLowlink.put(v, Math.min(vLowlink.get(v), vIndex.get(vp)));
-                }
-            }
+    private boolean isAccepting(int[] states, int from, int to, boolean nontrivial) {
+        if(! nontrivial) {
+            return false;
         }
-        
-        boolean isAcc = false;
-        if(vLowlink.get(v) == vIndex.get(v)){
-            int numStates = 0;
-            scc.clear();
-            boolean left = false, right = false;
-            while(! SCCs.empty()){
-                int t = SCCs.pop();
-                ++ numStates;
-                if(fstAcc.get(t)) {
-                    fstF = t;
-                    left = true;
-                }
-                if(sndAcc.get(t)) {
-                    sndF = t;
-                    right = true;
-                }
-
-                scc.set(t);
-                if(t == v)
-                    break;
+        int left = -1, right = -1;
+        for(int i = from; i < to; i ++) {
+            if(fstAcc.get(states[i])) {
+                left = states[i];
             }
-            
-            if(numStates == 1 && !selfLoop){
-                return false;
+            if(sndAcc.get(states[i])) {
+                right = states[i];
             }
-            
-            isAcc = left && right;
         }
-        
-        return isAcc;
+        if(left < 0 || right < 0) {
+            return false;
+        }
+        fstF = left;
+        sndF = right;
+        scc = TarjanSCCs.toISet(states, from, to);
+        return true;
     }
     
     public void findpath() {
@@ -29,6 +29,11 @@ import roll.words.Alphabet;
 public class NBAGenerator {
     
     public static NBA getRandomNBA(int numState, int numLetter) {
+        return getRandomNBA(numState, numLetter, System.currentTimeMillis());
+    }
+    
+    // the same seed always gives the same NBA
+    public static NBA getRandomNBA(int numState, int numLetter, long seed) {
 
         if (numLetter > 5) {
             throw new UnsupportedOperationException("only allow a,b,c,d,e letters in generated NBA");
@@ -41,7 +46,7 @@ public class NBAGenerator {
         }
 
         NBA result = new NBA(alphabet);
-        Random r = new Random(System.currentTimeMillis());
+        Random r = new Random(seed);
 
         for (int i = 0; i < numState; i++) {
             result.createState();
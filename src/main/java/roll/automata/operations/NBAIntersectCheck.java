@@ -16,224 +16,26 @@
 
 package roll.automata.operations;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Stack;
-
-import gnu.trove.map.TIntIntMap;
-import gnu.trove.map.TIntObjectMap;
-import gnu.trove.map.hash.TIntIntHashMap;
-import gnu.trove.map.hash.TIntObjectHashMap;
 import roll.automata.NBA;
-import roll.util.sets.ISet;
-import roll.util.sets.UtilISet;
+import roll.automata.operations.NBAProductEmptinessCheck.Algorithm;
 
 /**
  * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * Emptiness of the product of two NBAs by nested DFS
  * */
 
 public class NBAIntersectCheck {
     
-    private NBA fstOp;
-    private NBA sndOp;
-    private boolean empty = true;
-    private int numStates;
+    private final NBAProductEmptinessCheck checker;
     
     public NBAIntersectCheck(NBA fstOp, NBA sndOp) {
         assert fstOp != null && sndOp != null;
-        this.fstOp = fstOp;
-        this.sndOp = sndOp;
-        this.numStates = 0;
-        new TarjanExplore();
+        this.checker = new NBAProductEmptinessCheck(fstOp, sndOp, Algorithm.NESTED_DFS);
     }
     
     public boolean isEmpty() {
-        return empty;
-    }
-    // product state (p, q)
-    private class ProductState {
-        int fstState;
-        int sndState;
-        int resState;
-        ProductState(int fstState, int sndState) {
-            this.fstState = fstState;
-            this.sndState = sndState;
-        }
-        
-        @Override
-        public int hashCode() {
-            return fstState * sndOp.getStateSize() + sndState;
-        }
-        
-        @Override
-        public boolean equals(Object obj) {
-            if(obj == null) return false;
-            if(obj == this) return true;
-            if(obj instanceof ProductState) {
-                ProductState other = (ProductState)obj;
-                return fstState == other.fstState
-                    && sndState == other.sndState;
-            }
-            return false;
-        }
-        
-        @Override
-        public String toString() {
-            return resState + ":(" + fstState + "," + sndState + ")";
-        }
+        return checker.isEmpty();
     }
-    
-    public class TarjanExplore {
-    	//	private final NBA automaton;    	
-    	private int tjNode;
-    	private final ISet tjInStack;
-    	private final TIntIntMap tjDfsMap ; // index
-    	private final TIntIntMap tjLowlinkMap; // lowlink
-        private final int[] tjCallNodeStack;
-        private int[] tjCallSuccStack;
-        private int tjCallStackIndex = -1;
-        private int tjSuccIter;
-        private int tjMaxdfs;
-    	private final Stack<Integer> tjStack;
-        private TIntObjectMap<int[]> tjSuccMap;
-        private ProductState[] prodArr;
-        
-        private Map<ProductState, ProductState> map;
-        
-    	private boolean[] hasLoop;
-
-    	    
-    	public TarjanExplore() {
-    		int size = fstOp.getStateSize() * sndOp.getStateSize();
-//    		this.automaton = aut;
-            this.hasLoop = new boolean[size];
-            this.prodArr = new ProductState[size];
-            this.tjStack = new Stack<>();
-            this.tjLowlinkMap = new TIntIntHashMap();
-            this.tjDfsMap   = new TIntIntHashMap();
-            this.tjCallNodeStack = new int[size];
-            this.tjCallSuccStack = new int[size];
-            this.tjSuccMap = new TIntObjectHashMap<>();
-            this.tjInStack = UtilISet.newISet();
-            this.tjMaxdfs = 0;
-            this.map = new HashMap<>();
-            explore();
-    	}
-    	
-        ProductState getOrAddState(int fst, int snd) {
-            ProductState prod = new ProductState(fst, snd);
-            if(map.containsKey(prod)) {
-                return map.get(prod);
-            }
-            prod.resState = numStates;
-            prodArr[numStates] = prod;
-            map.put(prod, prod);
-            ++ numStates;
-            return prod;
-        }
 
-    	private void explore() {
-    		// enumerator
-    		getOrAddState(fstOp.getInitialState(), sndOp.getInitialState());
-    		tjNode = 0;
-    		tarjan();
-    	}
-    	
-    	private void tarjan() {
-    		// initialize
-            tjCallStackIndex = 0;
-            tjSuccIter = 0;
-            
-            // put tjNode into stack
-            tjDfsMap.put(tjNode, tjMaxdfs);
-            tjLowlinkMap.put(tjNode, tjMaxdfs);
-            tjMaxdfs++;
-            tjInStack.set(tjNode);
-            tjStack.push(tjNode);
-
-            while (tjCallStackIndex >= 0) {
-            	// needs to compute the sucessor of tjNode
-            	ProductState currProd = this.prodArr[tjNode];
-            	assert(tjNode == currProd.resState);
-            	if(! this.tjSuccMap.containsKey(currProd.resState)) {
-            		HashSet<ProductState> succs = new HashSet<>();
-                    for (int letter = 0; letter < fstOp.getAlphabetSize(); letter ++) {
-                        for(int sndSucc : sndOp.getSuccessors(currProd.sndState, letter)) {
-                            for(int fstSucc : fstOp.getSuccessors(currProd.fstState, letter)) {
-                            	ProductState succ = getOrAddState(fstSucc, sndSucc);
-                            	succs.add(succ);
-                            	if(currProd.resState == succ.resState) {
-                            		this.hasLoop[currProd.resState] = true;
-                            	}
-                            }
-                        }
-                    }
-                    int[] arrSuccs = new int[succs.size()];
-                    int i = 0 ;
-                    for(ProductState succ : succs) {
-                    	arrSuccs[i] = succ.resState;
-                    	i ++;
-                    }
-                    this.tjSuccMap.put(currProd.resState, arrSuccs);
-            	}
-            	// now we traverse the states that can be reachable from tjNode
-                int numSucc = this.tjSuccMap.get(tjNode).length;
-                if (tjSuccIter < numSucc) {
-                    int succNode = this.tjSuccMap.get(tjNode)[tjSuccIter];
-                    tjSuccIter++; // move to next successor
-    				// did not visit succNode before
-    				if (!tjDfsMap.containsKey(succNode)) {
-    					// first, put node and tjSuccIter for return
-    					tjCallNodeStack[tjCallStackIndex] = tjNode;
-    					tjCallSuccStack[tjCallStackIndex] = tjSuccIter;
-    					tjCallStackIndex++; // stack size
-    					// jump to succNode
-    					tjNode = succNode;
-    					tjSuccIter = 0; // prepare for traversing successors of succNode
-    					tjDfsMap.put(tjNode, tjMaxdfs);
-    					tjLowlinkMap.put(tjNode, tjMaxdfs);
-    					tjMaxdfs++;
-    					tjStack.push(tjNode);
-    					tjInStack.set(tjNode);
-    				} else if (tjInStack.get(succNode)) {
-    					tjLowlinkMap.put(tjNode, Math.min(tjLowlinkMap.get(tjNode), tjDfsMap.get(succNode)));
-    				}
-                } else {
-                	// pop out sccs
-                    if (tjLowlinkMap.get(tjNode) == tjDfsMap.get(tjNode)) {
-                        int succNode;
-                        ISet scc = UtilISet.newISet();
-                        boolean fstAcc = false;
-                        boolean sndAcc = false;
-                        do {
-                            succNode = tjStack.pop();
-                            tjInStack.clear(succNode);
-                            scc.set(succNode);
-                            ProductState prod = this.prodArr[succNode];
-                            fstAcc = fstAcc || fstOp.isFinal(prod.fstState);
-                            sndAcc = sndAcc || sndOp.isFinal(prod.sndState);
-                        } while (tjNode != succNode);
-            			if((scc.cardinality() > 1 || hasLoop[tjNode]) && fstAcc && sndAcc) {
-            				empty = false;
-            				System.out.println("fstAcc = " + fstAcc + " sndAcc = " + sndAcc);
-            				return;
-            			}
-                    }
-                    // return to upper level
-                    tjCallStackIndex--;
-                    // now return back to tjNode
-                    if (tjCallStackIndex >= 0) {
-                        int succNode = tjNode;
-                        tjNode = tjCallNodeStack[tjCallStackIndex];
-                        // restore
-                        tjSuccIter = tjCallSuccStack[tjCallStackIndex];
-                        tjLowlinkMap.put(tjNode, Math.min(tjLowlinkMap.get(tjNode), tjLowlinkMap.get(succNode)));
-                    }
-                }
-            }
-    	}
-
-
-    }
 }
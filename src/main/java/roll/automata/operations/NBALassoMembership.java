@@ -0,0 +1,333 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.automata.operations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import roll.automata.FrozenNFA;
+import roll.automata.NBA;
+import roll.util.Pair;
+import roll.words.Alphabet;
+import roll.words.Word;
+
+/**
+ * Decide whether an NBA accepts the lasso word stem(loop)^w without building
+ * the lasso automaton
+ * <br>
+ * The check works on the frozen transitions of the NBA. A query first runs
+ * the subset construction over the stem and then a nested depth-first
+ * search over the pairs (state, position in loop). All working
+ * memory lives in a per-thread scratch context which only grows, so repeated
+ * queries do not allocate.
+ * <br>
+ * The NBA should not be modified after this object has been created.
+ *
+ * @author Yong Li (liyong@ios.ac.cn)
+ * */
+
+public class NBALassoMembership {
+
+    private final FrozenNFA automaton;
+    private final int numStates;
+    private final int initialState;
+
+    private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<Scratch>() {
+        @Override
+        protected Scratch initialValue() {
+            return new Scratch();
+        }
+    };
+
+    public NBALassoMembership(NBA nba) {
+        assert nba != null;
+        this.automaton = nba.freeze();
+        this.numStates = automaton.getStateSize();
+        this.initialState = automaton.getInitialState();
+    }
+
+    public boolean accepts(Word stem, Word loop) {
+        assert stem != null && loop != null;
+        if(loop.isEmpty() || initialState < 0) return false;
+        Scratch scratch = SCRATCH.get();
+        long[] stemStates = readStem(scratch, stem);
+        return stemStates != null && searchLoop(scratch, stemStates, loop);
+    }
+
+    /**
+     * decide a batch of lasso words stems[i](loops[i])^w, the lassos with the
+     * same normal form are decided once and the lassos with the same stem
+     * share the subset construction over the stem
+     * */
+    public boolean[] accepts(List<Word> stems, List<Word> loops) {
+        assert stems.size() == loops.size();
+        boolean[] answers = new boolean[stems.size()];
+        if(initialState < 0) return answers;
+        // number the distinct normal forms and group them by stem
+        Map<Pair<Word, Word>, Integer> lassoIndex = new HashMap<>();
+        Map<Word, List<Pair<Word, Word>>> stemGroups = new LinkedHashMap<>();
+        int[] lassoOf = new int[stems.size()];
+        for(int i = 0; i < stems.size(); i ++) {
+            if(loops.get(i).isEmpty()) {
+                lassoOf[i] = -1;
+                continue;
+            }
+            Pair<Word, Word> lasso = Alphabet.getNormalForm(stems.get(i), loops.get(i));
+            Integer index = lassoIndex.get(lasso);
+            if(index == null) {
+                index = lassoIndex.size();
+                lassoIndex.put(lasso, index);
+                List<Pair<Word, Word>> group = stemGroups.get(lasso.getLeft());
+                if(group == null) {
+                    group = new ArrayList<>();
+                    stemGroups.put(lasso.getLeft(), group);
+                }
+                group.add(lasso);
+            }
+            lassoOf[i] = index;
+        }
+        boolean[] results = new boolean[lassoIndex.size()];
+        Scratch scratch = SCRATCH.get();
+        for(Map.Entry<Word, List<Pair<Word, Word>>> entry : stemGroups.entrySet()) {
+            long[] stemStates = readStem(scratch, entry.getKey());
+            if(stemStates == null) continue;
+            for(Pair<Word, Word> lasso : entry.getValue()) {
+                results[lassoIndex.get(lasso)] = searchLoop(scratch, stemStates, lasso.getRight());
+            }
+        }
+        for(int i = 0; i < answers.length; i ++) {
+            answers[i] = lassoOf[i] >= 0 && results[lassoOf[i]];
+        }
+        return answers;
+    }
+
+    // the set of states reached after reading stem, null if it is empty
+    private long[] readStem(Scratch scratch, Word stem) {
+        int stateWords = words(numStates);
+        scratch.ensureStates(stateWords);
+        long[] curr = scratch.curr;
+        long[] next = scratch.next;
+        clear(curr, stateWords);
+        curr[initialState >>> 6] |= 1L << initialState;
+        for(int i = 0; i < stem.length(); i ++) {
+            int letter = stem.getLetter(i);
+            clear(next, stateWords);
+            boolean empty = true;
+            for(int w = 0; w < stateWords; w ++) {
+                long bits = curr[w];
+                while(bits != 0) {
+                    int s = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    for(int j = automaton.getBegin(s, letter); j < automaton.getEnd(s, letter); j ++) {
+                        int t = automaton.getTarget(j);
+                        next[t >>> 6] |= 1L << t;
+                        empty = false;
+                    }
+                }
+            }
+            if(empty) return null;
+            long[] tmp = curr;
+            curr = next;
+            next = tmp;
+        }
+        return curr;
+    }
+
+    // search for an accepting cycle in the product with the loop
+    private boolean searchLoop(Scratch scratch, long[] stemStates, Word loop) {
+        int loopLength = loop.length();
+        scratch.ensureLoop(loopLength);
+        int[] letters = scratch.letters;
+        for(int i = 0; i < loopLength; i ++) {
+            letters[i] = loop.getLetter(i);
+        }
+        int nodeWords = words(numStates * loopLength);
+        scratch.ensureNodes(nodeWords);
+        clear(scratch.blue, nodeWords);
+        clear(scratch.red, nodeWords);
+        clear(scratch.onStack, nodeWords);
+        int stateWords = words(numStates);
+        for(int w = 0; w < stateWords; w ++) {
+            long bits = stemStates[w];
+            while(bits != 0) {
+                int s = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                // node for state s at the first position of the loop
+                if(! get(scratch.blue, s) && blueSearch(scratch, loopLength, s)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // the nodes are numbered as position * numStates + state
+    private int firstSucc(int[] letters, int node) {
+        int pos = node / numStates;
+        int state = node - pos * numStates;
+        return automaton.getBegin(state, letters[pos]);
+    }
+
+    private int lastSucc(int[] letters, int node) {
+        int pos = node / numStates;
+        int state = node - pos * numStates;
+        return automaton.getEnd(state, letters[pos]);
+    }
+
+    private int nextNode(int loopLength, int node, int state) {
+        int pos = node / numStates + 1;
+        if(pos == loopLength) pos = 0;
+        return pos * numStates + state;
+    }
+
+    private boolean isFinal(int node) {
+        return automaton.isFinal(node % numStates);
+    }
+
+    // outer search of the nested DFS, accepting nodes start the inner search in post-order
+    private boolean blueSearch(Scratch scratch, int loopLength, int root) {
+        int[] letters = scratch.letters;
+        long[] blue = scratch.blue;
+        long[] onStack = scratch.onStack;
+        int top = 0;
+        scratch.push(top ++, root, firstSucc(letters, root));
+        set(blue, root);
+        set(onStack, root);
+        while(top > 0) {
+            int node = scratch.nodes[top - 1];
+            int index = scratch.iters[top - 1];
+            if(index < lastSucc(letters, node)) {
+                scratch.iters[top - 1] = index + 1;
+                int succ = nextNode(loopLength, node, automaton.getTarget(index));
+                if(get(onStack, succ)) {
+                    // closing a cycle through node and succ
+                    if(isFinal(node) || isFinal(succ)) return true;
+                }else if(! get(blue, succ)) {
+                    set(blue, succ);
+                    set(onStack, succ);
+                    scratch.push(top ++, succ, firstSucc(letters, succ));
+                }
+            }else {
+                -- top;
+                unset(onStack, node);
+                if(isFinal(node) && redSearch(scratch, loopLength, node, top)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // inner search, succeeds once it reaches a node on the stack of the outer search
+    private boolean redSearch(Scratch scratch, int loopLength, int seed, int base) {
+        int[] letters = scratch.letters;
+        long[] red = scratch.red;
+        long[] onStack = scratch.onStack;
+        int top = base;
+        scratch.push(top ++, seed, firstSucc(letters, seed));
+        set(red, seed);
+        while(top > base) {
+            int node = scratch.nodes[top - 1];
+            int index = scratch.iters[top - 1];
+            if(index < lastSucc(letters, node)) {
+                scratch.iters[top - 1] = index + 1;
+                int succ = nextNode(loopLength, node, automaton.getTarget(index));
+                if(succ == seed || get(onStack, succ)) return true;
+                if(! get(red, succ)) {
+                    set(red, succ);
+                    scratch.push(top ++, succ, firstSucc(letters, succ));
+                }
+            }else {
+                -- top;
+            }
+        }
+        return false;
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    private static void clear(long[] bits, int words) {
+        for(int i = 0; i < words; i ++) {
+            bits[i] = 0L;
+        }
+    }
+
+    private static boolean get(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    private static void unset(long[] bits, int index) {
+        bits[index >>> 6] &= ~(1L << index);
+    }
+
+    // working memory of one thread, arrays are only replaced when too small
+    private static class Scratch {
+        long[] curr = new long[1];
+        long[] next = new long[1];
+        int[] letters = new int[16];
+        long[] blue = new long[16];
+        long[] red = new long[16];
+        long[] onStack = new long[16];
+        int[] nodes = new int[64];
+        int[] iters = new int[64];
+
+        void ensureStates(int words) {
+            if(curr.length < words) {
+                curr = new long[words];
+                next = new long[words];
+            }
+        }
+
+        void ensureLoop(int length) {
+            if(letters.length < length) {
+                letters = new int[Math.max(length, letters.length << 1)];
+            }
+        }
+
+        void ensureNodes(int words) {
+            if(blue.length < words) {
+                int size = Math.max(words, blue.length << 1);
+                blue = new long[size];
+                red = new long[size];
+                onStack = new long[size];
+            }
+        }
+
+        void push(int top, int node, int iter) {
+            if(top == nodes.length) {
+                int[] newNodes = new int[nodes.length << 1];
+                int[] newIters = new int[nodes.length << 1];
+                System.arraycopy(nodes, 0, newNodes, 0, nodes.length);
+                System.arraycopy(iters, 0, newIters, 0, iters.length);
+                nodes = newNodes;
+                iters = newIters;
+            }
+            nodes[top] = node;
+            iters[top] = iter;
+        }
+    }
+
+}
@@ -26,11 +26,10 @@ import dk.brics.automaton.Automaton;
 import dk.brics.automaton.State;
 import dk.brics.automaton.Transition;
 import gnu.trove.map.TIntIntMap;
-import gnu.trove.map.TIntObjectMap;
 import gnu.trove.map.TObjectIntMap;
 import gnu.trove.map.hash.TIntIntHashMap;
-import gnu.trove.map.hash.TIntObjectHashMap;
 import gnu.trove.map.hash.TObjectIntHashMap;
+import roll.automata.FrozenNFA;
 import roll.automata.NBA;
 import roll.automata.StateNFA;
 import roll.util.sets.ISet;
@@ -85,6 +84,12 @@ public class NBAOperations {
     }
     
     public static boolean accepts(NBA nba, Word stem, Word loop) {
+        assert nba != null && stem != null && loop != null;
+        return new NBALassoMembership(nba).accepts(stem, loop);
+    }
+    
+    // check the membership via the product with the lasso automaton
+    public static boolean productAccepts(NBA nba, Word stem, Word loop) {
         assert nba != null && stem != null && loop != null;
         NBALasso lasso = new NBALasso(stem, loop);
         if(loop.isEmpty()) return false;
@@ -141,128 +146,60 @@ public class NBAOperations {
         return nbaState.getId();
     }
     
+    /**
+     * keep only the states reachable from the initial state which can reach
+     * a nontrivial SCC with a final state
+     * */
     public static NBA removeDeadStates(NBA input) {
-        NBA reach = new NBA(input.getAlphabet());
         // -----------------------------------------
-        // first collect all reachable states from the initial state
-        TIntIntMap map = new TIntIntHashMap();
-        TIntObjectMap<StateContainer> mapReach = new TIntObjectHashMap<>();
-        int init = input.getInitialState();
-        int rInit = getState(reach, input, init, map);
-        reach.setInitial(rInit);
-        LinkedList<Integer> queue = new LinkedList<>();
-        queue.add(init);
-        ISet visited = UtilISet.newISet();
-        visited.set(init);
-        ISet used = UtilISet.newISet();
-        while(! queue.isEmpty()) {
-            int lState = queue.remove();
-            int rState = getState(reach, input, lState, map);
-            used.set(rState);
-            for(int c = 0; c < input.getAlphabetSize(); c ++) {
-                for(int lSucc : input.getSuccessors(lState, c)) {
-                    int rSucc = getState(reach, input, lSucc, map);
-                    // record outgoing transitions
-                    reach.getState(rState).addTransition(c, rSucc);
-                    StateContainer scSucc = mapReach.get(rSucc);
-                    if(scSucc == null) {
-                        scSucc = new StateContainer(rSucc, reach);
-                    }
-                    // record incoming transitions
-                    scSucc.addPredecessors(c, rState);
-                    mapReach.put(rSucc, scSucc);
-                    if(! visited.get(lSucc)) {
-                        queue.add(lSucc);
-                        visited.set(lSucc);
-                    }
+        // SCCs are completed after all SCCs they can reach, so a state is
+        // live if its SCC is accepting or one of its successors is live
+        final FrozenNFA frozen = input.freeze();
+        final boolean[] live = new boolean[input.getStateSize()];
+        TarjanSCCs tarjan = new TarjanSCCs(frozen, (states, from, to, nontrivial) -> {
+            boolean isLive = false;
+            for(int i = from; i < to && ! isLive; i ++) {
+                if(nontrivial && frozen.isFinal(states[i])) {
+                    isLive = true;
                 }
-            }
-        }
-        // repeatedly removing dead states
-        ISet unused = UtilISet.newISet();
-        // ---------------------------------------------------------
-        // secondly remove all reachable states which are dead states
-        while(true) {
-            boolean changed = false;
-            // find one state which is dead
-            ISet temp = UtilISet.newISet();
-            for(final int s : used) {
-                StateNFA st = reach.getState(s);
-                boolean hasSucc = false;
-                for(int c = 0; c < reach.getAlphabetSize(); c ++) {
-                    for(int succ : st.getSuccessors(c)) {
-                        if(unused.get(succ)) continue;
-                        hasSucc = true;
+                for(int c = 0; c < frozen.getAlphabetSize() && ! isLive; c ++) {
+                    for(int index = frozen.getBegin(states[i], c); index < frozen.getEnd(states[i], c); index ++) {
+                        if(live[frozen.getTarget(index)]) {
+                            isLive = true;
+                            break;
+                        }
                     }
                 }
-                if(! hasSucc) {
-                    unused.set(s);
-                    temp.set(s);
-                    changed = true;
-                }
             }
-            if(! changed) {
-                break;
-            }else {
-                used.andNot(temp);
-            }
-        }
-//        System.out.println("Used: " + used);
-        ISet reachedFinals = reach.getFinalStates();
-        reachedFinals.and(used);
-        if(reachedFinals.isEmpty()) {
-            return getEmptyNBA(reach.getAlphabet());
-        }
-//        System.out.println("Finals: " + reachedFinals);
-        // ---------------------------------------------------------
-        // thirdly collect all reachable states which can reach final states
-        ISet backReached = UtilISet.newISet();
-        while(true) {
-            backReached.or(reachedFinals);
-            ISet prevs = UtilISet.newISet();
-            for(final int s : reachedFinals) {
-                StateContainer sC = mapReach.get(s);
-                if( sC == null && s == reach.getInitialState()) {
-                    continue;
-                }else if(sC == null){
-                    assert false : "State " + s + " has no predecessors";
+            if(isLive) {
+                for(int i = from; i < to; i ++) {
+                    live[states[i]] = true;
                 }
-                // one step predecessors
-                for(int c = 0; c < reach.getAlphabetSize(); c ++) {
-                    for(StateNFA spre : sC.getPredecessors(c)) {
-                        prevs.set(spre.getId());
-                    }
-                }
-            }
-            // new one step predecessors
-            prevs.andNot(backReached);
-            if(prevs.isEmpty()) {
-                // no more predecessors
-                break;
             }
-            reachedFinals = prevs;
+            return false;
+        });
+        int init = input.getInitialState();
+        tarjan.explore(init);
+        if(! live[init]) {
+            return getEmptyNBA(input.getAlphabet());
         }
-//        System.out.println("backReached: " + backReached);
-        map.clear();
         // ---------------------------------------------------------
-        // finally construct the new automaton
+        // construct the new automaton from the live states
+        TIntIntMap map = new TIntIntHashMap();
         NBA result = new NBA(input.getAlphabet());
-        init = reach.getInitialState();
-        rInit = getState(result, reach, init, map);
+        int rInit = getState(result, input, init, map);
         result.setInitial(rInit);
-        queue = new LinkedList<>();
+        LinkedList<Integer> queue = new LinkedList<>();
         queue.add(init);
-        visited.clear();
+        ISet visited = UtilISet.newISet();
         visited.set(init);
         while(! queue.isEmpty()) {
             int lState = queue.remove();
-            // ignore unused states
-            if(! backReached.get(lState)) continue;
-            int rState = getState(result, reach, lState, map);
-            for(int c = 0; c < reach.getAlphabetSize(); c ++) {
-                for(int lSucc : reach.getSuccessors(lState, c)) {
-                    if(! backReached.get(lSucc)) continue;
-                    int rSucc = getState(result, reach, lSucc, map);
+            int rState = getState(result, input, lState, map);
+            for(int c = 0; c < input.getAlphabetSize(); c ++) {
+                for(int lSucc : input.getSuccessors(lState, c)) {
+                    if(! live[lSucc]) continue;
+                    int rSucc = getState(result, input, lSucc, map);
                     // record outgoing transitions
                     result.getState(rState).addTransition(c, rSucc);
                     if(! visited.get(lSucc)) {
@@ -0,0 +1,548 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.automata.operations;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import roll.automata.FrozenNFA;
+import roll.automata.NBA;
+import roll.util.Pair;
+import roll.words.Alphabet;
+import roll.words.Word;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * On-the-fly emptiness check for the product of two NBAs, a run of the product
+ * is accepting if both operands visit their final states infinitely often.
+ * <br>
+ * A product state (p, q) is packed into the long p << 32 | q, the highest bit
+ * is the copy of the degeneralized product used by the nested DFS. Product
+ * states are numbered in the order of discovery by a primitive open-addressing
+ * map and everything else is kept in arrays indexed by these numbers.
+ * <br>
+ * The search stops on the first accepting cycle, which is returned as a lasso.
+ * <br>
+ * Workers of {@link NBAProductEmptinessCheckParallel} run Couvreur's algorithm
+ * with their own seeded successor order, share the product states whose SCC has
+ * been popped (no accepting cycle is reachable from them) and give up once
+ * another worker has decided the emptiness.
+ * */
+
+public class NBAProductEmptinessCheck {
+    
+    public static enum Algorithm {
+        COUVREUR,    // SCC-based, merges the acceptance labels of SCC roots
+        NESTED_DFS   // nested DFS on the degeneralized product
+    }
+    
+    private static final int FST_ACC = 1;
+    private static final int SND_ACC = 2;
+    private static final int BOTH_ACC = FST_ACC | SND_ACC;
+    
+    // marks of product states, ACTIVE is also the cyan color of nested DFS
+    private static final byte ACTIVE = 1;
+    private static final byte DONE = 2;
+    private static final byte RED = 4;
+    
+    private final FrozenNFA fstOp;
+    private final FrozenNFA sndOp;
+    private final Alphabet alphabet;
+    private final int numLetters;
+    private final Algorithm algorithm;
+    
+    // successors are visited in the order of the letters and transitions if seed is 0
+    private final long seed;
+    private final int[] letterOrder;
+    // shared with the other workers, null if the check is sequential
+    private final Set<Long> deadStates;
+    private final AtomicBoolean stopped;
+    private int numSteps;
+    
+    private final TLongIntMap ids;
+    private final TLongArrayList states;
+    private byte[] marks;
+    
+    private Boolean empty;
+    private Pair<Word, Word> counterexample;
+    
+    public NBAProductEmptinessCheck(NBA fstOp, NBA sndOp) {
+        this(fstOp, sndOp, Algorithm.COUVREUR);
+    }
+    
+    public NBAProductEmptinessCheck(NBA fstOp, NBA sndOp, Algorithm algorithm) {
+        this(fstOp, sndOp, algorithm, 0, null, null);
+    }
+    
+    NBAProductEmptinessCheck(NBA fstOp, NBA sndOp, long seed, Set<Long> deadStates, AtomicBoolean stopped) {
+        this(fstOp, sndOp, Algorithm.COUVREUR, seed, deadStates, stopped);
+    }
+    
+    private NBAProductEmptinessCheck(NBA fstOp, NBA sndOp, Algorithm algorithm
+            , long seed, Set<Long> deadStates, AtomicBoolean stopped) {
+        assert fstOp != null && sndOp != null;
+        this.fstOp = fstOp.freeze();
+        this.sndOp = sndOp.freeze();
+        this.alphabet = fstOp.getAlphabet();
+        this.numLetters = fstOp.getAlphabetSize();
+        this.algorithm = algorithm;
+        this.ids = new TLongIntHashMap(1024, 0.5f, -1L, -1);
+        this.states = new TLongArrayList();
+        this.marks = new byte[1024];
+        this.seed = seed;
+        this.letterOrder = new int[numLetters];
+        for(int letter = 0; letter < numLetters; letter ++) {
+            letterOrder[letter] = letter;
+        }
+        if(seed != 0) {
+            // Fisher-Yates shuffle of the letters
+            for(int i = numLetters - 1; i > 0; i --) {
+                int j = (int)((mix(seed + i) >>> 1) % (i + 1));
+                int letter = letterOrder[i];
+                letterOrder[i] = letterOrder[j];
+                letterOrder[j] = letter;
+            }
+        }
+        this.deadStates = deadStates;
+        this.stopped = stopped;
+    }
+    
+    public boolean isEmpty() {
+        if(empty == null) {
+            empty = algorithm == Algorithm.COUVREUR ? couvreur() : nestedDFS();
+        }
+        return empty;
+    }
+    
+    /**
+     * @return the lasso (prefix, loop) of an accepting run, null if the product is empty
+     * */
+    public Pair<Word, Word> getCounterexample() {
+        isEmpty();
+        return counterexample;
+    }
+    
+    // number of product states explored
+    public int getStateSize() {
+        return states.size();
+    }
+    
+    // finalizer of MurmurHash3
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+    
+    // cancel the search if another worker is done, checked every 1024 steps
+    private void checkStopped() {
+        if(stopped != null && (++ numSteps & 1023) == 0 && stopped.get()) {
+            throw new CancellationException("emptiness decided by another worker");
+        }
+    }
+    
+    private static long pack(int fst, int snd, int copy) {
+        return ((long)copy << 63) | ((long)fst << 32) | (snd & 0xFFFFFFFFL);
+    }
+    
+    private static int getFst(long state) {
+        return (int)((state >>> 32) & 0x7FFFFFFF);
+    }
+    
+    private static int getSnd(long state) {
+        return (int)state;
+    }
+    
+    private static int getCopy(long state) {
+        return (int)(state >>> 63);
+    }
+    
+    private int getLabel(long state) {
+        int label = 0;
+        if(fstOp.isFinal(getFst(state))) {
+            label |= FST_ACC;
+        }
+        if(sndOp.isFinal(getSnd(state))) {
+            label |= SND_ACC;
+        }
+        return label;
+    }
+    
+    // the copy of the successors in the degeneralized product, always 0 for Couvreur
+    private int getNextCopy(long state) {
+        if(algorithm == Algorithm.COUVREUR) {
+            return 0;
+        }
+        if(getCopy(state) == 0) {
+            return fstOp.isFinal(getFst(state)) ? 1 : 0;
+        }
+        return sndOp.isFinal(getSnd(state)) ? 0 : 1;
+    }
+    
+    // accepting states of the degeneralized product
+    private boolean isAccepting(long state) {
+        return getCopy(state) == 1 && sndOp.isFinal(getSnd(state));
+    }
+    
+    private int getOrAddState(long state) {
+        int id = ids.get(state);
+        if(id >= 0) {
+            return id;
+        }
+        id = states.size();
+        states.add(state);
+        ids.put(state, id);
+        if(id >= marks.length) {
+            marks = Arrays.copyOf(marks, 2 * marks.length);
+        }
+        return id;
+    }
+    
+    /**
+     * DFS stack of product states, each with its cursor (letter, transition in
+     * fstOp, transition in sndOp) to the next successor and the letter of the
+     * edge to the state above it
+     * */
+    private class DFSStack {
+        int[] ids = new int[64];
+        int[] letters = new int[64];
+        int[] fstIndices = new int[64];
+        int[] sndIndices = new int[64];
+        int[] edges = new int[64];
+        int top = -1;
+        // the successor found by next()
+        long succ;
+        int succLetter;
+        
+        void push(int id) {
+            top ++;
+            if(top == ids.length) {
+                ids = Arrays.copyOf(ids, 2 * top);
+                letters = Arrays.copyOf(letters, 2 * top);
+                fstIndices = Arrays.copyOf(fstIndices, 2 * top);
+                sndIndices = Arrays.copyOf(sndIndices, 2 * top);
+                edges = Arrays.copyOf(edges, 2 * top);
+            }
+            ids[top] = id;
+            letters[top] = 0;
+            if(seed != 0) {
+                // fstIndices counts the successors visited for the current letter
+                fstIndices[top] = 0;
+            }else if(numLetters > 0) {
+                long state = states.get(id);
+                fstIndices[top] = fstOp.getBegin(getFst(state), 0);
+                sndIndices[top] = sndOp.getBegin(getSnd(state), 0);
+            }
+        }
+        
+        // push the successor found by next()
+        void pushSucc(int id) {
+            edges[top] = succLetter;
+            push(id);
+        }
+        
+        int peek() {
+            return ids[top];
+        }
+        
+        void pop() {
+            top --;
+        }
+        
+        boolean next() {
+            if(seed != 0) {
+                return nextShuffled();
+            }
+            final long state = states.get(ids[top]);
+            final int fst = getFst(state), snd = getSnd(state);
+            int letter = letters[top];
+            int fstIndex = fstIndices[top];
+            int sndIndex = sndIndices[top];
+            while(letter < numLetters) {
+                int sndEnd = sndOp.getEnd(snd, letter);
+                if(fstIndex < fstOp.getEnd(fst, letter) && sndIndex < sndEnd) {
+                    succ = pack(fstOp.getTarget(fstIndex), sndOp.getTarget(sndIndex), getNextCopy(state));
+                    succLetter = letter;
+                    sndIndex ++;
+                    if(sndIndex == sndEnd) {
+                        fstIndex ++;
+                        sndIndex = sndOp.getBegin(snd, letter);
+                    }
+                    letters[top] = letter;
+                    fstIndices[top] = fstIndex;
+                    sndIndices[top] = sndIndex;
+                    return true;
+                }
+                letter ++;
+                if(letter < numLetters) {
+                    fstIndex = fstOp.getBegin(fst, letter);
+                    sndIndex = sndOp.getBegin(snd, letter);
+                }
+            }
+            letters[top] = letter;
+            return false;
+        }
+        
+        // successors of every letter are visited from a position given by the seed
+        boolean nextShuffled() {
+            final long state = states.get(ids[top]);
+            final int fst = getFst(state), snd = getSnd(state);
+            int index = letters[top];
+            int count = fstIndices[top];
+            while(index < numLetters) {
+                final int letter = letterOrder[index];
+                int fstBegin = fstOp.getBegin(fst, letter);
+                int sndBegin = sndOp.getBegin(snd, letter);
+                int sndSize = sndOp.getEnd(snd, letter) - sndBegin;
+                int size = (fstOp.getEnd(fst, letter) - fstBegin) * sndSize;
+                if(count < size) {
+                    int pos = (int)(((mix(seed ^ (state * 31 + letter)) >>> 1) + count) % size);
+                    succ = pack(fstOp.getTarget(fstBegin + pos / sndSize)
+                            , sndOp.getTarget(sndBegin + pos % sndSize), getNextCopy(state));
+                    succLetter = letter;
+                    letters[top] = index;
+                    fstIndices[top] = count + 1;
+                    return true;
+                }
+                index ++;
+                count = 0;
+            }
+            letters[top] = index;
+            return false;
+        }
+        
+        // letters of the edges from the state at from to the state at to
+        void getLetters(int from, int to, TIntArrayList word) {
+            for(int i = from; i < to; i ++) {
+                word.add(edges[i]);
+            }
+        }
+        
+        int indexOf(int id) {
+            for(int i = top; i >= 0; i --) {
+                if(ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+    
+    private int getInitialState(DFSStack stack) {
+        int init = getOrAddState(pack(fstOp.getInitialState(), sndOp.getInitialState(), 0));
+        marks[init] = ACTIVE;
+        stack.push(init);
+        return init;
+    }
+    
+    private boolean couvreur() {
+        DFSStack stack = new DFSStack();
+        TIntArrayList roots = new TIntArrayList();
+        TIntArrayList labels = new TIntArrayList();
+        TIntArrayList active = new TIntArrayList();
+        int init = getInitialState(stack);
+        roots.add(init);
+        labels.add(getLabel(states.get(init)));
+        active.add(init);
+        while(stack.top >= 0) {
+            checkStopped();
+            final int v = stack.peek();
+            if(stack.next()) {
+                int w = ids.get(stack.succ);
+                if(w < 0 && deadStates != null && deadStates.contains(stack.succ)) {
+                    // popped by another worker
+                    w = getOrAddState(stack.succ);
+                    marks[w] = DONE;
+                }else if(w < 0) {
+                    w = getOrAddState(stack.succ);
+                    marks[w] = ACTIVE;
+                    stack.pushSucc(w);
+                    roots.add(w);
+                    labels.add(getLabel(stack.succ));
+                    active.add(w);
+                }else if(marks[w] == ACTIVE) {
+                    // a loop back to w, merge all SCCs on it
+                    int root, label = 0;
+                    do {
+                        root = roots.removeAt(roots.size() - 1);
+                        label |= labels.removeAt(labels.size() - 1);
+                    }while(root > w);
+                    if(label == BOTH_ACC) {
+                        // active states from root are in the same SCC
+                        counterexample = getCouvreurLasso(stack, root, active);
+                        return false;
+                    }
+                    roots.add(root);
+                    labels.add(label);
+                }
+                continue;
+            }
+            // pop the SCC of v if v is its root
+            if(roots.get(roots.size() - 1) == v) {
+                roots.removeAt(roots.size() - 1);
+                labels.removeAt(labels.size() - 1);
+                int u;
+                do {
+                    u = active.removeAt(active.size() - 1);
+                    marks[u] = DONE;
+                    if(deadStates != null) {
+                        deadStates.add(states.get(u));
+                    }
+                }while(u != v);
+            }
+            stack.pop();
+        }
+        return true;
+    }
+    
+    private Pair<Word, Word> getCouvreurLasso(DFSStack stack, int root, TIntArrayList active) {
+        final int v = stack.peek();
+        int fstF = -1, sndF = -1;
+        for(int i = active.size() - 1; i >= 0 && active.get(i) >= root; i --) {
+            int label = getLabel(states.get(active.get(i)));
+            if((label & FST_ACC) != 0) fstF = active.get(i);
+            if((label & SND_ACC) != 0) sndF = active.get(i);
+        }
+        assert fstF >= 0 && sndF >= 0;
+        TIntArrayList prefix = new TIntArrayList();
+        stack.getLetters(0, stack.top, prefix);
+        // v -> fstF -> sndF -> v inside the SCC
+        TIntArrayList loop = new TIntArrayList();
+        findPath(v, fstF, root, false, loop);
+        findPath(fstF, sndF, root, false, loop);
+        findPath(sndF, v, root, loop.isEmpty(), loop);
+        return new Pair<>(alphabet.getArrayWord(prefix.toArray()), alphabet.getArrayWord(loop.toArray()));
+    }
+    
+    // BFS from source to target over the active states numbered from root
+    private void findPath(int source, int target, int root, boolean nonEmpty, TIntArrayList word) {
+        if(source == target && ! nonEmpty) {
+            return;
+        }
+        TIntIntMap parents = new TIntIntHashMap();
+        TIntIntMap letters = new TIntIntHashMap();
+        TIntArrayList queue = new TIntArrayList();
+        queue.add(source);
+        for(int head = 0; head < queue.size(); head ++) {
+            final int u = queue.get(head);
+            final long state = states.get(u);
+            final int fst = getFst(state), snd = getSnd(state);
+            for(int letter = 0; letter < numLetters; letter ++) {
+                for(int i = fstOp.getBegin(fst, letter); i < fstOp.getEnd(fst, letter); i ++) {
+                    for(int j = sndOp.getBegin(snd, letter); j < sndOp.getEnd(snd, letter); j ++) {
+                        int w = ids.get(pack(fstOp.getTarget(i), sndOp.getTarget(j), 0));
+                        if(w < root || marks[w] != ACTIVE || parents.containsKey(w)
+                        || (w == source && w != target)) {
+                            continue;
+                        }
+                        parents.put(w, u);
+                        letters.put(w, letter);
+                        if(w == target) {
+                            int start = word.size();
+                            int curr = target;
+                            do {
+                                word.add(letters.get(curr));
+                                curr = parents.get(curr);
+                            }while(curr != source);
+                            word.reverse(start, word.size());
+                            return;
+                        }
+                        queue.add(w);
+                    }
+                }
+            }
+        }
+        assert false : "No path from " + source + " to " + target;
+    }
+    
+    private boolean nestedDFS() {
+        DFSStack blue = new DFSStack();
+        DFSStack red = new DFSStack();
+        getInitialState(blue);
+        while(blue.top >= 0) {
+            final int v = blue.peek();
+            if(blue.next()) {
+                int w = ids.get(blue.succ);
+                if(w < 0) {
+                    w = getOrAddState(blue.succ);
+                    marks[w] = ACTIVE;
+                    blue.pushSucc(w);
+                }else if((marks[w] & ACTIVE) != 0
+                    && (isAccepting(states.get(v)) || isAccepting(blue.succ))) {
+                    // a loop back to the blue stack through an accepting state
+                    int index = blue.indexOf(w);
+                    TIntArrayList prefix = new TIntArrayList();
+                    blue.getLetters(0, index, prefix);
+                    TIntArrayList loop = new TIntArrayList();
+                    blue.getLetters(index, blue.top, loop);
+                    loop.add(blue.succLetter);
+                    counterexample = new Pair<>(alphabet.getArrayWord(prefix.toArray()), alphabet.getArrayWord(loop.toArray()));
+                    return false;
+                }
+                continue;
+            }
+            // all successors of v are explored
+            if(isAccepting(states.get(v)) && redDFS(blue, red)) {
+                return false;
+            }
+            marks[v] = (byte)((marks[v] & RED) | DONE);
+            blue.pop();
+        }
+        return true;
+    }
+    
+    // search a loop from the seed on top of blue back to a state on blue
+    private boolean redDFS(DFSStack blue, DFSStack red) {
+        final int seed = blue.peek();
+        marks[seed] |= RED;
+        red.push(seed);
+        while(red.top >= 0) {
+            if(! red.next()) {
+                red.pop();
+                continue;
+            }
+            // all successors of the seed have been visited by the blue search
+            int w = ids.get(red.succ);
+            if((marks[w] & ACTIVE) != 0) {
+                TIntArrayList prefix = new TIntArrayList();
+                blue.getLetters(0, blue.top, prefix);
+                TIntArrayList loop = new TIntArrayList();
+                red.getLetters(0, red.top, loop);
+                loop.add(red.succLetter);
+                blue.getLetters(blue.indexOf(w), blue.top, loop);
+                counterexample = new Pair<>(alphabet.getArrayWord(prefix.toArray()), alphabet.getArrayWord(loop.toArray()));
+                red.top = -1;
+                return true;
+            }
+            if((marks[w] & RED) == 0) {
+                marks[w] |= RED;
+                red.pushSucc(w);
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,124 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.automata.operations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import roll.automata.NBA;
+import roll.util.Pair;
+import roll.words.Word;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * Swarm emptiness check for the product of two NBAs
+ * <br>
+ * Every worker runs Couvreur's algorithm with its own successor order, the
+ * first worker follows the sequential order. The workers share the product
+ * states from which no accepting cycle is reachable, so they skip the parts
+ * already explored by the others. The first worker to finish decides the
+ * emptiness and cancels the others.
+ * */
+
+public class NBAProductEmptinessCheckParallel {
+    
+    private final NBA fstOp;
+    private final NBA sndOp;
+    private final int numWorkers;
+    
+    private Boolean empty;
+    private Pair<Word, Word> counterexample;
+    
+    public NBAProductEmptinessCheckParallel(NBA fstOp, NBA sndOp, int numWorkers) {
+        assert fstOp != null && sndOp != null && numWorkers > 0;
+        this.fstOp = fstOp;
+        this.sndOp = sndOp;
+        this.numWorkers = numWorkers;
+    }
+    
+    public boolean isEmpty() {
+        if(empty == null) {
+            check();
+        }
+        return empty;
+    }
+    
+    /**
+     * @return the lasso (prefix, loop) of an accepting run, null if the product is empty
+     * */
+    public Pair<Word, Word> getCounterexample() {
+        isEmpty();
+        return counterexample;
+    }
+    
+    public int getNumWorkers() {
+        return numWorkers;
+    }
+    
+    private void check() {
+        // freeze the operands before they are shared by the workers
+        fstOp.freeze();
+        sndOp.freeze();
+        Set<Long> deadStates = ConcurrentHashMap.newKeySet();
+        AtomicBoolean stopped = new AtomicBoolean(false);
+        ExecutorService executor = Executors.newFixedThreadPool(numWorkers);
+        CompletionService<NBAProductEmptinessCheck> completion = new ExecutorCompletionService<>(executor);
+        List<Future<NBAProductEmptinessCheck>> futures = new ArrayList<>();
+        try {
+            for(int i = 0; i < numWorkers; i ++) {
+                final long seed = i;
+                futures.add(completion.submit(() -> {
+                    NBAProductEmptinessCheck checker = new NBAProductEmptinessCheck(fstOp, sndOp
+                            , seed, deadStates, stopped);
+                    checker.isEmpty();
+                    return checker;
+                }));
+            }
+            NBAProductEmptinessCheck checker = completion.take().get();
+            stopped.set(true);
+            empty = checker.isEmpty();
+            counterexample = checker.getCounterexample();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("emptiness check interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        } finally {
+            stopped.set(true);
+            for(Future<NBAProductEmptinessCheck> future : futures) {
+                future.cancel(true);
+            }
+            executor.shutdownNow();
+        }
+    }
+
+}
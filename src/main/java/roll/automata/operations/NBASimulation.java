@@ -16,203 +16,249 @@
 
 package roll.automata.operations;
 
+import java.util.ArrayDeque;
+
+import roll.automata.FrozenNFA;
 import roll.automata.NBA;
 
 /**
+ * Simulation relations of NBAs
+ * <br>
+ * A state t forward simulates s if for every transition s - a -> s' there is a
+ * transition t - a -> t' such that t' forward simulates s'. The direct
+ * simulation moreover requires t to be accepting whenever s is.
+ * <br>
+ * The relation is refined as in the algorithm of Henzinger, Henzinger and Kopke:
+ * when the simulators of s' lose a set of states, only the a-predecessors of
+ * those states are tested again as simulators of the a-predecessors of s'.
+ * Relations are kept as packed bit rows and transitions in compressed rows, so
+ * the time is in O(m * n) and the memory in O(n * n / 8 + m) bytes.
+ *
  * @author Yong Li (liyong@ios.ac.cn)
  * 
  * */
 
 public class NBASimulation {
     
-//    public static boolean isForwardSimulated(NBA fst, NBA snd) {
-//        assert fst != snd;
-//        StateContainer[] states = new StateContainer[fst.getStateSize() + snd.getStateSize()];
-//        for(int i = 0; i < fst.getStateSize(); i ++) {
-//            states[i] = new StateContainer(i, fst);
-//        }
-//        for(int i = 0; i < fst.getStateSize(); i ++) {
-//            StateNFA st = states[i].getState();
-//            for(int letter = 0; letter < fst.getAlphabetSize(); letter ++) {
-//                for(int succ : st.getSuccessors(letter)) {
-//                    states[i].addSuccessors(letter, succ);
-//                    states[succ].addPredecessors(letter, i);
-//                }
-//            }
-//        }
-//        
-//        int n = fst.getStateSize();
-//        for(int i = 0; i < snd.getStateSize(); i ++) {
-//            states[i + n] = new StateContainer(i, snd);
-//        }
-//        for(int i = 0; i < snd.getStateSize(); i ++) {
-//            StateNFA st = states[i + n].getState();
-//            for(int letter = 0; letter < snd.getAlphabetSize(); letter ++) {
-//                for(int succ : st.getSuccessors(letter)) {
-//                    states[i + n].addSuccessors(letter, succ);
-//                    states[succ + n].addPredecessors(letter, i);
-//                }
-//            }
-//        }
-//            
-//        boolean[] isFinal = new boolean[states.length];
-//        boolean[] isInit = new boolean[states.length];
-//        boolean[][] fsim = new boolean[states.length][states.length];
-//        for (int i = 0; i < states.length; i++) {
-//            isFinal[i] = states[i].getFA().isFinal(states[i].getId());
-//            isInit[i] = states[i].getFA().getInitialState() == states[i].getId();
-//        }
-//        for (int i = 0; i < states.length; i++) {
-//            for (int j = i; j < states.length; j++) {
-//                fsim[i][j] = (!isFinal[i] || isFinal[j]) && states[j].isForwardCovered(states[i]);
-//                fsim[j][i] = (isFinal[i] || !isFinal[j]) && states[i].isForwardCovered(states[j]);
-//            }
-//        }
-//        return isForwardSimulated(fst, snd, fsim, states);
-//    }
-//    
-//    public static boolean isForwardSimulated(NBA fst, NBA snd, boolean[][] fsim, StateContainer[] states) {
-//        
-//        Alphabet alphabet = fst.getAlphabet();
-//        //implement the HHK algorithm
-//        // fsim[u][v]=true iff v in fsim(u) iff v forward-simulates u
-//        int[][][] pre = new int[alphabet.getLetterSize()][states.length][];
-//        int[][][] post = new int[alphabet.getLetterSize()][states.length][];
-//        int[][] pre_len = new int[alphabet.getLetterSize()][states.length];
-//        int[][] post_len = new int[alphabet.getLetterSize()][states.length];
-//
-//        // Initialize memory of pre/post
-//        for (int c = 0; c < alphabet.getLetterSize(); c++) {
-//            for (int s = 0; s < states.length; s++) {
-//                Set<StateNFA> next = states[s].getSuccessors(c);
-//                post_len[c][s] = 0;
-//                if (!next.isEmpty())
-//                    post[c][s] = new int[next.size()];
-//                Set<StateNFA> prev = states[s].getPredecessors(c);
-//                pre_len[c][s] = 0;
-//                if (!prev.isEmpty())
-//                    pre[c][s] = new int[prev.size()];
-//            }
-//        }
-//
-//        //state[post[s][q][r]] is in post_s(q) for 0<=r<adj_len[s][q]
-//        //state[pre[s][q][r]] is in pre_s(q) for 0<=r<adj_len[s][q]
-//        for (int c = 0; c < alphabet.getLetterSize(); c++) {
-//            for (int p = 0; p < states.length; p++) {
-//                Set<StateNFA> next = states[p].getSuccessors(c);
-//                if (!next.isEmpty()) {
-//                    for (int q = 0; q < states.length; q++) {
-//                        if (next.contains(states[q].getState())) {
-//                            // if p --a--> q, then p is in pre_a(q), q is in
-//                            // post_a(p)
-//                            pre[c][q][pre_len[c][q]++] = p;
-//                            post[c][p][post_len[c][p]++] = q;
-//                        }
-//                    }
-//                }
-//            }
-//        }
-//
-//        int[] todo = new int[alphabet.getLetterSize() * states.length];
-//        int todo_len = 0;
-//        
-//        int[][][] remove = new int[alphabet.getLetterSize()][states.length][states.length];
-//        int[][] remove_len = new int[alphabet.getLetterSize()][states.length];
-//        for(int a=0; a<alphabet.getLetterSize(); a++)
-//        {
-//            for(int p=0; p<states.length; p++)
-//                if(pre_len[a][p]>0) // p is in a_S
-//                {   
-//                    Sharpen_S_a:
-//                    for(int q=0; q<states.length; q++)   // {all q} --> S_a 
-//                    {
-//                            if(post_len[a][q]>0)    /// q is in S_a 
-//                            {   
-//                                for(int r=0; r<post_len[a][q]; r++) 
-//                                    if(fsim[p][post[a][q][r]])  // q is in pre_a(sim(p))
-//                                        continue Sharpen_S_a;   // skip q                       
-//                                remove[a][p][remove_len[a][p]++] = q;
-//                            }
-//                    }
-//                    if(remove_len[a][p]>0)
-//                        todo[todo_len++] = a*states.length + p;
-//                }
-//        }
-//        int[] swap = new int[states.length];
-//        int swap_len = 0;
-//        boolean using_swap = false;
-//        
-//        while(todo_len>0)
-//        {
-//            todo_len--;
-//            int v = todo[todo_len] % states.length;
-//            int a = todo[todo_len] / states.length;
-//            int len = (using_swap? swap_len : remove_len[a][v]);
-//            remove_len[a][v] = 0;
-//            
-//            for(int j=0; j<pre_len[a][v]; j++)
-//            {
-//                int u = pre[a][v][j];
-//                
-//                for(int i=0; i<len; i++)            
-//                {
-//                    int w = (using_swap? swap[i] : remove[a][v][i]);
-//                    if(fsim[u][w]) 
-//                    {
-//                        fsim[u][w] = false;                 
-//                        for(int b=0; b<alphabet.getLetterSize(); b++)
-//                            if(pre_len[b][u]>0)
-//                            {
-//                                Sharpen_pre_b_w:
-//                                for(int k=0; k<pre_len[b][w]; k++)
-//                                {   
-//                                    int ww = pre[b][w][k];
-//                                    for(int r=0; r<post_len[b][ww]; r++) 
-//                                        if(fsim[u][post[b][ww][r]])     // ww is in pre_b(sim(u))
-//                                            continue Sharpen_pre_b_w;   // skip ww
-//                                    
-//                                    if(b==a && u==v && !using_swap)
-//                                        swap[swap_len++] = ww;
-//                                    else{                                       
-//                                        if(remove_len[b][u]==0)
-//                                            todo[todo_len++] = b*states.length + u;
-//                                        remove[b][u][remove_len[b][u]++] = ww;
-//                                    }
-//                                    
-//                                }
-//                            }
-//                    }//End of if(fsim[u][w])
-//                }               
-//            }           
-//            if(swap_len>0)
-//            {   
-//                if(!using_swap)
-//                {   
-//                    todo[todo_len++] = a*states.length + v;  
-//                    using_swap = true; 
-//                }else{
-//                    swap_len = 0;
-//                    using_swap = false;
-//                }
-//            }
-//            
-//        }
-//
-//        for(int p=0; p<states.length; p++)   
-//            for(int q=0; q<states.length; q++)
-//                if(fsim[p][q]) {
-//                    // q is in sim(p), q simulates p
-//                    if(states[p].getId() == fst.getInitialState()
-//                     && states[q].getId() == snd.getInitialState()) {
-//                        return true;
-//                    }
-//                }
-//                    
-//        return false;
-//    }
+    public static SimulationRelation computeForwardSimulation(NBA nba) {
+        return new Refiner(new NBA[] {nba}, false).compute();
+    }
+    
+    public static SimulationRelation computeDirectSimulation(NBA nba) {
+        return new Refiner(new NBA[] {nba}, true).compute();
+    }
+    
+    /**
+     * simulation over the disjoint union of fst and snd, where the states of snd
+     * are numbered from fst.getStateSize()
+     * */
+    public static SimulationRelation computeForwardSimulation(NBA fst, NBA snd) {
+        return new Refiner(new NBA[] {fst, snd}, false).compute();
+    }
+    
+    public static SimulationRelation computeDirectSimulation(NBA fst, NBA snd) {
+        return new Refiner(new NBA[] {fst, snd}, true).compute();
+    }
     
     public static boolean isDelayedSimulated(NBA fst, NBA snd) {
         return false;
     }
+    
+    private static class Refiner {
+        
+        private final int numStates;
+        private final int numLetters;
+        private final int numWords;
+        private final boolean direct;
+        private final long[] finals;
+        // transitions of state s on letter a are at postOffsets[s * numLetters + a]
+        private final int[] postOffsets;
+        private final int[] postTargets;
+        private final int[] preOffsets;
+        private final int[] preTargets;
+        
+        Refiner(NBA[] nbas, boolean direct) {
+            this.direct = direct;
+            this.numLetters = nbas[0].getAlphabetSize();
+            FrozenNFA[] frozen = new FrozenNFA[nbas.length];
+            int states = 0, trans = 0;
+            for(int i = 0; i < nbas.length; i ++) {
+                assert nbas[i].getAlphabetSize() == numLetters;
+                frozen[i] = nbas[i].freeze();
+                states += frozen[i].getStateSize();
+                trans += frozen[i].getTransitionSize();
+            }
+            this.numStates = states;
+            this.numWords = (numStates + 63) >>> 6;
+            this.finals = new long[numWords];
+            this.postOffsets = new int[numStates * numLetters + 1];
+            this.postTargets = new int[trans];
+            int[] preCounts = new int[numStates * numLetters + 1];
+            int base = 0, index = 0;
+            for(FrozenNFA nfa : frozen) {
+                for(int s = 0; s < nfa.getStateSize(); s ++) {
+                    if(nfa.isFinal(s)) set(finals, base + s);
+                    for(int letter = 0; letter < numLetters; letter ++) {
+                        postOffsets[(base + s) * numLetters + letter] = index;
+                        for(int i = nfa.getBegin(s, letter); i < nfa.getEnd(s, letter); i ++) {
+                            int succ = base + nfa.getTarget(i);
+                            postTargets[index ++] = succ;
+                            preCounts[succ * numLetters + letter + 1] ++;
+                        }
+                    }
+                }
+                base += nfa.getStateSize();
+            }
+            postOffsets[numStates * numLetters] = index;
+            // predecessors in the same layout
+            for(int i = 1; i < preCounts.length; i ++) {
+                preCounts[i] += preCounts[i - 1];
+            }
+            this.preOffsets = preCounts.clone();
+            this.preTargets = new int[trans];
+            for(int s = 0; s < numStates; s ++) {
+                for(int letter = 0; letter < numLetters; letter ++) {
+                    for(int i = postOffsets[s * numLetters + letter]; i < postOffsets[s * numLetters + letter + 1]; i ++) {
+                        preTargets[preCounts[postTargets[i] * numLetters + letter] ++] = s;
+                    }
+                }
+            }
+        }
+        
+        SimulationRelation compute() {
+            if(numStates == 0) return new SimulationRelation(0, new long[0][]);
+            long[][] sim = initialize();
+            // removed[s] collects the simulators of s which have not been propagated yet
+            long[][] removed = new long[numStates][];
+            boolean[] queued = new boolean[numStates];
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            long[] candidates = new long[numWords];
+            long[] lost = new long[numWords];
+            // first propagate everything outside of the initial relation
+            for(int state = 0; state < numStates; state ++) {
+                for(int w = 0; w < numWords; w ++) {
+                    lost[w] = ~ sim[state][w];
+                }
+                lost[numWords - 1] &= lastWordMask();
+                removed[state] = null;
+                propagate(sim, removed, queued, queue, candidates, state, lost);
+            }
+            while(! queue.isEmpty()) {
+                int state = queue.poll();
+                queued[state] = false;
+                long[] rem = removed[state];
+                // already propagated in the first round
+                if(rem == null) continue;
+                removed[state] = null;
+                propagate(sim, removed, queued, queue, candidates, state, rem);
+            }
+            return new SimulationRelation(numStates, sim);
+        }
+        
+        // t is a candidate for s if s is accepting only if t is, and t has all letters enabled in s
+        private long[][] initialize() {
+            long[][] enabled = new long[numLetters][numWords];
+            for(int s = 0; s < numStates; s ++) {
+                for(int letter = 0; letter < numLetters; letter ++) {
+                    if(getBegin(s, letter) < getEnd(s, letter)) set(enabled[letter], s);
+                }
+            }
+            long[] all = new long[numWords];
+            for(int s = 0; s < numStates; s ++) {
+                set(all, s);
+            }
+            long[][] sim = new long[numStates][];
+            for(int s = 0; s < numStates; s ++) {
+                long[] row = (direct && get(finals, s)) ? finals.clone() : all.clone();
+                for(int letter = 0; letter < numLetters; letter ++) {
+                    if(getBegin(s, letter) == getEnd(s, letter)) continue;
+                    for(int w = 0; w < numWords; w ++) {
+                        row[w] &= enabled[letter][w];
+                    }
+                }
+                sim[s] = row;
+            }
+            return sim;
+        }
+        
+        // the states in lost no longer simulate succ, so t stops simulating a
+        // predecessor s of succ if t - a -> succ' only for succ' not simulating succ
+        private void propagate(long[][] sim, long[][] removed, boolean[] queued, ArrayDeque<Integer> queue
+                , long[] candidates, int succ, long[] lost) {
+            for(int letter = 0; letter < numLetters; letter ++) {
+                int preBegin = preOffsets[succ * numLetters + letter];
+                int preEnd = preOffsets[succ * numLetters + letter + 1];
+                if(preBegin == preEnd) continue;
+                // candidates are the a-predecessors of the lost states
+                boolean empty = true;
+                for(int w = 0; w < numWords; w ++) {
+                    candidates[w] = 0L;
+                }
+                for(int w = 0; w < numWords; w ++) {
+                    long bits = lost[w];
+                    while(bits != 0) {
+                        int state = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        for(int i = preOffsets[state * numLetters + letter]; i < preOffsets[state * numLetters + letter + 1]; i ++) {
+                            set(candidates, preTargets[i]);
+                            empty = false;
+                        }
+                    }
+                }
+                if(empty) continue;
+                for(int w = 0; w < numWords; w ++) {
+                    long bits = candidates[w];
+                    while(bits != 0) {
+                        int t = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        if(hasSuccessorIn(t, letter, sim[succ])) continue;
+                        for(int i = preBegin; i < preEnd; i ++) {
+                            int s = preTargets[i];
+                            if(! get(sim[s], t)) continue;
+                            unset(sim[s], t);
+                            if(removed[s] == null) removed[s] = new long[numWords];
+                            set(removed[s], t);
+                            if(! queued[s]) {
+                                queued[s] = true;
+                                queue.add(s);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        
+        private boolean hasSuccessorIn(int state, int letter, long[] states) {
+            for(int i = getBegin(state, letter); i < getEnd(state, letter); i ++) {
+                if(get(states, postTargets[i])) return true;
+            }
+            return false;
+        }
+        
+        private int getBegin(int state, int letter) {
+            return postOffsets[state * numLetters + letter];
+        }
+        
+        private int getEnd(int state, int letter) {
+            return postOffsets[state * numLetters + letter + 1];
+        }
+        
+        private long lastWordMask() {
+            int rest = numStates & 63;
+            return rest == 0 ? -1L : (1L << rest) - 1;
+        }
+    }
+    
+    private static boolean get(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    private static void unset(long[] bits, int index) {
+        bits[index >>> 6] &= ~(1L << index);
+    }
 
 }
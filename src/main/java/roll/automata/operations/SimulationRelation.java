@@ -0,0 +1,96 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.automata.operations;
+
+/**
+ * A simulation relation over states 0, ..., size - 1, stored as one packed
+ * row of bits per state: get(s, t) holds iff t simulates s.
+ * <br>
+ * The identity relation keeps no rows at all.
+ *
+ * @author Yong Li (liyong@ios.ac.cn)
+ * */
+
+public class SimulationRelation {
+
+    private final int size;
+    // rows[s] is the set of states which simulate s, null for the identity
+    private final long[][] rows;
+
+    SimulationRelation(int size, long[][] rows) {
+        this.size = size;
+        this.rows = rows;
+    }
+
+    public static SimulationRelation identity(int size) {
+        return new SimulationRelation(size, null);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * whether t simulates s
+     * */
+    public boolean get(int s, int t) {
+        assert s >= 0 && s < size && t >= 0 && t < size;
+        if(rows == null) return s == t;
+        return (rows[s][t >>> 6] & (1L << t)) != 0;
+    }
+
+    /**
+     * the set of states simulating s, packed into words of 64 bits
+     * */
+    public long[] getSimulators(int s) {
+        if(rows != null) return rows[s].clone();
+        long[] row = new long[(size + 63) >>> 6];
+        row[s >>> 6] |= 1L << s;
+        return row;
+    }
+
+    /**
+     * number of pairs in the relation
+     * */
+    public long cardinality() {
+        if(rows == null) return size;
+        long num = 0;
+        for(long[] row : rows) {
+            for(long word : row) {
+                num += Long.bitCount(word);
+            }
+        }
+        return num;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        boolean first = true;
+        for(int s = 0; s < size; s ++) {
+            for(int t = 0; t < size; t ++) {
+                if(s == t || ! get(s, t)) continue;
+                if(! first) builder.append(", ");
+                builder.append(s + " <= " + t);
+                first = false;
+            }
+        }
+        builder.append("}");
+        return builder.toString();
+    }
+
+}
@@ -16,122 +16,241 @@
 
 package roll.automata.operations;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Stack;
-import java.util.TreeSet;
 
-import gnu.trove.map.TIntIntMap;
-import gnu.trove.map.hash.TIntIntHashMap;
-import roll.automata.NBA;
-import roll.automata.StateNFA;
+import roll.automata.FrozenNFA;
+import roll.automata.NFA;
 import roll.util.sets.ISet;
 import roll.util.sets.UtilISet;
 
-public class TarjanSCCs {
-	
-	private final NBA automaton;
-	private final LinkedList<ISet> maxSCCs;
-	private int index;
-	private final Stack<Integer> stack;
-	private final TIntIntMap indexMap ;
-	private final TIntIntMap lowlinkMap;
-	private ISet initials;
-	    
-	public TarjanSCCs(NBA aut, ISet initials) {
-		this.automaton = aut;
-		this.initials = initials;
-		this.maxSCCs = new LinkedList<>();
-        this.stack = new Stack<>();
-        this.lowlinkMap = new TIntIntHashMap();
-        this.indexMap   = new TIntIntHashMap();
-        explore();
-	}
-	
-	public List<ISet> getSCCs() {
-		return maxSCCs;
-	}
-
-	private void explore() {
-		index = 0;
-		for (final int n : initials) {
-			if (! indexMap.containsKey(n)) {
-				strongConnect(n);
-			}
-		}
-	}
-
-	@SuppressWarnings("unchecked")
-	private void strongConnect(int v) {
-		stack.push(v);
-		indexMap.put(v, index);
-		lowlinkMap.put(v, index);
-		++index;
-
-		StateNFA state = automaton.getState(v);
-		boolean hasSelfLoop = false;
-		for (int letter : state.getEnabledLetters()) {
-			for (int succ : state.getSuccessors(letter)) {
-				if(! hasSelfLoop && v == succ) {
-					hasSelfLoop = true;
-				}
-				if (!indexMap.containsKey(succ)) {
-					strongConnect(succ);
-					lowlinkMap.put(v, Math.min(lowlinkMap.get(v), lowlinkMap.get(succ)));
-				} else if (stack.contains(succ)) {
-					lowlinkMap.put(v, Math.min(lowlinkMap.get(v), indexMap.get(succ)));
-				}
-			}
-		}
-
-		if (lowlinkMap.get(v) == indexMap.get(v)) {
-			// record scc states
-			ISet scc = UtilISet.newISet();
-			while (! stack.empty()) {
-				int t = stack.pop();
-				scc.set(t);
-				if (t == v)
-					break;
-			}
-			if(scc.cardinality() > 1 || hasSelfLoop) {
-				maxSCCs.add(scc);
-			}
-		}
-	}
-	
-//	public boolean isBSCC(ISet scc) {
-//		for(int c = 0; c < automaton.getAlphabetSize(); c ++) {
-//			ISet succs = automaton.getSuccessors(scc, c);
-//			if(! succs.subsetOf(scc)) {
-//				return false;
-//			}
-//		}
-//		return true;
-//	}
-	
-	public boolean hasPath(TreeSet<Integer> states, int p, int q) {
-		ISet visited = UtilISet.newISet();
-		return hasPath(states, visited, p, q);
-	}
-	
-	private boolean hasPath(TreeSet<Integer> states, ISet visited, int p, int q) {
-		assert states.contains(p) && states.contains(q);
-	    if(visited.get(p)) {
-	    	return false;
-	    }
-	    visited.set(p);
-	    for (int letter : automaton.getState(p).getEnabledLetters()) {
-			for (int succ : automaton.getState(p).getSuccessors(letter)) {
-				if(! states.contains(succ)) continue;
-				if(q == succ) return true;
-				if(hasPath(states, visited, succ, q)) {
-					return true;
-				}
-			}
-		}
-		return false;
-	}
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * Tarjan's SCC decomposition over the frozen transitions of an automaton.
+ * The dfs number and lowlink of the states are kept in int arrays and the
+ * call stack is explicit, so automata with millions of states do not overflow
+ * the Java stack.
+ * <br>
+ * Every SCC is reported to an {@link SCCVisitor} as soon as it is complete,
+ * i.e., the SCCs reachable from an SCC are always reported before it. The
+ * visitor can stop the search, for instance on the first accepting SCC.
+ * <br>
+ * Besides automata, plain graphs given in compressed sparse rows can be
+ * decomposed as well.
+ * */
 
+public class TarjanSCCs {
+    
+    public interface SCCVisitor {
+        /**
+         * The states of the SCC are states[from], ..., states[to - 1], the array
+         * is reused after the call returns. The SCC is nontrivial if it has at
+         * least two states or a self loop.
+         * @return true if the search should stop
+         * */
+        boolean visitSCC(int[] states, int from, int to, boolean nontrivial);
+    }
+    
+    private final FrozenNFA automaton;
+    // compressed rows of a plain graph, which is seen as an automaton with one letter
+    private final int[] graphOffsets;
+    private final int[] graphTargets;
+    private SCCVisitor visitor;
+    private final int numLetters;
+    
+    // dfs number of every state, -1 for states not visited yet
+    private final int[] dfsIndex;
+    private final int[] lowlink;
+    private final boolean[] onStack;
+    // states of the SCCs which are not complete yet
+    private final int[] sccStack;
+    private int sccTop;
+    // call stack, every state on it with its next transition
+    private final int[] callState;
+    private final int[] callLetter;
+    private final int[] callIndex;
+    private int numVisited;
+    private boolean stopped;
+    
+    private List<ISet> maxSCCs;
+    
+    public TarjanSCCs(FrozenNFA automaton, SCCVisitor visitor) {
+        this(automaton, null, null, automaton.getStateSize(), automaton.getAlphabetSize(), visitor);
+    }
+    
+    /**
+     * SCCs of the graph over the states 0, ..., offsets.length - 2, where the
+     * successors of s are targets[offsets[s]], ..., targets[offsets[s + 1] - 1]
+     * */
+    public TarjanSCCs(int[] offsets, int[] targets, SCCVisitor visitor) {
+        this(null, offsets, targets, offsets.length - 1, 1, visitor);
+    }
+    
+    private TarjanSCCs(FrozenNFA automaton, int[] offsets, int[] targets
+            , int numStates, int numLetters, SCCVisitor visitor) {
+        this.automaton = automaton;
+        this.graphOffsets = offsets;
+        this.graphTargets = targets;
+        this.visitor = visitor;
+        this.numLetters = numLetters;
+        this.dfsIndex = new int[numStates];
+        Arrays.fill(dfsIndex, -1);
+        this.lowlink = new int[numStates];
+        this.onStack = new boolean[numStates];
+        this.sccStack = new int[numStates];
+        this.callState = new int[numStates];
+        this.callLetter = new int[numStates];
+        this.callIndex = new int[numStates];
+    }
+    
+    /**
+     * collect the nontrivial SCCs reachable from initials
+     * */
+    public TarjanSCCs(NFA aut, ISet initials) {
+        this(aut.freeze(), null);
+        final List<ISet> sccs = new LinkedList<>();
+        this.visitor = (states, from, to, nontrivial) -> {
+            if(nontrivial) {
+                sccs.add(toISet(states, from, to));
+            }
+            return false;
+        };
+        this.maxSCCs = sccs;
+        explore(initials);
+    }
+    
+    public List<ISet> getSCCs() {
+        return maxSCCs;
+    }
+    
+    public static ISet toISet(int[] states, int from, int to) {
+        ISet result = UtilISet.newISet();
+        for(int i = from; i < to; i ++) {
+            result.set(states[i]);
+        }
+        return result;
+    }
+    
+    public boolean isVisited(int state) {
+        return dfsIndex[state] >= 0;
+    }
+    
+    // whether the visitor has stopped the search
+    public boolean isStopped() {
+        return stopped;
+    }
+    
+    /**
+     * explore the states reachable from roots which are not visited yet
+     * @return true if the visitor has stopped the search
+     * */
+    public boolean explore(ISet roots) {
+        for(final int root : roots) {
+            if(explore(root)) {
+                return true;
+            }
+        }
+        return stopped;
+    }
+    
+    /**
+     * explore the states reachable from root which are not visited yet
+     * @return true if the visitor has stopped the search
+     * */
+    public boolean explore(int root) {
+        if(stopped || dfsIndex[root] >= 0) {
+            return stopped;
+        }
+        int depth = 0;
+        enter(depth, root);
+        while(depth >= 0) {
+            final int state = callState[depth];
+            final int succ = nextSuccessor(depth);
+            if(succ >= 0) {
+                if(dfsIndex[succ] < 0) {
+                    depth ++;
+                    enter(depth, succ);
+                }else if(onStack[succ]) {
+                    lowlink[state] = Math.min(lowlink[state], dfsIndex[succ]);
+                }
+                continue;
+            }
+            // all successors of state have been explored
+            if(lowlink[state] == dfsIndex[state]) {
+                int from = sccTop;
+                do {
+                    from --;
+                    onStack[sccStack[from]] = false;
+                }while(sccStack[from] != state);
+                boolean nontrivial = sccTop - from > 1 || hasSelfLoop(state);
+                boolean stop = visitor.visitSCC(sccStack, from, sccTop, nontrivial);
+                sccTop = from;
+                if(stop) {
+                    stopped = true;
+                    return true;
+                }
+            }
+            depth --;
+            if(depth >= 0) {
+                final int pred = callState[depth];
+                lowlink[pred] = Math.min(lowlink[pred], lowlink[state]);
+            }
+        }
+        return false;
+    }
+    
+    private void enter(int depth, int state) {
+        dfsIndex[state] = numVisited;
+        lowlink[state] = numVisited;
+        numVisited ++;
+        onStack[state] = true;
+        sccStack[sccTop ++] = state;
+        callState[depth] = state;
+        callLetter[depth] = 0;
+        callIndex[depth] = numLetters > 0 ? getBegin(state, 0) : 0;
+    }
+    
+    // next successor of the state at depth, -1 if there is none
+    private int nextSuccessor(int depth) {
+        final int state = callState[depth];
+        int letter = callLetter[depth];
+        int index = callIndex[depth];
+        while(letter < numLetters) {
+            if(index < getEnd(state, letter)) {
+                callLetter[depth] = letter;
+                callIndex[depth] = index + 1;
+                return getTarget(index);
+            }
+            letter ++;
+            if(letter < numLetters) {
+                index = getBegin(state, letter);
+            }
+        }
+        callLetter[depth] = letter;
+        return -1;
+    }
+    
+    private boolean hasSelfLoop(int state) {
+        for(int letter = 0; letter < numLetters; letter ++) {
+            for(int index = getBegin(state, letter); index < getEnd(state, letter); index ++) {
+                if(getTarget(index) == state) return true;
+            }
+        }
+        return false;
+    }
+    
+    private int getBegin(int state, int letter) {
+        return automaton != null ? automaton.getBegin(state, letter) : graphOffsets[state];
+    }
+    
+    private int getEnd(int state, int letter) {
+        return automaton != null ? automaton.getEnd(state, letter) : graphOffsets[state + 1];
+    }
+    
+    private int getTarget(int index) {
+        return automaton != null ? automaton.getTarget(index) : graphTargets[index];
+    }
 
 }
-
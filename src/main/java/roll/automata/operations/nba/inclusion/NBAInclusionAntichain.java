@@ -0,0 +1,748 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.automata.operations.nba.inclusion;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import roll.automata.FrozenNFA;
+import roll.automata.NBA;
+import roll.automata.operations.NBASimulation;
+import roll.automata.operations.SimulationRelation;
+import roll.automata.operations.TarjanSCCs;
+import roll.main.complement.IsIncluded;
+import roll.util.Pair;
+import roll.words.Word;
+
+/**
+ * Ramsey-based inclusion check L(A) <= L(B) with antichains, working directly
+ * on {@link NBA}
+ * <br>
+ * A counterexample is a lasso u(v)^w such that A has a run i_A -u-> p -v-> p
+ * which visits an accepting state on the loop, while B does not accept it.
+ * The check explores two kinds of classes of finite words:
+ * <ul>
+ * <li> prefix classes (p, S) for the words u with i_A -u-> p and S the set of
+ * states reached by B on u;
+ * <li> loop classes (q, f, g) for the words v with p -v-> q in A, f whether an
+ * accepting state of A is visited and g the graph of the runs of B over v,
+ * labelled by whether they visit accepting states.
+ * </ul>
+ * Both are kept as antichains: a class is dropped if another class of the same
+ * A-state is at least as hard for B, measured with the direct simulation of B.
+ * A prefix class is also dropped if S has a state which delay simulates p.
+ * Whether B accepts u(v)^w only depends on S and g, so every pair of a prefix
+ * class and a loop class back to p is decided exactly.
+ *
+ * @author Yong Li (liyong@ios.ac.cn)
+ * */
+
+public class NBAInclusionAntichain implements IsIncluded {
+
+    private final NBA nbaA;
+    private final FrozenNFA A;
+    private final FrozenNFA B;
+    private final int numLetters;
+    private final int numStatesB;
+    private final int wordsB;
+    // post[letter * numStatesB + s] is the successor set of s in B
+    private final long[][] postB;
+    private final long[] finalB;
+    private final long[] liveB;
+    // simulators[s] is the set of states of B which directly simulate s
+    private final long[][] simulators;
+    // simulatorsA[p] is the set of states of B which delay simulate p in A
+    private final long[][] simulatorsA;
+
+    private Boolean result;
+    private Pair<Word, Word> counterexample;
+
+    public NBAInclusionAntichain(NBA nbaA, NBA nbaB) {
+        assert nbaA.getAlphabetSize() == nbaB.getAlphabetSize();
+        this.nbaA = nbaA;
+        this.A = nbaA.freeze();
+        this.B = nbaB.freeze();
+        this.numLetters = A.getAlphabetSize();
+        this.numStatesB = B.getStateSize();
+        this.wordsB = (numStatesB + 63) >>> 6;
+        this.finalB = new long[wordsB];
+        for(int s = 0; s < numStatesB; s ++) {
+            if(B.isFinal(s)) set(finalB, s);
+        }
+        this.postB = new long[numLetters * numStatesB][];
+        for(int letter = 0; letter < numLetters; letter ++) {
+            for(int s = 0; s < numStatesB; s ++) {
+                long[] succs = new long[wordsB];
+                for(int i = B.getBegin(s, letter); i < B.getEnd(s, letter); i ++) {
+                    set(succs, B.getTarget(i));
+                }
+                postB[letter * numStatesB + s] = succs;
+            }
+        }
+        // runs of B through states without accepting cycles ahead are never accepting
+        this.liveB = computeLiveStates();
+        for(long[] succs : postB) {
+            for(int w = 0; w < wordsB; w ++) {
+                succs[w] &= liveB[w];
+            }
+        }
+        // the direct simulation on all of B is contained in the one on the live states,
+        // which ignores moves into dead states, so it is a sound choice for the antichains
+        SimulationRelation relation = NBASimulation.computeDirectSimulation(nbaB);
+        this.simulators = new long[numStatesB][];
+        for(int s = 0; s < numStatesB; s ++) {
+            this.simulators[s] = relation.getSimulators(s);
+        }
+        this.simulatorsA = computeDelayedSimulationAB();
+    }
+
+    @Override
+    public Boolean isIncluded() {
+        if(result == null) {
+            result = check();
+        }
+        return result;
+    }
+
+    @Override
+    public Pair<Word, Word> getCounterexample() {
+        isIncluded();
+        return counterexample;
+    }
+
+    // ------------------------------------------------------------------------
+    private boolean check() {
+        if(A.getInitialState() < 0) return true;
+        int numStatesA = A.getStateSize();
+        // scc[p] is a representative of the SCC of p, only set for reachable states
+        int[] scc = new int[numStatesA];
+        Arrays.fill(scc, -1);
+        // states on an accepting cycle and states from which one is reachable
+        boolean[] onCycle = new boolean[numStatesA];
+        boolean[] live = new boolean[numStatesA];
+        TarjanSCCs tarjan = new TarjanSCCs(A, (states, from, to, nontrivial) -> {
+            int root = states[from];
+            boolean accepting = false;
+            for(int i = from; i < to; i ++) {
+                scc[states[i]] = root;
+                accepting = accepting || A.isFinal(states[i]);
+            }
+            boolean cycle = nontrivial && accepting;
+            // the SCCs reachable from this one have been reported before
+            boolean reachesCycle = cycle;
+            for(int i = from; i < to && ! reachesCycle; i ++) {
+                for(int letter = 0; letter < numLetters && ! reachesCycle; letter ++) {
+                    for(int j = A.getBegin(states[i], letter); j < A.getEnd(states[i], letter); j ++) {
+                        if(live[A.getTarget(j)]) {
+                            reachesCycle = true;
+                            break;
+                        }
+                    }
+                }
+            }
+            for(int i = from; i < to; i ++) {
+                onCycle[states[i]] = cycle;
+                live[states[i]] = reachesCycle;
+            }
+            return false;
+        });
+        tarjan.explore(A.getInitialState());
+        List<List<PrefixClass>> prefixes = explorePrefixes(live);
+        for(int p = 0; p < numStatesA; p ++) {
+            if(prefixes.get(p).isEmpty() || ! onCycle[p]) continue;
+            if(! exploreLoops(scc, p, prefixes.get(p))) return false;
+        }
+        return true;
+    }
+
+    // ------------------------------------------------------------------------
+    // prefix classes
+
+    private static class PrefixClass {
+        final int state;
+        final long[] states;
+        final Word word;
+        boolean removed;
+
+        PrefixClass(int state, long[] states, Word word) {
+            this.state = state;
+            this.states = states;
+            this.word = word;
+        }
+    }
+
+    private List<List<PrefixClass>> explorePrefixes(boolean[] live) {
+        List<List<PrefixClass>> antichains = new ArrayList<>();
+        for(int p = 0; p < A.getStateSize(); p ++) {
+            antichains.add(new ArrayList<>());
+        }
+        ArrayDeque<PrefixClass> queue = new ArrayDeque<>();
+        long[] init = new long[wordsB];
+        if(B.getInitialState() >= 0 && get(liveB, B.getInitialState())) {
+            set(init, B.getInitialState());
+        }
+        addPrefix(antichains, queue, new PrefixClass(A.getInitialState(), init, nbaA.getAlphabet().getEmptyWord()));
+        while(! queue.isEmpty()) {
+            PrefixClass curr = queue.poll();
+            if(curr.removed) continue;
+            for(int letter = 0; letter < numLetters; letter ++) {
+                int begin = A.getBegin(curr.state, letter);
+                int end = A.getEnd(curr.state, letter);
+                if(begin == end) continue;
+                long[] succs = post(curr.states, letter);
+                Word word = curr.word.append(letter);
+                for(int i = begin; i < end; i ++) {
+                    int q = A.getTarget(i);
+                    if(! live[q]) continue;
+                    addPrefix(antichains, queue, new PrefixClass(q, succs, word));
+                }
+            }
+        }
+        for(List<PrefixClass> antichain : antichains) {
+            antichain.removeIf(c -> c.removed);
+        }
+        return antichains;
+    }
+
+    private void addPrefix(List<List<PrefixClass>> antichains, ArrayDeque<PrefixClass> queue, PrefixClass prefix) {
+        // B accepts every word from prefix.states which A accepts from prefix.state
+        if(intersects(simulatorsA[prefix.state], prefix.states)) return;
+        List<PrefixClass> antichain = antichains.get(prefix.state);
+        for(PrefixClass other : antichain) {
+            if(! other.removed && isSimulatedBy(other.states, prefix.states)) {
+                return;
+            }
+        }
+        for(PrefixClass other : antichain) {
+            if(! other.removed && isSimulatedBy(prefix.states, other.states)) {
+                other.removed = true;
+            }
+        }
+        antichain.removeIf(c -> c.removed);
+        antichain.add(prefix);
+        queue.add(prefix);
+    }
+
+    // every state in fst is simulated by some state in snd, so L(fst) <= L(snd)
+    private boolean isSimulatedBy(long[] fst, long[] snd) {
+        for(int w = 0; w < wordsB; w ++) {
+            long bits = fst[w];
+            while(bits != 0) {
+                int s = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if(! intersects(simulators[s], snd)) return false;
+            }
+        }
+        return true;
+    }
+
+    private long[] post(long[] states, int letter) {
+        long[] succs = new long[wordsB];
+        for(int w = 0; w < wordsB; w ++) {
+            long bits = states[w];
+            while(bits != 0) {
+                int s = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                or(succs, postB[letter * numStatesB + s]);
+            }
+        }
+        return succs;
+    }
+
+    // ------------------------------------------------------------------------
+    // loop classes
+
+    private static class LoopClass {
+        final int state;
+        final boolean accepting;
+        // runs of B, reach rows followed by the rows of runs visiting accepting states
+        final long[] graph;
+        final Word word;
+        boolean removed;
+
+        LoopClass(int state, boolean accepting, long[] graph, Word word) {
+            this.state = state;
+            this.accepting = accepting;
+            this.graph = graph;
+            this.word = word;
+        }
+    }
+
+    // false if a counterexample has been found
+    private boolean exploreLoops(int[] scc, int p, List<PrefixClass> prefixes) {
+        // only the runs of B from states reachable from the prefix classes matter,
+        // and only the runs of A which can return to p, i.e., stay in the SCC of p
+        long[] sources = getReachableStates(prefixes);
+        List<List<LoopClass>> antichains = new ArrayList<>();
+        for(int q = 0; q < A.getStateSize(); q ++) {
+            antichains.add(new ArrayList<>());
+        }
+        ArrayDeque<LoopClass> queue = new ArrayDeque<>();
+        Word empty = nbaA.getAlphabet().getEmptyWord();
+        for(int letter = 0; letter < numLetters; letter ++) {
+            long[] graph = null;
+            for(int i = A.getBegin(p, letter); i < A.getEnd(p, letter); i ++) {
+                int q = A.getTarget(i);
+                if(scc[q] != scc[p]) continue;
+                if(graph == null) graph = letterGraph(sources, letter);
+                LoopClass loop = new LoopClass(q, A.isFinal(p) || A.isFinal(q), graph, empty.append(letter));
+                if(addLoop(antichains, queue, loop) && ! checkLoop(p, loop, prefixes)) return false;
+            }
+        }
+        while(! queue.isEmpty()) {
+            LoopClass curr = queue.poll();
+            if(curr.removed) continue;
+            for(int letter = 0; letter < numLetters; letter ++) {
+                int begin = A.getBegin(curr.state, letter);
+                int end = A.getEnd(curr.state, letter);
+                long[] graph = null;
+                for(int i = begin; i < end; i ++) {
+                    int q = A.getTarget(i);
+                    if(scc[q] != scc[p]) continue;
+                    if(graph == null) graph = extendGraph(sources, curr.graph, letter);
+                    LoopClass loop = new LoopClass(q, curr.accepting || A.isFinal(q), graph, curr.word.append(letter));
+                    if(addLoop(antichains, queue, loop) && ! checkLoop(p, loop, prefixes)) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean addLoop(List<List<LoopClass>> antichains, ArrayDeque<LoopClass> queue, LoopClass loop) {
+        List<LoopClass> antichain = antichains.get(loop.state);
+        for(LoopClass other : antichain) {
+            if(! other.removed && isHarder(other, loop)) {
+                return false;
+            }
+        }
+        for(LoopClass other : antichain) {
+            if(! other.removed && isHarder(loop, other)) {
+                other.removed = true;
+            }
+        }
+        antichain.removeIf(c -> c.removed);
+        antichain.add(loop);
+        queue.add(loop);
+        return true;
+    }
+
+    // fst is at least as hard for B as snd: every labelled run s -> t in fst is
+    // matched by a run s -> t' in snd with t' simulating t, so whenever B accepts
+    // a lasso with the loop of fst, it also accepts the one with the loop of snd
+    private boolean isHarder(LoopClass fst, LoopClass snd) {
+        if(snd.accepting && ! fst.accepting) return false;
+        if(isSubset(fst.graph, snd.graph)) return true;
+        int rows = 2 * numStatesB;
+        for(int row = 0; row < rows; row ++) {
+            int offset = row * wordsB;
+            for(int w = 0; w < wordsB; w ++) {
+                long bits = fst.graph[offset + w] & ~snd.graph[offset + w];
+                while(bits != 0) {
+                    int t = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if(! intersects(simulators[t], snd.graph, offset)) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // check the lassos u(v)^w for all prefix classes of p, false if one is not in B
+    private boolean checkLoop(int p, LoopClass loop, List<PrefixClass> prefixes) {
+        if(loop.state != p || ! loop.accepting) return true;
+        long[] goodStarts = getAcceptingStarts(loop.graph);
+        for(PrefixClass prefix : prefixes) {
+            if(! intersects(prefix.states, goodStarts)) {
+                counterexample = new Pair<>(prefix.word, loop.word);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long[] getReachableStates(List<PrefixClass> prefixes) {
+        long[] states = new long[wordsB];
+        for(PrefixClass prefix : prefixes) {
+            or(states, prefix.states);
+        }
+        int[] queue = new int[numStatesB];
+        int head = 0, tail = 0;
+        for(int s = 0; s < numStatesB; s ++) {
+            if(get(states, s)) queue[tail ++] = s;
+        }
+        while(head < tail) {
+            int s = queue[head ++];
+            for(int letter = 0; letter < numLetters; letter ++) {
+                long[] succs = postB[letter * numStatesB + s];
+                for(int w = 0; w < wordsB; w ++) {
+                    long bits = succs[w] & ~states[w];
+                    states[w] |= bits;
+                    while(bits != 0) {
+                        queue[tail ++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                    }
+                }
+            }
+        }
+        return states;
+    }
+
+    private long[] letterGraph(long[] sources, int letter) {
+        long[] graph = new long[2 * numStatesB * wordsB];
+        int accOffset = numStatesB * wordsB;
+        for(int s = 0; s < numStatesB; s ++) {
+            if(! get(sources, s)) continue;
+            long[] succs = postB[letter * numStatesB + s];
+            boolean fin = B.isFinal(s);
+            for(int w = 0; w < wordsB; w ++) {
+                graph[s * wordsB + w] = succs[w];
+                graph[accOffset + s * wordsB + w] = fin ? succs[w] : (succs[w] & finalB[w]);
+            }
+        }
+        return graph;
+    }
+
+    private long[] extendGraph(long[] sources, long[] graph, int letter) {
+        long[] result = new long[2 * numStatesB * wordsB];
+        int accOffset = numStatesB * wordsB;
+        long[] reach = new long[wordsB];
+        long[] acc = new long[wordsB];
+        for(int s = 0; s < numStatesB; s ++) {
+            if(! get(sources, s)) continue;
+            Arrays.fill(reach, 0L);
+            Arrays.fill(acc, 0L);
+            for(int w = 0; w < wordsB; w ++) {
+                long bits = graph[s * wordsB + w];
+                long accBits = graph[accOffset + s * wordsB + w];
+                while(bits != 0) {
+                    int t = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    long bit = bits & -bits;
+                    bits ^= bit;
+                    long[] succs = postB[letter * numStatesB + t];
+                    or(reach, succs);
+                    if((accBits & bit) != 0) or(acc, succs);
+                }
+            }
+            for(int w = 0; w < wordsB; w ++) {
+                result[s * wordsB + w] = reach[w];
+                result[accOffset + s * wordsB + w] = acc[w] | (reach[w] & finalB[w]);
+            }
+        }
+        return result;
+    }
+
+    // states of B from which the runs in the graph can be repeated forever visiting accepting states,
+    // i.e., the states which can reach an SCC with an accepting edge inside
+    private long[] getAcceptingStarts(long[] graph) {
+        int accOffset = numStatesB * wordsB;
+        int[] offsets = new int[numStatesB + 1];
+        for(int s = 0; s < numStatesB; s ++) {
+            int degree = 0;
+            for(int w = 0; w < wordsB; w ++) {
+                degree += Long.bitCount(graph[s * wordsB + w]);
+            }
+            offsets[s + 1] = offsets[s] + degree;
+        }
+        int[] targets = new int[offsets[numStatesB]];
+        for(int s = 0; s < numStatesB; s ++) {
+            int index = offsets[s];
+            for(int w = 0; w < wordsB; w ++) {
+                long bits = graph[s * wordsB + w];
+                while(bits != 0) {
+                    targets[index ++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                }
+            }
+        }
+        // scc[s] is a representative of the SCC of s
+        int[] scc = new int[numStatesB];
+        long[] starts = new long[wordsB];
+        TarjanSCCs tarjan = new TarjanSCCs(offsets, targets, (states, from, to, nontrivial) -> {
+            int root = states[from];
+            for(int i = from; i < to; i ++) {
+                scc[states[i]] = root;
+            }
+            // the SCCs reachable from this one have been reported before
+            boolean good = false;
+            for(int i = from; i < to && ! good; i ++) {
+                int s = states[i];
+                for(int j = offsets[s]; j < offsets[s + 1]; j ++) {
+                    int t = targets[j];
+                    good = scc[t] == root ? get(graph, accOffset + s * wordsB, t) : get(starts, t);
+                    if(good) break;
+                }
+            }
+            if(good) {
+                for(int i = from; i < to; i ++) {
+                    set(starts, states[i]);
+                }
+            }
+            return false;
+        });
+        for(int s = 0; s < numStatesB; s ++) {
+            tarjan.explore(s);
+        }
+        return starts;
+    }
+
+    // states of B which can reach an accepting cycle
+    private long[] computeLiveStates() {
+        long[] graph = new long[2 * numStatesB * wordsB];
+        int accOffset = numStatesB * wordsB;
+        for(int s = 0; s < numStatesB; s ++) {
+            for(int letter = 0; letter < numLetters; letter ++) {
+                long[] succs = postB[letter * numStatesB + s];
+                for(int w = 0; w < wordsB; w ++) {
+                    graph[s * wordsB + w] |= succs[w];
+                }
+            }
+            if(B.isFinal(s)) {
+                System.arraycopy(graph, s * wordsB, graph, accOffset + s * wordsB, wordsB);
+            }
+        }
+        return getAcceptingStarts(graph);
+    }
+
+    // ------------------------------------------------------------------------
+    // delayed simulation between the states of A and the states of B, solved as
+    // a Buchi game: in a node (p, t, pending) A moves p - a -> q, which leads to
+    // the node (q, t, a, pending') where B answers with t - a -> t'. pending means
+    // that A has visited an accepting state which B has not answered yet, B has to
+    // clear it infinitely often. The winning region of B is computed with
+    // attractors, so the time is in O(n * m) for n nodes and m moves of the game
+    private long[][] computeDelayedSimulationAB() {
+        int numStatesA = A.getStateSize();
+        int[][] predsA = getPredecessors(A);
+        int[][] predsB = getPredecessors(B);
+        int numNodesA = 2 * numStatesA * numStatesB;
+        int numNodesB = numNodesA * numLetters;
+        int[] degreeA = new int[numStatesA];
+        for(int p = 0; p < numStatesA; p ++) {
+            for(int letter = 0; letter < numLetters; letter ++) {
+                degreeA[p] += A.getEnd(p, letter) - A.getBegin(p, letter);
+            }
+        }
+        // nodes still in the game, B loses from the nodes removed from it
+        boolean[] aliveA = new boolean[numNodesA];
+        boolean[] aliveB = new boolean[numNodesB];
+        Arrays.fill(aliveA, true);
+        Arrays.fill(aliveB, true);
+        // number of answers of B still in the game
+        int[] answersB = new int[numNodesB];
+        for(int node = 0; node < numNodesB; node ++) {
+            int t = (node >>> 1) / numLetters % numStatesB;
+            int letter = (node >>> 1) % numLetters;
+            answersB[node] = B.getEnd(t, letter) - B.getBegin(t, letter);
+        }
+        boolean[] attrA = new boolean[numNodesA];
+        boolean[] attrB = new boolean[numNodesB];
+        int[] movesA = new int[numNodesA];
+        // nodes of B are put in the queue after the nodes of A
+        int[] queue = new int[numNodesA + numNodesB];
+        while(true) {
+            // nodes from which B can force a node without pending obligation
+            Arrays.fill(attrA, false);
+            Arrays.fill(attrB, false);
+            int head = 0, tail = 0;
+            for(int node = 0; node < numNodesA; node ++) {
+                if(! aliveA[node]) continue;
+                int p = (node >>> 1) / numStatesB;
+                movesA[node] = degreeA[p];
+                if((node & 1) == 0 || degreeA[p] == 0) {
+                    attrA[node] = true;
+                    queue[tail ++] = node;
+                }
+            }
+            while(head < tail) {
+                int node = queue[head ++];
+                if(node < numNodesA) {
+                    int q = (node >>> 1) / numStatesB;
+                    int t = (node >>> 1) % numStatesB;
+                    for(int letter = 0; letter < numLetters; letter ++) {
+                        int[] offsets = predsB[0];
+                        for(int i = offsets[t * numLetters + letter]; i < offsets[t * numLetters + letter + 1]; i ++) {
+                            for(int pd = 0; pd < 2; pd ++) {
+                                if((pd == 1 && ! B.isFinal(t)) != ((node & 1) != 0)) continue;
+                                int pred = getNode(q, predsB[1][i], letter, pd);
+                                if(aliveB[pred] && ! attrB[pred]) {
+                                    attrB[pred] = true;
+                                    queue[tail ++] = numNodesA + pred;
+                                }
+                            }
+                        }
+                    }
+                }else {
+                    node -= numNodesA;
+                    int letter = (node >>> 1) % numLetters;
+                    int q = (node >>> 1) / numLetters / numStatesB;
+                    int t = (node >>> 1) / numLetters % numStatesB;
+                    int[] offsets = predsA[0];
+                    for(int i = offsets[q * numLetters + letter]; i < offsets[q * numLetters + letter + 1]; i ++) {
+                        for(int pending = 0; pending < 2; pending ++) {
+                            if((pending == 1 || A.isFinal(q)) != ((node & 1) != 0)) continue;
+                            int pred = getNode(predsA[1][i], t, pending);
+                            if(aliveA[pred] && ! attrA[pred] && -- movesA[pred] == 0) {
+                                attrA[pred] = true;
+                                queue[tail ++] = pred;
+                            }
+                        }
+                    }
+                }
+            }
+            // remove the nodes from which A can avoid them, and the nodes from which A can force those
+            head = 0;
+            tail = 0;
+            for(int node = 0; node < numNodesA; node ++) {
+                if(aliveA[node] && ! attrA[node]) {
+                    aliveA[node] = false;
+                    queue[tail ++] = node;
+                }
+            }
+            for(int node = 0; node < numNodesB; node ++) {
+                if(aliveB[node] && ! attrB[node]) {
+                    aliveB[node] = false;
+                    queue[tail ++] = numNodesA + node;
+                }
+            }
+            if(tail == 0) break;
+            while(head < tail) {
+                int node = queue[head ++];
+                if(node < numNodesA) {
+                    int q = (node >>> 1) / numStatesB;
+                    int t = (node >>> 1) % numStatesB;
+                    for(int letter = 0; letter < numLetters; letter ++) {
+                        int[] offsets = predsB[0];
+                        for(int i = offsets[t * numLetters + letter]; i < offsets[t * numLetters + letter + 1]; i ++) {
+                            for(int pd = 0; pd < 2; pd ++) {
+                                if((pd == 1 && ! B.isFinal(t)) != ((node & 1) != 0)) continue;
+                                int pred = getNode(q, predsB[1][i], letter, pd);
+                                if(aliveB[pred] && -- answersB[pred] == 0) {
+                                    aliveB[pred] = false;
+                                    queue[tail ++] = numNodesA + pred;
+                                }
+                            }
+                        }
+                    }
+                }else {
+                    node -= numNodesA;
+                    int letter = (node >>> 1) % numLetters;
+                    int q = (node >>> 1) / numLetters / numStatesB;
+                    int t = (node >>> 1) / numLetters % numStatesB;
+                    int[] offsets = predsA[0];
+                    for(int i = offsets[q * numLetters + letter]; i < offsets[q * numLetters + letter + 1]; i ++) {
+                        for(int pending = 0; pending < 2; pending ++) {
+                            if((pending == 1 || A.isFinal(q)) != ((node & 1) != 0)) continue;
+                            int pred = getNode(predsA[1][i], t, pending);
+                            if(aliveA[pred]) {
+                                aliveA[pred] = false;
+                                queue[tail ++] = pred;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        long[][] sim = new long[numStatesA][wordsB];
+        for(int p = 0; p < numStatesA; p ++) {
+            for(int t = 0; t < numStatesB; t ++) {
+                int pending = A.isFinal(p) && ! B.isFinal(t) ? 1 : 0;
+                if(aliveA[getNode(p, t, pending)]) set(sim[p], t);
+            }
+        }
+        return sim;
+    }
+
+    // node (p, t, pending) where A moves
+    private int getNode(int p, int t, int pending) {
+        return ((p * numStatesB + t) << 1) | pending;
+    }
+
+    // node (q, t, letter, pending) where B moves
+    private int getNode(int q, int t, int letter, int pending) {
+        return (((q * numStatesB + t) * numLetters + letter) << 1) | pending;
+    }
+
+    // the predecessors of s on letter are result[1][result[0][s * numLetters + letter]], ...,
+    // result[1][result[0][s * numLetters + letter + 1] - 1]
+    private int[][] getPredecessors(FrozenNFA aut) {
+        int numStates = aut.getStateSize();
+        int[] offsets = new int[numStates * numLetters + 1];
+        for(int s = 0; s < numStates; s ++) {
+            for(int letter = 0; letter < numLetters; letter ++) {
+                for(int i = aut.getBegin(s, letter); i < aut.getEnd(s, letter); i ++) {
+                    offsets[aut.getTarget(i) * numLetters + letter + 1] ++;
+                }
+            }
+        }
+        for(int i = 0; i < numStates * numLetters; i ++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] sources = new int[offsets[numStates * numLetters]];
+        int[] next = Arrays.copyOf(offsets, numStates * numLetters);
+        for(int s = 0; s < numStates; s ++) {
+            for(int letter = 0; letter < numLetters; letter ++) {
+                for(int i = aut.getBegin(s, letter); i < aut.getEnd(s, letter); i ++) {
+                    sources[next[aut.getTarget(i) * numLetters + letter] ++] = s;
+                }
+            }
+        }
+        return new int[][] { offsets, sources };
+    }
+
+    // ------------------------------------------------------------------------
+    private static boolean get(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static boolean get(long[] bits, int offset, int index) {
+        return (bits[offset + (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    private static void or(long[] dest, long[] src) {
+        for(int w = 0; w < dest.length; w ++) {
+            dest[w] |= src[w];
+        }
+    }
+
+    private static boolean intersects(long[] fst, long[] snd) {
+        for(int w = 0; w < fst.length; w ++) {
+            if((fst[w] & snd[w]) != 0) return true;
+        }
+        return false;
+    }
+
+    private static boolean intersects(long[] fst, long[] snd, int offset) {
+        for(int w = 0; w < fst.length; w ++) {
+            if((fst[w] & snd[offset + w]) != 0) return true;
+        }
+        return false;
+    }
+
+    private static boolean isSubset(long[] fst, long[] snd) {
+        for(int w = 0; w < fst.length; w ++) {
+            if((fst[w] & ~snd[w]) != 0) return false;
+        }
+        return true;
+    }
+
+}
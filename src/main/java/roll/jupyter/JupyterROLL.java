@@ -55,7 +55,7 @@ import roll.main.Options;
 import roll.oracle.MembershipOracle;
 import roll.oracle.TeacherAbstract;
 import roll.oracle.dfa.TeacherDFA;
-import roll.oracle.dfa.dk.TeacherDFADK;
+import roll.oracle.dfa.TeacherDFAImpl;
 import roll.oracle.fdfa.dk.TeacherFDFADK;
 import roll.oracle.nba.TeacherNBA;
 import roll.oracle.nba.rabit.TeacherNBARABIT;
@@ -250,7 +250,7 @@ public class JupyterROLL {
                 || options.algorithm == Options.Algorithm.DFA_LSTAR
                 || options.algorithm == Options.Algorithm.DFA_KV)) {
                options.automaton = Options.TargetAutomaton.DFA;
-               return new TeacherDFADK(options, (DFA)target);
+               return new TeacherDFAImpl(options, (DFA)target);
            }else if((target instanceof FDFA) && (options.algorithm == Options.Algorithm.PERIODIC
                    || options.algorithm == Options.Algorithm.SYNTACTIC
                    || options.algorithm == Options.Algorithm.RECURRENT)){
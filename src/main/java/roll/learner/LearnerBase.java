@@ -92,12 +92,16 @@ public abstract class LearnerBase<M> implements Learner<M, HashableValue>, IHTML
     }
     
     protected HashableValue getHashableValueBoolean(boolean result) {
-        return new HashableValueBoolean(result);
+        return HashableValueBoolean.valueOf(result);
+    }
+    
+    // query for the pair of a state label and a suffix in counterexample analysis
+    protected Query<HashableValue> makeMembershipQuery(Word prefix, Word suffix) {
+        return new QuerySimple<>(null, prefix, suffix, -1);
     }
     
     protected HashableValue processMembershipQuery(Word prefix, Word suffix) {
-        Query<HashableValue> query = new QuerySimple<>(null, prefix, suffix, -1);
-        return membershipOracle.answerMembershipQuery(query);
+        return membershipOracle.answerMembershipQuery(makeMembershipQuery(prefix, suffix));
     }
     
     protected HashableValue processMembershipQuery(Query<HashableValue> query) {
@@ -110,25 +114,41 @@ public abstract class LearnerBase<M> implements Learner<M, HashableValue>, IHTML
         throw new UnsupportedOperationException("Learner does not support makeMembershipQuery(ObservationRow, int, ExprValue)");
     }
     
+    // value put in the table for the answer of a membership query
+    protected HashableValue getRowHashableValue(Query<HashableValue> query, HashableValue mqResult) {
+        return mqResult;
+    }
+    
     protected Query<HashableValue> processMembershipQuery(ObservationRow row, int offset, ExprValue exprValue) {
         Query<HashableValue> query = makeMembershipQuery(row, offset, exprValue);
         HashableValue result = membershipOracle.answerMembershipQuery(query);
-        Query<HashableValue> queryResult = makeMembershipQuery(row, offset, exprValue);
-        queryResult.answerQuery(result);
-        return queryResult;
+        query.answerQuery(getRowHashableValue(query, result));
+        return query;
+    }
+    
+    // answer the queries in one batch, the answers are put in the queries
+    protected void processMembershipQueries(List<Query<HashableValue>> queries) {
+        if(queries.isEmpty()) return ;
+        List<HashableValue> results = membershipOracle.answerMembershipQueries(queries);
+        assert results.size() == queries.size();
+        for(int queryNr = 0; queryNr < queries.size(); queryNr ++) {
+            Query<HashableValue> query = queries.get(queryNr);
+            query.answerQuery(getRowHashableValue(query, results.get(queryNr)));
+        }
     }
     
     protected void processMembershipQueries(ObservationTable observationTable, List<ObservationRow> rows
             , int colOffset, int length) {
-        List<Query<HashableValue>> results = new ArrayList<>();
+        List<Query<HashableValue>> queries = new ArrayList<>(rows.size() * length);
         List<ExprValue> columns = observationTable.getColumns();
         int endNr = length + colOffset;
         for(ObservationRow row : rows) {
             for(int colNr = colOffset; colNr < endNr; colNr ++) {
-                results.add(processMembershipQuery(row, colNr, columns.get(colNr)));
+                queries.add(makeMembershipQuery(row, colNr, columns.get(colNr)));
             }
         }
-        putQueryAnswers(results);
+        processMembershipQueries(queries);
+        putQueryAnswers(queries);
     }
         
     protected void putQueryAnswers(List<Query<HashableValue>> queries) {
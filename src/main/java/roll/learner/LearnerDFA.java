@@ -19,6 +19,7 @@ package roll.learner;
 import roll.automata.DFA;
 import roll.main.Options;
 import roll.oracle.MembershipOracle;
+import roll.query.Query;
 import roll.table.ExprValue;
 import roll.table.HashableValue;
 import roll.words.Alphabet;
@@ -32,9 +33,20 @@ import roll.words.Word;
  * */
 public abstract class LearnerDFA extends LearnerFA<DFA> {
     
+    protected Options.CeAnalysis ceAnalysis;
+    
     public LearnerDFA(Options options, Alphabet alphabet
             , MembershipOracle<HashableValue> membershipOracle) {
         super(options, alphabet, membershipOracle);
+        this.ceAnalysis = options.ceAnalysis;
+    }
+    
+    public void setCeAnalysis(Options.CeAnalysis ceAnalysis) {
+        this.ceAnalysis = ceAnalysis;
+    }
+    
+    public Options.CeAnalysis getCeAnalysis() {
+        return ceAnalysis;
     }
         
     protected abstract CeAnalyzer getCeAnalyzerInstance(ExprValue exprValue, HashableValue result);
@@ -75,60 +87,136 @@ public abstract class LearnerDFA extends LearnerFA<DFA> {
             return this.exprValue.get();
         }
         
+        // states of the hypothesis along the counterexample, run[i] is reached by the first i letters
+        private int[] run;
+        // answers[i] is the answer for the label of run[i] and the suffix from the i-th letter
+        private HashableValue[] answers;
+        private Word wordCE;
+        private int numQueries;
+        
         protected CeAnalysisResult findBreakIndex() {
-            Word wordCE = getWordExperiment();
-            CeAnalysisResult ceResult = new CeAnalysisResult();
-            // get the initial state from automaton
-            int letterNr = 0, currState = -1, prevState = hypothesis.getInitialState();
+            wordCE = getWordExperiment();
+            final int length = wordCE.length();
+            run = new int[length + 1];
+            run[0] = hypothesis.getInitialState();
+            for(int letterNr = 0; letterNr < length; letterNr ++) {
+                run[letterNr + 1] = hypothesis.getSuccessor(run[letterNr], wordCE.getLetter(letterNr));
+            }
+            answers = new HashableValue[length + 1];
+            answers[0] = result;
+            numQueries = 0;
+            
+            int breakIndex;
+            switch(ceAnalysis) {
+            case BINARY:
+                breakIndex = searchBinary();
+                break;
+            case EXPONENTIAL:
+                breakIndex = searchExponential();
+                break;
+            case RS:
+                breakIndex = searchRivestSchapire(0, length);
+                break;
+            case CACHED:
+                breakIndex = searchCached();
+                break;
+            default:
+                breakIndex = searchLinear();
+                break;
+            }
             
-            if(! options.binarySearch) {
-                for (letterNr = 0; letterNr < wordCE.length(); letterNr++) {
-                    currState = hypothesis.getSuccessor(prevState, wordCE.getLetter(letterNr));
-                    Word prefix = getStateLabel(currState);
-                    Word suffix = wordCE.getSuffix(letterNr + 1);
-                    HashableValue memMq = processMembershipQuery(prefix, suffix);
-                    if (! result.valueEqual(memMq)) {
-                        ceResult.prevValue = result;
-                        ceResult.currValue = memMq;
-                        break;
+            CeAnalysisResult ceResult = new CeAnalysisResult();
+            ceResult.breakIndex = breakIndex;
+            ceResult.prevState = run[breakIndex];
+            ceResult.currState = run[breakIndex + 1];
+            ceResult.prevValue = getAnswer(breakIndex);
+            ceResult.currValue = getAnswer(breakIndex + 1);
+            options.stats.addCeAnalysis(numQueries);
+            return ceResult;
+        }
+        
+        private HashableValue getAnswer(int index) {
+            if(answers[index] == null) {
+                answers[index] = processMembershipQuery(getStateLabel(run[index]), wordCE.getSuffix(index));
+                numQueries ++;
+            }
+            return answers[index];
+        }
+        
+        private boolean isAnswerCached(int index) {
+            if(answers[index] != null) return true;
+            Query<HashableValue> query = makeMembershipQuery(getStateLabel(run[index]), wordCE.getSuffix(index));
+            return membershipOracle.isCached(query);
+        }
+        
+        // the first index whose answer differs from the answer for the counterexample
+        private int searchLinear() {
+            int index = 1;
+            while(index < wordCE.length() && result.valueEqual(getAnswer(index))) {
+                index ++;
+            }
+            return index - 1;
+        }
+        
+        // answers[low] agrees with the counterexample and answers[high + 1] does not
+        private int searchBinary() {
+            int low = 0, high = wordCE.length() - 1;
+            while(low < high) {
+                int mid = (low + high) / 2;
+                if (result.valueEqual(getAnswer(mid))) {
+                    if(! result.valueEqual(getAnswer(mid + 1))) {
+                        return mid;
                     }
-                    prevState = currState;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
                 }
-            }else {
-                // binary search
-                int low = 0, high = wordCE.length() - 1;
-                while(low <= high) {
-                    int mid = (low + high) / 2;
-                    assert mid < wordCE.length();
-                    int fst = hypothesis.getSuccessor(wordCE.getPrefix(mid));
-                    int snd = hypothesis.getSuccessor(fst, wordCE.getLetter(mid));
-                    Word fstLabel = getStateLabel(fst);
-                    Word sndLabel = getStateLabel(snd);
-                                        
-                    HashableValue fstMq = processMembershipQuery(fstLabel, wordCE.getSuffix(mid));
-                    HashableValue sndMq = processMembershipQuery(sndLabel, wordCE.getSuffix(mid + 1));
-                    
-                    if (! fstMq.valueEqual(sndMq)) {
-                        prevState = fst;
-                        letterNr = mid;
-                        currState = snd;
-                        ceResult.prevValue = fstMq;
-                        ceResult.currValue = sndMq;
-                        break;
-                    }
-
-                    if (fstMq.valueEqual(result)) {
-                        low = mid + 1;
-                    } else {
-                        high = mid;
-                    }
+            }
+            return low;
+        }
+        
+        /**
+         * answers[low] agrees with the counterexample while answers[high] does not,
+         * thus there is a break index between low and high, the answer for the
+         * whole word (high = n) is never asked
+         * */
+        private int searchRivestSchapire(int low, int high) {
+            while(high - low > 1) {
+                int mid = (low + high) >>> 1;
+                if(result.valueEqual(getAnswer(mid))) {
+                    low = mid;
+                }else {
+                    high = mid;
                 }
             }
-            
-            ceResult.breakIndex = letterNr;
-            ceResult.prevState = prevState;
-            ceResult.currState = currState;
-            return ceResult;
+            return low;
+        }
+        
+        // the break index is found in O(log j) queries if it is j
+        private int searchExponential() {
+            final int length = wordCE.length();
+            int low = 0, step = 1;
+            while(low + step < length && result.valueEqual(getAnswer(low + step))) {
+                low += step;
+                step *= 2;
+            }
+            return searchRivestSchapire(low, Math.min(low + step, length));
+        }
+        
+        // the answers in the cache narrow the range of the binary search for free
+        private int searchCached() {
+            final int length = wordCE.length();
+            int low = 0, high = length;
+            for(int index = 1; index < length; index ++) {
+                if(! isAnswerCached(index)) continue;
+                if(result.valueEqual(getAnswer(index))) {
+                    low = index;
+                }else {
+                    high = index;
+                    break;
+                }
+            }
+            return searchRivestSchapire(low, high);
         }
     }
     // only valid for column based algorithms
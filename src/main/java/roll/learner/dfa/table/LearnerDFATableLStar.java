@@ -227,24 +227,14 @@ public class LearnerDFATableLStar extends LearnerDFATable {
         ObservationRow stateRow = observationTable.getUpperTable().get(state);
         Word succWord = stateRow.getWord().append(letter);
 
-        // search in upper table
-        for(int succ = 0; succ < observationTable.getUpperTable().size(); succ ++) {
-            ObservationRow succRow = observationTable.getUpperTable().get(succ);
-            if(succRow.getWord().equals(succWord)) {
-                return succRow.getValues();
-            }
-        }
-        // search in lower table
-        ObservationRow succRow = observationTable.getLowerTableRow(succWord);
+        // the successor row must be equal to some upper row
+        ObservationRow succRow = observationTable.getTableRow(succWord);
         assert succRow != null;
-        for(int succ = 0; succ < observationTable.getUpperTable().size(); succ ++) {
-            ObservationRow upperRow = observationTable.getUpperTable().get(succ);
-            if(succRow.valuesEqual(upperRow)) {
-                return succRow.getValues();
-            }
+        if(observationTable.getUpperTableRowIndex(succWord) == -1) {
+            assert false : "successor values not found";
+            return null;
         }
-        assert false : "successor values not found";
-        return null;
+        return succRow.getValues();
     }
 
     @Override
@@ -16,12 +16,21 @@
 
 package roll.learner.dfa.table;
 
+import roll.table.ObservationRowBase;
+import roll.table.ObservationRowBoolean;
 import roll.table.ObservationTableBase;
+import roll.words.Word;
 
 class ObservationTableDFA extends ObservationTableBase {
 	
 	public ObservationTableDFA() {
 		super();
 	}
+	
+	// boolean rows are packed, the FDFA tables fall back to lists of values
+	@Override
+	public ObservationRowBase getRowInstance(Word word) {
+		return new ObservationRowBoolean(word);
+	}
 
 }
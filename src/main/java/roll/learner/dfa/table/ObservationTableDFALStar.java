@@ -16,9 +16,14 @@
 
 package roll.learner.dfa.table;
 
+import java.util.List;
+import java.util.Map;
+
 import roll.table.ExprValue;
 import roll.table.ExprValueWord;
 import roll.table.ObservationRow;
+import roll.table.ObservationRowBase;
+import roll.table.ObservationRowBoolean;
 import roll.table.ObservationTableBase;
 import roll.words.Alphabet;
 import roll.words.Word;
@@ -35,16 +40,26 @@ class ObservationTableDFALStar extends ObservationTableBase {
         super();
         this.alphabet = alphabet;
     }
+    
+    @Override
+    public ObservationRowBase getRowInstance(Word word) {
+        return new ObservationRowBoolean(word);
+    }
 
     // row(s1) = row(s2) then it should be row(s1.a) = row(s2.a) for every a
+    // only the upper rows with the same signature need to be compared
     @Override
     public ExprValue getInconsistentColumn() {
+        Map<Long, List<Integer>> classes = getUpperClasses();
         for(int letter = 0; letter < alphabet.getLetterSize(); letter ++) {
             for(int rowNr1 = 0; rowNr1 < upperTable.size(); rowNr1 ++) {
-                for(int rowNr2 = rowNr1 + 1; rowNr2 < upperTable.size(); rowNr2 ++) {
-                    ObservationRow upperRow1 = upperTable.get(rowNr1);
+                ObservationRow upperRow1 = upperTable.get(rowNr1);
+                List<Integer> candidates = classes.get(upperRow1.getSignature());
+                if(candidates.size() <= 1) continue;
+                for(final int rowNr2 : candidates) {
+                    if(rowNr2 <= rowNr1) continue;
                     ObservationRow upperRow2 = upperTable.get(rowNr2);
-                    if(upperRow1.getValues().equals(upperRow2.getValues())) {
+                    if(upperRow1.valuesEqual(upperRow2)) {
                         ObservationRow rowState1 = getTableRow(upperRow1.getWord().append(letter));
                         ObservationRow rowState2 = getTableRow(upperRow2.getWord().append(letter));
                         Word columnExperiment = checkConsistency(rowState1, rowState2);
@@ -60,16 +75,9 @@ class ObservationTableDFALStar extends ObservationTableBase {
     private Word checkConsistency(
             ObservationRow row1
           , ObservationRow row2) {
-        int index = 0;
-        Word columnExperiment = null;
-        while(index < columns.size()) {
-            if(!row1.getValues().get(index).valueEqual(row2.getValues().get(index))) {
-                columnExperiment = columns.get(index).get();
-                break;
-            }
-            ++ index; 
-        }
-        return columnExperiment;
+        int index = row1.getFirstDifference(row2);
+        if(index == -1) return null;
+        return columns.get(index).get();
     }
 
 }
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import gnu.trove.iterator.TIntObjectIterator;
+import gnu.trove.list.array.TIntArrayList;
 import roll.automata.DFA;
 import roll.automata.StateNFA;
 import roll.jupyter.NativeTool;
@@ -47,6 +48,11 @@ public abstract class LearnerDFATree extends LearnerDFA{
 	// updates for tree
     protected List<ValueNode> states;
     
+    // the hypothesis is patched with the transitions (from, letter, to) updated
+    // since its construction, and rebuilt once the states are created again
+    protected boolean rebuildHypothesis = true;
+    protected final TIntArrayList updatedTransitions = new TIntArrayList();
+    
     
 	public LearnerDFATree(Options options, Alphabet alphabet,
 			MembershipOracle<HashableValue> membershipOracle) {
@@ -55,6 +61,9 @@ public abstract class LearnerDFATree extends LearnerDFA{
 	}
 	
 	protected ValueNode createNode(Node<ValueNode> node) {
+		if(states.isEmpty()) {
+			rebuildHypothesis = true;
+		}
 		ValueNode valueNode = new ValueNode(states.size(), node.getLabel().get());
 		states.add(valueNode);
 		valueNode.node = node;
@@ -88,7 +97,43 @@ public abstract class LearnerDFATree extends LearnerDFA{
 		if (nodeToSplit != null) {
 			updatePredecessors();
 		}
-		
+		if(rebuildHypothesis || ! canPatchHypothesis()) {
+			buildHypothesis();
+		}else {
+			patchHypothesis();
+		}
+		rebuildHypothesis = false;
+		updatedTransitions.clear();
+	}
+	
+	// only new states may become final
+	protected boolean canPatchHypothesis() {
+		if(hypothesis == null || hypothesis.getStateSize() > states.size()) {
+			return false;
+		}
+		if(nodeToSplit == null) {
+			return true;
+		}
+		ValueNode state = nodeToSplit.getValue();
+		return isAccepting(state) == hypothesis.isFinal(state.id);
+	}
+	
+	// add the new states and redirect the updated transitions
+	protected void patchHypothesis() {
+		DFA dfa = hypothesis;
+		for(int stateNr = dfa.getStateSize(); stateNr < states.size(); stateNr ++) {
+			dfa.createState();
+			if(isAccepting(states.get(stateNr))) {
+				dfa.setFinal(stateNr);
+			}
+		}
+		for(int i = 0; i < updatedTransitions.size(); i += 3) {
+			dfa.getState(updatedTransitions.get(i))
+			   .addTransition(updatedTransitions.get(i + 1), updatedTransitions.get(i + 2));
+		}
+	}
+	
+	protected void buildHypothesis() {
 		DFA dfa = new DFA(alphabet);
 		for(int i = 0; i < states.size(); i ++) {
 		    dfa.createState();
@@ -122,6 +167,18 @@ public abstract class LearnerDFATree extends LearnerDFA{
 		
 		TIntObjectIterator<ISet> iterator = nodeToSplit.getValue().predecessors.iterator();
 		Node<ValueNode> parent = nodeToSplit.getParent();
+		// sift all predecessors together
+		List<Word> words = new ArrayList<>();
+		while(iterator.hasNext()) {
+			iterator.advance();
+			int letter = iterator.key();
+			for(final int stateNr : iterator.value()) {
+				words.add(states.get(stateNr).label.append(letter));
+			}
+		}
+		List<Node<ValueNode>> nodes = sift(words, parent);
+		int wordNr = 0;
+		iterator = nodeToSplit.getValue().predecessors.iterator();
 		ISet letterToDeleted = UtilISet.newISet();
 		while(iterator.hasNext()) {
 			iterator.advance();
@@ -129,8 +186,7 @@ public abstract class LearnerDFATree extends LearnerDFA{
 			ISet statePrevs = iterator.value();
 			ISet stateLeft = statePrevs.clone();
 			for(final int stateNr : statePrevs) {
-				ValueNode statePrev = states.get(stateNr);
-				Node<ValueNode> nodeOther = sift(statePrev.label.append(letter), parent);
+				Node<ValueNode> nodeOther = nodes.get(wordNr ++);
 				if (nodeOther != nodeToSplit) {
 					updateTransition(stateNr, letter, nodeOther.getValue().id);
 					stateLeft.clear(stateNr);
@@ -181,9 +237,46 @@ public abstract class LearnerDFATree extends LearnerDFA{
 		return nodeCurr;
 	}
 	
+	// sift the words in lockstep, one batch of membership queries for each level
+	protected List<Node<ValueNode>> sift(List<Word> words, Node<ValueNode> nodeStart) {
+		List<Node<ValueNode>> nodes = new ArrayList<>(words.size());
+		List<Integer> frontier = new ArrayList<>();
+		for(int wordNr = 0; wordNr < words.size(); wordNr ++) {
+			nodes.add(nodeStart);
+			if(! nodeStart.isLeaf()) frontier.add(wordNr);
+		}
+		while(! frontier.isEmpty()) {
+			List<Query<HashableValue>> queries = new ArrayList<>(frontier.size());
+			for(final int wordNr : frontier) {
+				queries.add(makeMembershipQuery(words.get(wordNr), nodes.get(wordNr).getLabel()));
+			}
+			List<HashableValue> results = membershipOracle.answerMembershipQueries(queries);
+			List<Integer> frontierNext = new ArrayList<>();
+			for(int queryNr = 0; queryNr < queries.size(); queryNr ++) {
+				int wordNr = frontier.get(queryNr);
+				Node<ValueNode> nodeCurr = nodes.get(wordNr);
+				HashableValue result = getNodeHashableValue(words.get(wordNr), nodeCurr.getLabel(), results.get(queryNr));
+				nodeCurr = nodeCurr.getChild(result);
+				nodes.set(wordNr, nodeCurr);
+				if(! nodeCurr.isLeaf()) frontierNext.add(wordNr);
+			}
+			frontier = frontierNext;
+		}
+		return nodes;
+	}
+	
+	protected Query<HashableValue> makeMembershipQuery(Word word, ExprValue exprValue) {
+		return new QuerySimple<>(word, exprValue.get());
+	}
+	
+	// branch to take for the answer of a membership query
+	protected HashableValue getNodeHashableValue(Word word, ExprValue exprValue, HashableValue mqResult) {
+		return mqResult;
+	}
+	
 	protected HashableValue processMembershipQuery(Word word, ExprValue exprValue) {
-		Word suffix = exprValue.get();
-		return membershipOracle.answerMembershipQuery(new QuerySimple<>(word, suffix));
+		HashableValue result = membershipOracle.answerMembershipQuery(makeMembershipQuery(word, exprValue));
+		return getNodeHashableValue(word, exprValue, result);
 	}
 
 	// word will never be empty word
@@ -260,10 +353,13 @@ public abstract class LearnerDFATree extends LearnerDFA{
 		ValueNode state = states.get(stateNr);
 		
 		Word label = state.label;
+		List<Word> wordSuccs = new ArrayList<>(to - from + 1);
+		for(int letter = from; letter <= to; letter ++) {
+			wordSuccs.add(label.append(letter));
+		}
+		List<Node<ValueNode>> nodeSuccs = sift(wordSuccs, tree.getRoot());
 		for(int letter = from; letter <= to; letter ++) {
-			Word wordSucc = label.append(letter);
-			Node<ValueNode> nodeSucc = sift(wordSucc);
-			updateTransition(stateNr, letter, nodeSucc.getValue().id);
+			updateTransition(stateNr, letter, nodeSuccs.get(letter - from).getValue().id);
 		}
 	}
 	
@@ -277,6 +373,11 @@ public abstract class LearnerDFATree extends LearnerDFA{
 		    && to < states.size() 
 		    && letter < alphabet.getLetterSize();
 		states.get(to).addPredecessor(from, letter);
+		if(! rebuildHypothesis) {
+			updatedTransitions.add(from);
+			updatedTransitions.add(letter);
+			updatedTransitions.add(to);
+		}
 	}
 	
 	@Override
@@ -16,8 +16,6 @@
 
 package roll.learner.dfa.tree;
 
-import roll.automata.DFA;
-import roll.automata.StateNFA;
 import roll.learner.LearnerType;
 import roll.main.Options;
 import roll.oracle.MembershipOracle;
@@ -42,35 +40,6 @@ public class LearnerDFATreeKV extends LearnerDFATree {
         super(options, alphabet, membershipOracle);
     }
     
-    @Override
-    protected void updatePredecessors(int stateNr, int from, int to) {
-        
-    }
-    
-    @Override
-    protected void constructHypothesis() {
-        DFA dfa = new DFA(alphabet);
-        for(int i = 0; i < states.size(); i ++) {
-            dfa.createState();
-        }
-        
-        for(ValueNode stateNode : states) {
-            for(int letter = 0; letter < alphabet.getLetterSize(); letter ++) {
-                Word succWord = stateNode.label.append(letter);
-                Node<ValueNode> succNode = sift(succWord);
-                StateNFA state = dfa.getState(stateNode.id);
-                state.addTransition(letter, succNode.getValue().id);
-            }
-            if(stateNode.node.isAccepting()) {
-                dfa.setFinal(stateNode.id);
-            }
-            if(stateNode.label.isEmpty()) {
-                dfa.setInitial(stateNode.id);
-            }
-        }
-        this.hypothesis = dfa;
-    }
-    
     @Override
     protected CeAnalyzerTreeKV getCeAnalyzerInstance(ExprValue exprValue, HashableValue result) {
         return new CeAnalyzerTreeKV(exprValue, result);
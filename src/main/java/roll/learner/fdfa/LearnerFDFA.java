@@ -105,6 +105,8 @@ public abstract class LearnerFDFA extends LearnerBase<FDFA> {
         ExprValue expr = learnerLeading.getExprValueWord(query.getPrefix(), query.getSuffix());
         options.log.verbose("normalized factorization: " + expr.toString());
         DFA leadDFA = learnerLeading.getHypothesis();
+        // the leading DFA may be refined in place
+        final int numLeadStates = leadDFA.getStateSize();
         int s = leadDFA.getSuccessor(expr.getLeft());
         Word label = learnerLeading.getStateLabel(s);
         Query<HashableValue> queryLabel = new QuerySimple<HashableValue>(label, expr.getRight());
@@ -127,13 +129,18 @@ public abstract class LearnerFDFA extends LearnerBase<FDFA> {
             timer.start();
             if(! isPeriodic()) {
                 // Syntactic and Recurrent FDFA should restart progress learning
+                // or revalidate what they have learned w.r.t. the new leading DFA
                 for(LearnerProgress learner : learnerProgress) {
-                    learner.startLearning();
+                    if(options.incremental) {
+                        learner.resumeLearning();
+                    }else {
+                        learner.startLearning();
+                    }
                 }
             }
             DFA leadDFAPrime = learnerLeading.getHypothesis();
             // new states, not just one (for table-based leading automaton)
-            for(int state = leadDFA.getStateSize(); state < leadDFAPrime.getStateSize(); state ++) {
+            for(int state = numLeadStates; state < leadDFAPrime.getStateSize(); state ++) {
                 LearnerProgress learner = getLearnerProgress(state);
                 learner.startLearning();
                 learnerProgress.add(learner);
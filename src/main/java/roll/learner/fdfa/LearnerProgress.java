@@ -43,7 +43,7 @@ public interface LearnerProgress extends LearnerGeneral {
 //    }
     // for periodic FDFA
     default HashableValue getHashableValueBool(boolean result) {
-        return new HashableValueBoolean(result);
+        return HashableValueBoolean.valueOf(result);
     }
     // prepare entry value in the observation table
     HashableValue prepareRowHashableValue(boolean mqResult, Word x, Word e);
@@ -54,4 +54,9 @@ public interface LearnerProgress extends LearnerGeneral {
     }
     
     int getLeadingState();
+    
+    // continue learning after the leading DFA has been refined, by default start over
+    default void resumeLearning() {
+        startLearning();
+    }
 }
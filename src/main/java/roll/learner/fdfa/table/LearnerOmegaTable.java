@@ -42,10 +42,6 @@ abstract class LearnerOmegaTable extends LearnerDFATable {
         return new QuerySimple<>(row, prefix, suffix, column);
     }
 
-    protected HashableValue processMembershipQuery(ObservationRow row, Word prefix, Word suffix, int column) {
-        return membershipOracle.answerMembershipQuery(getQuerySimple(row, prefix, suffix, column));
-    }
-    
     @Override
     protected ExprValue getCounterExampleWord(Query<HashableValue> query) {
         assert query != null;
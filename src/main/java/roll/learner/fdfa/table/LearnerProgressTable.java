@@ -16,6 +16,10 @@
 
 package roll.learner.fdfa.table;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import roll.learner.fdfa.LearnerLeading;
 import roll.learner.fdfa.LearnerProgress;
 import roll.main.Options;
@@ -37,6 +41,9 @@ abstract class LearnerProgressTable extends LearnerOmegaTable implements Learner
     protected final LearnerLeading learnerLeading;
     protected int state;
     protected final Word label;
+    // xe -> membership of label(xe)^w, to revalidate the table after the leading DFA changed
+    protected final Map<Word, HashableValue> answers;
+    
 	public LearnerProgressTable(Options options, Alphabet alphabet
 	        , MembershipOracle<HashableValue> membershipOracle
 	        , LearnerLeading learnerLeading, int state) {
@@ -44,6 +51,10 @@ abstract class LearnerProgressTable extends LearnerOmegaTable implements Learner
         this.state = state;
         this.learnerLeading = learnerLeading;
         this.label = learnerLeading.getStateLabel(state);
+        this.answers = new HashMap<>();
+        if(options.ceAnalysisProgress != null) {
+            setCeAnalysis(options.ceAnalysisProgress);
+        }
     }
 
     @Override
@@ -62,22 +73,64 @@ abstract class LearnerProgressTable extends LearnerOmegaTable implements Learner
     }
         
     @Override
-    protected Query<HashableValue> processMembershipQuery(ObservationRow row, int offset, ExprValue valueExpr) {
+    protected Query<HashableValue> makeMembershipQuery(ObservationRow row, int offset, ExprValue valueExpr) {
         Word x = row.getWord(); //x
         Word e = valueExpr.get(); //e
         Word suffix = x.concat(e); //(xe)^w
-        HashableValue resultLeft = processMembershipQuery(row, label, suffix, offset);
-        Query<HashableValue> query = getQuerySimple(row, label, suffix, offset);
-        HashableValue result = prepareRowHashableValue(resultLeft.get(), x, e);
-        query.answerQuery(result);
-        return query;
+        return getQuerySimple(row, label, suffix, offset);
+    }
+    
+    @Override
+    protected HashableValue getRowHashableValue(Query<HashableValue> query, HashableValue mqResult) {
+        answers.put(query.getSuffix(), mqResult);
+        Word x = query.getPrefixRow().getWord(); //x
+        Word e = observationTable.getColumns().get(query.getSuffixColumn()).get(); //e
+        return prepareRowHashableValue(mqResult.get(), x, e);
+    }
+    
+    /**
+     * The entries depend on the leading DFA only through the states reached by x and xe,
+     * so they are recomputed from the stored answers. The rows in S are kept as long as
+     * they are still pairwise different, otherwise the learning starts over.
+     * */
+    @Override
+    public void resumeLearning() {
+        revalidateRows(observationTable.getUpperTable());
+        revalidateRows(observationTable.getLowerTable());
+        List<ObservationRow> upperTable = observationTable.getUpperTable();
+        for(int rowNr = 0; rowNr < upperTable.size(); rowNr ++) {
+            if(observationTable.getEqualUpperRowIndex(upperTable.get(rowNr)) != rowNr) {
+                initialize();
+                return ;
+            }
+        }
+        makeTableClosed();
+    }
+    
+    private void revalidateRows(List<ObservationRow> rows) {
+        List<ExprValue> columns = observationTable.getColumns();
+        for(ObservationRow row : rows) {
+            Word x = row.getWord();
+            for(int colNr = 0; colNr < columns.size(); colNr ++) {
+                Word e = columns.get(colNr).get();
+                HashableValue mqResult = answers.get(x.concat(e));
+                assert mqResult != null;
+                HashableValue value = prepareRowHashableValue(mqResult.get(), x, e);
+                if(! value.equals(row.getValues().get(colNr))) {
+                    row.set(colNr, value);
+                }
+            }
+        }
+    }
+    
+    @Override
+    protected Query<HashableValue> makeMembershipQuery(Word prefix, Word suffix) {
+        return new QuerySimple<>(null, label, prefix.concat(suffix), -1);
     }
     
     @Override
     protected HashableValue processMembershipQuery(Word prefix, Word suffix) {
-        Word loop = prefix.concat(suffix);
-        Query<HashableValue> query = new QuerySimple<>(null, label, loop, -1);
-        HashableValue mqResult = membershipOracle.answerMembershipQuery(query);
+        HashableValue mqResult = membershipOracle.answerMembershipQuery(makeMembershipQuery(prefix, suffix));
         HashableValue result = getCeAnalyzerHashableValue(mqResult.get(), prefix, suffix);
         return result;
     }
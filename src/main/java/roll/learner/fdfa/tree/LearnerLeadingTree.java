@@ -48,19 +48,16 @@ public class LearnerLeadingTree extends LearnerOmegaTree implements LearnerLeadi
     }
     
     @Override
-    protected HashableValue processMembershipQuery(Word label, ExprValue valueExpr) {
+    protected Query<HashableValue> makeMembershipQuery(Word label, ExprValue valueExpr) {
         assert valueExpr instanceof ExprValueWordPair;
         ExprValueWordPair valueExprPair = (ExprValueWordPair) valueExpr;
-        Query<HashableValue> query = getQuerySimple(label.concat(valueExprPair.getLeft()), valueExprPair.getRight());
-        return membershipOracle.answerMembershipQuery(query);
+        return getQuerySimple(label.concat(valueExprPair.getLeft()), valueExprPair.getRight());
     }
     
     @Override
-    protected HashableValue processMembershipQuery(Word prefix, Word suffix) {
-        prefix = prefix.concat(suffix);
+    protected Query<HashableValue> makeMembershipQuery(Word prefix, Word suffix) {
         assert loop != null;
-        Query<HashableValue> query = new QuerySimple<>(null, prefix, loop, -1);
-        return membershipOracle.answerMembershipQuery(query);
+        return new QuerySimple<>(null, prefix.concat(suffix), loop, -1);
     }
     
     @Override
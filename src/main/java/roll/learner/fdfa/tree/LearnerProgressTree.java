@@ -16,6 +16,14 @@
 
 package roll.learner.fdfa.tree;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import roll.learner.dfa.tree.TreeImpl;
+import roll.learner.dfa.tree.ValueNode;
 import roll.learner.fdfa.LearnerLeading;
 import roll.learner.fdfa.LearnerProgress;
 import roll.main.Options;
@@ -24,6 +32,7 @@ import roll.query.Query;
 import roll.query.QuerySimple;
 import roll.table.ExprValue;
 import roll.table.HashableValue;
+import roll.tree.Node;
 import roll.words.Alphabet;
 import roll.words.Word;
 
@@ -44,6 +53,9 @@ abstract class LearnerProgressTree extends LearnerOmegaTree implements LearnerPr
         this.learnerLeading = learnerLeading;
         this.state = state;
         this.label = learnerLeading.getStateLabel(state);
+        if(options.ceAnalysisProgress != null) {
+            setCeAnalysis(options.ceAnalysisProgress);
+        }
     }
 
     @Override
@@ -61,24 +73,118 @@ abstract class LearnerProgressTree extends LearnerOmegaTree implements LearnerPr
         return state;
     }
     
+    /**
+     * The tree is rebuilt from the access words and the experiments of the old tree,
+     * the states are classified w.r.t. the new leading DFA by the old experiments in
+     * breadth-first order and their successors are sifted again. The learning starts
+     * over if two states are no longer distinguished by the old experiments.
+     * */
+    @Override
+    public void resumeLearning() {
+        Node<ValueNode> rootOld = tree.getRoot();
+        if(rootOld.isLeaf()) {
+            initialize();
+            return ;
+        }
+        List<ExprValue> experiments = new ArrayList<>();
+        List<Word> words = new ArrayList<>();
+        ArrayDeque<Node<ValueNode>> queue = new ArrayDeque<>();
+        queue.add(rootOld);
+        while(! queue.isEmpty()) {
+            Node<ValueNode> node = queue.poll();
+            if(node.isLeaf()) {
+                words.add(node.getValue().label);
+            }else {
+                experiments.add(node.getLabel());
+                queue.addAll(node.getChildren());
+            }
+        }
+        // the root is always labelled with the empty word
+        assert ((Word)experiments.get(0).get()).isEmpty();
+        states.clear();
+        Node<ValueNode> root = rebuildNode(null, null, words, experiments);
+        if(root == null) {
+            initialize();
+            return ;
+        }
+        tree = new TreeImpl(root);
+        for(ValueNode state : states) {
+            if(state.label.isEmpty()) {
+                tree.setLamdaLeaf(state.node);
+            }
+        }
+        // new states may be added while sifting, they are updated at creation
+        final int numStates = states.size();
+        for(int stateNr = 0; stateNr < numStates; stateNr ++) {
+            updatePredecessors(stateNr, 0, alphabet.getLetterSize() - 1);
+        }
+        nodeToSplit = null;
+        constructHypothesis();
+    }
+    
+    // null if some words can not be distinguished
+    private Node<ValueNode> rebuildNode(Node<ValueNode> parent, HashableValue branch
+            , List<Word> words, List<ExprValue> experiments) {
+        if(words.size() == 1) {
+            Word word = words.get(0);
+            Node<ValueNode> leaf = getValueNode(parent, branch, getExprValueWord(word));
+            createNode(leaf);
+            if(processMembershipQuery(word, experiments.get(0)).isAccepting()) {
+                leaf.setAcceting();
+            }
+            return leaf;
+        }
+        // the experiment of the root decides the acceptance, so it stays at the root
+        final int numExprs = parent == null ? 1 : experiments.size();
+        for(int exprNr = 0; exprNr < numExprs; exprNr ++) {
+            ExprValue expr = experiments.get(exprNr);
+            Map<HashableValue, List<Word>> partition = new LinkedHashMap<>();
+            for(Word word : words) {
+                HashableValue result = processMembershipQuery(word, expr);
+                List<Word> block = partition.get(result);
+                if(block == null) {
+                    block = new ArrayList<>();
+                    partition.put(result, block);
+                }
+                block.add(word);
+            }
+            if(partition.size() == 1) continue;
+            Node<ValueNode> node = getValueNode(parent, branch, expr);
+            for(Map.Entry<HashableValue, List<Word>> entry : partition.entrySet()) {
+                Node<ValueNode> child = rebuildNode(node, entry.getKey(), entry.getValue(), experiments);
+                if(child == null) return null;
+                node.addChild(entry.getKey(), child);
+            }
+            return node;
+        }
+        return null;
+    }
+    
     // this is for counterexample analysis
+    @Override
+    protected Query<HashableValue> makeMembershipQuery(Word prefix, Word suffix) {
+        return new QuerySimple<>(null, label, prefix.concat(suffix), -1);
+    }
+    
     @Override
     protected HashableValue processMembershipQuery(Word prefix, Word suffix) {
-        Word loop = prefix.concat(suffix);
-        Query<HashableValue> query = new QuerySimple<>(null, label, loop, -1);
-        HashableValue mqResult = membershipOracle.answerMembershipQuery(query);
+        HashableValue mqResult = membershipOracle.answerMembershipQuery(makeMembershipQuery(prefix, suffix));
         HashableValue result = getCeAnalyzerHashableValue(mqResult.get(), prefix, suffix);
         return result;
     }
     
     // this is for tree construction
     @Override
-    protected HashableValue processMembershipQuery(Word prefix, ExprValue exprValue) {
+    protected Query<HashableValue> makeMembershipQuery(Word prefix, ExprValue exprValue) {
         Word suffix = exprValue.get();
         Word loop = prefix.concat(suffix);
-        HashableValue mqResult = membershipOracle.answerMembershipQuery(new QuerySimple<>(label, loop));
-        HashableValue result = prepareRowHashableValue(mqResult.get(), prefix, suffix);
-        return result;
+        return new QuerySimple<>(label, loop);
+    }
+    
+    @Override
+    protected HashableValue getNodeHashableValue(Word prefix, ExprValue exprValue, HashableValue mqResult) {
+        Word suffix = exprValue.get();
+        return prepareRowHashableValue(mqResult.get(), prefix, suffix);
     }
     
     protected class CeAnalyzerProgressTree extends CeAnalyzerTree {
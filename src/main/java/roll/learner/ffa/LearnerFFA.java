@@ -109,7 +109,7 @@ public abstract class LearnerFFA<M extends NFA, A extends NFA> extends LearnerBa
         int s = getLeaingState(query, resultCE);
         if(s < 0) { // refine leading automaton
             Timer timer = new Timer();
-            M leadingFA = learnerLeading.getHypothesis();
+            final int numLeadStates = learnerLeading.getHypothesis().getStateSize();
             timer.start();
             learnerLeading.refineHypothesis(query);
             timer.stop();
@@ -123,7 +123,7 @@ public abstract class LearnerFFA<M extends NFA, A extends NFA> extends LearnerBa
                     }
                 }
                 // new states, not just one (for table-based leading automaton)
-                for(int state = leadingFA.getStateSize(); state < learnerLeading.getStateSize(); state ++) {
+                for(int state = numLeadStates; state < learnerLeading.getStateSize(); state ++) {
                     LearnerProgress<A> learner = getLearnerProgress(state);
                     learner.startLearning();
                     learnerProgress.add(learner);
@@ -16,6 +16,9 @@
 
 package roll.learner.nba.ldollar;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import roll.oracle.MembershipOracle;
 import roll.query.Query;
 import roll.query.QuerySimple;
@@ -39,11 +42,46 @@ class MembershipOracleNBALDollar implements MembershipOracle<HashableValue> {
 
     @Override
     public HashableValue answerMembershipQuery(Query<HashableValue> query) {
-        // input word is finite word
-        Word word = query.getQueriedWord();
+        Query<HashableValue> omegaQuery = getOmegaQuery(query.getQueriedWord());
+        if(omegaQuery == null) {
+            return new HashableValueBoolean(false);
+        }
+        HashableValue answer = membershipOracle.answerMembershipQuery(omegaQuery);
+        return answer;
+    }
+    
+    @Override
+    public boolean isCached(Query<HashableValue> query) {
+        Query<HashableValue> omegaQuery = getOmegaQuery(query.getQueriedWord());
+        return omegaQuery == null || membershipOracle.isCached(omegaQuery);
+    }
+    
+    // only the words u$v are forwarded, in one batch
+    @Override
+    public List<HashableValue> answerMembershipQueries(List<Query<HashableValue>> queries) {
+        List<HashableValue> answers = new ArrayList<>(queries.size());
+        List<Query<HashableValue>> omegaQueries = new ArrayList<>();
+        for(Query<HashableValue> query : queries) {
+            Query<HashableValue> omegaQuery = getOmegaQuery(query.getQueriedWord());
+            answers.add(omegaQuery == null ? new HashableValueBoolean(false) : null);
+            if(omegaQuery != null) omegaQueries.add(omegaQuery);
+        }
+        if(omegaQueries.isEmpty()) return answers;
+        List<HashableValue> omegaAnswers = membershipOracle.answerMembershipQueries(omegaQueries);
+        int answerNr = 0;
+        for(int queryNr = 0; queryNr < answers.size(); queryNr ++) {
+            if(answers.get(queryNr) == null) {
+                answers.set(queryNr, omegaAnswers.get(answerNr ++));
+            }
+        }
+        return answers;
+    }
+    
+    // query for u(v)^w if the input finite word is u$v, otherwise null
+    private Query<HashableValue> getOmegaQuery(Word word) {
         // last word is '$'
         if (word.getLastLetter() == dollarLetter) {
-            return new HashableValueBoolean(false);
+            return null;
         }
         // counts the number of $.
         int counter = 0;
@@ -56,18 +94,15 @@ class MembershipOracleNBALDollar implements MembershipOracle<HashableValue> {
                 suffix = word.getSuffix(letterNr + 1);
             }
             if (counter > 1) {
-                return new HashableValueBoolean(false);
+                return null;
             }
         }
         if (counter == 0) {
-            return new HashableValueBoolean(false);
+            return null;
         }
        
         // '$' only occurs once new QuerySimple
-        HashableValue answer = membershipOracle.answerMembershipQuery(new QuerySimple<>(prefix, suffix));
-        return answer;
+        return new QuerySimple<>(prefix, suffix);
     }
-    
-    
 
 }
@@ -18,6 +18,7 @@ package roll.learner.nba.lomega;
 
 import roll.automata.FDFA;
 import roll.automata.NBA;
+import roll.automata.operations.FDFA2NBA;
 import roll.learner.LearnerBase;
 import roll.learner.LearnerType;
 import roll.learner.fdfa.LearnerFDFA;
@@ -41,10 +42,12 @@ import roll.words.Alphabet;
 public class LearnerNBALOmega extends LearnerBase<NBA>{
 
     private final LearnerFDFA fdfaLearner;
+    private final FDFA2NBA nbaBuilder;
     
     public LearnerNBALOmega(Options options, Alphabet alphabet, MembershipOracle<HashableValue> membershipOracle) {
         super(options, alphabet, membershipOracle);
         fdfaLearner = UtilLOmega.getLearnerFDFA(options, alphabet, membershipOracle);
+        nbaBuilder = UtilLOmega.getNBABuilder(options);
     }
 
     @Override
@@ -61,7 +64,7 @@ public class LearnerNBALOmega extends LearnerBase<NBA>{
     protected void constructHypothesis() {
         // construct BA from FDFA
         FDFA fdfa = fdfaLearner.getHypothesis();
-        hypothesis = UtilLOmega.constructNBA(options, fdfa);
+        hypothesis = nbaBuilder.build(fdfa);
     }
     
     @Override
@@ -19,6 +19,7 @@ package roll.learner.nba.lomega;
 import dk.brics.automaton.Automaton;
 import roll.automata.FDFA;
 import roll.automata.NBA;
+import roll.automata.operations.FDFA2NBA;
 import roll.automata.operations.FDFAOperations;
 import roll.automata.operations.NBAOperations;
 import roll.learner.fdfa.LearnerFDFA;
@@ -77,18 +78,18 @@ public class UtilLOmega {
         return fdfaLearner;
     }
     
-    public static NBA constructNBA(Options options, FDFA fdfa) {
-        Automaton dkAut = null;
-        Alphabet alphabet = fdfa.getAlphabet();
+    public static FDFA2NBA getNBABuilder(Options options) {
         if(options.approximation == Options.Approximation.OVER) {
-            dkAut = FDFAOperations.buildOverNBA(fdfa);
+            return new FDFA2NBA(false);
         }else if(options.approximation == Options.Approximation.UNDER){
-            dkAut = FDFAOperations.buildUnderNBA(fdfa);
+            return new FDFA2NBA(true);
         }else {
             throw new UnsupportedOperationException("Unknown approximation for fdfa");
         }
-        NBA nba = NBAOperations.fromDkNBA(dkAut, alphabet);
-        return nba;
+    }
+    
+    public static NBA constructNBA(Options options, FDFA fdfa) {
+        return getNBABuilder(options).build(fdfa);
     }
     
     public static NBA constructLDBA(Options options, FDFA fdfa) {
@@ -16,7 +16,6 @@
 
 package roll.learner.nba.lomega.translator;
 
-import dk.brics.automaton.Automaton;
 import roll.automata.FDFA;
 import roll.automata.NBA;
 import roll.automata.operations.FDFAOperations;
@@ -27,6 +26,7 @@ import roll.main.Options;
 import roll.query.Query;
 import roll.query.QuerySimple;
 import roll.table.HashableValue;
+import roll.util.Pair;
 import roll.words.Alphabet;
 import roll.words.Word;
 
@@ -38,7 +38,6 @@ public abstract class TranslatorFDFA implements Translator {
 	
 	protected LearnerFDFA fdfaLearner;
 	protected FDFA fdfa;
-	protected dk.brics.automaton.Automaton autUVOmega;
 	protected Query<HashableValue> ceQuery;
 	protected boolean called ;
 	protected final Options options;
@@ -67,31 +66,28 @@ public abstract class TranslatorFDFA implements Translator {
 	public void setQuery(Query<HashableValue> query) {
 		this.ceQuery = query;
 		this.called = false;
-		// get deterministic automaton for (u,v)
-		Word prefix = query.getPrefix();
-		Word suffix = query.getSuffix();
-		assert prefix != null && suffix != null;
-		autUVOmega = FDFAOperations.buildDDollar(prefix, suffix);
-		autUVOmega.setDeterministic(true);
+		assert query.getPrefix() != null && query.getSuffix() != null;
 	}
 	
-	
-	protected String getPositiveCounterExample(Automaton autDollar) {
+	// the decompositions (u', v') of the counterexample are explored on the fly, 
+	// as the product of D_{u$v} and the dollar automaton of the FDFA
+	protected Pair<Word, Word> getPositiveCounterExample() {
 		// get it from complement of FDFA
-		Automaton dollarFDFAComplement = FDFAOperations.buildDTwo(fdfa);
-		Automaton autMinus = autDollar.intersection(dollarFDFAComplement);
-		assert autMinus != null;
-		String ceStr = autMinus.getShortestExample(true);
-		options.log.verbose("Counterexample in target: " + ceStr);
-		return ceStr;
+		Pair<Word, Word> ce = FDFAOperations.getShortestExample(fdfa
+				, ceQuery.getPrefix(), ceQuery.getSuffix(), false);
+		assert ce != null;
+		options.log.verbose("Counterexample in target: " + toString(ce));
+		return ce;
+	}
+	
+	protected String toString(Pair<Word, Word> counterexample) {
+		return counterexample.getLeft().toStringExact() + Alphabet.DOLLAR 
+				+ counterexample.getRight().toStringExact();
 	}
 	
-	protected Query<HashableValue> getQuery(String counterexample, HashableValue result) {
-		options.log.verbose("final counterexample for the FDFA learner: " + counterexample);
-		int dollarNr = counterexample.indexOf(Alphabet.DOLLAR); //
-		Word prefix = alphabet.getWordFromString(counterexample.substring(0, dollarNr));
-		Word period = alphabet.getWordFromString(counterexample.substring(dollarNr + 1));
-		Query<HashableValue> query = new QuerySimple<>(prefix, period);
+	protected Query<HashableValue> getQuery(Pair<Word, Word> counterexample, HashableValue result) {
+		options.log.verbose("final counterexample for the FDFA learner: " + toString(counterexample));
+		Query<HashableValue> query = new QuerySimple<>(counterexample.getLeft(), counterexample.getRight());
 		query.answerQuery(result);
 		return query;
 	}
@@ -104,7 +100,7 @@ public abstract class TranslatorFDFA implements Translator {
 		}
 	    // else it must be using optimization treating eq test as the last resort
         // check whether we can still use current counter example 
-        assert ceQuery != null && autUVOmega != null;
+        assert ceQuery != null;
         // construct lower/upper Buechi automaton
         fdfa = fdfaLearner.getHypothesis();
         NBA nba = UtilLOmega.constructNBA(options, fdfa);
@@ -16,22 +16,16 @@
 
 package roll.learner.nba.lomega.translator;
 
-import dk.brics.automaton.Automaton;
-import dk.brics.automaton.BasicOperations;
-import dk.brics.automaton.State;
-import dk.brics.automaton.Transition;
-import gnu.trove.map.TIntObjectMap;
-import gnu.trove.map.hash.TIntObjectHashMap;
 import roll.automata.DFA;
-import roll.automata.operations.DFAOperations;
+import roll.automata.operations.FDFAOperations;
 import roll.learner.fdfa.LearnerFDFA;
 import roll.oracle.MembershipOracle;
 import roll.query.Query;
 import roll.query.QuerySimple;
 import roll.table.HashableValue;
 import roll.table.HashableValueBoolean;
+import roll.util.Pair;
 import roll.util.sets.ISet;
-import roll.words.Alphabet;
 import roll.words.Word;
 
 /**
@@ -54,11 +48,11 @@ public class TranslatorFDFAOver extends TranslatorFDFA {
 	@Override
 	public Query<HashableValue> translate() {
 	    fdfa = fdfaLearner.getHypothesis();
-		String counterexample = translateUpper();
+		Pair<Word, Word> counterexample = translateUpper();
 		return getQuery(counterexample, new HashableValueBoolean(result));
 	}
 	
-	private String translateUpper() {
+	private Pair<Word, Word> translateUpper() {
 		// for general case 
 //		if(Options.verbose) AutomatonPrinter.print(autUVOmega, System.out);
 //		if(Options.verbose) learnerFDFA.getHypothesis();
@@ -66,7 +60,7 @@ public class TranslatorFDFAOver extends TranslatorFDFA {
 		if(isCeInTarget) {
 			// (u, v) is in L, but it is not in FDFA
 			result = true;
-			return getPositiveCounterExample(autUVOmega);
+			return getPositiveCounterExample();
 		}else {
 			// (u, v) is not in L, but it is in constructed Buechi
 			// possibly it is not in FDFA, already normalized.
@@ -76,127 +70,76 @@ public class TranslatorFDFAOver extends TranslatorFDFA {
 	}
 	
 	
-	// decompose x, y, z
-	private int getLastIndexAtFinal(
-			dk.brics.automaton.Automaton dkAut, int startNr, String word) {
+	// decompose x, y, z, the last index from startNr where period[startNr..] is in
+	// L(A^state_accNr) and L(M^state_state)
+	private int getLastIndexAtFinal(int state, int accNr, int startNr, Word period) {
+		DFA autL = fdfa.getLeadingFA();
+		DFA autP = fdfa.getProgressFA(state);
 		int lastNr = -1, currNr = startNr;
-		State stateCurr = dkAut.getInitialState();
+		int leadCurr = state, progCurr = autP.getInitialState();
 		// record last accepting index
-		if(stateCurr.isAccept()) lastNr = startNr;
-		while(currNr < word.length()) {
-			State stateNext = stateCurr.step(word.charAt(currNr));
-			if(stateNext == null) break;
-			if(stateNext.isAccept()) {
+		if(progCurr == accNr) lastNr = startNr;
+		while(currNr < period.length()) {
+			int letter = period.getLetter(currNr);
+			leadCurr = autL.getSuccessor(leadCurr, letter);
+			progCurr = autP.getSuccessor(progCurr, letter);
+			if(leadCurr == state && progCurr == accNr) {
 				lastNr = currNr;
 			}
-			stateCurr = stateNext;
 			++ currNr;
 		}
 		
 		return lastNr;
 	}
 	
-	private String getCorrectNormalizedCounterExample(LearnerFDFA learnerFDFA
+	private Pair<Word, Word> getCorrectNormalizedCounterExample(LearnerFDFA learnerFDFA
 			, MembershipOracle<HashableValue> membershipOracle) {
 		
 		Word pre = null, suf = null;
-		// 1. first build dollar deterministic automaton for (u, v) 
-		options.log.verbose("DFA D_{u$v} for counterexample (u, v):\n" + autUVOmega.toDot());
-		
-		// 2. for every final state, we get normalized counterexample
 		DFA autL = fdfa.getLeadingFA();
-		TIntObjectMap<State> map = new TIntObjectHashMap<>(); 
-		Automaton dkAutL = DFAOperations.toDkDFA(map, autL);
-		
+		// for every final state, we get normalized counterexample
 		for(int stateNr = 0; stateNr < autL.getStateSize(); stateNr ++) {
 		    DFA autP = fdfa.getProgressFA(stateNr);
 		    ISet finalStates = autP.getFinalStates();
-		    int stateInitP = autP.getInitialState();
 		    boolean found = false;
 		    // for every final state we get the language intersection
 		    for(final int accNr : finalStates) {
-		    	// language for A^u_f
-		    	Automaton dkAutP = DFAOperations.toDkDFA(autP, stateInitP, accNr);
-		    	dkAutP.minimize();
-		    	// language for M^u_u
-		    	Automaton dkAutLOther = DFAOperations.toDkDFA(autL, stateNr, stateNr);
-		    	dkAutLOther.minimize();
-		    	// build product for A^u_f and M^u_u
-		    	Automaton product = dkAutP.intersection(dkAutLOther);
-		    	product.minimize();
-		    	
-		    	if(! product.getAcceptStates().isEmpty()) {
-		    		assert product.getAcceptStates().size() == 1;
-		    		// add epsilon transition to allow x, concatenate y
-		    		product = DFAOperations.addEpsilon(product);
-//					if(Options.verbose) System.out.println(
-//							"\n product: \n " + product.toDot()
-//							+ "\nrun a$cbcbcbab, " + BasicOperations.run(product, "cccccbcccbccbcaaaccc"));
-		    		// get u state in leading automaton
-		    		State u = map.get(stateNr); 
-		    		// add Dollar transition
-		    		Transition transDollar = new Transition(Alphabet.DOLLAR, product.getInitialState());
-		    		u.addTransition(transDollar);
-//					if(Options.verbose) System.out.println(
-//							"\n dkAutL: \n " + dkAutL.toDot()
-//							+ "\nrun a$cbcbcbab, " + BasicOperations.run(dkAutL, "ccaccc$cccccbcccbccbcaaaccc"));
-		            // find u $ v string
-		    		Automaton dkNFA = autUVOmega.intersection(dkAutL);
-//		    		dkNFA.minimize();
-//		    		if(Options.verbose) System.out.println(
-//							"\n dkNFA " + dkNFA.toDot()
-//							+ "\nrun a$cbcbcbab, " + BasicOperations.run(dkNFA, "a$cbcbcbab"));
-					
-		    		String counterexample = dkNFA.getShortestExample(true);
-					options.log.verbose(" found counterexample " + counterexample);
-		    		// remove duplicate dollar transition
-		    		if(counterexample == null) {
-		    			u.getTransitions().remove(transDollar);
-		    			continue;
-		    		}
-		    		
-		    		found = true;
-		    		// get decomposition (u, xyz...) which is not in L
-					options.log.verbose("normalized counterexample " + counterexample 
-							+ ", " + BasicOperations.run(dkNFA, counterexample));
-					
-					int dollarNr = counterexample.indexOf(Alphabet.DOLLAR); //
-					pre = alphabet.getWordFromString(counterexample.substring(0, dollarNr));
-					// must be some x,y,z concatenation
-					String period = counterexample.substring(dollarNr + 1);
-					options.log.verbose("dkAutLPOther\n " + dkAutLOther.toDot());
-					options.log.verbose("dkAutP\n " + dkAutP.toDot());
-					options.log.verbose("dkNFA\n " + dkAutP.toDot());
-					// build deterministic automaton 
-					Automaton dkAutCE = dkAutP.intersection(dkAutLOther);  
-//					Word p = learnerFDFA.getProgressStateLabel(stateNr, accNr);
-					suf = findCorrectPeriod(dkAutCE, pre, period, membershipOracle);
+		    	// find u $ v with v in (A^u_f and M^u_u)^+
+		    	Pair<Word, Word> counterexample = FDFAOperations.getShortestExample(fdfa
+		    			, stateNr, accNr, ceQuery.getPrefix(), ceQuery.getSuffix());
+		    	if(counterexample == null) {
+		    		continue;
 		    	}
-		    	if(found) break;
+		    	found = true;
+		    	// get decomposition (u, xyz...) which is not in L
+		    	options.log.verbose("normalized counterexample " + toString(counterexample));
+		    	pre = counterexample.getLeft();
+		    	// must be some x,y,z concatenation
+		    	suf = findCorrectPeriod(stateNr, accNr, pre, counterexample.getRight(), membershipOracle);
+		    	break;
 		    }
 		    if(found) break;
 		}
 		
 		assert pre != null && suf != null;
-		String ce = pre.toStringExact() + Alphabet.DOLLAR + suf.toStringExact();
-		return ce;
+		return new Pair<>(pre, suf);
 	}
 	
 	// complex analysis for counter example
-	private Word findCorrectPeriod(Automaton dkAutCE
-			, Word pre, String period, MembershipOracle<HashableValue> membershipOracle) {
+	private Word findCorrectPeriod(int state, int accNr
+			, Word pre, Word period, MembershipOracle<HashableValue> membershipOracle) {
 		
 		int startNr = 0;
 		Word suf = null;
 		//INVARIANT:  Assume that (u, xyz...) is not in L
 		while(startNr < period.length()) {
 			
-			int lastNr = getLastIndexAtFinal(dkAutCE, startNr, period);
+			int lastNr = getLastIndexAtFinal(state, accNr, startNr, period);
 			// only one x left, and (u, x) not in L
 //			assert startNr <= lastNr + 1 && startNr >= 0 && lastNr + 1 <= period.length();
 			options.log.verbose("startNr=" + startNr + " lastNr=" + lastNr + " |period|=" + period.length());
 			if(lastNr < 0) break;       
-			Word x = alphabet.getWordFromString(period.substring(startNr, lastNr + 1));
+			Word x = period.getSubWord(startNr, lastNr + 1 - startNr);
 			if(lastNr == period.length() - 1) {
 				HashableValue r = membershipOracle.answerMembershipQuery(new QuerySimple<>(pre, x));
 				if(! r.isAccepting()) {
@@ -224,17 +167,17 @@ public class TranslatorFDFAOver extends TranslatorFDFA {
 	}
 	
 	// complex analysis for counter example
-	private Word findCorrectPeriod2(Automaton dkAutCE
-			, Word pre, Word p, String period, MembershipOracle<Boolean> membershipOracle) {
+	private Word findCorrectPeriod2(int state, int accNr
+			, Word pre, Word p, Word period, MembershipOracle<Boolean> membershipOracle) {
 		
 		int startNr = 0;
 		Word suf = null;
 		//INVARIANT:  Assume that (u, xyz...) is not in L
 		while(startNr < period.length()) {
 			
-			int lastNr = getLastIndexAtFinal(dkAutCE, startNr, period);
+			int lastNr = getLastIndexAtFinal(state, accNr, startNr, period);
 			// only one x left, and (u, x) not in L
-			Word x = alphabet.getWordFromString(period.substring(startNr, lastNr + 1));
+			Word x = period.getSubWord(startNr, lastNr + 1 - startNr);
 			if(lastNr == period.length() - 1) {
 				suf = x;
 				break;
@@ -248,7 +191,7 @@ public class TranslatorFDFAOver extends TranslatorFDFA {
 			}
 			// 2. Assume (u, x) in L
 			// try (u, pyz..)
-			Word yzetc = alphabet.getWordFromString(period.substring(lastNr + 1));
+			Word yzetc = period.getSuffix(lastNr + 1);
 			Word pyzetc = p.concat(yzetc);
 			r = membershipOracle.answerMembershipQuery(new QuerySimple<>(pre, pyzetc));
 			
@@ -262,8 +205,8 @@ public class TranslatorFDFAOver extends TranslatorFDFA {
             
             // (u, yz...) is in L, then check the length of yz...
             if(r) {
-            	int lastYNr = getLastIndexAtFinal(dkAutCE, lastNr + 1, period);
-            	Word yz = alphabet.getWordFromString(period.substring(lastNr + 1));
+            	int lastYNr = getLastIndexAtFinal(state, accNr, lastNr + 1, period);
+            	Word yz = period.getSuffix(lastNr + 1);
             	if(lastYNr == period.length() - 1) {
             		result = true;
             		suf = yz.concat(yz); // y distinguish p and y since (u, py) is not in L
@@ -271,7 +214,7 @@ public class TranslatorFDFAOver extends TranslatorFDFA {
             		// there exists z... and yz... can not lead to that accepting state?
             		options.log.err( "Unfortunately, we can not find a valid counterexample");
             	    options.log.verbose("period left: " + yz.toStringExact());
-            	    options.log.verbose("progress automaton left: \n" + dkAutCE.toDot());
+            	    options.log.verbose("progress automaton left: \n" + fdfa.getProgressFA(state).toDot());
             	    System.exit(-1);
             		suf = yz;
             	}
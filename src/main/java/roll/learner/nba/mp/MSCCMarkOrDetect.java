@@ -16,13 +16,9 @@
 
 package roll.learner.nba.mp;
 
-import java.util.Stack;
-
-import gnu.trove.map.TIntIntMap;
 import roll.automata.DFA;
+import roll.automata.operations.TarjanSCCs;
 import roll.util.Pair;
-import roll.util.sets.ISet;
-import roll.util.sets.UtilISet;
 
 /**
  * @author Yong Li (liyong@ios.ac.cn)
@@ -33,10 +29,6 @@ import roll.util.sets.UtilISet;
 public class MSCCMarkOrDetect {
     
     private final DFA dfa;
-    private int index = 0;
-    private Stack<Integer> SCCs;
-    private TIntIntMap vIndex;
-    private TIntIntMap vLowlink;
     private final int[] marks;
     Pair<Integer, Integer> pair;
     
@@ -47,66 +39,35 @@ public class MSCCMarkOrDetect {
     
     public boolean markOrdetect() {
         // only check the states reachable by the dfa
-        final int s = dfa.getInitialState();
-        if(!vIndex.containsKey(s)){
-            if(tarjan(s))
-               return false;
-        }
-
-        return true;
+        TarjanSCCs tarjan = new TarjanSCCs(dfa.freeze(), this::markOrDetect);
+        return ! tarjan.explore(dfa.getInitialState());
     }
 
-    // terminate on the first accepting loop
-    boolean tarjan(int v) {
-        vIndex.put(v, index);
-        vLowlink.put(v, index);
-        index++;
-        SCCs.push(v);
-
-        for(int c = 0; c < dfa.getAlphabetSize(); c ++) {
-            int w = dfa.getSuccessor(v, c);
-            // to check whether there is a loop
-            if(!vIndex.containsKey(w)){
-                if(tarjan(w)) return true;
-                vLowlink.put(v, Math.min(vLowlink.get(v), vLowlink.get(w)));
-            }else if(SCCs.contains(w)){
-                vLowlink.put(v, Math.min(vLowlink.get(v), vIndex.get(w)));
+    // terminate on the first MSCC with states marked 1 and 2
+    private boolean markOrDetect(int[] states, int from, int to, boolean nontrivial) {
+        int s1 = -1, s2 = -1;
+        int mark = 0;
+        for(int i = from; i < to; i ++) {
+            final int t = states[i];
+            if((marks[t] & 1) != 0) {
+                s1 = t;
             }
-        }
-        if(vLowlink.get(v) == vIndex.get(v)){
-            int num = 0;
-            int s1 = -1, s2 = -2;
-            ISet scc = UtilISet.newISet();
-            int mark = 0;
-            while(! SCCs.empty()){
-                int t = SCCs.pop();
-                if((marks[t] | 1) != 0 ) {
-                    s1 = t;
-                }
-                if((marks[t] | 2) != 0 ) {
-                    s2 = t;
-                }
-                if(s1 >= 0 && s2 >= 0) {
-                    pair = new Pair<>(s1, s2);
-                    return true;
-                }
-                mark = marks[t];
-                scc.set(t);
-                ++ num;
-                if(t == v)
-                    break;
+            if((marks[t] & 2) != 0) {
+                s2 = t;
             }
-            if(num > 1) {
-                //mark all other states, including those have been marked
-                for(int s : scc) {
-                    marks[s] = mark;
-                }
+            if(s1 >= 0 && s2 >= 0) {
+                pair = new Pair<>(s1, s2);
+                return true;
+            }
+            mark |= marks[t];
+        }
+        if(to - from > 1) {
+            //mark all other states, including those have been marked
+            for(int i = from; i < to; i ++) {
+                marks[states[i]] = mark;
             }
         }
         return false;
     }
-    
-    
-    
 
 }
@@ -16,7 +16,10 @@
 
 package roll.learner.nba.mp;
 
+import roll.table.ObservationRowBase;
+import roll.table.ObservationRowBoolean;
 import roll.table.ObservationTableBase;
+import roll.words.Word;
 
 /**
  * @author Yong Li (liyong@ios.ac.cn)
@@ -26,4 +29,9 @@ public class ObservationTableNBAMP extends ObservationTableBase {
     public ObservationTableNBAMP() {
         super();
     }
+    
+    @Override
+    public ObservationRowBase getRowInstance(Word word) {
+        return new ObservationRowBoolean(word);
+    }
 }
@@ -16,6 +16,9 @@
 
 package roll.learner.nfa;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import roll.oracle.MembershipOracle;
 import roll.query.Query;
 import roll.query.QuerySimple;
@@ -34,11 +37,24 @@ public class MembershipOracleNFAReverse implements MembershipOracle<HashableValu
 
     @Override
     public HashableValue answerMembershipQuery(Query<HashableValue> query) {
+        HashableValue answer = membershipOracle.answerMembershipQuery(getReverseQuery(query));
+        return answer;
+    }
+    
+    @Override
+    public List<HashableValue> answerMembershipQueries(List<Query<HashableValue>> queries) {
+        List<Query<HashableValue>> reverseQueries = new ArrayList<>(queries.size());
+        for(Query<HashableValue> query : queries) {
+            reverseQueries.add(getReverseQuery(query));
+        }
+        return membershipOracle.answerMembershipQueries(reverseQueries);
+    }
+    
+    private Query<HashableValue> getReverseQuery(Query<HashableValue> query) {
         Word word = query.getQueriedWord();
         // now reverse the word
         Word prefix = word.reverse();
-        HashableValue answer = membershipOracle.answerMembershipQuery(new QuerySimple<>(prefix, word.getAlphabet().getEmptyWord()));
-        return answer;
+        return new QuerySimple<>(prefix, word.getAlphabet().getEmptyWord());
     }    
 
 }
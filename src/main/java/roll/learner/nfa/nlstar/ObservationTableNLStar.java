@@ -59,14 +59,10 @@ public class ObservationTableNLStar extends ObservationTableBase {
     @Override
     public int addColumn(ExprValue column) {
         if(isInColumn(column)) {
-            return columns.indexOf(column);
+            return getColumnIndex(column);
         }
         columnSet.add(column);
-        int index = columns.size();
-        columns.add(column);
-        assert columns.get(index).equals(column);
-        assert columns.indexOf(column) == index : "new column to be added: " + column;
-        return index;
+        return super.addColumn(column);
     }
         
     protected List<ObservationRow> getUpperPrimes() {
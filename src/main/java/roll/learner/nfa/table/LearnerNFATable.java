@@ -176,38 +176,13 @@ public class LearnerNFATable extends LearnerFA<NFA> {
 
     protected void processMembershipQueries(List<ObservationRow> rows
             , int colOffset, int length) {
-        List<Query<HashableValue>> results = new ArrayList<>();
-        List<ExprValue> columns = observationTable.getColumns();
-        int endNr = length + colOffset;
-        for(ObservationRow row : rows) {
-            for(int colNr = colOffset; colNr < endNr; colNr ++) {
-                results.add(processMembershipQuery(row, colNr, columns.get(colNr)));
-            }
-        }
-        putQueryAnswers(results);
-    }
-    
-    protected Query<HashableValue> processMembershipQuery(ObservationRow row, int offset, ExprValue valueExpr) {
-        // ask membership query for column . row
-        Query<HashableValue> query = new QuerySimple<>(row, valueExpr.get(), row.getWord(), offset);
-        HashableValue result = membershipOracle.answerMembershipQuery(query);
-        // put result for (row, column) 
-        Query<HashableValue> queryResult = new QuerySimple<>(row, row.getWord(), valueExpr.get(), offset);
-        queryResult.answerQuery(result);
-        return queryResult;
-    }
-        
-    protected void putQueryAnswers(List<Query<HashableValue>> queries) {
-        for(Query<HashableValue> query : queries) {
-            putQueryAnswers(query);
-        }
+        processMembershipQueries(observationTable, rows, colOffset, length);
     }
     
-    protected void putQueryAnswers(Query<HashableValue> query) {
-        ObservationRow row = query.getPrefixRow();
-        HashableValue result = query.getQueryAnswer();
-        assert result != null;
-        row.set(query.getSuffixColumn(), result);
+    // ask membership query for column . row, the answer is put in (row, column)
+    @Override
+    protected Query<HashableValue> makeMembershipQuery(ObservationRow row, int offset, ExprValue valueExpr) {
+        return new QuerySimple<>(row, valueExpr.get(), row.getWord(), offset);
     }
 
     @Override
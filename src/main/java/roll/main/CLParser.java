@@ -26,6 +26,7 @@ import java.util.List;
 
 import roll.parser.Format;
 import roll.util.Pair;
+import roll.util.sets.UtilISet;
 
 
 /**
@@ -213,7 +214,29 @@ public class CLParser {
             }
             
             if(args[i].compareTo("-bs")==0) {
-                options.binarySearch = true;
+                options.ceAnalysis = Options.CeAnalysis.BINARY;
+                continue;
+            }
+            if(args[i].compareTo("-ce") == 0 || args[i].compareTo("-ceprog") == 0) {
+                if(i + 1 >= args.length) {
+                    throw new UnsupportedOperationException(args[i] + " should be followed by linear, binary, exponential, rs or cached");
+                }
+                Options.CeAnalysis ceAnalysis;
+                try {
+                    ceAnalysis = Options.CeAnalysis.valueOf(args[i + 1].toUpperCase());
+                }catch(IllegalArgumentException e) {
+                    throw new UnsupportedOperationException("Invalid counterexample analysis: " + args[i + 1] + " followed by " + args[i]);
+                }
+                if(args[i].compareTo("-ce") == 0) {
+                    options.ceAnalysis = ceAnalysis;
+                }else {
+                    options.ceAnalysisProgress = ceAnalysis;
+                }
+                i += 1;
+                continue;
+            }
+            if(args[i].compareTo("-incr")==0) {
+                options.incremental = true;
                 continue;
             }
             if(args[i].compareTo("-out")==0){
@@ -322,10 +345,72 @@ public class CLParser {
                 options.format = Format.HOA;
                 continue;
             }
+            if(args[i].compareTo("-cache") == 0) {
+                if(i + 1 >= args.length) {
+                    throw new UnsupportedOperationException("-cache should be followed by none, lru or fifo");
+                }
+                try {
+                    options.cache = Options.CachePolicy.valueOf(args[i + 1].toUpperCase());
+                }catch(IllegalArgumentException e) {
+                    throw new UnsupportedOperationException("Invalid cache policy: " + args[i + 1] + " followed by -cache");
+                }
+                i += 1;
+                continue;
+            }
+            if(args[i].compareTo("-cachesize") == 0) {
+                if(i + 1 >= args.length) {
+                    throw new UnsupportedOperationException("-cachesize should be followed by an integer");
+                }
+                options.cacheSize = parseInt(args[i + 1], "-cachesize");
+                i += 1;
+                continue;
+            }
+            if(args[i].compareTo("-mqworkers") == 0) {
+                if(i + 1 >= args.length) {
+                    throw new UnsupportedOperationException("-mqworkers should be followed by an integer");
+                }
+                options.numMembershipWorkers = parseInt(args[i + 1], "-mqworkers");
+                if(options.numMembershipWorkers < 1) {
+                    throw new UnsupportedOperationException("-mqworkers should be followed by a positive integer");
+                }
+                i += 1;
+                continue;
+            }
+            if(args[i].compareTo("-workers") == 0) {
+                if(i + 1 >= args.length) {
+                    throw new UnsupportedOperationException("-workers should be followed by an integer");
+                }
+                options.numWorkers = parseInt(args[i + 1], "-workers");
+                if(options.numWorkers < 1) {
+                    throw new UnsupportedOperationException("-workers should be followed by a positive integer");
+                }
+                i += 1;
+                continue;
+            }
+            if(args[i].compareTo("-sets") == 0) {
+                if(i + 1 >= args.length) {
+                    throw new UnsupportedOperationException("-sets should be followed by adaptive, bits, tintset or treeset");
+                }
+                try {
+                    options.sets = UtilISet.SetType.valueOf(args[i + 1].toUpperCase());
+                }catch(IllegalArgumentException e) {
+                    throw new UnsupportedOperationException("Invalid set implementation: " + args[i + 1] + " followed by -sets");
+                }
+                i += 1;
+                continue;
+            }
             if(args[i].compareTo("-congr") == 0) {
             	options.congruence = true;
             	continue;
             }
+            if(args[i].compareTo("-antichain") == 0) {
+                options.antichain = true;
+                continue;
+            }
+            if(args[i].compareTo("-symbolic") == 0) {
+                options.symbolic = true;
+                continue;
+            }
 
         }
         
@@ -334,6 +419,7 @@ public class CLParser {
             System.exit(-1);
         }
         
+        UtilISet.setType(options.sets);
         options.checkConsistency();
     }
     
@@ -415,15 +501,25 @@ public class CLParser {
         	, new Pair<>("-syntactic", "Syntactic FDFA for learning w-regular languages (Default)")
         	, new Pair<>("-over", "Over-approximation in BA construction for FDFA")
         	, new Pair<>("-under", "Under-approximation in BA construction for FDFA (Default)")
-        	, new Pair<>("-bs", "Binary search for finding a suffix in counterexample")
+        	, new Pair<>("-bs", "Binary search for finding a suffix in counterexample (-ce binary)")
+        	, new Pair<>("-ce <s>", "Counterexample analysis: linear (Default), binary, exponential, rs or cached")
+        	, new Pair<>("-ceprog <s>", "Counterexample analysis of the progress learners (Default as -ce)")
+        	, new Pair<>("-incr", "Keep progress learners when the leading DFA is refined")
         	, new Pair<>("-lazyeq", "Equivalence check as the last resort")
         	, new Pair<>("-ldba", "Limit-deterministic BA as the learned BA")
         	, new Pair<>("-spot", "Spot for checking inclusion in learning/complementation")
         	, new Pair<>("-rev", "Complement teacher to learn the target nondeterministic BA")
-        	, new Pair<>("-par", "RABIT and Spot work in parallel in the complement teacher")
+        	, new Pair<>("-par", "Parallel RABIT and Spot, congruence and NBA emptiness checks")
+        	, new Pair<>("-workers <n>", "Number of threads used by -par (Default 4)")
         	, new Pair<>("-fin", "Interpret the input LTL formula over finite words")
         	, new Pair<>("-p <prob>", "Probability to terminate during sampling")
         	, new Pair<>("-congr", "Use congruence-based algorithm for inclusion checking")
+        	, new Pair<>("-antichain", "Experimental native antichain-based inclusion checking, compared with RABIT by -test")
+        	, new Pair<>("-cache <p>", "Cache policy for membership queries: none, lru (Default) or fifo")
+        	, new Pair<>("-cachesize <n>", "Maximal number of cached membership queries (Default 65536)")
+        	, new Pair<>("-sets <s>", "Integer sets: adaptive (Default), bits, tintset or treeset")
+        	, new Pair<>("-mqworkers <n>", "Number of threads answering membership queries (Default 1)")
+        	, new Pair<>("-symbolic", "One letter per class of valuations not distinguished by HOA labels")
 //        	, new Pair<>("-f <ltl>", "Convert LTL to limit deterministic BA")
 //        	, new Pair<>("-fdfa", "FDFA as the learning target")
 //        	, new Pair<>("-nba", "NBA as the learning target")
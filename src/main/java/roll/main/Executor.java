@@ -23,7 +23,9 @@ import roll.learner.LearnerBase;
 import roll.learner.nba.ldollar.LearnerNBALDollar;
 import roll.learner.nba.lomega.LearnerNBALOmega;
 import roll.learner.nba.lomega.UtilLOmega;
-import roll.oracle.Teacher;
+import roll.oracle.MembershipOracle;
+import roll.oracle.MembershipOracleCache;
+import roll.oracle.MembershipOracleParallel;
 import roll.oracle.nba.TeacherNBA;
 import roll.oracle.nba.TeacherNBAImpl;
 //import roll.oracle.nba.rabit.TeacherNBARABIT;
@@ -75,7 +77,8 @@ public class Executor {
     
     private static void execute(Options options, NBA target,
             TeacherNBA teacher) {
-        LearnerBase<NBA> learner = getLearner(options, target.getAlphabet(), teacher);
+        MembershipOracle<HashableValue> mqOracle = MembershipOracleCache.decorate(options, MembershipOracleParallel.decorate(options, teacher), true);
+        LearnerBase<NBA> learner = getLearner(options, target.getAlphabet(), mqOracle);
         Timer timer = new Timer();
         options.log.println("Initializing learner...");
         timer.start();
@@ -107,7 +110,7 @@ public class Executor {
     }
 
     public static LearnerBase<NBA> getLearner(Options options, Alphabet alphabet,
-            Teacher<NBA, Query<HashableValue>, HashableValue> teacher) {
+            MembershipOracle<HashableValue> teacher) {
         LearnerBase<NBA> learner = null;
         if(options.algorithm == Options.Algorithm.NBA_LDOLLAR) {
             learner = new LearnerNBALDollar(options, alphabet, teacher);
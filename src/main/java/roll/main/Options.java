@@ -21,6 +21,7 @@ import java.io.PrintStream;
 
 import roll.parser.Format;
 import roll.parser.PairParser;
+import roll.util.sets.UtilISet;
 
 /**
  * @author Yong Li (liyong@ios.ac.cn)
@@ -64,8 +65,14 @@ public class Options {
     // only noninclusion
     public boolean nonIncusion = false;
     
-    // search method for counterexample
-    public boolean binarySearch = false;
+    // search method for the break index in a counterexample
+    public CeAnalysis ceAnalysis = CeAnalysis.LINEAR;
+    
+    // search method used by the progress learners of FDFAs, the same as ceAnalysis if null
+    public CeAnalysis ceAnalysisProgress = null;
+    
+    // keep progress learners after the leading DFA is refined instead of restarting them
+    public boolean incremental = false;
     
     // output file for learned automaton
     public String outputFile = null;
@@ -82,13 +89,32 @@ public class Options {
     
     public boolean dot = false;
     
+    // letters of HOA inputs are classes of valuations which no transition label distinguishes
+    public boolean symbolic = false;
+    
     public boolean spot = false;
 
     public boolean parallel = false;
     
+    // number of threads of parallel inclusion and emptiness checks
     public int numWorkers = 4;
     
     public boolean congruence = false;
+    
+    // experimental native antichain-based inclusion check instead of RABIT/Spot/congruence,
+    // in testing mode it is compared with RABIT on random NBAs
+    public boolean antichain = false;
+    
+    // cache for membership queries
+    public CachePolicy cache = CachePolicy.LRU;
+    
+    public int cacheSize = 1 << 16;
+    
+    // number of threads answering a batch of membership queries
+    public int numMembershipWorkers = 1;
+    
+    // implementation of the integer sets for states, letters and so on
+    public UtilISet.SetType sets = UtilISet.SetType.ADAPTIVE;
 
     // use the complement teacher to learn the target BA
     public boolean reverse = false;
@@ -185,6 +211,20 @@ public class Options {
         MINIMIZATION
     }
     
+    public static enum CachePolicy {
+        NONE,
+        LRU,   // evict the least recently used answer
+        FIFO   // evict the earliest stored answer
+    }
+    
+    public static enum CeAnalysis {
+        LINEAR,      // scan from the first letter
+        BINARY,      // binary search comparing two adjacent indices
+        EXPONENTIAL, // galloping search from the first letter, then binary search
+        RS,          // Rivest-Schapire binary search, one query per probe
+        CACHED       // probe the indices answered by the cache first, then RS
+    }
+    
     public static enum TargetAutomaton {
         DFA,
         NFA,
@@ -240,13 +280,20 @@ public class Options {
             builder.append("k=" + numOfTests + "," + "n=" + numOfStatesForTest + ",");
         }
         builder.append("verbose=" + verbose + ",");
-        builder.append("bs=" + binarySearch + ",");
+        builder.append("ce=" + ceAnalysis + (ceAnalysisProgress == null ? "" : "(" + ceAnalysisProgress + ")") + ",");
+        builder.append("incr=" + incremental + ",");
+        builder.append("cache=" + cache + "(" + cacheSize + "),");
+        builder.append("par=" + parallel + "(" + numWorkers + "),");
+        builder.append("mqworkers=" + numMembershipWorkers + ",");
+        builder.append("sets=" + sets + ",");
         builder.append("dot=" + dot + ",");
+        builder.append("symbolic=" + symbolic + ",");
         builder.append("inputfile=" + inputFile + ",");
         builder.append("outputfile=" + outputFile + ",");
         builder.append("outputA=" + outputA + ",");
         builder.append("outputB=" + outputB + "\n");
-        builder.append("congruence=" + congruence + "\n");
+        builder.append("congruence=" + congruence + ",");
+        builder.append("antichain=" + antichain + "\n");
         return builder.toString();
     }
     
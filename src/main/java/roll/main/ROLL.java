@@ -21,15 +21,19 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.util.Random;
 
 import dk.brics.automaton.Automaton;
+import mainfiles.RABIT;
 import roll.automata.DFA;
 import roll.automata.FDFA;
 import roll.automata.NBA;
 import roll.automata.operations.FDFAOperations;
 import roll.automata.operations.NBAGenerator;
+import roll.automata.operations.NBALassoMembership;
 import roll.automata.operations.NBAOperations;
 import roll.automata.operations.NFAOperations;
+import roll.automata.operations.nba.inclusion.NBAInclusionAntichain;
 import roll.automata.operations.nba.inclusion.NBAInclusionCheckTool;
 import roll.learner.LearnerDFA;
 import roll.learner.dfa.table.LearnerDFATableColumn;
@@ -42,12 +46,16 @@ import roll.main.complement.TeacherNBAComplement;
 import roll.main.inclusion.NBAInclusionCheck;
 import roll.main.ltl2dpa.TeacherLTL2LDBA;
 import roll.main.ltlf2dfa.TeacherLTLf2DFA;
+import roll.oracle.MembershipOracleCache;
+import roll.oracle.MembershipOracleParallel;
+import roll.oracle.nba.rabit.UtilRABIT;
 import roll.parser.PairParser;
 import roll.parser.Parser;
 import roll.parser.UtilParser;
 import roll.query.Query;
 import roll.table.HashableValue;
 import roll.table.HashableValueBoolean;
+import roll.util.Pair;
 import roll.util.Timer;
 import roll.words.Word;
 
@@ -115,12 +123,21 @@ public final class ROLL {
 
     private static void runTestingMode(Options options) {
         final int numLetter = 2;
+        Random seeds = new Random();
         for(int n = 0; n < options.numOfTests; n ++) {
             options.log.println("Testing case " + (n + 1) + " ...");
-            NBA nba = NBAGenerator.getRandomNBA(options.numOfStatesForTest, numLetter);
+            NBA nba = NBAGenerator.getRandomNBA(options.numOfStatesForTest, numLetter, seeds.nextLong());
             try{
                 options.log.println("target: \n" + nba.toBA());
-                Executor.executeRABIT(options, nba);
+                if(options.antichain) {
+                    // test the antichain-based inclusion check against RABIT instead of learning
+                    NBA other = NBAGenerator.getRandomNBA(options.numOfStatesForTest, numLetter, seeds.nextLong());
+                    options.log.println("other: \n" + other.toBA());
+                    checkAntichainInclusion(options, nba, other);
+                    checkAntichainInclusion(options, other, nba);
+                }else {
+                    Executor.executeRABIT(options, nba);
+                }
             }catch (Exception e)
             {
                 e.printStackTrace();
@@ -132,6 +149,27 @@ public final class ROLL {
         }
     }
     
+    // the antichain-based check should agree with RABIT on L(A) <= L(B) and give real counterexamples
+    private static void checkAntichainInclusion(Options options, NBA A, NBA B) {
+        NBAInclusionAntichain antichain = new NBAInclusionAntichain(A, B);
+        boolean included = RABIT.isIncluded(UtilRABIT.toRABITNBA(A), UtilRABIT.toRABITNBA(B));
+        if(antichain.isIncluded() != included) {
+            options.log.err("Antichain-based check says " + antichain.isIncluded()
+                    + " while RABIT says " + included + " for inclusion of\n" + A.toBA() + "\nin\n" + B.toBA());
+            System.exit(-1);
+        }
+        if(included) return;
+        Pair<Word, Word> counterexample = antichain.getCounterexample();
+        Word stem = counterexample.getLeft();
+        Word loop = counterexample.getRight();
+        if(! new NBALassoMembership(A).accepts(stem, loop)
+        || new NBALassoMembership(B).accepts(stem, loop)) {
+            options.log.err("Antichain-based check gives wrong counterexample " + stem.toStringWithAlphabet()
+                    + "(" + loop.toStringWithAlphabet() + ")^w for inclusion of\n" + A.toBA() + "\nin\n" + B.toBA());
+            System.exit(-1);
+        }
+    }
+    
     private static void runConvertingMode(Options options) {
         // prepare the parser
         PairParser parser = UtilParser.prepare(options, options.inputA, options.inputB, options.format);
@@ -228,7 +266,8 @@ public final class ROLL {
         options.stats.numOfStatesInTraget = input.getStateSize();
         
         TeacherNBAComplement teacher = new TeacherNBAComplement(options, input);
-        LearnerFDFA learner = UtilLOmega.getLearnerFDFA(options, input.getAlphabet(), teacher);
+        LearnerFDFA learner = UtilLOmega.getLearnerFDFA(options, input.getAlphabet()
+                , MembershipOracleCache.decorate(options, MembershipOracleParallel.decorate(options, teacher), true));
         options.log.println("Initializing learner...");
         Timer timer = new Timer();
         long t = timer.getCurrentTime();
@@ -318,7 +357,8 @@ public final class ROLL {
         // prepare the parser
         TeacherLTL2LDBA teacher = new TeacherLTL2LDBA(options, options.ltl);
         PairParser parser = options.parser;
-        LearnerFDFA learner = UtilLOmega.getLearnerFDFA(options, teacher.getAlphabet(), teacher);
+        LearnerFDFA learner = UtilLOmega.getLearnerFDFA(options, teacher.getAlphabet()
+                , MembershipOracleCache.decorate(options, MembershipOracleParallel.decorate(options, teacher), true));
         options.log.println("Initializing learner...");
         long t = timer.getCurrentTime();
         learner.startLearning();
@@ -37,6 +37,12 @@ public class Statistics {
     public int numOfMembershipQuery ; // number of membership query
     public int numOfEquivalenceQuery ; // number of equivalence query
     
+    public int numOfMembershipQueryCacheHit ; // number of membership query answered by cache
+    public int numOfMembershipQueryCacheMiss ; // number of membership query passed to teacher by cache
+    
+    public int numOfCeAnalysis; // number of analyzed counterexamples
+    public List<Integer> numOfMembershipQueryInCeAnalysis; // number of membership queries for each analyzed counterexample
+    
     public int numOfStatesInLeading; // number of states in leading automaton
     public List<Integer> numOfStatesInProgress; // number of states in progress automata
     
@@ -68,6 +74,18 @@ public class Statistics {
         this.options = options;
         this.log = options.log;
         this.numOfStatesInProgress = new ArrayList<>();
+        this.numOfMembershipQueryInCeAnalysis = new ArrayList<>();
+    }
+    
+    // membership queries may be answered by several threads at the same time
+    public synchronized void addMembershipQueries(int num, long time) {
+        numOfMembershipQuery += num;
+        timeOfMembershipQuery += time;
+    }
+    
+    public synchronized void addCeAnalysis(int numQueries) {
+        numOfCeAnalysis ++;
+        numOfMembershipQueryInCeAnalysis.add(numQueries);
     }
     
     public void print() {
@@ -99,6 +117,16 @@ public class Statistics {
         
         log.println("#MQ = " + numOfMembershipQuery , indent , "    // #membership query");
         log.println("#EQ = " + numOfEquivalenceQuery , indent , "    // #equivalence query");
+        log.println("#MQC.H = " + numOfMembershipQueryCacheHit , indent , "    // #membership query hits in cache");
+        log.println("#MQC.M = " + numOfMembershipQueryCacheMiss , indent , "    // #membership query misses in cache");
+        int numCeQueries = 0, maxCeQueries = 0;
+        for(Integer numQueries : numOfMembershipQueryInCeAnalysis) {
+            numCeQueries += numQueries;
+            maxCeQueries = Math.max(maxCeQueries, numQueries);
+        }
+        log.println("#CE = " + numOfCeAnalysis , indent , "    // #analyzed counterexamples");
+        log.println("#CEMQ = " + numCeQueries , indent , "    // #membership query in counterexample analysis");
+        log.println("#CEMQ.M = " + maxCeQueries , indent , "    // #membership query for one counterexample at most");
         
         log.println("#TMQ = " + timeOfMembershipQuery + " (ms)" , indent , "    // time for membership queries");
         log.println("#TEQ = " + timeOfEquivalenceQuery + " (ms)" , indent , "    // time for equivalence queries");
@@ -16,15 +16,18 @@
 
 package roll.main.complement;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import automata.FiniteAutomaton;
 import dk.brics.automaton.Automaton;
 import mainfiles.RABIT;
-import oracle.IntersectionCheck;
 import roll.automata.FDFA;
 import roll.automata.NBA;
+import roll.automata.operations.FDFA2NBA;
 import roll.automata.operations.FDFAOperations;
+import roll.automata.operations.NBAIntersectionCheck;
+import roll.automata.operations.NBALassoMembership;
 import roll.automata.operations.NBAOperations;
 import roll.main.Options;
 import roll.main.inclusion.UtilInclusion;
@@ -54,13 +57,16 @@ import roll.words.Word;
 public class TeacherNBAComplement implements Teacher<FDFA, Query<HashableValue>, HashableValue> {
 
     private final NBA B;
+    private final NBALassoMembership membershipB;
     private final Options options;
     private final Alphabet alphabet;
+    private final FDFA2NBA underNBABuilder = new FDFA2NBA(true);
     
     public TeacherNBAComplement(Options options, NBA nba) {
         assert options != null && nba != null;
         this.options = options;
         this.B = nba;
+        this.membershipB = new NBALassoMembership(nba);
         this.alphabet = nba.getAlphabet();
     }
     
@@ -69,14 +75,29 @@ public class TeacherNBAComplement implements Teacher<FDFA, Query<HashableValue>,
         Timer timer = new Timer();
         timer.start();
         
-        boolean result = UtilComplement.answerMembershipQuery(B, query);
+        boolean result = UtilComplement.answerMembershipQuery(membershipB, query);
         
         timer.stop();
-        options.stats.timeOfMembershipQuery += timer.getTimeElapsed();
-        ++ options.stats.numOfMembershipQuery; 
+        options.stats.addMembershipQueries(1, timer.getTimeElapsed());
         return new HashableValueBoolean(!result); // reverse the result for Buechi automaton
     }
     
+    @Override
+    public List<HashableValue> answerMembershipQueries(List<Query<HashableValue>> queries) {
+        Timer timer = new Timer();
+        timer.start();
+        
+        boolean[] results = UtilComplement.answerMembershipQueries(membershipB, queries);
+        List<HashableValue> answers = new ArrayList<>(results.length);
+        for(final boolean result : results) {
+            answers.add(new HashableValueBoolean(!result));
+        }
+        
+        timer.stop();
+        options.stats.addMembershipQueries(queries.size(), timer.getTimeElapsed());
+        return answers;
+    }
+    
     public int numInterBandBF;
     public long timeInterBandBF;
     
@@ -88,8 +109,16 @@ public class TeacherNBAComplement implements Teacher<FDFA, Query<HashableValue>,
     
     public boolean sampling = false;
     
-    private Pair<Word, Word> getCounterexample(List<String> prefix, List<String> suffix) {
-        return UtilComplement.getCounterexample(alphabet, prefix, suffix);
+    // see UtilComplement.checkInclusion for the checks which run RABIT
+    private boolean needsRABIT() {
+        if(options.antichain) return false;
+        if(options.parallel) return !options.congruence;
+        return !options.spot && !options.congruence;
+    }
+    
+    // product emptiness is checked by a swarm of workers with -par
+    private int getNumWorkers() {
+        return options.parallel ? options.numWorkers : 1;
     }
 
     @Override
@@ -97,23 +126,18 @@ public class TeacherNBAComplement implements Teacher<FDFA, Query<HashableValue>,
         Timer timer = new Timer();
         timer.start();
         options.log.println("Translating FDFA to under Buchi automaton ...");
-        Automaton dkBF = FDFAOperations.buildUnderNBA(hypothesis);
-        NBA BF = NBAOperations.fromDkNBA(dkBF, alphabet);
+        NBA BF = underNBABuilder.build(hypothesis);
         
         // record the constructed Buchi automaton
         options.stats.hypothesis = BF;
         ++ this.numInterBandBF;
         options.log.println("Checking the intersection of BF (" + BF.getStateSize() + ") and B ("+ B.getStateSize() + ")...");
         long t = timer.getCurrentTime();
-        FiniteAutomaton rBF = UtilInclusion.toRABITNBA(BF);
-        FiniteAutomaton rB = UtilInclusion.toRABITNBA(B);
         /**
          * now check whether the complement B(F) intersects with the input automaton B
          * */
-        IntersectionCheck checker = new IntersectionCheck(rBF, rB);
-//        NBAIntersectionCheck interCheck = new NBAIntersectionCheck(BF, B, true);
-//        boolean isEmpty = interCheck.isEmpty();
-        boolean isEmpty = checker.checkEmptiness();
+        NBAIntersectionCheck interCheck = new NBAIntersectionCheck(BF, B, true, getNumWorkers());
+        boolean isEmpty = interCheck.isEmpty();
         t = timer.getCurrentTime() - t;
         this.timeInterBandBF += t;
         if(options.verbose()) {
@@ -125,8 +149,8 @@ public class TeacherNBAComplement implements Teacher<FDFA, Query<HashableValue>,
         boolean isEq = false, isInTarget = false;
         if(! isEmpty) {
             // we have omega word in FDFA which should not be there
-            checker.computePath();
-            Pair<Word, Word> pair = getCounterexample(checker.getPrefix(), checker.getSuffix());
+            interCheck.computePath();
+            Pair<Word, Word> pair = interCheck.getCounterexample();
             prefix = pair.getLeft();
             suffix = pair.getRight();
             isEq = false;
@@ -138,20 +162,19 @@ public class TeacherNBAComplement implements Teacher<FDFA, Query<HashableValue>,
                     + BFC.getStateSize() + ")...");
             ++this.numInterBFCandBF;
             t = timer.getCurrentTime();
-            FiniteAutomaton rBFC = UtilInclusion.toRABITNBA(BFC);
-            checker = new IntersectionCheck(rBFC, rBF);
-            isEmpty = checker.checkEmptiness();
+            interCheck = new NBAIntersectionCheck(BFC, BF, true, getNumWorkers());
+            isEmpty = interCheck.isEmpty();
             t = timer.getCurrentTime() - t;
             this.timeInterBFCandBF += t;
 
             if (!isEmpty) {
                 // we have found counterexample now
-                checker.computePath();
-                Pair<Word, Word> pair = getCounterexample(checker.getPrefix(), checker.getSuffix());
+                interCheck.computePath();
+                Pair<Word, Word> pair = interCheck.getCounterexample();
                 prefix = pair.getLeft();
                 suffix = pair.getRight();
                 isEq = false;
-                isInTarget = NBAOperations.accepts(B, prefix, suffix);
+                isInTarget = membershipB.accepts(prefix, suffix);
             } else {
                 // we have to resort to the equivalence check for hypothesisNotA
                 ++this.numBFCLessB;
@@ -185,6 +208,12 @@ public class TeacherNBAComplement implements Teacher<FDFA, Query<HashableValue>,
                     // by rabit
                     options.log.println("RABIT/SPOT/CONGR for a counterexample to the inclusion...");
                     t = timer.getCurrentTime();
+                    // RABIT changes its input automata, so B is copied for every check
+                    FiniteAutomaton rBFC = null, rB = null;
+                    if(needsRABIT()) {
+                        rBFC = UtilInclusion.toRABITNBA(BFC);
+                        rB = UtilInclusion.toRABITNBA(B);
+                    }
 					IsIncluded included = UtilComplement.checkInclusion(options, alphabet, BFC, B, rBFC, rB);                
                     t = timer.getCurrentTime() - t;
                     this.timeBFCLessB += t;
@@ -15,7 +15,8 @@ import automata.FAState;
 import automata.FiniteAutomaton;
 import mainfiles.RABIT;
 import roll.automata.NBA;
-import roll.automata.operations.NBAOperations;
+import roll.automata.operations.NBALassoMembership;
+import roll.automata.operations.nba.inclusion.NBAInclusionAntichain;
 import roll.main.Options;
 import roll.main.inclusion.congr.CongrThread;
 import roll.oracle.nba.rabit.RabitThread;
@@ -57,6 +58,10 @@ public class UtilComplement {
     }
 	
 	public static boolean answerMembershipQuery(NBA B, Query<HashableValue> query) {
+        return answerMembershipQuery(new NBALassoMembership(B), query);
+	}
+	
+	public static boolean answerMembershipQuery(NBALassoMembership B, Query<HashableValue> query) {
         boolean result;
         Word prefix = query.getPrefix();
         Word suffix = query.getSuffix();
@@ -64,11 +69,21 @@ public class UtilComplement {
         if(suffix.isEmpty()) {
             return false;
         }else {
-            result = NBAOperations.accepts(B, prefix, suffix);
+            result = B.accepts(prefix, suffix);
         }
         return result;
 	}
 	
+	public static boolean[] answerMembershipQueries(NBALassoMembership B, List<Query<HashableValue>> queries) {
+	    List<Word> prefixes = new ArrayList<>(queries.size());
+	    List<Word> suffixes = new ArrayList<>(queries.size());
+	    for(Query<HashableValue> query : queries) {
+	        prefixes.add(query.getPrefix());
+	        suffixes.add(query.getSuffix()); // empty suffix is never accepted
+	    }
+	    return B.accepts(prefixes, suffixes);
+	}
+	
 	public static void print(Alphabet alphabet, FiniteAutomaton nba, String file) {
 		try {
 			FileOutputStream stream = new FileOutputStream(file);
@@ -96,7 +111,10 @@ public class UtilComplement {
 	public static IsIncluded checkInclusion(Options options
 			, Alphabet alphabet, NBA A, NBA B, FiniteAutomaton rA, FiniteAutomaton rB) {
 		IsIncluded included = null;
-		if(options.parallel && !options.congruence) {
+		if(options.antichain) {
+			// works on A and B directly, rA and rB are not needed
+			included = new NBAInclusionAntichain(A, B);
+		}else if(options.parallel && !options.congruence) {
 			final int size = 45;
 			boolean bigEnough = A.getStateSize() + B.getStateSize() > size;
 			SpotThread1 spotThread = null;
@@ -16,6 +16,7 @@
 
 package roll.main.inclusion;
 
+import java.util.List;
 import java.util.Set;
 
 import algorithms.Simulation;
@@ -25,6 +26,7 @@ import oracle.EmptinessChecker;
 import roll.automata.NBA;
 import roll.automata.operations.NBAEmptinessCheck;
 import roll.automata.operations.NBALasso;
+import roll.automata.operations.NBALassoMembership;
 import roll.automata.operations.NBAOperations;
 import roll.automata.operations.NFAOperations;
 import roll.learner.fdfa.LearnerFDFA;
@@ -34,6 +36,9 @@ import roll.learner.nba.lomega.translator.TranslatorFDFAUnder;
 import roll.main.Options;
 import roll.main.complement.UtilComplement;
 import roll.main.inclusion.congr.CongruenceSimulation;
+import roll.oracle.MembershipOracle;
+import roll.oracle.MembershipOracleCache;
+import roll.oracle.MembershipOracleParallel;
 import roll.oracle.nba.sampler.SamplerIndexedMonteCarlo;
 import roll.parser.PairParser;
 import roll.parser.UtilParser;
@@ -64,6 +69,50 @@ public class NBAInclusionCheck {
         parser.print(lasso.getNBA(), options.log.getOutputStream());
     }
     
+    // membership queries of the learner, stops the check on the calling thread
+    // as soon as the teacher has found a counterexample while answering them
+    private static class MembershipOracleInclusion implements MembershipOracle<HashableValue> {
+        private final Options options;
+        private final PairParser parser;
+        private final TeacherNBAInclusion teacher;
+        private final MembershipOracle<HashableValue> membershipOracle;
+        
+        MembershipOracleInclusion(Options options, PairParser parser, TeacherNBAInclusion teacher
+                , MembershipOracle<HashableValue> membershipOracle) {
+            this.options = options;
+            this.parser = parser;
+            this.teacher = teacher;
+            this.membershipOracle = membershipOracle;
+        }
+        
+        @Override
+        public HashableValue answerMembershipQuery(Query<HashableValue> query) {
+            HashableValue answer = membershipOracle.answerMembershipQuery(query);
+            checkCounterexample();
+            return answer;
+        }
+        
+        @Override
+        public boolean isCached(Query<HashableValue> query) {
+            return membershipOracle.isCached(query);
+        }
+        
+        @Override
+        public List<HashableValue> answerMembershipQueries(List<Query<HashableValue>> queries) {
+            List<HashableValue> answers = membershipOracle.answerMembershipQueries(queries);
+            checkCounterexample();
+            return answers;
+        }
+        
+        private void checkCounterexample() {
+            Pair<Word, Word> counterexample = teacher.getCounterexample();
+            if(counterexample == null) return;
+            printCounterexample(options, parser, counterexample);
+            options.log.println("Learning completed...");
+            System.exit(0);
+        }
+    }
+    
     public static void execute(Options options) {
     	
     	if(! options.nonIncusion) {
@@ -137,6 +186,8 @@ public class NBAInclusionCheck {
         //System.out.println("Probability : " + sampler.stopProb);
         long num = sampler.getSampleSize();
         sampler.setNBA(A);
+        NBALassoMembership membershipA = new NBALassoMembership(A);
+        NBALassoMembership membershipB = new NBALassoMembership(B);
         options.log.println("Trying " + num + " samples from A automaton...");
         for (int i = 0; i < num; i++) {
             Pair<Pair<Word, Word>, Boolean> result = sampler.getRandomLasso();
@@ -145,10 +196,10 @@ public class NBAInclusionCheck {
             if (result.getRight()) {
                 needCheck = true;
             } else {
-                needCheck = NBAOperations.accepts(A, word.getLeft(), word.getRight());
+                needCheck = membershipA.accepts(word.getLeft(), word.getRight());
             }
             if (needCheck) {
-                boolean acc = NBAOperations.accepts(B, word.getLeft(), word.getRight());
+                boolean acc = membershipB.accepts(word.getLeft(), word.getRight());
                 if (!acc) {
                     printCounterexample(options, parser, word);
                     parser.close();
@@ -238,7 +289,9 @@ public class NBAInclusionCheck {
         	options.log.println("Start using learning algorithm to prove inclusion...");
             // learning algorithm
             TeacherNBAInclusion teacher = new TeacherNBAInclusion(options, parser, A, B);
-            LearnerFDFA learner = UtilLOmega.getLearnerFDFA(options, alphabet, teacher);
+            MembershipOracle<HashableValue> membershipOracle = new MembershipOracleInclusion(options, parser, teacher
+                    , MembershipOracleCache.decorate(options, MembershipOracleParallel.decorate(options, teacher), true));
+            LearnerFDFA learner = UtilLOmega.getLearnerFDFA(options, alphabet, membershipOracle);
             // learning loop
             options.log.println("Start learning...");
             long t = timer.getCurrentTime();
@@ -406,6 +459,8 @@ public class NBAInclusionCheck {
         SamplerIndexedMonteCarlo sampler = new SamplerIndexedMonteCarlo(options.epsilon, options.delta);
         long num = sampler.getSampleSize();
         sampler.setNBA(A);
+        NBALassoMembership membershipA = new NBALassoMembership(A);
+        NBALassoMembership membershipB = new NBALassoMembership(B);
         options.log.println("Trying " + num + " samples from A automaton...");
         for (int i = 0; i < num; i++) {
             Pair<Pair<Word, Word>, Boolean> result = sampler.getRandomLasso();
@@ -414,10 +469,10 @@ public class NBAInclusionCheck {
             if (result.getRight()) {
                 needCheck = true;
             } else {
-                needCheck = NBAOperations.accepts(A, word.getLeft(), word.getRight());
+                needCheck = membershipA.accepts(word.getLeft(), word.getRight());
             }
             if (needCheck) {
-                boolean acc = NBAOperations.accepts(B, word.getLeft(), word.getRight());
+                boolean acc = membershipB.accepts(word.getLeft(), word.getRight());
                 if (!acc) {
                     options.log.println("Not included");
                     options.log.println("prefix: ");
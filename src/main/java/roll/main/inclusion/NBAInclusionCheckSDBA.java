@@ -19,6 +19,7 @@ package roll.main.inclusion;
 import automata.FiniteAutomaton;
 import oracle.EmptinessChecker;
 import roll.automata.NBA;
+import roll.automata.operations.NBALassoMembership;
 import roll.automata.operations.NBAOperations;
 import roll.automata.operations.nba.inclusion.NBAInclusionCheckTool;
 import roll.main.Options;
@@ -147,6 +148,8 @@ public class NBAInclusionCheckSDBA {
         SamplerIndexedMonteCarlo sampler = new SamplerIndexedMonteCarlo(options.epsilon, options.delta);
         long num = sampler.getSampleSize();
         sampler.setNBA(A);
+        NBALassoMembership membershipA = new NBALassoMembership(A);
+        NBALassoMembership membershipB = new NBALassoMembership(B);
         options.log.println("Trying " + num + " samples from A automaton...");
         for (int i = 0; i < num; i++) {
             Pair<Pair<Word, Word>, Boolean> result = sampler.getRandomLasso();
@@ -155,10 +158,10 @@ public class NBAInclusionCheckSDBA {
             if (result.getRight()) {
                 needCheck = true;
             } else {
-                needCheck = NBAOperations.accepts(A, word.getLeft(), word.getRight());
+                needCheck = membershipA.accepts(word.getLeft(), word.getRight());
             }
             if (needCheck) {
-                boolean acc = NBAOperations.accepts(B, word.getLeft(), word.getRight());
+                boolean acc = membershipB.accepts(word.getLeft(), word.getRight());
                 if (!acc) {
                     options.log.println("Not included");
                     options.log.println("prefix: ");
@@ -16,15 +16,21 @@
 
 package roll.main.inclusion;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import automata.FiniteAutomaton;
 import dk.brics.automaton.Automaton;
 import mainfiles.RABIT;
 import roll.automata.FDFA;
 import roll.automata.NBA;
+import roll.automata.operations.FDFA2NBA;
 import roll.automata.operations.FDFAOperations;
 import roll.automata.operations.NBAIntersectionCheck;
+import roll.automata.operations.NBALassoMembership;
 import roll.automata.operations.NBAOperations;
 import roll.main.Options;
+import roll.main.complement.UtilComplement;
 import roll.oracle.Teacher;
 import roll.oracle.nba.sampler.NBAInclusionSampler;
 import roll.oracle.nba.sampler.SamplerIndexedMonteCarlo;
@@ -49,14 +55,22 @@ public class TeacherNBAInclusion implements Teacher<FDFA, Query<HashableValue>,
     private final Alphabet alphabet;
     private final NBA A;
     private final NBA B;
+    private final NBALassoMembership membershipA;
+    private final NBALassoMembership membershipB;
     private final FiniteAutomaton rB;
     private final PairParser parser;
+    private final FDFA2NBA underNBABuilder = new FDFA2NBA(true);
+    // word in A but not in B found by a membership query, membership queries may be
+    // answered on several threads, so it is only recorded and reported by the caller
+    private Pair<Word, Word> counterexample;
     
     public TeacherNBAInclusion(Options options, PairParser parser, NBA A, NBA B) {
         assert options != null && parser != null && A != null && B != null;
         this.options = options;
         this.A = A;
         this.B = B;
+        this.membershipA = new NBALassoMembership(A);
+        this.membershipB = new NBALassoMembership(B);
         this.parser = parser;
         this.alphabet = A.getAlphabet();
         this.rB = UtilInclusion.toRABITNBA(B);
@@ -74,26 +88,64 @@ public class TeacherNBAInclusion implements Teacher<FDFA, Query<HashableValue>,
         if(suffix.isEmpty()) {
             return new HashableValueBoolean(false);
         }else {
-            result = NBAOperations.accepts(B, prefix, suffix);
+            result = membershipB.accepts(prefix, suffix);
         }
         
         // if uv is not in B
         boolean terminate = false;
         if(! result && ! suffix.isEmpty()) {
-            terminate = NBAOperations.accepts(A, prefix, suffix);
+            terminate = membershipA.accepts(prefix, suffix);
         }
         
         timer.stop();
-        options.stats.timeOfMembershipQuery += timer.getTimeElapsed();
-        ++ options.stats.numOfMembershipQuery; 
+        options.stats.addMembershipQueries(1, timer.getTimeElapsed());
         if(terminate) {
-            NBAInclusionCheck.printCounterexample(options, parser, new Pair<>(prefix, suffix));
-            options.log.println("Learning completed...");
-            System.exit(0);
+            setCounterexample(new Pair<>(prefix, suffix));
         }
         return new HashableValueBoolean(!result); // reverse the result for Buechi automaton
     }
     
+    @Override
+    public List<HashableValue> answerMembershipQueries(List<Query<HashableValue>> queries) {
+        Timer timer = new Timer();
+        timer.start();
+        
+        boolean[] results = UtilComplement.answerMembershipQueries(membershipB, queries);
+        List<HashableValue> answers = new ArrayList<>(results.length);
+        Pair<Word, Word> counterexample = null;
+        for(int queryNr = 0; queryNr < results.length; queryNr ++) {
+            Query<HashableValue> query = queries.get(queryNr);
+            // if uv is not in B but in A
+            if(counterexample == null && ! results[queryNr] && ! query.getSuffix().isEmpty()
+            && membershipA.accepts(query.getPrefix(), query.getSuffix())) {
+                counterexample = new Pair<>(query.getPrefix(), query.getSuffix());
+            }
+            // empty suffix is answered with false as a single query
+            answers.add(new HashableValueBoolean(! query.getSuffix().isEmpty() && !results[queryNr]));
+        }
+        
+        timer.stop();
+        options.stats.addMembershipQueries(queries.size(), timer.getTimeElapsed());
+        if(counterexample != null) {
+            setCounterexample(counterexample);
+        }
+        return answers;
+    }
+    
+    // keep the first counterexample, a batch gives the one of its lowest query index
+    private synchronized void setCounterexample(Pair<Word, Word> counterexample) {
+        if(this.counterexample == null) {
+            this.counterexample = counterexample;
+        }
+    }
+    
+    /**
+     * @return a word in A but not in B found by the membership queries so far, or null
+     * */
+    public synchronized Pair<Word, Word> getCounterexample() {
+        return counterexample;
+    }
+    
     private int numInterBandBF;
     private long timeInterBandBF;
     
@@ -105,18 +157,22 @@ public class TeacherNBAInclusion implements Teacher<FDFA, Query<HashableValue>,
     
     private int numBFCLessB;
     private long timeBFCLessB;
+    
+    // product emptiness is checked by a swarm of workers with -par
+    private int getNumWorkers() {
+        return options.parallel ? options.numWorkers : 1;
+    }
 
     @Override
     public Query<HashableValue> answerEquivalenceQuery(FDFA hypothesis) {
         Timer timer = new Timer();
         timer.start();
         options.log.println("Translating FDFA to Under Buechi automaton ...");
-        Automaton dkBF = FDFAOperations.buildUnderNBA(hypothesis);
-        NBA BF = NBAOperations.fromDkNBA(dkBF, alphabet);
+        NBA BF = underNBABuilder.build(hypothesis);
         ++ this.numInterBandBF;
         options.log.println("Checking the intersection of BF (" + BF.getStateSize() + ") and B ("+ B.getStateSize() + ")...");
         long t = timer.getCurrentTime();
-        NBAIntersectionCheck interCheck = new NBAIntersectionCheck(BF, B, true);
+        NBAIntersectionCheck interCheck = new NBAIntersectionCheck(BF, B, true, getNumWorkers());
         boolean isEmpty = interCheck.isEmpty();
         t = timer.getCurrentTime() - t;
         this.timeInterBandBF += t;
@@ -140,7 +196,7 @@ public class TeacherNBAInclusion implements Teacher<FDFA, Query<HashableValue>,
             ++ this.numInterAandBF;
             options.log.println("Checking the intersection of A (" + A.getStateSize() + ") and B(F) ("+ BF.getStateSize() + ")...");
             t = timer.getCurrentTime();
-            interCheck = new NBAIntersectionCheck(A, BF, true);
+            interCheck = new NBAIntersectionCheck(A, BF, true, getNumWorkers());
             isEmpty = interCheck.isEmpty();
             t = timer.getCurrentTime() - t;
             this.timeInterAandBF += t;
@@ -160,7 +216,7 @@ public class TeacherNBAInclusion implements Teacher<FDFA, Query<HashableValue>,
                 options.log.println("Checking the intersection for B(F) (" + BF.getStateSize() + ") and B(F^c) ("+ BFC.getStateSize() + ")...");
                 ++ this.numInterBFCandBF;
                 t = timer.getCurrentTime();
-                interCheck = new NBAIntersectionCheck(BFC, BF, true);
+                interCheck = new NBAIntersectionCheck(BFC, BF, true, getNumWorkers());
                 isEmpty = interCheck.isEmpty();
                 t = timer.getCurrentTime() - t;
                 this.timeInterBFCandBF += t;
@@ -172,7 +228,7 @@ public class TeacherNBAInclusion implements Teacher<FDFA, Query<HashableValue>,
                     prefix = pair.getLeft();
                     suffix = pair.getRight();
                     isEq = false;
-                    isInTarget = NBAOperations.accepts(B, prefix, suffix);
+                    isInTarget = membershipB.accepts(prefix, suffix);
                 }else {
                 
                     // we have to resort to the equivalence check for hypothesisNotA
@@ -191,7 +247,7 @@ public class TeacherNBAInclusion implements Teacher<FDFA, Query<HashableValue>,
                         prefix = ceQuery.getPrefix();
                         suffix = ceQuery.getSuffix();
                         isInTarget = false;
-                        boolean isAStr = NBAOperations.accepts(A, prefix, suffix);
+                        boolean isAStr = membershipA.accepts(prefix, suffix);
                         if(isAStr) {
                             NBAInclusionCheck.printCounterexample(options, parser, new Pair<>(prefix, suffix));
                             isEq = true;
@@ -214,7 +270,7 @@ public class TeacherNBAInclusion implements Teacher<FDFA, Query<HashableValue>,
                             // check whether it is in A
                             prefix = alphabet.getWordFromString(prefixStr);
                             suffix = alphabet.getWordFromString(suffixStr);
-                            boolean isAStr = NBAOperations.accepts(A, prefix, suffix);
+                            boolean isAStr = membershipA.accepts(prefix, suffix);
                             
                             if(isAStr) {
                                 NBAInclusionCheck.printCounterexample(options, parser, new Pair<>(prefix, suffix));
@@ -22,7 +22,7 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Map.Entry;
 import java.util.PriorityQueue;
-import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
 
 import gnu.trove.map.TIntObjectMap;
 import gnu.trove.map.hash.TIntObjectHashMap;
@@ -30,8 +30,9 @@ import roll.automata.NBA;
 import roll.automata.StateNFA;
 import roll.automata.operations.NBALasso;
 import roll.automata.operations.NBAOperations;
+import roll.automata.operations.SimulationRelation;
 import roll.automata.operations.StateContainer;
-import roll.automata.operations.TarjanSCCsNonrecursive;
+import roll.automata.operations.TarjanSCCs;
 import roll.automata.operations.nba.inclusion.NBAInclusionCheckTool;
 import roll.main.Options;
 import roll.main.complement.IsIncluded;
@@ -73,6 +74,8 @@ public class CongruenceSimulation implements IsIncluded {
 	ArrayList<HashSet<ISet>> prefSim;
 	StateContainer[] bStates;
 	StateContainer[] aStates;
+	// nontrivial SCC of every state in A, null if its SCC is trivial
+	ISet[] aSccs;
 	
 	/**
 	 * for each v and final state q, then we have q' simulates q for period in B as follows:
@@ -82,7 +85,14 @@ public class CongruenceSimulation implements IsIncluded {
 	 *
 	 * */
 	// only care about reachable states from q_A
-	TIntObjectMap<HashSet<TreeSet<IntBoolTriple>>> periodSim;
+	TIntObjectMap<HashSet<TripleSet>> periodSim;
+	
+	// every period class is interned in tripleSets, so identical classes are shared
+	HashMap<TripleSet, TripleSet> tripleSets;
+	// results of extend for every interned class and letter
+	HashMap<TripleSet, TripleSet[]> extendMemo;
+	// results of decideAcceptance for the current accepting state
+	HashMap<Pair<ISet, TripleSet>, Boolean> acceptanceMemo;
 	
 	boolean antichain = true;
 	boolean debug = false;
@@ -102,11 +112,11 @@ public class CongruenceSimulation implements IsIncluded {
 	
 	HashMap<Pair<Integer, ISet>, Word> prefWordMap;
 	
-	HashMap<Pair<Integer, TreeSet<IntBoolTriple>>, Word> periodWordMap;
+	HashMap<Pair<Integer, TripleSet>, Word> periodWordMap;
 	
-	boolean fwSim[][]; // simulation inside B 
+	SimulationRelation fwSim; // simulation inside B 
 	boolean useSimulation = false;
-	boolean fwSimAB[][];
+	SimulationRelation fwSimAB;
 		
 	public CongruenceSimulation(NBA A, NBA B) {
 		this.A = A;
@@ -131,6 +141,19 @@ public class CongruenceSimulation implements IsIncluded {
 				}
 			}
 		}
+		aSccs = new ISet[A.getStateSize()];
+		TarjanSCCs tarjan = new TarjanSCCs(A.freeze(), (states, from, to, nontrivial) -> {
+			if(nontrivial) {
+				ISet scc = TarjanSCCs.toISet(states, from, to);
+				for(int i = from; i < to; i ++) {
+					aSccs[states[i]] = scc;
+				}
+			}
+			return false;
+		});
+		for(int s = 0; s < A.getStateSize(); s ++) {
+			tarjan.explore(s);
+		}
 		bStates = new StateContainer[B.getStateSize()];
 		// compute the predecessors and successors
 		for(int i = 0; i < B.getStateSize(); i ++) {
@@ -147,26 +170,41 @@ public class CongruenceSimulation implements IsIncluded {
 			}
 		}
 		periodSim = new TIntObjectHashMap<>();
+		tripleSets = new HashMap<>();
+		extendMemo = new HashMap<>();
+		acceptanceMemo = new HashMap<>();
 		if(useSimulation) {
-			fwSim = Simulation.computeForwardSimilation(B, bStates);
+			fwSim = Simulation.computeForwardSimilation(B);
 			fwSimAB = Simulation.computeForwardSimulation(A, B);
 		}else {
-			fwSim = new boolean[B.getStateSize()][B.getStateSize()];
-			for(int s = 0; s < B.getStateSize(); s++) {
-				for(int t = 0; t < B.getStateSize(); t ++) {
-					fwSim[s][t] = (s == t);
-				}
-			}
-			int num = A.getStateSize() + B.getStateSize();
-			fwSimAB = new boolean[num][num];
-			for(int s = 0; s < num; s++) {
-				for(int t = 0; t < num; t ++) {
-					fwSimAB[s][t] = (s == t);
-				}
-			}
+			fwSim = SimulationRelation.identity(B.getStateSize());
+			fwSimAB = SimulationRelation.identity(A.getStateSize() + B.getStateSize());
 		}
 	}
 	
+	/**
+	 * A checker which shares A, B, their predecessors and the simulations with other,
+	 * those are only read after construction, so the two checkers can run in parallel
+	 * */
+	CongruenceSimulation(CongruenceSimulation other) {
+		this.A = other.A;
+		this.B = other.B;
+		this.aStates = other.aStates;
+		this.aSccs = other.aSccs;
+		this.bStates = other.bStates;
+		this.fwSim = other.fwSim;
+		this.fwSimAB = other.fwSimAB;
+		this.useSimulation = other.useSimulation;
+		this.antichain = other.antichain;
+		this.computeCounterexample = other.computeCounterexample;
+		this.debug = other.debug;
+		prefSim = new ArrayList<>();
+		periodSim = new TIntObjectHashMap<>();
+		tripleSets = new HashMap<>();
+		extendMemo = new HashMap<>();
+		acceptanceMemo = new HashMap<>();
+	}
+	
 	@Override
 	public Pair<Word, Word> getCounterexample() {
 		assert prefix != null && period != null;
@@ -188,7 +226,7 @@ public class CongruenceSimulation implements IsIncluded {
 		for(int p : set) {
 			boolean simulated = false;
 			for(int q : update) {
-				if(fwSim[p][q]) {
+				if(fwSim.get(p, q)) {
 					simulated = true;
 					break;
 				}
@@ -260,6 +298,7 @@ public class CongruenceSimulation implements IsIncluded {
 		ISet inWorkList = UtilISet.newISet();
 		inWorkList.set(A.getInitialState());
 		while(! workList.isEmpty()) {
+			checkInterrupted();
 			// take out one state
 			int s = workList.removeFirst();
 			inWorkList.clear(s);
@@ -288,7 +327,7 @@ public class CongruenceSimulation implements IsIncluded {
 							}
 						}
 						for(int q : update) {
-							if(fwSimAB[t][q + A.getStateSize()]) {
+							if(fwSimAB.get(t, q + A.getStateSize())) {
 								isFwSimulated = true;
 								break;
 							}
@@ -374,29 +413,9 @@ public class CongruenceSimulation implements IsIncluded {
         return visited;
 	}
 	
-	private ISet getReachSet(int state, NBA nba) {
-		LinkedList<Integer> queue = new LinkedList<>();
-        queue.add(state);
-        ISet visited = UtilISet.newISet();
-        visited.set(state);
-        while(! queue.isEmpty()) {
-        	int lState = queue.remove();
-            // ignore unused states
-            for(int c = 0; c < nba.getAlphabetSize(); c ++) {
-                for(int lSucc : nba.getSuccessors(lState, c)) {
-                    if(! visited.get(lSucc)) {
-                        queue.add(lSucc);
-                        visited.set(lSucc);
-                    }
-                }
-            }
-        }
-        return visited;
-	}
-	
 	// ignore the set that already contains one set in the sets
-	boolean containTriples(HashSet<TreeSet<IntBoolTriple>> sets, TreeSet<IntBoolTriple> set) {
-		for(TreeSet<IntBoolTriple> s : sets) {
+	boolean containTriples(HashSet<TripleSet> sets, TripleSet set) {
+		for(TripleSet s : sets) {
 			if(set.containsAll(s)) { //s.equals(set)
 				return true;
 			}
@@ -404,13 +423,15 @@ public class CongruenceSimulation implements IsIncluded {
 		return false;
 	}
 	
-	boolean isSimulated(TreeSet<IntBoolTriple> set, TreeSet<IntBoolTriple> update) {
-		for(IntBoolTriple fstTriple : set) {
+	boolean isSimulated(TripleSet set, TripleSet update) {
+		for(int i = 0; i < set.size(); i ++) {
+			long fstTriple = set.get(i);
 			boolean simulated = false;
-			for(IntBoolTriple sndTriple : update) {
-				if(fwSim[fstTriple.getLeft()][sndTriple.getLeft()] 
-				&& fwSim[fstTriple.getRight()][sndTriple.getRight()]
-				&& (!fstTriple.getBool() || sndTriple.getBool())) {
+			for(int j = 0; j < update.size(); j ++) {
+				long sndTriple = update.get(j);
+				if(fwSim.get(TripleSet.getLeft(fstTriple), TripleSet.getLeft(sndTriple)) 
+				&& fwSim.get(TripleSet.getRight(fstTriple), TripleSet.getRight(sndTriple))
+				&& (!TripleSet.getBool(fstTriple) || TripleSet.getBool(sndTriple))) {
 					simulated = true;
 					break;
 				}
@@ -422,12 +443,16 @@ public class CongruenceSimulation implements IsIncluded {
 		return true;
 	}
 	
-	HashSet<TreeSet<IntBoolTriple>> addSetToPeriodAntichain(HashSet<TreeSet<IntBoolTriple>> orig, TreeSet<IntBoolTriple> update
-			, HashSet<TreeSet<IntBoolTriple>> subsetOfUpdate, boolean[] changed) {
-		HashSet<TreeSet<IntBoolTriple>> result = new HashSet<TreeSet<IntBoolTriple>>();
+	HashSet<TripleSet> addSetToPeriodAntichain(HashSet<TripleSet> orig, TripleSet update
+			, HashSet<TripleSet> subsetOfUpdate, boolean[] changed) {
+		HashSet<TripleSet> result = new HashSet<TripleSet>();
 		boolean contained = false;
-		for(TreeSet<IntBoolTriple> triples: orig) {
-			if(triples.containsAll(update)) {
+		for(TripleSet triples: orig) {
+			if(triples.equals(update)) {
+				// already there, keep its word
+				contained = true;
+				result.add(triples);
+			}else if(triples.containsAll(update)) {
 				// ignore sets that subsume update
 				if(computeCounterexample) {
 					subsetOfUpdate.add(triples);
@@ -450,23 +475,25 @@ public class CongruenceSimulation implements IsIncluded {
 	
 	private long timeForPrefixSim = 0;
 	private long timeForPeriodSim = 0;
+	private long timeForAcceptance = 0;
 	
+	// workers of a parallel check stop here once they are cancelled
+	private static void checkInterrupted() {
+		if(Thread.currentThread().isInterrupted()) {
+			throw new CancellationException("inclusion check interrupted");
+		}
+	}
 	
 	
-	// Always guarantte that if there is (q, r: true), then no (q, r: false) appears
-	private void addTriple(TreeSet<IntBoolTriple> set, IntBoolTriple triple) {
-		IntBoolTriple revTriple = new IntBoolTriple(triple.left, triple.right, !triple.acc);
-		boolean containedRev = set.contains(revTriple);
-		if(containedRev) {
-			if(triple.acc) {
-				set.remove(revTriple);
-				set.add(triple);
-			}else {
-				// do nothing, keep the original one
-			}
-		}else {
-			set.add(triple);
+	
+	// the shared copy of set
+	private TripleSet intern(TripleSet set) {
+		TripleSet shared = tripleSets.get(set);
+		if(shared == null) {
+			shared = set;
+			tripleSets.put(set, set);
 		}
+		return shared;
 	}
 	
 	// the Input simulatedStatesInB can simulate accState
@@ -478,18 +505,18 @@ public class CongruenceSimulation implements IsIncluded {
 		Timer timer = new Timer();
 		timer.start();
 		periodSim.clear();
-		// now compute every state that can be reached by accState
-		ISet reachSet = getReachSet(accState, A);
-		// only keep those state that can go back to accState
-		ISet predSet = getPredSet(accState, aStates, A);
-		reachSet.and(predSet);
+		tripleSets.clear();
+		extendMemo.clear();
+		acceptanceMemo.clear();
+		// every state that can be reached by accState and can go back to accState
+		ISet reachSet = aSccs[accState] == null ? UtilISet.newISet() : aSccs[accState].clone();
 		if(debug) System.out.println("States for A: " + reachSet);
 		if(debug) System.out.println("States for B: " + simulatedStatesInB);
 		// those can not be reached should corresponds to empty set
 		for(int s : reachSet)
 		{
 			// only i_B simulates i_A at first
-			periodSim.put(s, new HashSet<TreeSet<IntBoolTriple>>());
+			periodSim.put(s, new HashSet<TripleSet>());
 		}
 		LinkedList<Integer> workList = new LinkedList<>();
 		ISet inWorkList = UtilISet.newISet();
@@ -498,7 +525,7 @@ public class CongruenceSimulation implements IsIncluded {
 		{
 			// only care about states from simulatedStatesInB
 			int s = accState;
-			LinkedList<Pair<Integer, TreeSet<IntBoolTriple>>> removedPairs = new LinkedList<>();
+			LinkedList<Pair<Integer, TripleSet>> removedPairs = new LinkedList<>();
 			// v must not be empty word
 			for (int a : A.getState(s).getEnabledLetters()) {
 				for (int t : A.getSuccessors(s, a)) {
@@ -507,19 +534,20 @@ public class CongruenceSimulation implements IsIncluded {
 					workList.add(t);
 					inWorkList.set(t);
 					// compute the simulation relations
-					TreeSet<IntBoolTriple> set = new TreeSet<>();
+					TripleSet.Builder builder = new TripleSet.Builder();
 					// s - a -> t
 					for (int p : simulatedStatesInB) {
 						for (int q : B.getSuccessors(p, a)) {
 //							if(!bReachSet.get(q)) continue;
 							// put every p - a -> q in f(t)
 							boolean acc = B.isFinal(p) || B.isFinal(q);
-							addTriple(set, new IntBoolTriple(p, q, acc));
+							builder.add(p, q, acc);
 						}
 					}
+					TripleSet set = intern(builder.build(true));
 					boolean isFwSimulated = false;
-					for(IntBoolTriple tr : set) {
-						if(fwSimAB[t][tr.getRight() + A.getStateSize()]) {
+					for(int i = 0; i < set.size(); i ++) {
+						if(fwSimAB.get(t, TripleSet.getRight(set.get(i)) + A.getStateSize())) {
 							isFwSimulated = true;
 							break;
 						}
@@ -532,22 +560,22 @@ public class CongruenceSimulation implements IsIncluded {
 					//TODO: Antichain, only keep the set that are a subset of another
 					if(antichain ) { // && ! containTriples(periodSim.get(t), set)
 						// keep subsets
-						HashSet<TreeSet<IntBoolTriple>> curr = periodSim.get(t);
+						HashSet<TripleSet> curr = periodSim.get(t);
 						boolean[] modified = new boolean[1];
-						HashSet<TreeSet<IntBoolTriple>> subsetOfUpdate = new HashSet<>();
-						HashSet<TreeSet<IntBoolTriple>> result = addSetToPeriodAntichain(curr, set, subsetOfUpdate, modified);
+						HashSet<TripleSet> subsetOfUpdate = new HashSet<>();
+						HashSet<TripleSet> result = addSetToPeriodAntichain(curr, set, subsetOfUpdate, modified);
 						periodSim.put(t, result);
 						if(modified[0] && computeCounterexample) {
 							Word pref = A.getAlphabet().getLetterWord(a);
 							this.periodWordMap.put(new Pair<>(t,  set), pref);
-							for(TreeSet<IntBoolTriple> key : subsetOfUpdate) {
+							for(TripleSet key : subsetOfUpdate) {
 								removedPairs.add(new Pair<>(t, key));
 							}
 						}
 						if(modified[0] && t == accState) {
 							// decide whether it ...
 							for(ISet pref: this.prefSim.get(accState)) {
-								if(! decideAcceptance(pref, set)) {
+								if(! isAccepting(pref, set)) {
 									System.out.println("Early Early terminated " + pref + " " + set);
 									return ;
 								}
@@ -562,49 +590,39 @@ public class CongruenceSimulation implements IsIncluded {
 						cePrefix = A.getAlphabet().getEmptyWord();
 						aQState = t;
 						aLetter = a;
-						this.periodSim.get(accState).add(new TreeSet<>());
+						this.periodSim.get(accState).add(TripleSet.EMPTY);
 						return;
 					}
 //					System.out.println("t = " + t + " set = " + set);
 //					System.out.println("word = " + this.periodWordMap.get(new Pair<>(t,  set)));
 				}
 			}
-			for(Pair<Integer, TreeSet<IntBoolTriple>> pair : removedPairs) {
+			for(Pair<Integer, TripleSet> pair : removedPairs) {
 				this.periodWordMap.remove(pair);
 			}
 		}
 		
 		// 2. computation of simulated relations
 		while(! workList.isEmpty()) {
+			checkInterrupted();
 			int s = workList.removeFirst();
 			inWorkList.clear(s);
-			LinkedList<Pair<Integer, TreeSet<IntBoolTriple>>> removedPairs = new LinkedList<>();
+			LinkedList<Pair<Integer, TripleSet>> removedPairs = new LinkedList<>();
 			// update for successors
 			for(int a : A.getState(s).getEnabledLetters()) {
 				for(int t : A.getSuccessors(s, a)) {
 					// Again, ignore states that cannot reach accState
 					if(!reachSet.get(t)) continue;
 					// s - a -> t
-					HashSet<TreeSet<IntBoolTriple>> copy = new HashSet<>();
-					for(TreeSet<IntBoolTriple> set: periodSim.get(s)) {
+					HashSet<TripleSet> copy = new HashSet<>();
+					for(TripleSet set: periodSim.get(s)) {
 						copy.add(set);
 					}
-					for(TreeSet<IntBoolTriple> set: copy) {
-						TreeSet<IntBoolTriple> update = new TreeSet<>();
-						// put sets
-						for(IntBoolTriple triple : set) {
-							int p = triple.getLeft();
-							int q = triple.getRight();
-							for(int qr : B.getSuccessors(q, a)) {
-//								if(!bReachSet.get(q)) continue;
-								boolean acc = B.isFinal(qr) || triple.getBool();
-								IntBoolTriple newTriple  = new IntBoolTriple(p, qr, acc);
-								addTriple(update, newTriple);
-							}
-						}
+					for(TripleSet set: copy) {
+						TripleSet update = extend(set, a);
 						boolean isFwSimulated = false;
-						for(IntBoolTriple tr : update) {
-							if(fwSimAB[t][tr.getRight() + A.getStateSize()]) {
+						for(int i = 0; i < update.size(); i ++) {
+							if(fwSimAB.get(t, TripleSet.getRight(update.get(i)) + A.getStateSize())) {
 								isFwSimulated = true;
 								break;
 							}
@@ -618,24 +636,24 @@ public class CongruenceSimulation implements IsIncluded {
 							//TODO: Antichain, only keep the set that are a subset of another
 							boolean changed = false;
 							if(antichain) {
-								HashSet<TreeSet<IntBoolTriple>> curr = periodSim.get(t);
+								HashSet<TripleSet> curr = periodSim.get(t);
 								boolean[] modified = new boolean[1];
-								HashSet<TreeSet<IntBoolTriple>> subsetOfUpdate = new HashSet<>();
-								HashSet<TreeSet<IntBoolTriple>> result = addSetToPeriodAntichain(curr, update, subsetOfUpdate, modified);
+								HashSet<TripleSet> subsetOfUpdate = new HashSet<>();
+								HashSet<TripleSet> result = addSetToPeriodAntichain(curr, update, subsetOfUpdate, modified);
 								changed = modified[0];
 								periodSim.put(t, result);
 								if(modified[0] && computeCounterexample) {
 									Word pref = this.periodWordMap.get(new Pair<>(s, set));
 									Word newPref = pref.append(a);
 									this.periodWordMap.put(new Pair<>(t,  update), newPref);
-									for(TreeSet<IntBoolTriple> key : subsetOfUpdate) {
+									for(TripleSet key : subsetOfUpdate) {
 										removedPairs.add(new Pair<>(t, key));
 									}
 								}
 								if(modified[0] && t == accState) {
 									// decide whether it ...
 									for(ISet pref: this.prefSim.get(accState)) {
-										if(! decideAcceptance(pref, update)) {
+										if(! isAccepting(pref, update)) {
 											System.out.println("Early terminated " + pref + " " + update);
 											return ;
 										}
@@ -660,13 +678,13 @@ public class CongruenceSimulation implements IsIncluded {
 							cePrefix = this.periodWordMap.get(new Pair<>(s, set));
 							aLetter = a;
 							System.out.println("Early termination in computing representation of periods.");
-							this.periodSim.get(accState).add(new TreeSet<>());
+							this.periodSim.get(accState).add(TripleSet.EMPTY);
 							return;
 						}
 					}
 				}
 			}
-			for(Pair<Integer, TreeSet<IntBoolTriple>> pair : removedPairs) {
+			for(Pair<Integer, TripleSet> pair : removedPairs) {
 				this.periodWordMap.remove(pair);
 			}
 		}
@@ -679,8 +697,8 @@ public class CongruenceSimulation implements IsIncluded {
 		return false;
 	}
 	
-	private boolean coveredBy(Pair<HashSet<ISet>, HashSet<TreeSet<IntBoolTriple>>> left
-			, Pair<HashSet<ISet>, HashSet<TreeSet<IntBoolTriple>>> right) {
+	private boolean coveredBy(Pair<HashSet<ISet>, HashSet<TripleSet>> left
+			, Pair<HashSet<ISet>, HashSet<TripleSet>> right) {
 		// check whether left is coveredby right
 		// first, check prefix
 		for(ISet lSet : left.getLeft()) {
@@ -695,9 +713,9 @@ public class CongruenceSimulation implements IsIncluded {
 				return false;
 			}
 		}
-		for(TreeSet<IntBoolTriple> lTriples : left.getRight()) {
+		for(TripleSet lTriples : left.getRight()) {
 			boolean covered = false;
-			for(TreeSet<IntBoolTriple> rTriples : right.getRight()) {
+			for(TripleSet rTriples : right.getRight()) {
 				if(lTriples.containsAll(rTriples)) {
 					covered = true;
 					break;
@@ -712,83 +730,109 @@ public class CongruenceSimulation implements IsIncluded {
 	
 	@Override
 	public Boolean isIncluded() {
-		if(fwSimAB[0][A.getStateSize()]) {
+		if(fwSimAB.get(0, A.getStateSize())) {
 			return true;
 		}
 		// for each accepting state (should be reachable from the initial state and can reach itself)
-		ISet reachSet = getReachSet(A.getInitialState(), A);
+		ISet reachSet = getReachableStates();
 		int countStates = 0;
-//		LinkedList<Pair<HashSet<ISet>, HashSet<TreeSet<IntBoolTriple>>>> antichainFinals = new LinkedList<>();
-		long timeForAcceptance = 0;
-		TIntObjectMap<HashSet<ISet>> finalsSim = new TIntObjectHashMap<>();
 		for(int accState : A.getFinalStates()) {
 			countStates ++;
 			System.out.println("Checking for "+ countStates + "-th accepting state " + accState + " out of " + A.getFinalStates().cardinality() + " states");
-			// reachable states from the initial state
-			ISet necessaryStates = reachSet.clone();
-			// only keep those state that can go back to accState
-			ISet predSet = getPredSet(accState, aStates, A);
-			necessaryStates.and(predSet);
-			// if the initial state cannot reach the accepting state or the accepting state cannot reach itself
-			//, then language is empty
-			if(!necessaryStates.get(A.getInitialState()) || !necessaryStates.get(accState)) {
-				//System.out.println("Ignored the accepting state " + accState + "");
-				continue;
+			if(! isIncluded(accState, reachSet)) {
+				return false;
 			}
-			if(debug) System.out.println("Necessary states in A: " + necessaryStates + " #size = " + necessaryStates.cardinality());
-			computePrefixSimulation(accState, necessaryStates);
-			//outputPrefixSimulation();
-			for(int i = 0; i < A.getStateSize() && debug; i ++) {
-				System.out.println("state " + i + " -> " + prefSim.get(i));
+		}
+		System.out.println("Time for deciding acceptance: " + timeForAcceptance);
+		System.out.println("Time for computing prefix simulation: " + this.timeForPrefixSim);
+		System.out.println("Time for computing period simulation: " + this.timeForPeriodSim);
+
+		return true;
+	}
+	
+	// states of A reachable from the initial state
+	ISet getReachableStates() {
+		ISet reachSet = UtilISet.newISet();
+		TarjanSCCs tarjan = new TarjanSCCs(A.freeze(), (states, from, to, nontrivial) -> {
+			for(int i = from; i < to; i ++) {
+				reachSet.set(states[i]);
 			}
+			return false;
+		});
+		tarjan.explore(A.getInitialState());
+		return reachSet;
+	}
+	
+	/**
+	 * Decide whether every word accepted by A via visiting accState infinitely often is
+	 * accepted by B, reachSet is the set of states of A reachable from the initial state.
+	 * The check gives up with a CancellationException once the current thread is interrupted.
+	 * */
+	Boolean isIncluded(int accState, ISet reachSet) {
+		// reachable states from the initial state
+		ISet necessaryStates = reachSet.clone();
+		// only keep those state that can go back to accState
+		ISet predSet = getPredSet(accState, aStates, A);
+		necessaryStates.and(predSet);
+		// if the initial state cannot reach the accepting state or the accepting state cannot reach itself
+		//, then language is empty
+		if(!necessaryStates.get(A.getInitialState()) || !necessaryStates.get(accState)) {
+			//System.out.println("Ignored the accepting state " + accState + "");
+			return true;
+		}
+		if(debug) System.out.println("Necessary states in A: " + necessaryStates + " #size = " + necessaryStates.cardinality());
+		computePrefixSimulation(accState, necessaryStates);
+		//outputPrefixSimulation();
+		for(int i = 0; i < A.getStateSize() && debug; i ++) {
+			System.out.println("state " + i + " -> " + prefSim.get(i));
+		}
 //			System.exit(-1);
-			// obtain the necessary part for accState
-			HashSet<ISet> prefSims = prefSim.get(accState);
-			if(debug) System.out.println("Acc simulated sets: " + prefSims);
-			if(prefSims.isEmpty()) {
-				// any word that reaches accState will do
-				assert false;
-			}
-			// only keep the sets that are subset of another
-			HashSet<ISet> antichainPrefix = new HashSet<>();
-			// compute antichain
-			for(ISet sim1: prefSims) {
-				boolean subsumes = false;
-				for(ISet sim2: prefSims) {
-					// ignore itself
-					if(sim1 == sim2) continue;
-					// only keep those that do not subsume others
-					if(sim2.subsetOf(sim1)) {
-						subsumes = true;
-						break;
-					}
-				}
-				if(! subsumes) {
-					// not subsume others
-					antichainPrefix.add(sim1);
+		// obtain the necessary part for accState
+		HashSet<ISet> prefSims = prefSim.get(accState);
+		if(debug) System.out.println("Acc simulated sets: " + prefSims);
+		if(prefSims.isEmpty()) {
+			// any word that reaches accState will do
+			assert false;
+		}
+		// only keep the sets that are subset of another
+		HashSet<ISet> antichainPrefix = new HashSet<>();
+		// compute antichain
+		for(ISet sim1: prefSims) {
+			boolean subsumes = false;
+			for(ISet sim2: prefSims) {
+				// ignore itself
+				if(sim1 == sim2) continue;
+				// only keep those that do not subsume others
+				if(sim2.subsetOf(sim1)) {
+					subsumes = true;
+					break;
 				}
 			}
-			finalsSim.put(accState, antichainPrefix);
-			ISet simulatedStatesInB = UtilISet.newISet();
-			for(ISet sim: antichainPrefix) {
-				if(sim.isEmpty()) {
-					// empty means some word to accState cannot be simulated
+			if(! subsumes) {
+				// not subsume others
+				antichainPrefix.add(sim1);
+			}
+		}
+		ISet simulatedStatesInB = UtilISet.newISet();
+		for(ISet sim: antichainPrefix) {
+			if(sim.isEmpty()) {
+				// empty means some word to accState cannot be simulated
 //					System.out.println("Computing counterexample ...");
-					if(computeCounterexample) computeCounterexamplePrefix(accState, necessaryStates);
+				if(computeCounterexample) computeCounterexamplePrefix(accState, necessaryStates);
 //					System.out.println("Prefix: " + prefix);
 //					System.out.println("Period: " + period);
-					return false;
-				}
-				simulatedStatesInB.or(sim);
+				return false;
 			}
-			//simulatedStatesInB = getReachSet(simulatedStatesInB);
-			if(debug) System.out.println("Prefix simulated sets: " + antichainPrefix);
-			if(debug) System.out.println("Necessary states for B: " + simulatedStatesInB);
-			// now we compute the simulation for periods from accState
+			simulatedStatesInB.or(sim);
+		}
+		//simulatedStatesInB = getReachSet(simulatedStatesInB);
+		if(debug) System.out.println("Prefix simulated sets: " + antichainPrefix);
+		if(debug) System.out.println("Necessary states for B: " + simulatedStatesInB);
+		// now we compute the simulation for periods from accState
 //			System.out.println("pref rep: " + antichainPrefix + " -> " + simulatedStatesInB);
 //			TarjanSCCs sccs = new TarjanSCCs(B, simulatedStatesInB);
-			ISet allowSccs = UtilISet.newISet();
-			ISet bFinals = B.getFinalStates();			
+		ISet allowSccs = UtilISet.newISet();
+		ISet bFinals = B.getFinalStates();			
 //			System.out.println("Final states: " + bFinals);
 //			for(ISet scc : sccs.getSCCs()) {
 //				System.out.println("SCC: " + scc);
@@ -796,70 +840,57 @@ public class CongruenceSimulation implements IsIncluded {
 //					allowSccs.or(scc);
 //				}
 //			}
-//			System.out.println("Nonrecursive: ");
-//			TarjanSCCsNonrecursive sccNonrecur = new TarjanSCCsNonrecursive(B, simulatedStatesInB);;
-//			for(ISet scc : sccNonrecur.getSCCs()) {
-//				System.out.println("SCC: " + scc);
-//				if(scc.overlap(simulatedStatesInB) && scc.overlap(bFinals)) {
-//					System.out.println("SCC 2: " + scc);
-//				}
-//			}
 //			System.out.println("pre scc: " + simulatedStatesInB);
 //			System.out.println("allow scc: " + allowSccs);
 //			simulatedStatesInB.and(allowSccs);
 //			if(debug) System.out.println("simulated states in B: " + simulatedStatesInB);
 //			System.out.println("Final states: " + B.getFinalStates());
-			computePeriodSimulation(accState, simulatedStatesInB, allowSccs);
-			// now decide whether there is one word accepted by A but not B
-			System.out.println("Deciding the language inclusion between L(A^i_f) (A^f_f)^w and L(B) ...");
-			Timer timer = new Timer();
-			timer.start();
-			for(ISet pref: antichainPrefix) {
-				if(debug) System.out.println("Simulated set in B: " + pref);
-				//				computePeriodSimulation(accState, pref);
-				// compute antichain
-				HashSet<TreeSet<IntBoolTriple>> antichainPeriod = new HashSet<>();
-				for(TreeSet<IntBoolTriple> period1: periodSim.get(accState)) {
-					boolean subsumes = false;
-					for(TreeSet<IntBoolTriple> period2: periodSim.get(accState)) {
-						if(period1 == period2) continue;
-						if(period1.containsAll(period2)) {
-							subsumes = true;
-							break;
-						}
-					}
-					if(!subsumes) {
-						antichainPeriod.add(period1);
+		computePeriodSimulation(accState, simulatedStatesInB, allowSccs);
+		// now decide whether there is one word accepted by A but not B
+		System.out.println("Deciding the language inclusion between L(A^i_f) (A^f_f)^w and L(B) ...");
+		Timer timer = new Timer();
+		timer.start();
+		for(ISet pref: antichainPrefix) {
+			checkInterrupted();
+			if(debug) System.out.println("Simulated set in B: " + pref);
+			//				computePeriodSimulation(accState, pref);
+			// compute antichain
+			HashSet<TripleSet> antichainPeriod = new HashSet<>();
+			for(TripleSet period1: periodSim.get(accState)) {
+				boolean subsumes = false;
+				for(TripleSet period2: periodSim.get(accState)) {
+					if(period1 == period2) continue;
+					if(period1.containsAll(period2)) {
+						subsumes = true;
+						break;
 					}
 				}
-				if(antichainPeriod.contains(new TreeSet<>())) {
-					// empty means some word from accState to itself cannot be simulated
-					computeCounterexamplePeriod(accState, pref, necessaryStates);
-					return false;
+				if(!subsumes) {
+					antichainPeriod.add(period1);
 				}
-				for(TreeSet<IntBoolTriple> period: antichainPeriod) {
-					if(debug) System.out.println("Simulated triples in B: " + period);
-					// decide whether this pref (period) is accepting in B
-					if(! decideAcceptance(pref, period)) {
-						// we need to construct a counterexample here
-						if(computeCounterexample) computeCounterexample(accState, pref, period, necessaryStates);
-						return false;
-					}
+			}
+			if(antichainPeriod.contains(TripleSet.EMPTY)) {
+				// empty means some word from accState to itself cannot be simulated
+				computeCounterexamplePeriod(accState, pref, necessaryStates);
+				return false;
+			}
+			for(TripleSet period: antichainPeriod) {
+				if(debug) System.out.println("Simulated triples in B: " + period);
+				// decide whether this pref (period) is accepting in B
+				if(! isAccepting(pref, period)) {
+					// we need to construct a counterexample here
+					if(computeCounterexample) computeCounterexample(accState, pref, period, necessaryStates);
+					return false;
 				}
 			}
-			timer.stop();
-			timeForAcceptance += timer.getTimeElapsed();
-//			antichainFinals.add(new Pair(prefSim.get(accState), periodSim.get(accState)));
 		}
-		System.out.println("Time for deciding acceptance: " + timeForAcceptance);
-		System.out.println("Time for computing prefix simulation: " + this.timeForPrefixSim);
-		System.out.println("Time for computing period simulation: " + this.timeForPeriodSim);
-
+		timer.stop();
+		timeForAcceptance += timer.getTimeElapsed();
 		return true;
 	}
 	
 	// This function will be called if decideAcceptance returns false
-	private void computeCounterexample(int accState, ISet pref, TreeSet<IntBoolTriple> period, ISet aReachSet) {
+	private void computeCounterexample(int accState, ISet pref, TripleSet period, ISet aReachSet) {
 		// first, compute the word to this pref
 //		System.out.println("Pref: " + pref);
 //		System.out.println("Period: " + period);
@@ -951,87 +982,92 @@ public class CongruenceSimulation implements IsIncluded {
 		this.period = this.period.concat(p2);
 	}
 //
-	private static TreeSet<IntBoolTriple> compose(TreeSet<IntBoolTriple> first
-			, TreeSet<IntBoolTriple> second) { //, ISet sndStates
-		TreeSet<IntBoolTriple> result = new TreeSet<>();
-		for(IntBoolTriple fstTriple: first) {
-			for(IntBoolTriple sndTriple: second) {
-				// (p, q, ) \times (q, r) -> (p, r)
-				if(fstTriple.getRight() == sndTriple.getLeft()) {
-					result.add(new IntBoolTriple(fstTriple.getLeft()
-							, sndTriple.getRight()
-							, fstTriple.getBool() || sndTriple.getBool()));
-				}
-			}
+	// set - letter -> update, every (p, q: acc) is extended to (p, q': acc || q' in F) with q - letter -> q'
+	private TripleSet extend(TripleSet first, int letter) {
+		TripleSet[] results = extendMemo.get(first);
+		if(results == null) {
+			results = new TripleSet[A.getAlphabetSize()];
+			extendMemo.put(first, results);
 		}
-		return result;
-	}
-	
-	private TreeSet<IntBoolTriple> extend(TreeSet<IntBoolTriple> first, int letter) {
-		TreeSet<IntBoolTriple> result = new TreeSet<>();
-		for(IntBoolTriple triple: first) {
-			int state = triple.getRight();
+		if(results[letter] != null) {
+			return results[letter];
+		}
+		TripleSet.Builder builder = new TripleSet.Builder();
+		for(int i = 0; i < first.size(); i ++) {
+			long triple = first.get(i);
+			int state = TripleSet.getRight(triple);
 			for(int succ: B.getState(state).getSuccessors(letter)) {
-				addTriple(result, new IntBoolTriple(triple.getLeft()
+				builder.add(TripleSet.getLeft(triple)
 							, succ
-							, triple.getBool() || B.isFinal(succ)));
+							, TripleSet.getBool(triple) || B.isFinal(succ));
 			}
 		}
+		TripleSet result = intern(builder.build(true));
+		results[letter] = result;
 		return result;
 	}
 	
-	private TreeSet<IntBoolTriple> compose(ISet preds, TreeSet<IntBoolTriple> triples) {
-		TreeSet<IntBoolTriple> result = new TreeSet<>();
-		for(IntBoolTriple triple: triples) {
-			if(preds.get(triple.getLeft())) {
-				addTriple(result, triple);
+	private TripleSet compose(ISet preds, TripleSet triples) {
+		TripleSet.Builder builder = new TripleSet.Builder();
+		for(int i = 0; i < triples.size(); i ++) {
+			if(preds.get(TripleSet.getLeft(triples.get(i)))) {
+				builder.add(triples.get(i));
 			}
 		}
+		return builder.build(true);
+	}
+	
+	// decideAcceptance is called again and again on the same pref and interned period
+	private boolean isAccepting(ISet pref, TripleSet period) {
+		Pair<ISet, TripleSet> key = new Pair<>(pref, period);
+		Boolean result = acceptanceMemo.get(key);
+		if(result == null) {
+			result = decideAcceptance(pref, period);
+			acceptanceMemo.put(key, result);
+		}
 		return result;
 	}
 	
 	// decide whether there exists an accepting run in B from states in sim
 	// all states on the left are from pref
-	private static boolean decideAcceptance(ISet pref, TreeSet<IntBoolTriple> period) {
-//		System.out.println("pref: " + pref);
-//		System.out.println("period: " + period);
-//		System.out.println("Start deciding acceptance ...");
+	private static boolean decideAcceptance(ISet pref, TripleSet period) {
 		boolean foundLoop = false;
 		ISet reachStates = pref.clone();
-//		for(int state: pref) {
-			// iteratively check whether there exists a triple (q, q: true) reachable from state
+		// iteratively check whether there exists a triple (q, q: true) reachable from state
 		ISet reachableStates = pref.clone();
-		TreeSet<IntBoolTriple> reachSet = new TreeSet<>();
+		TripleSet reachSet = TripleSet.EMPTY;
 		while (true) {
 			ISet newReach = UtilISet.newISet();
-			for (IntBoolTriple triple : period) {
-				if (reachStates.get(triple.getLeft())) {
-					reachSet.add(triple);
+			TripleSet.Builder builder = new TripleSet.Builder();
+			builder.addAll(reachSet);
+			for (int i = 0; i < period.size(); i ++) {
+				long triple = period.get(i);
+				if (reachStates.get(TripleSet.getLeft(triple))) {
+					builder.add(triple);
 					// add states that can be reached
-					newReach.set(triple.getRight());
+					newReach.set(TripleSet.getRight(triple));
 				}
 			}
-//			System.out.println("ReachSet = " + reachSet);
 			// first add reachable triples
+			reachSet = builder.build(false);
 			// compute update
 			int origSize = reachSet.size();
-			TreeSet<IntBoolTriple> update = compose(reachSet, period);
+			TripleSet update = TripleSet.compose(reachSet, period);
 			// reachable states from pref can also be first states
-			reachSet.addAll(update);
-//			System.out.println("ReachSet = " + reachSet);
+			reachSet = TripleSet.union(reachSet, update);
 			// a triple (q, q: true) means that we have found an accepting run
-			for (IntBoolTriple triple : reachSet) {
-				if (triple.getLeft() == triple.getRight() && triple.getBool()) {
+			for (int i = 0; i < reachSet.size(); i ++) {
+				long triple = reachSet.get(i);
+				if (TripleSet.getLeft(triple) == TripleSet.getRight(triple) && TripleSet.getBool(triple)) {
 					foundLoop = true;
 					break;
 				}
 			}
-			for(IntBoolTriple triple : update) {
+			for (int i = 0; i < update.size(); i ++) {
 				// more reachable states 
-				newReach.set(triple.getRight());
+				newReach.set(TripleSet.getRight(update.get(i)));
 			}
 			// new reachable states
-//			System.out.println("New reach = " + newReach);
 			int statesSize = reachableStates.cardinality();
 			newReach.andNot(reachableStates);
 			reachableStates.or(newReach);
@@ -1041,8 +1077,6 @@ public class CongruenceSimulation implements IsIncluded {
 			}
 			reachStates = newReach;
 		}
-//		}
-//		System.out.println("Finished deciding acceptance ...");
 
 		return foundLoop;
 	}
@@ -1089,26 +1123,26 @@ public class CongruenceSimulation implements IsIncluded {
 		pref.set(0);
 		pref.set(1);
 		pref.set(2);
-		TreeSet<IntBoolTriple> set1 = new TreeSet<>();
-		set1.add(new IntBoolTriple(0, 0, false));
-		set1.add(new IntBoolTriple(0, 108, false));
-		set1.add(new IntBoolTriple(0, 109, true));
-		set1.add(new IntBoolTriple(0, 110, true));
-		set1.add(new IntBoolTriple(0, 112, false));
-		set1.add(new IntBoolTriple(0, 120, false));
-		set1.add(new IntBoolTriple(1, 1, false));
+		TripleSet.Builder set1 = new TripleSet.Builder();
+		set1.add(0, 0, false);
+		set1.add(0, 108, false);
+		set1.add(0, 109, true);
+		set1.add(0, 110, true);
+		set1.add(0, 112, false);
+		set1.add(0, 120, false);
+		set1.add(1, 1, false);
 
-		set1.add(new IntBoolTriple(1, 2, true));
-		set1.add(new IntBoolTriple(1, 112, true));
-		set1.add(new IntBoolTriple(2, 112, true));
+		set1.add(1, 2, true);
+		set1.add(1, 112, true);
+		set1.add(2, 112, true);
 
-		set1.add(new IntBoolTriple(109, 109, true));
-		set1.add(new IntBoolTriple(109, 110, true));
-		set1.add(new IntBoolTriple(110, 109, true));
-		set1.add(new IntBoolTriple(110, 110, true));
-		set1.add(new IntBoolTriple(112, 112, false));
+		set1.add(109, 109, true);
+		set1.add(109, 110, true);
+		set1.add(110, 109, true);
+		set1.add(110, 110, true);
+		set1.add(112, 112, false);
 		
-		System.out.print(decideAcceptance(pref, set1));
+		System.out.print(decideAcceptance(pref, set1.build(false)));
 
 
 
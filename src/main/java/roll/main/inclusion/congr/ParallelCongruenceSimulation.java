@@ -1,21 +1,32 @@
 package roll.main.inclusion.congr;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import automata.FiniteAutomaton;
 import roll.automata.NBA;
 import roll.automata.operations.NBALasso;
 import roll.main.Options;
 import roll.main.complement.IsIncluded;
-import roll.main.inclusion.UtilInclusion;
 import roll.parser.ba.PairParserBA;
 import roll.util.Pair;
 import roll.util.Timer;
 import roll.util.sets.ISet;
 import roll.words.Word;
 
+/**
+ * Check the inclusion with one CongruenceSimulation task per accepting state of A
+ * <br>
+ * All tasks share the automata, their predecessors and simulations, and run on a
+ * pool of at most numWorkers threads. The first counterexample cancels the other
+ * tasks, otherwise A is included in B once every task has finished.
+ * */
 public class ParallelCongruenceSimulation implements IsIncluded {
 	
 	NBA A;
@@ -23,7 +34,6 @@ public class ParallelCongruenceSimulation implements IsIncluded {
 	
 	Pair<Word, Word> counterexample;
 	Boolean result;
-	boolean terminate = false;
 	
 	int numWorkers;
 	
@@ -41,138 +51,58 @@ public class ParallelCongruenceSimulation implements IsIncluded {
 	
 	@Override
 	public Boolean isIncluded() {
-		ISet aFinals = A.getFinalStates();
-		NBA[] nbas = new NBA[aFinals.cardinality()];
-		int i = 0;
-		for(int finalState : aFinals) {
-			nbas[i] = new NBA(A.getAlphabet());
-			// copy NBA
-			for(int s = 0; s < A.getStateSize(); s ++) {
-				nbas[i].createState();
-			}
-			for(int s = 0; s < A.getStateSize(); s ++) {
-				for(int a : A.getState(s).getEnabledLetters()) {
-					for(int t : A.getState(s).getSuccessors(a)) {
-						nbas[i].getState(s).addTransition(a, t);
-					}
-				}
-			}
-			nbas[i].setInitial(A.getInitialState());
-			nbas[i].setFinal(finalState);
-			i ++;
-		}
-		// run parallelly for checking inclusion
-		ArrayList<InclusionCheck> threads = new ArrayList<>();
-		System.out.println("There are " + nbas.length + " small NBAs");
-		for(int j = 0; j < nbas.length; j ++) {
-			NBA nba = nbas[j];
-			InclusionCheck checker = new InclusionCheck(nba, B);
-			threads.add(checker);
+		if(result != null) {
+			return result;
 		}
-		ExecutorService executor = Executors.newFixedThreadPool(numWorkers);//Executors.newWorkStealingPool(numCores);
-		for(int j = 0; j < threads.size(); j ++) {
-			executor.execute(threads.get(j));
-			System.out.println("Create thread " + j);
+		CongruenceSimulation shared = new CongruenceSimulation(A, B);
+		shared.antichain = true;
+		shared.computeCounterexample = true;
+		if(shared.fwSimAB.get(0, A.getStateSize())) {
+			result = true;
+			return result;
 		}
-		executor.shutdown();
-		System.out.println("Entering while loop ......");
-		while (true) {
-			// create a thread to look up
-			if(executor.isTerminated()) {
-				System.out.println("executor terminate ?");
-				break;
-			}
-			if(terminate) {
-				executor.shutdownNow();
-				System.out.println("Terminate ?");
-				break;
+		ISet reachSet = shared.getReachableStates();
+		ISet aFinals = A.getFinalStates();
+		System.out.println("There are " + aFinals.cardinality() + " accepting states");
+		int numThreads = Math.max(1, Math.min(numWorkers, aFinals.cardinality()));
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		CompletionService<CongruenceSimulation> completion = new ExecutorCompletionService<>(executor);
+		List<Future<CongruenceSimulation>> futures = new ArrayList<>();
+		try {
+			for(int accState : aFinals) {
+				futures.add(completion.submit(() -> {
+					CongruenceSimulation sim = new CongruenceSimulation(shared);
+					return sim.isIncluded(accState, reachSet) ? null : sim;
+				}));
 			}
-		}
-		
-		if(this.result != null) {
-			return this.result;
-		}
-		return true;
-	}
-	
-	class InclusionCheck extends Thread {
-		
-		NBA first;
-		NBA second;
-				
-		InclusionCheck(NBA fst, NBA snd) {
-			this.first = fst;
-			this.second = snd;
-		}
-		
-		@Override
-		public void run() {
-			try {
-				synchronized(this) {
-					if(result != null && !result) {
-						return;
-					}
-				}
-				CongruenceSimulation sim = new CongruenceSimulation(first, second);
-				// light processing 
-//				FiniteAutomaton faA = UtilInclusion.toRABITNBA(first);
-//				FiniteAutomaton faB = UtilInclusion.toRABITNBA(second);
-//		        System.out.println("Before minimization: #A.St=" + faA.states.size() + ", #A.Tr=" + faA.trans);
-//		        System.out.println("Before minimization: #B.St=" + faB.states.size() + ", #B.Tr=" + faB.trans);
-//				System.out.println("Light proceesing for NBA ");
-//				// now do light processing
-//		        Pair<Boolean, Pair<FiniteAutomaton, FiniteAutomaton>> pair = UtilInclusion.lightPrepocess(faA, faB);
-//		        if(pair.getLeft()) {
-//			        System.out.println("Light processing finished the task.");
-//		        	return;
-//		        }
-//		        // else do a bit more processing
-//		        faA = pair.getRight().getLeft();
-//		        faB = pair.getRight().getRight();
-//				System.out.println("Proceesing for NBA ");
-//		        pair = UtilInclusion.prepocess(faA, faB);
-//		        if(pair.getLeft()) {
-//			        System.out.println("Processing finished the task.");
-//		        	return;
-//		        }
-//		        System.out.println("Processing did not finish the task.");
-//		        faA = pair.getRight().getLeft();
-//		        faB = pair.getRight().getRight();
-//		        NBA fst = UtilInclusion.toNBA(faA, A.getAlphabet());
-//		        NBA snd = UtilInclusion.toNBA(faB, B.getAlphabet());
-//		        System.out.println("After minimization: #A.St=" + faA.states.size() + ", #A.Tr=" + faA.trans);
-//		        System.out.println("After minimization: #B.St=" + faB.states.size() + ", #B.Tr=" + faB.trans);
-//
-//				CongruenceSimulation sim = new CongruenceSimulation(fst, snd);
-				sim.antichain = true;
-				sim.computeCounterexample = true;
-				sim.useSimulation = true;
-				boolean included = sim.isIncluded();
-//				System.out.println(included ? "Included" : "Not included");
-				if(!included) {
-					writeCounterexample(sim.getCounterexample());
-//					System.out.println(" result = " + result);
+			result = true;
+			for(int i = 0; i < futures.size(); i ++) {
+				// wait for the next finished task
+				CongruenceSimulation sim = completion.take().get();
+				if(sim != null) {
+					counterexample = sim.getCounterexample();
+					result = false;
+					break;
 				}
-			} catch (OutOfMemoryError e) {
-				e.printStackTrace();
-				System.exit(-1);
 			}
-		}
-		
-		public synchronized void writeCounterexample(Pair<Word, Word> ce) {
-			if(result != null && !result) {
-				return ;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("inclusion check interrupted");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		} finally {
+			for(Future<CongruenceSimulation> future : futures) {
+				future.cancel(true);
 			}
-			counterexample = ce;
-			result = false;
-			terminate = true;
-			System.out.println("Visited" + " " + terminate);
+			executor.shutdownNow();
 		}
-		
+		return result;
 	}
 	
-	
-	
 	public static void main(String[] args) {
 		Options options = new Options();
 		PairParserBA pairParser = new PairParserBA(options, args[0], args[1]);
@@ -0,0 +1,196 @@
+/* Copyright (c) since 2016                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.main.inclusion.congr;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of triples (left, right: acc), the triples are packed into longs
+ * and kept sorted in the same order as IntBoolTriple, so that subset tests are a merge
+ * of two arrays. The hash code is computed once on construction.
+ * */
+public final class TripleSet {
+
+	public static final TripleSet EMPTY = new TripleSet(new long[0], 0);
+
+	private final long[] triples;
+	private final int size;
+	private final int hash;
+
+	private TripleSet(long[] triples, int size) {
+		this.triples = triples;
+		this.size = size;
+		int h = 1;
+		for(int i = 0; i < size; i ++) {
+			long t = triples[i];
+			h = 31 * h + (int)(t ^ (t >>> 32));
+		}
+		this.hash = h;
+	}
+
+	public static long pack(int left, int right, boolean acc) {
+		return ((long)left << 32) | ((long)right << 1) | (acc ? 1L : 0L);
+	}
+
+	public static int getLeft(long triple) {
+		return (int)(triple >>> 32);
+	}
+
+	public static int getRight(long triple) {
+		return (int)(triple & 0xFFFFFFFFL) >>> 1;
+	}
+
+	public static boolean getBool(long triple) {
+		return (triple & 1L) != 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public long get(int index) {
+		assert index < size;
+		return triples[index];
+	}
+
+	// whether every triple in other is in this set
+	public boolean containsAll(TripleSet other) {
+		if(other.size > size) return false;
+		int i = 0;
+		for(int j = 0; j < other.size; j ++) {
+			long t = other.triples[j];
+			while(i < size && triples[i] < t) i ++;
+			if(i == size || triples[i] != t) return false;
+			i ++;
+		}
+		return true;
+	}
+
+	// index of the first triple whose left is state
+	private int lowerBound(int state) {
+		long key = (long)state << 32;
+		int lo = 0, hi = size;
+		while(lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if(triples[mid] < key) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * (p, q: b1) and (q, r: b2) gives (p, r: b1 || b2)
+	 * */
+	public static TripleSet compose(TripleSet first, TripleSet second) {
+		Builder builder = new Builder();
+		for(int i = 0; i < first.size; i ++) {
+			long fst = first.triples[i];
+			int q = getRight(fst);
+			for(int j = second.lowerBound(q); j < second.size && getLeft(second.triples[j]) == q; j ++) {
+				long snd = second.triples[j];
+				builder.add(pack(getLeft(fst), getRight(snd), getBool(fst) || getBool(snd)));
+			}
+		}
+		return builder.build(false);
+	}
+
+	public static TripleSet union(TripleSet first, TripleSet second) {
+		Builder builder = new Builder();
+		builder.addAll(first);
+		builder.addAll(second);
+		return builder.build(false);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj) return true;
+		if(obj instanceof TripleSet) {
+			TripleSet other = (TripleSet)obj;
+			if(other.hash != hash || other.size != size) return false;
+			for(int i = 0; i < size; i ++) {
+				if(triples[i] != other.triples[i]) return false;
+			}
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("[");
+		for(int i = 0; i < size; i ++) {
+			long t = triples[i];
+			if(i > 0) builder.append(", ");
+			builder.append("(" + getLeft(t) + ", " + getRight(t) + ": " + getBool(t) + ")");
+		}
+		builder.append("]");
+		return builder.toString();
+	}
+
+	public static class Builder {
+		private long[] triples = new long[8];
+		private int size = 0;
+
+		public void add(long triple) {
+			if(size == triples.length) {
+				triples = Arrays.copyOf(triples, size << 1);
+			}
+			triples[size ++] = triple;
+		}
+
+		public void add(int left, int right, boolean acc) {
+			add(pack(left, right, acc));
+		}
+
+		public void addAll(TripleSet set) {
+			for(int i = 0; i < set.size; i ++) {
+				add(set.triples[i]);
+			}
+		}
+
+		/**
+		 * If accDominates is true, (q, r: false) is dropped when (q, r: true) is also
+		 * in the set, just as CongruenceSimulation.addTriple does
+		 * */
+		public TripleSet build(boolean accDominates) {
+			if(size == 0) return EMPTY;
+			Arrays.sort(triples, 0, size);
+			int num = 0;
+			for(int i = 0; i < size; i ++) {
+				long t = triples[i];
+				if(num > 0 && triples[num - 1] == t) continue;
+				// (q, r: false) is right before (q, r: true)
+				if(accDominates && num > 0 && triples[num - 1] == (t & ~1L)) {
+					triples[num - 1] = t;
+					continue;
+				}
+				triples[num ++] = t;
+			}
+			return new TripleSet(Arrays.copyOf(triples, num), num);
+		}
+	}
+
+}
@@ -1,18 +1,19 @@
 package roll.main.ltl2dpa;
 
+import java.util.ArrayList;
 import java.util.List;
 
-import automata.FiniteAutomaton;
 import dk.brics.automaton.Automaton;
-import oracle.IntersectionCheck;
 import roll.automata.FDFA;
 import roll.automata.NBA;
+import roll.automata.operations.FDFA2NBA;
 import roll.automata.operations.FDFAOperations;
+import roll.automata.operations.NBAIntersectionCheck;
+import roll.automata.operations.NBALassoMembership;
 import roll.automata.operations.NBAOperations;
 import roll.main.Options;
 
 import roll.main.complement.UtilComplement;
-import roll.main.inclusion.UtilInclusion;
 import roll.oracle.Teacher;
 
 import roll.query.Query;
@@ -39,6 +40,9 @@ public class TeacherLTL2LDBA implements Teacher<FDFA, Query<HashableValue>, Hash
     private final Alphabet alphabet;
     private final NBA posA;
     private final NBA negB;
+    private final NBALassoMembership membershipA;
+    private final NBALassoMembership membershipB;
+    private final FDFA2NBA underNBABuilder = new FDFA2NBA(true);
     
     public TeacherLTL2LDBA(Options options, String ltl) {
         assert options != null ;
@@ -47,6 +51,8 @@ public class TeacherLTL2LDBA implements Teacher<FDFA, Query<HashableValue>, Hash
         Pair<NBA, NBA> pair = UtilLTL2LDBA.translateLtl2BA(options, ltl);
         this.posA = pair.getLeft();
         this.negB = pair.getRight(); 
+        this.membershipA = new NBALassoMembership(posA);
+        this.membershipB = new NBALassoMembership(negB);
         this.alphabet = this.posA.getAlphabet();
     }
     
@@ -58,13 +64,26 @@ public class TeacherLTL2LDBA implements Teacher<FDFA, Query<HashableValue>, Hash
 	public HashableValue answerMembershipQuery(Query<HashableValue> query) {
         Timer timer = new Timer();
         timer.start();
-        boolean result = UtilComplement.answerMembershipQuery(posA, query);
+        boolean result = UtilComplement.answerMembershipQuery(membershipA, query);
         timer.stop();
-        options.stats.timeOfMembershipQuery += timer.getTimeElapsed();
-        ++ options.stats.numOfMembershipQuery; 
+        options.stats.addMembershipQueries(1, timer.getTimeElapsed());
         return new HashableValueBoolean(result); 
 	}
 	
+	@Override
+	public List<HashableValue> answerMembershipQueries(List<Query<HashableValue>> queries) {
+        Timer timer = new Timer();
+        timer.start();
+        boolean[] results = UtilComplement.answerMembershipQueries(membershipA, queries);
+        List<HashableValue> answers = new ArrayList<>(results.length);
+        for(final boolean result : results) {
+            answers.add(new HashableValueBoolean(result));
+        }
+        timer.stop();
+        options.stats.addMembershipQueries(queries.size(), timer.getTimeElapsed());
+        return answers;
+	}
+	
     public int numInterBandBF;
     public long timeInterBandBF;
     
@@ -72,8 +91,9 @@ public class TeacherLTL2LDBA implements Teacher<FDFA, Query<HashableValue>, Hash
     public long timeInterBFCandA;
 	
     
-    private Pair<Word, Word> getCounterexample(List<String> prefix, List<String> suffix) {
-        return UtilComplement.getCounterexample(alphabet, prefix, suffix);
+    // product emptiness is checked by a swarm of workers with -par
+    private int getNumWorkers() {
+        return options.parallel ? options.numWorkers : 1;
     }
     
 	/**
@@ -89,21 +109,18 @@ public class TeacherLTL2LDBA implements Teacher<FDFA, Query<HashableValue>, Hash
 		Timer timer = new Timer();
         timer.start();
         options.log.println("Translating FDFA to under Buchi automaton ...");
-        Automaton dkBF = FDFAOperations.buildUnderNBA(hypothesis);
-        NBA BF = NBAOperations.fromDkNBA(dkBF, alphabet);
+        NBA BF = underNBABuilder.build(hypothesis);
         
         // record the constructed Buchi automaton
         options.stats.hypothesis = BF;
         ++ this.numInterBandBF;
         options.log.println("Checking the intersection of BF (" + BF.getStateSize() + ") and B ("+ negB.getStateSize() + ")...");
         long t = timer.getCurrentTime();
-        FiniteAutomaton rBF = UtilInclusion.toRABITNBA(BF);
-        FiniteAutomaton rB = UtilInclusion.toRABITNBA(negB);
         /**
          * now check whether the complement B(F) intersects with the input automaton B
          * */
-        IntersectionCheck checker = new IntersectionCheck(rBF, rB);
-        boolean isEmpty = checker.checkEmptiness();
+        NBAIntersectionCheck interCheck = new NBAIntersectionCheck(BF, negB, true, getNumWorkers());
+        boolean isEmpty = interCheck.isEmpty();
         t = timer.getCurrentTime() - t;
         this.timeInterBandBF += t;
         if(options.verbose()) {
@@ -115,8 +132,8 @@ public class TeacherLTL2LDBA implements Teacher<FDFA, Query<HashableValue>, Hash
         boolean isEq = false, isInTarget = false;
         if(! isEmpty) {
             // we have omega word in FDFA which should not be there
-            checker.computePath();
-            Pair<Word, Word> pair = getCounterexample(checker.getPrefix(), checker.getSuffix());
+            interCheck.computePath();
+            Pair<Word, Word> pair = interCheck.getCounterexample();
             prefix = pair.getLeft();
             suffix = pair.getRight();
             isEq = false;
@@ -127,11 +144,9 @@ public class TeacherLTL2LDBA implements Teacher<FDFA, Query<HashableValue>, Hash
             options.log.println("Checking the intersection for A (" + posA.getStateSize() + ") and B(F^c) ("
                     + BFC.getStateSize() + ")...");
             ++this.numInterBFCandA;
-            FiniteAutomaton rBFC = UtilInclusion.toRABITNBA(BFC);
-            FiniteAutomaton rA = UtilInclusion.toRABITNBA(posA);
             t = timer.getCurrentTime();
-            checker = new IntersectionCheck(rA, rBFC);
-            isEmpty = checker.checkEmptiness();               
+            interCheck = new NBAIntersectionCheck(posA, BFC, true, getNumWorkers());
+            isEmpty = interCheck.isEmpty();
             t = timer.getCurrentTime() - t;
             this.timeInterBFCandA += t;
             if (isEmpty) {
@@ -139,12 +154,12 @@ public class TeacherLTL2LDBA implements Teacher<FDFA, Query<HashableValue>, Hash
 //            	UtilComplement.print(B, "B.ba");
                 isEq = true;
             }else {
-            	checker.computePath();
-                Pair<Word, Word> pair = getCounterexample(checker.getPrefix(), checker.getSuffix());
+            	interCheck.computePath();
+                Pair<Word, Word> pair = interCheck.getCounterexample();
                 prefix = pair.getLeft();
                 suffix = pair.getRight();
                 isEq = false;
-                isInTarget = NBAOperations.accepts(negB, prefix, suffix);
+                isInTarget = membershipB.accepts(prefix, suffix);
             }
         }
         
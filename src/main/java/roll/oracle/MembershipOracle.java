@@ -28,6 +28,11 @@ public interface MembershipOracle<O> {
 	
 	O answerMembershipQuery(Query<O> query);
 	
+	// whether the query can be answered without asking the teacher
+	default boolean isCached(Query<O> query) {
+		return false;
+	}
+	
 	default List<O> answerMembershipQueries(@SuppressWarnings("unchecked") Query<O>... queries) {
 		List<O> answers = new ArrayList<>();
 		for(Query<O> query : queries) {
@@ -0,0 +1,167 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.oracle;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import roll.main.Options;
+import roll.query.Query;
+import roll.table.HashableValue;
+import roll.util.Pair;
+import roll.words.Alphabet;
+import roll.words.Word;
+
+/**
+ * Membership oracle which remembers the answers of another membership oracle
+ * <br>
+ * For omega words, the key of a query u:v is the normal form of u(v)^w, so
+ * that different factorizations of the same lasso word share one entry;
+ * for finite words, the key is the queried word uv.
+ * <br>
+ * The cache holds at most options.cacheSize entries, an entry is evicted
+ * either in least-recently-used order (LRU) or in insertion order (FIFO).
+ *
+ * @author Yong Li (liyong@ios.ac.cn)
+ * */
+
+public class MembershipOracleCache implements MembershipOracle<HashableValue> {
+
+    private final Options options;
+    private final MembershipOracle<HashableValue> membershipOracle;
+    private final boolean omega;
+    private final Map<Pair<Word, Word>, HashableValue> cache;
+
+    public MembershipOracleCache(Options options, MembershipOracle<HashableValue> membershipOracle
+            , boolean omega) {
+        assert options != null && membershipOracle != null;
+        this.options = options;
+        this.membershipOracle = membershipOracle;
+        this.omega = omega;
+        this.cache = new Cache(options.cacheSize, options.cache == Options.CachePolicy.LRU);
+    }
+
+    @Override
+    public HashableValue answerMembershipQuery(Query<HashableValue> query) {
+        Pair<Word, Word> key = getKey(query);
+        HashableValue answer = cache.get(key);
+        if(answer != null) {
+            ++ options.stats.numOfMembershipQueryCacheHit;
+            return answer;
+        }
+        ++ options.stats.numOfMembershipQueryCacheMiss;
+        answer = membershipOracle.answerMembershipQuery(query);
+        cache.put(key, answer);
+        return answer;
+    }
+    
+    // does not touch the order of the entries
+    @Override
+    public boolean isCached(Query<HashableValue> query) {
+        return cache.containsKey(getKey(query));
+    }
+    
+    // only the missed queries with distinct keys are forwarded, in one batch
+    @Override
+    public List<HashableValue> answerMembershipQueries(List<Query<HashableValue>> queries) {
+        List<HashableValue> answers = new ArrayList<>(queries.size());
+        Map<Pair<Word, Word>, List<Integer>> missed = new LinkedHashMap<>();
+        List<Query<HashableValue>> forwarded = new ArrayList<>();
+        for(int queryNr = 0; queryNr < queries.size(); queryNr ++) {
+            Query<HashableValue> query = queries.get(queryNr);
+            Pair<Word, Word> key = getKey(query);
+            HashableValue answer = cache.get(key);
+            answers.add(answer);
+            if(answer != null) {
+                ++ options.stats.numOfMembershipQueryCacheHit;
+                continue;
+            }
+            List<Integer> positions = missed.get(key);
+            if(positions == null) {
+                ++ options.stats.numOfMembershipQueryCacheMiss;
+                positions = new ArrayList<>();
+                missed.put(key, positions);
+                forwarded.add(query);
+            }else {
+                ++ options.stats.numOfMembershipQueryCacheHit;
+            }
+            positions.add(queryNr);
+        }
+        if(forwarded.isEmpty()) return answers;
+        List<HashableValue> results = membershipOracle.answerMembershipQueries(forwarded);
+        int resultNr = 0;
+        for(Map.Entry<Pair<Word, Word>, List<Integer>> entry : missed.entrySet()) {
+            HashableValue answer = results.get(resultNr ++);
+            cache.put(entry.getKey(), answer);
+            for(final int queryNr : entry.getValue()) {
+                answers.set(queryNr, answer);
+            }
+        }
+        return answers;
+    }
+
+    protected Pair<Word, Word> getKey(Query<HashableValue> query) {
+        Word prefix = query.getPrefix();
+        Word suffix = query.getSuffix();
+        if(! omega) {
+            Word word = prefix.concat(suffix);
+            return new Pair<>(word, word.getEmptyWord());
+        }
+        if(suffix.isEmpty()) {
+            return new Pair<>(prefix, suffix);
+        }
+        return Alphabet.getNormalForm(prefix, suffix);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * wrap the membership oracle with a cache if it is enabled in the options
+     * */
+    public static MembershipOracle<HashableValue> decorate(Options options
+            , MembershipOracle<HashableValue> membershipOracle, boolean omega) {
+        if(options.cache == Options.CachePolicy.NONE || options.cacheSize <= 0) {
+            return membershipOracle;
+        }
+        return new MembershipOracleCache(options, membershipOracle, omega);
+    }
+
+    private static class Cache extends LinkedHashMap<Pair<Word, Word>, HashableValue> {
+
+        private static final long serialVersionUID = 1L;
+        private final int capacity;
+
+        Cache(int capacity, boolean accessOrder) {
+            super(16, 0.75f, accessOrder);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Pair<Word, Word>, HashableValue> eldest) {
+            return size() > capacity;
+        }
+    }
+
+}
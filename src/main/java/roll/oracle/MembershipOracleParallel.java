@@ -0,0 +1,124 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.oracle;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import roll.main.Options;
+import roll.query.Query;
+import roll.table.HashableValue;
+
+/**
+ * Membership oracle which answers a batch of queries on several worker threads
+ * <br>
+ * A batch is cut into consecutive chunks and every chunk is passed to the
+ * underlying oracle as a smaller batch, so the underlying oracle must be
+ * thread-safe. The answers are put back at the positions of their queries,
+ * hence the result does not depend on the number of workers.
+ *
+ * @author Yong Li (liyong@ios.ac.cn)
+ * */
+
+public class MembershipOracleParallel implements MembershipOracle<HashableValue> {
+
+    // smallest number of queries worth a task of its own
+    private static final int MIN_CHUNK_SIZE = 16;
+    // number of chunks per worker for load balancing
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private final MembershipOracle<HashableValue> membershipOracle;
+    private final int numWorkers;
+    private final ForkJoinPool pool;
+
+    public MembershipOracleParallel(MembershipOracle<HashableValue> membershipOracle, int numWorkers) {
+        assert membershipOracle != null && numWorkers > 0;
+        this.membershipOracle = membershipOracle;
+        this.numWorkers = numWorkers;
+        this.pool = new ForkJoinPool(numWorkers);
+    }
+
+    @Override
+    public HashableValue answerMembershipQuery(Query<HashableValue> query) {
+        return membershipOracle.answerMembershipQuery(query);
+    }
+
+    @Override
+    public List<HashableValue> answerMembershipQueries(List<Query<HashableValue>> queries) {
+        int chunkSize = Math.max(MIN_CHUNK_SIZE
+                , (queries.size() + numWorkers * CHUNKS_PER_WORKER - 1) / (numWorkers * CHUNKS_PER_WORKER));
+        if(queries.size() <= chunkSize) {
+            return membershipOracle.answerMembershipQueries(queries);
+        }
+        HashableValue[] answers = new HashableValue[queries.size()];
+        pool.invoke(new Task(queries, answers, 0, queries.size(), chunkSize));
+        return Arrays.asList(answers);
+    }
+
+    public int getNumWorkers() {
+        return numWorkers;
+    }
+
+    /**
+     * answer the batches of the membership oracle in parallel if more than
+     * one worker is set in the options
+     * */
+    public static MembershipOracle<HashableValue> decorate(Options options
+            , MembershipOracle<HashableValue> membershipOracle) {
+        if(options.numMembershipWorkers <= 1) {
+            return membershipOracle;
+        }
+        return new MembershipOracleParallel(membershipOracle, options.numMembershipWorkers);
+    }
+
+    // answer the queries in [from, to), split in halves until a chunk is small enough
+    private class Task extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final List<Query<HashableValue>> queries;
+        private final HashableValue[] answers;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        Task(List<Query<HashableValue>> queries, HashableValue[] answers, int from, int to, int chunkSize) {
+            this.queries = queries;
+            this.answers = answers;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= chunkSize) {
+                List<HashableValue> results = membershipOracle.answerMembershipQueries(queries.subList(from, to));
+                assert results.size() == to - from;
+                for(int i = from; i < to; i ++) {
+                    answers[i] = results.get(i - from);
+                }
+                return ;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Task(queries, answers, from, mid, chunkSize)
+                    , new Task(queries, answers, mid, to, chunkSize));
+        }
+    }
+
+}
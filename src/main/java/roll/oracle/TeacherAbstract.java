@@ -16,6 +16,9 @@
 
 package roll.oracle;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import roll.main.Options;
 import roll.query.Query;
 import roll.table.HashableValue;
@@ -41,10 +44,28 @@ public abstract class TeacherAbstract<M> implements Teacher<M, Query<HashableVal
         timer.start();
         HashableValue answer = checkMembership(query);
         timer.stop();
-        options.stats.timeOfMembershipQuery += timer.getTimeElapsed();
-        options.stats.numOfMembershipQuery ++;
+        options.stats.addMembershipQueries(1, timer.getTimeElapsed());
         return answer;
     }
+    
+    // teachers may share work among the queries of a batch
+    protected List<HashableValue> checkMemberships(List<Query<HashableValue>> queries) {
+        List<HashableValue> answers = new ArrayList<>(queries.size());
+        for(Query<HashableValue> query : queries) {
+            answers.add(checkMembership(query));
+        }
+        return answers;
+    }
+    
+    @Override
+    public List<HashableValue> answerMembershipQueries(List<Query<HashableValue>> queries) {
+        Timer timer = new Timer();
+        timer.start();
+        List<HashableValue> answers = checkMemberships(queries);
+        timer.stop();
+        options.stats.addMembershipQueries(queries.size(), timer.getTimeElapsed());
+        return answers;
+    }
 
     protected abstract Query<HashableValue> checkEquivalence(M hypothesis);
     
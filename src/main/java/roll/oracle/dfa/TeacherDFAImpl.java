@@ -0,0 +1,65 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.oracle.dfa;
+
+import roll.automata.DFA;
+import roll.automata.FrozenDFA;
+import roll.automata.operations.DFAEquivalenceCheck;
+import roll.main.Options;
+import roll.query.Query;
+import roll.query.QuerySimple;
+import roll.table.HashableValue;
+import roll.table.HashableValueBoolean;
+import roll.words.Word;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * DFA teacher answering equivalence queries by the union-find check of Hopcroft
+ * and Karp, the transition table of the target is frozen once for all queries
+ * */
+
+public class TeacherDFAImpl extends TeacherDFA {
+    
+    private final FrozenDFA frozenTarget;
+    
+    public TeacherDFAImpl(Options options, DFA dfa) {
+        super(options, dfa);
+        this.frozenTarget = dfa.freeze();
+    }
+    
+    @Override
+    protected HashableValue checkMembership(Query<HashableValue> query) {
+        Word word = query.getQueriedWord();
+        int state = frozenTarget.getSuccessor(word);
+        return new HashableValueBoolean(state >= 0 && frozenTarget.isFinal(state));
+    }
+
+    @Override
+    protected Query<HashableValue> checkEquivalence(DFA hypothesis) {
+        DFAEquivalenceCheck checker = new DFAEquivalenceCheck(frozenTarget, hypothesis.freeze(), alphabet);
+        Word wordCE = checker.getCounterexample();
+        boolean isEq = wordCE == null;
+        if(isEq) {
+            wordCE = alphabet.getEmptyWord();
+        }
+        Query<HashableValue> ceQuery = new QuerySimple<>(wordCE);
+        ceQuery.answerQuery(new HashableValueBoolean(isEq));
+        return ceQuery;
+    }
+
+}
@@ -16,8 +16,11 @@
 
 package roll.oracle.nba;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import roll.automata.NBA;
-import roll.automata.operations.NBAOperations;
+import roll.automata.operations.NBALassoMembership;
 import roll.main.Options;
 import roll.oracle.TeacherAbstract;
 import roll.query.Query;
@@ -31,18 +34,36 @@ import roll.words.Word;
 
 public abstract class TeacherNBA extends TeacherAbstract<NBA> {
     protected NBA target;
+    protected NBALassoMembership membership;
     
     public TeacherNBA(Options options, NBA target) {
         super(options);
         this.target = target;
+        this.membership = new NBALassoMembership(target);
     }
 
     @Override
     protected HashableValue checkMembership(Query<HashableValue> query) {
         Word prefix = query.getPrefix();
         Word suffix = query.getSuffix();
-        boolean answer = NBAOperations.accepts(target, prefix, suffix);
+        boolean answer = membership.accepts(prefix, suffix);
         return new HashableValueBoolean(answer);
     }
+    
+    @Override
+    protected List<HashableValue> checkMemberships(List<Query<HashableValue>> queries) {
+        List<Word> prefixes = new ArrayList<>(queries.size());
+        List<Word> suffixes = new ArrayList<>(queries.size());
+        for(Query<HashableValue> query : queries) {
+            prefixes.add(query.getPrefix());
+            suffixes.add(query.getSuffix());
+        }
+        boolean[] results = membership.accepts(prefixes, suffixes);
+        List<HashableValue> answers = new ArrayList<>(results.length);
+        for(final boolean result : results) {
+            answers.add(new HashableValueBoolean(result));
+        }
+        return answers;
+    }
 
 }
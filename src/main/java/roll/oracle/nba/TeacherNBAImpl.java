@@ -31,7 +31,7 @@ public class TeacherNBAImpl extends TeacherNBA {
             B = target;
         }
 		
-		if(options.parallel || !options.spot) {
+		if(needsRABIT()) {
 			rA = UtilRABIT.toRABITNBA(A);
 			rB = UtilRABIT.toRABITNBA(B);
 		}
@@ -44,7 +44,7 @@ public class TeacherNBAImpl extends TeacherNBA {
             return ceQuery;
         }
         // RABIT may change rA and rB, so copy them again
-		if(options.parallel || !options.spot) {
+		if(needsRABIT()) {
 			rA = UtilRABIT.toRABITNBA(A);
 			rB = UtilRABIT.toRABITNBA(B);
 		}
@@ -60,5 +60,9 @@ public class TeacherNBAImpl extends TeacherNBA {
         ceQuery.answerQuery(new HashableValueBoolean(true));
         return ceQuery;
 	}
+	
+	private boolean needsRABIT() {
+		return !options.antichain && (options.parallel || !options.spot);
+	}
 
 }
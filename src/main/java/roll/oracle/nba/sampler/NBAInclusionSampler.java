@@ -17,7 +17,7 @@
 package roll.oracle.nba.sampler;
 
 import roll.automata.NBA;
-import roll.automata.operations.NBAOperations;
+import roll.automata.operations.NBALassoMembership;
 import roll.query.Query;
 import roll.query.QuerySimple;
 import roll.table.HashableValue;
@@ -37,6 +37,8 @@ public class NBAInclusionSampler {
     
     public static Query<HashableValue> isIncluded(NBA A, NBA B, Sampler sampler) {
         sampler.setNBA(A);
+        NBALassoMembership membershipA = new NBALassoMembership(A);
+        NBALassoMembership membershipB = new NBALassoMembership(B);
         for (int i = 0; i < sampler.getSampleSize(); i++) {
             numTried ++;
             Pair<Pair<Word, Word>, Boolean> result = sampler.getRandomLasso();
@@ -45,12 +47,12 @@ public class NBAInclusionSampler {
             if (result.getRight()) {
                 needCheck = true;
             } else {
-                needCheck = NBAOperations.accepts(A, word.getLeft(), word.getRight());
+                needCheck = membershipA.accepts(word.getLeft(), word.getRight());
             }
 
             if(needCheck) {
                 // found a counterexample
-                boolean acc = NBAOperations.accepts(B, word.getLeft(), word.getRight());
+                boolean acc = membershipB.accepts(word.getLeft(), word.getRight());
                 if(! acc) {
                     Query<HashableValue> ceQuery = new QuerySimple<>(word.getLeft(), word.getRight());
                     ceQuery.answerQuery(new HashableValueBoolean(false));
@@ -67,12 +69,12 @@ public class NBAInclusionSampler {
             if (result.getRight()) {
                 needCheck = false;
             } else {
-                needCheck = !NBAOperations.accepts(B, word.getLeft(), word.getRight());
+                needCheck = !membershipB.accepts(word.getLeft(), word.getRight());
             }
 
             if(needCheck) {
                 // found a counterexample
-                boolean acc = NBAOperations.accepts(A, word.getLeft(), word.getRight());
+                boolean acc = membershipA.accepts(word.getLeft(), word.getRight());
                 if(acc) {
                     Query<HashableValue> ceQuery = new QuerySimple<>(word.getLeft(), word.getRight());
                     ceQuery.answerQuery(new HashableValueBoolean(false));
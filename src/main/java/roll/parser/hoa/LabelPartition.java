@@ -0,0 +1,108 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.parser.hoa;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import net.sf.javabdd.BDD;
+import roll.bdd.BDDManager;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ *
+ * The coarsest partition of all valuations such that every refined label is
+ * a union of classes, so the number of classes depends on the labels which
+ * really occur and not on the number of atomic propositions
+ * */
+public class LabelPartition {
+
+    private final List<BDD> classes = new ArrayList<>();
+    // label -> classes contained in the label
+    private final Map<BDD, TIntList> labelClasses = new HashMap<>();
+
+    public LabelPartition(BDDManager bdd) {
+        classes.add(bdd.getOne());
+    }
+
+    // split every class which overlaps with both label and its negation
+    public void refine(BDD label) {
+        assert labelClasses.isEmpty();
+        BDD negLabel = label.not();
+        int size = classes.size();
+        for(int index = 0; index < size; index ++) {
+            BDD cls = classes.get(index);
+            BDD inside = cls.and(label);
+            if(inside.isZero()) {
+                inside.free();
+                continue;
+            }
+            BDD outside = cls.and(negLabel);
+            if(outside.isZero()) {
+                inside.free();
+                outside.free();
+                continue;
+            }
+            cls.free();
+            classes.set(index, inside);
+            classes.add(outside);
+        }
+        negLabel.free();
+    }
+
+    public int size() {
+        return classes.size();
+    }
+
+    public BDD getClass(int index) {
+        return classes.get(index);
+    }
+
+    // indices of the classes whose union is label, label should have been refined
+    public TIntList getClasses(BDD label) {
+        TIntList result = labelClasses.get(label);
+        if(result != null) {
+            return result;
+        }
+        result = new TIntArrayList();
+        for(int index = 0; index < classes.size(); index ++) {
+            BDD inside = classes.get(index).and(label);
+            if(! inside.isZero()) {
+                result.add(index);
+            }
+            inside.free();
+        }
+        labelClasses.put(label.id(), result);
+        return result;
+    }
+
+    public void free() {
+        for(BDD cls : classes) {
+            cls.free();
+        }
+        for(BDD label : labelClasses.keySet()) {
+            label.free();
+        }
+        classes.clear();
+        labelClasses.clear();
+    }
+
+}
@@ -19,6 +19,7 @@ package roll.parser.hoa;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -49,6 +50,8 @@ public class PairParserHOA extends ParserHOA implements PairParser {
     protected NBA A;
     protected NBA B;
     BDDPairing apB2A = null;
+    // A and B without transitions in symbolic mode
+    protected List<Automaton> labeledAutomata = new ArrayList<>();
     
     public PairParserHOA(Options options, String fileA, String fileB) {
         super(options);
@@ -65,10 +68,13 @@ public class PairParserHOA extends ParserHOA implements PairParser {
             this.initialAdded = false;
             HOAFParser.parseHOA(fileInputStream, this);
             this.B = nba;
+            if(options.symbolic) {
+                buildSymbolicAutomata();
+            }
             // now check if every possible combination of AP are there
             BDD leftLabels = atomRemaining.not();
-            // compute the left labels
-            if(! leftLabels.isZero()) {
+            // compute the left labels, in symbolic mode they already have a letter
+            if(! leftLabels.isZero() && ! options.symbolic) {
                 BDD oneSat = leftLabels.fullSatOne();
                 valsRemaining = bdd.toOneFullValuation(oneSat);
                 oneSat.free();
@@ -99,10 +105,13 @@ public class PairParserHOA extends ParserHOA implements PairParser {
             this.initialAdded = false;
             HOAFParser.parseHOA(fileInputStream, this);
             this.B = nba;
+            if(options.symbolic) {
+                buildSymbolicAutomata();
+            }
             // now check if every possible combination of AP are there
             BDD leftLabels = atomRemaining.not();
-            // compute the left labels
-            if(! leftLabels.isZero()) {
+            // compute the left labels, in symbolic mode they already have a letter
+            if(! leftLabels.isZero() && ! options.symbolic) {
                 BDD oneSat = leftLabels.fullSatOne();
                 valsRemaining = bdd.toOneFullValuation(oneSat);
                 oneSat.free();
@@ -198,6 +207,11 @@ public class PairParserHOA extends ParserHOA implements PairParser {
         if(apB2A != null) {
         	expr = expr.replaceWith(apB2A);
         }
+        if(options.symbolic) {
+            addLabeledTransition(stateId, expr.id(), targetId);
+            atomRemaining = atomRemaining.orWith(expr);
+            return;
+        }
         Set<Valuation> vals = null;
         if(apset.size() <= VAR_NUM_BOUND_TO_USE_BDD) {
             vals = bdd.toValuationSet(expr, apset.size());
@@ -214,11 +228,26 @@ public class PairParserHOA extends ParserHOA implements PairParser {
 
     @Override
     public void notifyEnd() throws HOAConsumerException {
+        // in symbolic mode, the letters are only known after A and B have been parsed
+        if(options.symbolic) {
+            labeledAutomata.add(automaton);
+            automaton = null;
+            return;
+        }
         nba = NBAOperations.fromDkNBA(automaton, alphabet);
 //        System.out.println(automaton.toDot());
         automaton = null;
     }
     
+    // A and B share the letters computed from the labels of both
+    protected void buildSymbolicAutomata() {
+        addLabeledTransitions();
+        A = NBAOperations.fromDkNBA(labeledAutomata.get(0), alphabet);
+        B = NBAOperations.fromDkNBA(labeledAutomata.get(1), alphabet);
+        nba = B;
+        labeledAutomata.clear();
+    }
+    
     protected void addTransition(int sourceId, Set<Valuation> vals, int targetId) {
         State source = indexStateMap.get(sourceId); 
         State target = indexStateMap.get(targetId);
@@ -21,6 +21,7 @@ import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +31,7 @@ import java.util.function.Function;
 import dk.brics.automaton.Automaton;
 import dk.brics.automaton.State;
 import dk.brics.automaton.Transition;
+import gnu.trove.list.TIntList;
 import gnu.trove.map.TCharObjectMap;
 import gnu.trove.map.TIntObjectMap;
 import gnu.trove.map.TObjectCharMap;
@@ -78,6 +80,11 @@ public class ParserHOA implements Parser, HOAConsumer{
     // int -> state
     protected TIntObjectMap<State> indexStateMap = new TIntObjectHashMap<>();
     
+    // in symbolic mode, transitions wait for the letters until all labels are known
+    protected List<LabeledTransition> labeledTransitions = new ArrayList<>();
+    // char -> class of valuations, only used in symbolic mode
+    protected TCharObjectMap<BDD> charBddMap = new TCharObjectHashMap<>();
+    
     // we allow alias in the given HANOI file
     protected Map<String, BDD> aliasBddMap = new HashMap<>();
     
@@ -98,8 +105,8 @@ public class ParserHOA implements Parser, HOAConsumer{
             HOAFParser.parseHOA(fileInputStream, this);
             // now check if every possible combination of AP are there
             BDD leftLabels = atomRemaining.not();
-            // compute the left labels
-            if(! leftLabels.isZero()) {
+            // compute the left labels, in symbolic mode they already have a letter
+            if(! leftLabels.isZero() && ! options.symbolic) {
                 BDD oneSat = leftLabels.fullSatOne();
                 valsRemaining = bdd.toOneFullValuation(oneSat);
                 oneSat.free();
@@ -177,6 +184,9 @@ public class ParserHOA implements Parser, HOAConsumer{
     @Override
     public void close() {
         atomRemaining.free();
+        for(BDD dd : charBddMap.valueCollection()) {
+            dd.free();
+        }
         for(BDD dd : aliasBddMap.values()) {
             dd.free();
         }
@@ -201,6 +211,9 @@ public class ParserHOA implements Parser, HOAConsumer{
     
     // get the original evaluation w.r.t. the label on transition
     protected BDD getBDDFromLabel(char ch) {
+        if(options.symbolic) {
+            return charBddMap.get(ch).id();
+        }
         Valuation valuation = charValMap.get(ch);
         if(valuation == valsRemaining) {
             return atomRemaining.id();
@@ -288,6 +301,11 @@ public class ParserHOA implements Parser, HOAConsumer{
         }else {
             expr = bdd.fromBoolExpr(labelExpr);
         }
+        if(options.symbolic) {
+            addLabeledTransition(stateId, expr.id(), targetId);
+            atomRemaining = atomRemaining.orWith(expr);
+            return;
+        }
         Set<Valuation> vals = null;
         if(apset.size() <= VAR_NUM_BOUND_TO_USE_BDD) {
             vals = bdd.toValuationSet(expr, apset.size());
@@ -304,6 +322,9 @@ public class ParserHOA implements Parser, HOAConsumer{
 
     @Override
     public void notifyEnd() throws HOAConsumerException {
+        if(options.symbolic) {
+            addLabeledTransitions();
+        }
         nba = NBAOperations.fromDkNBA(automaton, alphabet);
 //        System.out.println(automaton.toDot());
         automaton = null;
@@ -317,6 +338,57 @@ public class ParserHOA implements Parser, HOAConsumer{
         }
     }
     
+    protected void addLabeledTransition(int sourceId, BDD label, int targetId) {
+        labeledTransitions.add(new LabeledTransition(indexStateMap.get(sourceId)
+                , label, indexStateMap.get(targetId)));
+    }
+    
+    // one letter for every class of valuations which no label distinguishes
+    protected void addLabeledTransitions() {
+        LabelPartition partition = new LabelPartition(bdd);
+        for(LabeledTransition trans : labeledTransitions) {
+            partition.refine(trans.label);
+        }
+        options.log.verbose("Number of letters for labels is " + partition.size());
+        char[] letters = new char[partition.size()];
+        for(int index = 0; index < partition.size(); index ++) {
+            letters[index] = getLetterFromClass(partition.getClass(index));
+        }
+        for(LabeledTransition trans : labeledTransitions) {
+            TIntList classes = partition.getClasses(trans.label);
+            for(int i = 0; i < classes.size(); i ++) {
+                trans.source.addTransition(new Transition(letters[classes.get(i)], trans.target));
+            }
+            trans.label.free();
+        }
+        labeledTransitions.clear();
+        partition.free();
+    }
+    
+    // we reserve '$' sign for L dollar automaton
+    protected char getLetterFromClass(BDD cls) {
+        if(charBddMap.size() >= Character.MAX_VALUE - 1) {
+            throw new UnsupportedOperationException("Too many letters for the labels in symbolic mode");
+        }
+        char ch = (char) charBddMap.size();
+        if(ch >= '$')   ch ++; // reserve '$' sign
+        charBddMap.put(ch, cls.id());
+        alphabet.addLetter(ch);
+        return ch;
+    }
+    
+    protected static class LabeledTransition {
+        final State source;
+        final BDD label;
+        final State target;
+        
+        LabeledTransition(State source, BDD label, State target) {
+            this.source = source;
+            this.label = label;
+            this.target = target;
+        }
+    }
+    
     // ------------ donot care
 
     @Override
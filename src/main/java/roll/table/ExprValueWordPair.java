@@ -57,6 +57,11 @@ public class ExprValueWordPair implements ExprValue {
 		return false;
 	}
 	
+	@Override
+	public int hashCode() {
+	    return 31 * wordLeft.hashCode() + wordRight.hashCode();
+	}
+	
 	@Override
 	public String toString() {
 		return "(" + wordLeft.toStringWithAlphabet() 
@@ -31,6 +31,11 @@ public interface HashableValue {
 	
 	public int hashCode();
 	
+	// hash code consistent with valueEqual
+	default int valueHash() {
+	    return hashCode();
+	}
+	
 	boolean isPair();
 	
     <T> T getLeft();
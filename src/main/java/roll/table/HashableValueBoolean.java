@@ -22,11 +22,18 @@ package roll.table;
 
 public class HashableValueBoolean implements HashableValue {
 	
+	public static final HashableValueBoolean TRUE = new HashableValueBoolean(true);
+	public static final HashableValueBoolean FALSE = new HashableValueBoolean(false);
+	
 	private boolean value ;
 	
 	public HashableValueBoolean(boolean val) {
 		value = val;
 	}
+	
+	public static HashableValueBoolean valueOf(boolean val) {
+		return val ? TRUE : FALSE;
+	}
 
 	@Override
 	public boolean valueEqual(HashableValue rvalue) {
@@ -65,6 +65,11 @@ public class HashableValueBooleanPair implements HashableValue {
 		return value;
 	}
 
+	@Override
+	public int valueHash() {
+	    return valueLeft && valueRight ? 0 : 1;
+	}
+
 	@Override
 	public boolean isPair() {
 		return true;
@@ -39,7 +39,30 @@ public interface ObservationRow {
 		
 	void add(HashableValue value);
 	
+	/**
+	 * hash of the values of this row which is consistent with valuesEqual,
+	 * it should be maintained while the row is filled
+	 * */
+	default long getSignature() {
+	    long signature = 0;
+	    List<HashableValue> values = getValues();
+	    for(int valNr = 0; valNr < values.size(); valNr ++) {
+	        signature += getCellSignature(valNr, values.get(valNr));
+	    }
+	    return signature;
+	}
+	
+	static long getCellSignature(int index, HashableValue value) {
+	    if(value == null) return 0;
+	    long x = ((long)index << 32) ^ (value.valueHash() & 0xFFFFFFFFL);
+	    x *= 0x9E3779B97F4A7C15L;
+	    x ^= x >>> 31;
+	    x *= 0xBF58476D1CE4E5B9L;
+	    return x ^ (x >>> 29);
+	}
+	
 	default boolean valuesEqual(ObservationRow other) {
+	    if(getSignature() != other.getSignature()) return false;
 		List<HashableValue> thisValues = getValues();
 		List<HashableValue> otherValues = other.getValues();
 		assert thisValues.size() == otherValues.size();
@@ -51,6 +74,19 @@ public interface ObservationRow {
 		return true;
 	}
 	
+	// index of the first value which differs from the other row, -1 if none
+	default int getFirstDifference(ObservationRow other) {
+	    List<HashableValue> thisValues = getValues();
+	    List<HashableValue> otherValues = other.getValues();
+	    assert thisValues.size() == otherValues.size();
+	    for(int valNr = 0; valNr < thisValues.size(); valNr ++) {
+	        if(! thisValues.get(valNr).valueEqual(otherValues.get(valNr))) {
+	            return valNr;
+	        }
+	    }
+	    return -1;
+	}
+	
 	void set(int index, HashableValue value);
 	
 	void clear();
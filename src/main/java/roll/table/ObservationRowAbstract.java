@@ -30,6 +30,8 @@ public abstract class ObservationRowAbstract implements ObservationRow {
 
 	protected final Word word;
 	protected List<HashableValue> values;
+	private long signature;
+	private ObservationTableAbstract table; // table to notify of changes
 	
 	protected ObservationRowAbstract(Word word) {
 		assert word != null;
@@ -51,8 +53,34 @@ public abstract class ObservationRowAbstract implements ObservationRow {
         return word.toString();
     }
     
+    @Override
+    public long getSignature() {
+        return signature;
+    }
+    
+    void setTable(ObservationTableAbstract table) {
+        this.table = table;
+    }
+    
+    private void changed() {
+        if(table != null) table.rowChanged(this);
+    }
+    
+    // keep the signature up to date and notify the table after a cell changed
+    protected void cellChanged(int index, HashableValue oldValue, HashableValue newValue) {
+        signature -= ObservationRow.getCellSignature(index, oldValue);
+        signature += ObservationRow.getCellSignature(index, newValue);
+        changed();
+    }
+    
+    protected void rowCleared() {
+        signature = 0;
+        changed();
+    }
+    
     public void add(HashableValue value) {
         values.add(value);
+        cellChanged(values.size() - 1, null, value);
     }
     
     public void set(int index, HashableValue value) {
@@ -60,11 +88,13 @@ public abstract class ObservationRowAbstract implements ObservationRow {
         while(values.size() <= index) {
             values.add(null);
         }
-        values.set(index, value);
+        HashableValue oldValue = values.set(index, value);
+        cellChanged(index, oldValue, value);
     }
 
     public void clear() {
         values.clear();
+        rowCleared();
     }
 
 }
@@ -0,0 +1,187 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.table;
+
+import java.util.AbstractList;
+import java.util.List;
+
+import roll.words.Word;
+
+/**
+ * Row whose values are all {@link HashableValueBoolean}, one bit per cell
+ * <br>
+ * The cells are packed into long words, so comparing two rows only compares
+ * the words. Once a value of another type is stored, the row falls back to
+ * the list of values in {@link ObservationRowAbstract}.
+ * 
+ * @author Yong Li (liyong@ios.ac.cn)
+ * */
+public class ObservationRowBoolean extends ObservationRowBase {
+    
+    private static final long[] EMPTY = new long[0];
+    
+    private long[] bits;    // value of each cell
+    private long[] defined; // whether a cell has been filled
+    private int size;
+    private boolean packed;
+    
+    public ObservationRowBoolean(Word word) {
+        super(word);
+        this.bits = EMPTY;
+        this.defined = EMPTY;
+        this.size = 0;
+        this.packed = true;
+    }
+    
+    public boolean isPacked() {
+        return packed;
+    }
+    
+    @Override
+    public List<HashableValue> getValues() {
+        if(! packed) return super.getValues();
+        return new AbstractList<HashableValue>() {
+            @Override
+            public HashableValue get(int index) {
+                return getValue(index);
+            }
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+    
+    private HashableValue getValue(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        long mask = 1L << index;
+        if((defined[index >>> 6] & mask) == 0) return null;
+        return HashableValueBoolean.valueOf((bits[index >>> 6] & mask) != 0);
+    }
+    
+    @Override
+    public void add(HashableValue value) {
+        set(packed ? size : values.size(), value);
+    }
+    
+    @Override
+    public void set(int index, HashableValue value) {
+        assert index >= 0;
+        if(packed && value != null && value.getClass() != HashableValueBoolean.class) {
+            unpack();
+        }
+        if(! packed) {
+            super.set(index, value);
+            return ;
+        }
+        HashableValue oldValue = index < size ? getValue(index) : null;
+        if(index >= size) {
+            ensureCapacity(index + 1);
+            size = index + 1;
+        }
+        int word = index >>> 6;
+        long mask = 1L << index;
+        if(value == null) {
+            defined[word] &= ~mask;
+            bits[word] &= ~mask;
+        }else {
+            defined[word] |= mask;
+            if(value.isAccepting()) bits[word] |= mask;
+            else bits[word] &= ~mask;
+        }
+        cellChanged(index, oldValue, value);
+    }
+    
+    @Override
+    public void clear() {
+        bits = EMPTY;
+        defined = EMPTY;
+        size = 0;
+        packed = true;
+        super.clear();
+    }
+    
+    private void ensureCapacity(int cells) {
+        int words = (cells + 63) >>> 6;
+        if(bits.length >= words) return ;
+        int length = Math.max(words, bits.length << 1);
+        long[] newBits = new long[length];
+        long[] newDefined = new long[length];
+        System.arraycopy(bits, 0, newBits, 0, bits.length);
+        System.arraycopy(defined, 0, newDefined, 0, defined.length);
+        bits = newBits;
+        defined = newDefined;
+    }
+    
+    // move the packed cells to the list of values, the signature stays the same
+    private void unpack() {
+        values.clear();
+        for(int index = 0; index < size; index ++) {
+            values.add(getValue(index));
+        }
+        bits = EMPTY;
+        defined = EMPTY;
+        size = 0;
+        packed = false;
+    }
+    
+    private boolean isPackedWith(ObservationRow other) {
+        return packed && other instanceof ObservationRowBoolean
+            && ((ObservationRowBoolean)other).packed;
+    }
+    
+    @Override
+    public boolean valuesEqual(ObservationRow other) {
+        if(! isPackedWith(other)) return super.valuesEqual(other);
+        ObservationRowBoolean row = (ObservationRowBoolean)other;
+        assert size == row.size;
+        if(getSignature() != row.getSignature()) return false;
+        int words = (size + 63) >>> 6;
+        for(int word = 0; word < words; word ++) {
+            if(bits[word] != row.bits[word]) return false;
+        }
+        return true;
+    }
+    
+    @Override
+    public int getFirstDifference(ObservationRow other) {
+        if(! isPackedWith(other)) return super.getFirstDifference(other);
+        ObservationRowBoolean row = (ObservationRowBoolean)other;
+        assert size == row.size;
+        int words = (size + 63) >>> 6;
+        for(int word = 0; word < words; word ++) {
+            long diff = bits[word] ^ row.bits[word];
+            if(diff != 0) return (word << 6) + Long.numberOfTrailingZeros(diff);
+        }
+        return -1;
+    }
+    
+    @Override
+    public boolean covers(ObservationRow other) {
+        if(! isPackedWith(other)) return super.covers(other);
+        ObservationRowBoolean row = (ObservationRowBoolean)other;
+        assert size == row.size;
+        int words = (size + 63) >>> 6;
+        for(int word = 0; word < words; word ++) {
+            if((row.bits[word] & ~bits[word]) != 0) return false;
+        }
+        return true;
+    }
+
+}
@@ -18,12 +18,18 @@ package roll.table;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import roll.words.Word;
 
 /**
  * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * Rows are indexed by their words and columns by their experiments, and the
+ * upper rows are grouped by their signatures, so that looking for a row or
+ * for an upper row with the same values is a hash lookup.
  * */
 public abstract class ObservationTableAbstract implements ObservationTable {
 
@@ -31,10 +37,19 @@ public abstract class ObservationTableAbstract implements ObservationTable {
 	protected final List<ObservationRow> lowerTable; // SA
 	protected final List<ExprValue> columns;    // E
 	
+	private final Map<Word, Integer> upperIndex;
+	private final Map<Word, ObservationRow> lowerIndex;
+	private final Map<ExprValue, Integer> columnIndex;
+	// signature -> indices of upper rows in increasing order, null if some row changed
+	private Map<Long, List<Integer>> upperClasses;
+	
 	protected ObservationTableAbstract() {
 		this.upperTable = new ArrayList<>();
 		this.lowerTable = new ArrayList<>();
 		this.columns = new ArrayList<>();
+		this.upperIndex = new HashMap<>();
+		this.lowerIndex = new HashMap<>();
+		this.columnIndex = new HashMap<>();
 	}
 	
 	@Override
@@ -69,39 +84,29 @@ public abstract class ObservationTableAbstract implements ObservationTable {
 		return result;
 	}
 	
-	private ObservationRow getTableRow(List<ObservationRow> rows, Word word) {
-		for(ObservationRow row : rows) {
-			if(row.getWord().equals(word)) return row;
-		}
-		return null;
-	}
-	
 	public ObservationRow getUpperTableRow(Word word) {
-		return getTableRow(getUpperTable(), word);
+		Integer index = upperIndex.get(word);
+		return index == null ? null : upperTable.get(index);
 	}
 	
 	public ObservationRow getLowerTableRow(Word word) {
-		return getTableRow(getLowerTable(), word);
+		return lowerIndex.get(word);
 	}
 	
 	public int getColumnIndex(ExprValue column) {
-		for(int index = 0; index < getColumns().size() ; index ++) {
-			if(getColumns().get(index).valueEqual(column)) return index;
-		}
-		return -1;
+		Integer index = columnIndex.get(column);
+		return index == null ? -1 : index;
 	}
 	
 	public boolean addUpperTableValue(Word state, ExprValue column, HashableValue value) {
-		return addTableValue(getUpperTable(), state, column, value);
+		return addTableValue(getUpperTableRow(state), column, value);
 	}
 	
 	public boolean addLowerTableValue(Word state, ExprValue column, HashableValue value) {
-		return addTableValue(getLowerTable(), state, column, value);
+		return addTableValue(getLowerTableRow(state), column, value);
 	}
 	
-	private boolean addTableValue(List<ObservationRow> rows, Word state
-			, ExprValue column, HashableValue value) {
-		ObservationRow row = getTableRow(rows, state);
+	private boolean addTableValue(ObservationRow row, ExprValue column, HashableValue value) {
 		if(row == null) return false;
 		int columnIndex = getColumnIndex(column);
 		if(columnIndex == -1) return false;
@@ -115,38 +120,91 @@ public abstract class ObservationTableAbstract implements ObservationTable {
 	}
 	
     public int getUpperTableRowIndex(Word word) {
-        for(int index = 0; index < getUpperTable().size(); index ++) {
-            ObservationRow upperRow = getUpperTable().get(index);
-            if(upperRow.getWord().equals(word)) {
-                return index;
-            }
+        Integer index = upperIndex.get(word);
+        if(index != null) {
+            return index;
         }
         // search in lower table
         ObservationRow lowerRow = getLowerTableRow(word);
         if(lowerRow == null) {
             return -1;
         }
-        for(int index = 0; index < getUpperTable().size(); index ++) {
-            ObservationRow upperRow = getUpperTable().get(index);
-            if(lowerRow.valuesEqual(upperRow)) {
+        return getEqualUpperRowIndex(lowerRow);
+    }
+    
+    /**
+     * get the index of the first upper row whose values equal to those of row,
+     * -1 if there is no such row
+     * */
+    public int getEqualUpperRowIndex(ObservationRow row) {
+        List<Integer> indices = getUpperClasses().get(row.getSignature());
+        if(indices == null) return -1;
+        for(final int index : indices) {
+            if(row.valuesEqual(upperTable.get(index))) {
                 return index;
             }
         }
         return -1;
     }
+    
+    // indices of the upper rows grouped by their signatures
+    protected Map<Long, List<Integer>> getUpperClasses() {
+        if(upperClasses == null) {
+            upperClasses = new HashMap<>();
+            for(int index = 0; index < upperTable.size(); index ++) {
+                long signature = upperTable.get(index).getSignature();
+                List<Integer> indices = upperClasses.get(signature);
+                if(indices == null) {
+                    indices = new ArrayList<>(1);
+                    upperClasses.put(signature, indices);
+                }
+                indices.add(index);
+            }
+        }
+        return upperClasses;
+    }
+    
+    // called by the rows of this table whenever their values changed
+    void rowChanged(ObservationRow row) {
+        if(upperClasses != null && getUpperTableRow(row.getWord()) == row) {
+            upperClasses = null;
+        }
+    }
+    
+    protected void insertUpperRow(ObservationRow row) {
+        upperIndex.putIfAbsent(row.getWord(), upperTable.size());
+        upperTable.add(row);
+        registerRow(row);
+    }
+    
+    protected void insertLowerRow(ObservationRow row) {
+        lowerTable.add(row);
+        lowerIndex.putIfAbsent(row.getWord(), row);
+        registerRow(row);
+    }
+    
+    private void registerRow(ObservationRow row) {
+        if(row instanceof ObservationRowAbstract) {
+            ((ObservationRowAbstract)row).setTable(this);
+        }
+        upperClasses = null;
+    }
 
 	@Override
 	public void moveRowFromLowerToUpper(ObservationRow row) {
 		lowerTable.remove(row);
+		lowerIndex.remove(row.getWord(), row);
+		upperIndex.putIfAbsent(row.getWord(), upperTable.size());
 		upperTable.add(row);
+		upperClasses = null;
 	}
 	
 	@Override
 	public int addColumn(ExprValue column) {
 		int index = columns.size();
 		columns.add(column);
-		assert columns.get(index).equals(column);
-		assert columns.indexOf(column) == index : "new column to be added: " + column;
+		assert !columnIndex.containsKey(column) : "new column to be added: " + column;
+		columnIndex.put(column, index);
 		return index;
 	}
 	
@@ -160,6 +218,10 @@ public abstract class ObservationTableAbstract implements ObservationTable {
 		}
 		this.lowerTable.clear();
 		this.columns.clear();
+		this.upperIndex.clear();
+		this.lowerIndex.clear();
+		this.columnIndex.clear();
+		this.upperClasses = null;
 	}
 	
 }
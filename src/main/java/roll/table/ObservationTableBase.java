@@ -33,15 +33,8 @@ public abstract class ObservationTableBase extends ObservationTableAbstract {
 	@Override
 	public ObservationRow getUnclosedLowerRow() {
 		for(ObservationRow lowerRow : lowerTable) {
-			boolean found = false;
 			// found equal upper row
-			for(ObservationRow upperRow : upperTable) {
-				if(lowerRow.valuesEqual(upperRow)) { 
-					found = true;
-					break;
-				}
-			}
-			if(!found) {
+			if(getEqualUpperRowIndex(lowerRow) == -1) {
 				return lowerRow;
 			}
 		}
@@ -69,14 +62,14 @@ public abstract class ObservationTableBase extends ObservationTableAbstract {
 	@Override
 	public ObservationRowBase addLowerRow(Word word) {
 		ObservationRowBase row = getRowInstance(word);
-		lowerTable.add(row);
+		insertLowerRow(row);
 		return row;
 	}
 
 	@Override
 	public ObservationRowBase addUpperRow(Word word) {
 		ObservationRowBase row = getRowInstance(word);
-		upperTable.add(row);
+		insertUpperRow(row);
 		return row;
 	}
 	
@@ -0,0 +1,609 @@
+/*
+ * Written by Yong Li (liyong@ios.ac.cn)
+ * This file is part of the Buchi.
+ *
+ * Buchi is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Buchi is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Buchi. If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package roll.util.sets;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Set of nonnegative integers which switches its representation by size:
+ * <ul>
+ * <li> a sorted int array while it has at most SMALL_LIMIT elements,
+ * <li> a dense long[] bitset while the elements occupy at least as many
+ *      words as the bitset needs to cover them,
+ * <li> otherwise only the nonzero 64-bit words, sorted by word index, in
+ *      the same spirit as the containers of Roaring bitmaps.
+ * </ul>
+ * Operands of other ISet implementations are accepted everywhere.
+ * */
+public class ISetAdaptive implements ISet {
+
+    // maximal number of elements in the sorted array
+    static final int SMALL_LIMIT = 32;
+
+    // sorted elements, only used when mWords == null
+    private int[] mElems;
+    // words of the bitset, dense when mKeys == null, otherwise mKeys[i] is
+    // the word index of mWords[i]
+    private long[] mWords;
+    private int[] mKeys;
+    // number of words in use
+    private int mWordNum;
+    // number of elements in all representations
+    private int mSize;
+
+    public ISetAdaptive() {
+        mElems = new int[4];
+    }
+
+    private boolean isSmall() {
+        return mWords == null;
+    }
+
+    private int keyAt(int index) {
+        return mKeys == null ? index : mKeys[index];
+    }
+
+    // position of word key in mWords, negative if absent
+    private int indexOf(int key) {
+        if(mKeys == null) {
+            return key < mWordNum ? key : -1;
+        }
+        return Arrays.binarySearch(mKeys, 0, mWordNum, key);
+    }
+
+    private long wordOf(int key) {
+        int index = indexOf(key);
+        return index < 0 ? 0 : mWords[index];
+    }
+
+    @Override
+    public ISet clone() {
+        ISetAdaptive copy = new ISetAdaptive();
+        copy.mElems = mElems == null ? null : mElems.clone();
+        copy.mWords = mWords == null ? null : mWords.clone();
+        copy.mKeys = mKeys == null ? null : mKeys.clone();
+        copy.mWordNum = mWordNum;
+        copy.mSize = mSize;
+        return copy;
+    }
+
+    private static ISetAdaptive toAdaptive(ISet set) {
+        if(set instanceof ISetAdaptive) {
+            return (ISetAdaptive)set;
+        }
+        ISetAdaptive result = new ISetAdaptive();
+        for(final int elem : set) {
+            result.set(elem);
+        }
+        return result;
+    }
+
+    @Override
+    public void andNot(ISet set) {
+        if(set == this) {
+            clear();
+            return;
+        }
+        if(mSize == 0 || set.isEmpty()) {
+            return;
+        }
+        if(isSmall()) {
+            int num = 0;
+            for(int i = 0; i < mSize; i ++) {
+                if(! set.get(mElems[i])) {
+                    mElems[num ++] = mElems[i];
+                }
+            }
+            mSize = num;
+            return;
+        }
+        ISetAdaptive other = toAdaptive(set);
+        if(other.isSmall()) {
+            for(int i = 0; i < other.mSize; i ++) {
+                clear(other.mElems[i]);
+            }
+            return;
+        }
+        for(int i = 0; i < mWordNum; i ++) {
+            mWords[i] &= ~ other.wordOf(keyAt(i));
+        }
+        normalize();
+    }
+
+    @Override
+    public void and(ISet set) {
+        if(set == this || mSize == 0) {
+            return;
+        }
+        if(isSmall()) {
+            int num = 0;
+            for(int i = 0; i < mSize; i ++) {
+                if(set.get(mElems[i])) {
+                    mElems[num ++] = mElems[i];
+                }
+            }
+            mSize = num;
+            return;
+        }
+        ISetAdaptive other = toAdaptive(set);
+        if(other.isSmall()) {
+            // the result is a subset of the small operand
+            int[] elems = new int[Math.max(4, other.mSize)];
+            int num = 0;
+            for(int i = 0; i < other.mSize; i ++) {
+                if(get(other.mElems[i])) {
+                    elems[num ++] = other.mElems[i];
+                }
+            }
+            setSmall(elems, num);
+            return;
+        }
+        for(int i = 0; i < mWordNum; i ++) {
+            mWords[i] &= other.wordOf(keyAt(i));
+        }
+        normalize();
+    }
+
+    @Override
+    public void or(ISet set) {
+        if(set == this || set.isEmpty()) {
+            return;
+        }
+        ISetAdaptive other = toAdaptive(set);
+        if(other.isSmall()) {
+            for(int i = 0; i < other.mSize; i ++) {
+                set(other.mElems[i]);
+            }
+            return;
+        }
+        if(isSmall()) {
+            int[] elems = mElems;
+            int num = mSize;
+            mElems = null;
+            mWords = Arrays.copyOf(other.mWords, other.mWordNum);
+            mKeys = other.mKeys == null ? null : Arrays.copyOf(other.mKeys, other.mWordNum);
+            mWordNum = other.mWordNum;
+            mSize = other.mSize;
+            for(int i = 0; i < num; i ++) {
+                set(elems[i]);
+            }
+            return;
+        }
+        if(mKeys == null && other.mKeys == null) {
+            if(other.mWordNum > mWords.length) {
+                mWords = Arrays.copyOf(mWords, other.mWordNum);
+            }
+            for(int i = 0; i < other.mWordNum; i ++) {
+                mWords[i] |= other.mWords[i];
+            }
+            mWordNum = Math.max(mWordNum, other.mWordNum);
+            normalize();
+            return;
+        }
+        // merge the word indices of both operands
+        int[] keys = new int[mWordNum + other.mWordNum];
+        long[] words = new long[keys.length];
+        int num = 0, fst = 0, snd = 0;
+        while(fst < mWordNum || snd < other.mWordNum) {
+            int fstKey = fst < mWordNum ? keyAt(fst) : Integer.MAX_VALUE;
+            int sndKey = snd < other.mWordNum ? other.keyAt(snd) : Integer.MAX_VALUE;
+            long word = 0;
+            if(fstKey <= sndKey) {
+                word |= mWords[fst ++];
+            }
+            if(sndKey <= fstKey) {
+                word |= other.mWords[snd ++];
+            }
+            if(word != 0) {
+                keys[num] = Math.min(fstKey, sndKey);
+                words[num] = word;
+                num ++;
+            }
+        }
+        mKeys = keys;
+        mWords = words;
+        mWordNum = num;
+        normalize();
+    }
+
+    @Override
+    public boolean get(int value) {
+        if(value < 0) {
+            return false;
+        }
+        if(isSmall()) {
+            return Arrays.binarySearch(mElems, 0, mSize, value) >= 0;
+        }
+        return (wordOf(value >>> 6) & (1L << value)) != 0;
+    }
+
+    @Override
+    public void set(int value) {
+        if(value < 0) {
+            throw new IndexOutOfBoundsException("value < 0: " + value);
+        }
+        if(isSmall()) {
+            int index = Arrays.binarySearch(mElems, 0, mSize, value);
+            if(index >= 0) {
+                return;
+            }
+            if(mSize < SMALL_LIMIT) {
+                index = - index - 1;
+                if(mSize == mElems.length) {
+                    mElems = Arrays.copyOf(mElems, Math.min(SMALL_LIMIT, 2 * mSize));
+                }
+                System.arraycopy(mElems, index, mElems, index + 1, mSize - index);
+                mElems[index] = value;
+                mSize ++;
+                return;
+            }
+            toWords();
+        }
+        final int key = value >>> 6;
+        final long bit = 1L << value;
+        if(mKeys == null && key >= mWordNum && key > mSize) {
+            toSparse();
+        }
+        if(mKeys == null) {
+            if(key >= mWordNum) {
+                if(key >= mWords.length) {
+                    mWords = Arrays.copyOf(mWords, Math.max(key + 1, 2 * mWords.length));
+                }
+                mWordNum = key + 1;
+            }
+            if((mWords[key] & bit) == 0) {
+                mWords[key] |= bit;
+                mSize ++;
+            }
+            return;
+        }
+        int index = Arrays.binarySearch(mKeys, 0, mWordNum, key);
+        if(index >= 0) {
+            if((mWords[index] & bit) == 0) {
+                mWords[index] |= bit;
+                mSize ++;
+            }
+            return;
+        }
+        index = - index - 1;
+        if(mWordNum == mKeys.length) {
+            mKeys = Arrays.copyOf(mKeys, 2 * mWordNum);
+            mWords = Arrays.copyOf(mWords, 2 * mWordNum);
+        }
+        System.arraycopy(mKeys, index, mKeys, index + 1, mWordNum - index);
+        System.arraycopy(mWords, index, mWords, index + 1, mWordNum - index);
+        mKeys[index] = key;
+        mWords[index] = bit;
+        mWordNum ++;
+        mSize ++;
+        if(mKeys[mWordNum - 1] < mSize) {
+            toDense();
+        }
+    }
+
+    @Override
+    public void clear(int value) {
+        if(value < 0) {
+            return;
+        }
+        if(isSmall()) {
+            int index = Arrays.binarySearch(mElems, 0, mSize, value);
+            if(index >= 0) {
+                System.arraycopy(mElems, index + 1, mElems, index, mSize - index - 1);
+                mSize --;
+            }
+            return;
+        }
+        final long bit = 1L << value;
+        int index = indexOf(value >>> 6);
+        if(index < 0 || (mWords[index] & bit) == 0) {
+            return;
+        }
+        mWords[index] &= ~bit;
+        mSize --;
+        if(mKeys != null && mWords[index] == 0) {
+            System.arraycopy(mKeys, index + 1, mKeys, index, mWordNum - index - 1);
+            System.arraycopy(mWords, index + 1, mWords, index, mWordNum - index - 1);
+            mWordNum --;
+        }
+        // go back to the array a bit later than leaving it
+        if(mSize <= SMALL_LIMIT / 2) {
+            toSmall();
+        }
+    }
+
+    @Override
+    public void clear() {
+        if(! isSmall()) {
+            setSmall(new int[4], 0);
+        }
+        mSize = 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    @Override
+    public int cardinality() {
+        return mSize;
+    }
+
+    @Override
+    public boolean overlap(ISet set) {
+        if(isSmall()) {
+            for(int i = 0; i < mSize; i ++) {
+                if(set.get(mElems[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if(! (set instanceof ISetAdaptive) || ((ISetAdaptive)set).isSmall()) {
+            for(final int elem : set) {
+                if(get(elem)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        ISetAdaptive other = (ISetAdaptive)set;
+        for(int i = 0; i < mWordNum; i ++) {
+            if((mWords[i] & other.wordOf(keyAt(i))) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean subsetOf(ISet set) {
+        if(mSize > set.cardinality()) {
+            return false;
+        }
+        if(isSmall()) {
+            for(int i = 0; i < mSize; i ++) {
+                if(! set.get(mElems[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if(! (set instanceof ISetAdaptive) || ((ISetAdaptive)set).isSmall()) {
+            for(final int elem : this) {
+                if(! set.get(elem)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        ISetAdaptive other = (ISetAdaptive)set;
+        for(int i = 0; i < mWordNum; i ++) {
+            if((mWords[i] & ~ other.wordOf(keyAt(i))) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contentEq(ISet set) {
+        return mSize == set.cardinality() && subsetOf(set);
+    }
+
+    @Override
+    public Object get() {
+        return this;
+    }
+
+    private void setSmall(int[] elems, int num) {
+        mElems = elems;
+        mWords = null;
+        mKeys = null;
+        mWordNum = 0;
+        mSize = num;
+    }
+
+    // from the sorted array to words, the array is not empty
+    private void toWords() {
+        final int maxKey = mElems[mSize - 1] >>> 6;
+        if(maxKey < mSize) {
+            mWords = new long[maxKey + 1];
+            for(int i = 0; i < mSize; i ++) {
+                mWords[mElems[i] >>> 6] |= 1L << mElems[i];
+            }
+            mWordNum = maxKey + 1;
+        }else {
+            mKeys = new int[mSize];
+            mWords = new long[mSize];
+            int num = 0;
+            for(int i = 0; i < mSize; i ++) {
+                int key = mElems[i] >>> 6;
+                if(num == 0 || mKeys[num - 1] != key) {
+                    mKeys[num ++] = key;
+                }
+                mWords[num - 1] |= 1L << mElems[i];
+            }
+            mWordNum = num;
+        }
+        mElems = null;
+    }
+
+    private void toSmall() {
+        int[] elems = new int[Math.max(4, mSize)];
+        int num = 0;
+        for(int i = 0; i < mWordNum; i ++) {
+            long word = mWords[i];
+            final int base = keyAt(i) << 6;
+            while(word != 0) {
+                elems[num ++] = base + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        setSmall(elems, num);
+    }
+
+    private void toSparse() {
+        int num = 0;
+        for(int i = 0; i < mWordNum; i ++) {
+            if(mWords[i] != 0) {
+                num ++;
+            }
+        }
+        int[] keys = new int[Math.max(4, num)];
+        long[] words = new long[keys.length];
+        num = 0;
+        for(int i = 0; i < mWordNum; i ++) {
+            if(mWords[i] != 0) {
+                keys[num] = i;
+                words[num] = mWords[i];
+                num ++;
+            }
+        }
+        mKeys = keys;
+        mWords = words;
+        mWordNum = num;
+    }
+
+    private void toDense() {
+        final int maxKey = mKeys[mWordNum - 1];
+        long[] words = new long[maxKey + 1];
+        for(int i = 0; i < mWordNum; i ++) {
+            words[mKeys[i]] = mWords[i];
+        }
+        mKeys = null;
+        mWords = words;
+        mWordNum = maxKey + 1;
+    }
+
+    // recount the elements and choose the representation after word operations
+    private void normalize() {
+        int num = 0;
+        mSize = 0;
+        for(int i = 0; i < mWordNum; i ++) {
+            if(mWords[i] == 0) {
+                continue;
+            }
+            mSize += Long.bitCount(mWords[i]);
+            if(mKeys == null) {
+                num = i + 1;
+            }else {
+                mKeys[num] = mKeys[i];
+                mWords[num] = mWords[i];
+                num ++;
+            }
+        }
+        mWordNum = num;
+        if(mSize <= SMALL_LIMIT) {
+            toSmall();
+            return;
+        }
+        final int maxKey = keyAt(mWordNum - 1);
+        if(mKeys == null && maxKey >= mSize) {
+            toSparse();
+        }else if(mKeys != null && maxKey < mSize) {
+            toDense();
+        }
+    }
+
+    private static class AdaptiveIterator implements Iterator<Integer> {
+
+        private final int[] elems;
+        private final long[] words;
+        private final int[] keys;
+        private final int num;
+        private int index;
+        private long word;
+        private int base;
+
+        AdaptiveIterator(ISetAdaptive set) {
+            elems = set.mElems;
+            words = set.mWords;
+            keys = set.mKeys;
+            num = words == null ? set.mSize : set.mWordNum;
+            if(words != null) {
+                index = -1;
+                advance();
+            }
+        }
+
+        private void advance() {
+            while(word == 0 && ++ index < num) {
+                word = words[index];
+                base = (keys == null ? index : keys[index]) << 6;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return words == null ? index < num : word != 0;
+        }
+
+        @Override
+        public Integer next() {
+            if(! hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if(words == null) {
+                return elems[index ++];
+            }
+            int value = base + Long.numberOfTrailingZeros(word);
+            word &= word - 1;
+            advance();
+            return value;
+        }
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new AdaptiveIterator(this);
+    }
+
+    public boolean equals(Object obj) {
+        if(! (obj instanceof ISet)) {
+            return false;
+        }
+        return this.contentEq((ISet)obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return UtilISet.hashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        boolean first = true;
+        for(final int n : this) {
+            if(! first) {
+                builder.append(", ");
+            }
+            builder.append(n);
+            first = false;
+        }
+        builder.append("]");
+        return builder.toString();
+    }
+
+}
@@ -44,7 +44,8 @@ public class ISetBits implements ISet {
 	@Override
 	public void andNot(ISet set) {
 		if(! (set instanceof ISetBits)) {
-		    throw new UnsupportedOperationException("OPERAND should be BitSet");
+		    UtilISet.andNot(this, set);
+		    return;
 		}
 		BitSet bits = (BitSet) set.get();
 		this.mSet.andNot(bits);
@@ -53,7 +54,8 @@ public class ISetBits implements ISet {
 	@Override
 	public void and(ISet set) {
 		if(! (set instanceof ISetBits)) {
-		    throw new UnsupportedOperationException("OPERAND should be BitSet");
+		    UtilISet.and(this, set);
+		    return;
 		}
 		BitSet bits = (BitSet) set.get();
 		this.mSet.and(bits);
@@ -62,7 +64,8 @@ public class ISetBits implements ISet {
 	@Override
 	public void or(ISet set) {
 		if(! (set instanceof ISetBits)) {
-			throw new UnsupportedOperationException("OPERAND should be BitSet");
+			UtilISet.or(this, set);
+			return;
 		}
 		BitSet bits = (BitSet) set.get();
 		this.mSet.or(bits);		
@@ -101,7 +104,7 @@ public class ISetBits implements ISet {
 	@Override
 	public boolean overlap(ISet set) {
 		if(! (set instanceof ISetBits)) {
-		    throw new UnsupportedOperationException("OPERAND should be BitSet");
+		    return ISet.super.overlap(set);
 		}
 		ISetBits temp = (ISetBits) set;
 		return temp.mSet.intersects(this.mSet);
@@ -111,7 +114,7 @@ public class ISetBits implements ISet {
 	@Override
 	public boolean subsetOf(ISet set) {
 		if(! (set instanceof ISetBits)) {
-		    throw new UnsupportedOperationException("OPERAND should be BitSet");
+		    return UtilISet.subsetOf(this, set);
 		}
 		BitSet temp = (BitSet) this.mSet.clone();
 		BitSet bits = (BitSet) set.get();
@@ -122,7 +125,7 @@ public class ISetBits implements ISet {
 	@Override
 	public boolean contentEq(ISet set) {
 		if(! (set instanceof ISetBits)) {
-			throw new UnsupportedOperationException("OPERAND should be BitSet");
+			return UtilISet.contentEq(this, set);
 		}
 		BitSet bits = (BitSet) set.get();
 		return this.mSet.equals(bits);
@@ -139,10 +142,10 @@ public class ISetBits implements ISet {
 	}
 	
 	public boolean equals(Object obj) {
-		if(! (obj instanceof ISetBits)) {
-		    throw new UnsupportedOperationException("OPERAND should be BitSet");
+		if(! (obj instanceof ISet)) {
+		    return false;
 		}
-		ISetBits bits = (ISetBits)obj;
+		ISet bits = (ISet)obj;
 		return this.contentEq(bits);
 	}
 	
@@ -174,14 +177,7 @@ public class ISetBits implements ISet {
     
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        Iterator<Integer> iter = this.iterator();
-        while(iter.hasNext()) {
-            int n = iter.next();
-            result = prime * result + n;
-        }
-        return result;
+        return UtilISet.hashCode(this);
     }
 
 }
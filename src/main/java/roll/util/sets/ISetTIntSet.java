@@ -51,7 +51,8 @@ public class ISetTIntSet implements ISet {
 	@Override
 	public void andNot(ISet set) {
 		if(! (set instanceof ISetTIntSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TIntSet");
+		    UtilISet.andNot(this, set);
+		    return;
 		}
 		ISetTIntSet temp = (ISetTIntSet)set;
 		this.mSet.removeAll(temp.mSet);
@@ -60,7 +61,8 @@ public class ISetTIntSet implements ISet {
 	@Override
 	public void and(ISet set) {
 		if(! (set instanceof ISetTIntSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TIntSet");
+		    UtilISet.and(this, set);
+		    return;
 		}
 		ISetTIntSet temp = (ISetTIntSet)set;
 		this.mSet.retainAll(temp.mSet);
@@ -69,7 +71,8 @@ public class ISetTIntSet implements ISet {
 	@Override
 	public void or(ISet set) {
 		if(! (set instanceof ISetTIntSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TIntSet");
+		    UtilISet.or(this, set);
+		    return;
 		}
 		ISetTIntSet temp = (ISetTIntSet)set;
 		this.mSet.addAll(temp.mSet);
@@ -113,7 +116,7 @@ public class ISetTIntSet implements ISet {
 	@Override
 	public boolean subsetOf(ISet set) {
 		if(! (set instanceof ISetTIntSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TIntSet");
+		    return UtilISet.subsetOf(this, set);
 		}
 		ISetTIntSet temp = (ISetTIntSet)set;
 		return temp.mSet.containsAll(this.mSet);
@@ -122,7 +125,7 @@ public class ISetTIntSet implements ISet {
 	@Override
 	public boolean contentEq(ISet set) {
 		if(! (set instanceof ISetTIntSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TIntSet");
+		    return UtilISet.contentEq(this, set);
 		}
 		ISetTIntSet temp = (ISetTIntSet)set;
 		return this.mSet.equals(temp.mSet);
@@ -134,10 +137,10 @@ public class ISetTIntSet implements ISet {
 	}
 	
 	public boolean equals(Object obj) {
-		if(! (obj instanceof ISetTIntSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TIntSet");
+		if(! (obj instanceof ISet)) {
+		    return false;
 		}
-		ISetTIntSet temp = (ISetTIntSet)obj;
+		ISet temp = (ISet)obj;
 		return this.contentEq(temp);
 	}
 	
@@ -166,14 +169,7 @@ public class ISetTIntSet implements ISet {
 	
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        Iterator<Integer> iter = this.iterator();
-        while(iter.hasNext()) {
-            int n = iter.next();
-            result = prime * result + n;
-        }
-        return result;
+        return UtilISet.hashCode(this);
     }
 
 }
@@ -28,6 +28,7 @@ public class ISetTest {
 		ISetBits bits = new ISetBits();	
 		ISetTIntSet tISets = new ISetTIntSet();
 		ISetTreeSet treeSets = new ISetTreeSet();
+		ISetAdaptive adaptive = new ISetAdaptive();
 		
 		int num = 9100_000;
 		
@@ -37,6 +38,7 @@ public class ISetTest {
 				bits.set(i);
 				tISets.set(i);
 				treeSets.set(i);
+				adaptive.set(i);
 			}
 		}
 		
@@ -62,6 +64,17 @@ public class ISetTest {
 		cpt.set(7000_000 - 1);
 		testEq(treeSets, cpt);
 		testSubset(treeSets, cpt);
+		
+		System.out.println("test Adaptive");
+		testIterator(adaptive);
+		ISetAdaptive cpa = (ISetAdaptive) adaptive.clone();
+		cpa.set(7000_000 - 1);
+		testEq(adaptive, cpa);
+		testSubset(adaptive, cpa);
+		testEq(adaptive, bits);
+		testSubset(adaptive, treeSets);
+		System.out.println("same hash = " + (adaptive.hashCode() == bits.hashCode()
+		        && bits.hashCode() == tISets.hashCode() && tISets.hashCode() == treeSets.hashCode()));
 	}
 	
 	private static void testIterator(ISet set) {
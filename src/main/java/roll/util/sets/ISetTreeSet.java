@@ -45,7 +45,8 @@ public class ISetTreeSet implements ISet {
 	@Override
 	public void andNot(ISet set) {
 		if(! (set instanceof ISetTreeSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TreeSet");
+		    UtilISet.andNot(this, set);
+		    return;
 		}
 		ISetTreeSet temp = (ISetTreeSet)set;
 		this.mSet.removeAll(temp.mSet);
@@ -54,7 +55,8 @@ public class ISetTreeSet implements ISet {
 	@Override
 	public void and(ISet set) {
 		if(! (set instanceof ISetTreeSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TreeSet");
+		    UtilISet.and(this, set);
+		    return;
 		}
 		ISetTreeSet temp = (ISetTreeSet)set;
 		this.mSet.retainAll(temp.mSet);
@@ -63,7 +65,8 @@ public class ISetTreeSet implements ISet {
 	@Override
 	public void or(ISet set) {
 		if(! (set instanceof ISetTreeSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TreeSet");
+		    UtilISet.or(this, set);
+		    return;
 		}
 		ISetTreeSet temp = (ISetTreeSet)set;
 		this.mSet.addAll(temp.mSet);
@@ -107,7 +110,7 @@ public class ISetTreeSet implements ISet {
 	@Override
 	public boolean subsetOf(ISet set) {
 		if(! (set instanceof ISetTreeSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TreeSet, but it is " + set.getClass());
+		    return UtilISet.subsetOf(this, set);
 		}
 		ISetTreeSet temp = (ISetTreeSet)set;
 		return temp.mSet.containsAll(this.mSet);
@@ -116,7 +119,7 @@ public class ISetTreeSet implements ISet {
 	@Override
 	public boolean contentEq(ISet set) {
 		if(! (set instanceof ISetTreeSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TreeSet");
+		    return UtilISet.contentEq(this, set);
 		}
 		ISetTreeSet temp = (ISetTreeSet)set;
 		return this.mSet.equals(temp.mSet);
@@ -128,10 +131,10 @@ public class ISetTreeSet implements ISet {
 	}
 	
 	public boolean equals(Object obj) {
-		if(! (obj instanceof ISetTreeSet)) {
-		    throw new UnsupportedOperationException("OPERAND should be TreeSet");
+		if(! (obj instanceof ISet)) {
+		    return false;
 		}
-		ISetTreeSet temp = (ISetTreeSet)obj;
+		ISet temp = (ISet)obj;
 		return this.contentEq(temp);
 	}
 
@@ -142,11 +145,6 @@ public class ISetTreeSet implements ISet {
     
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        for(int n : mSet) {
-            result = prime * result + n;
-        }
-        return result;
+        return UtilISet.hashCode(this);
     }
 }
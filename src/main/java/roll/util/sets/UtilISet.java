@@ -22,13 +22,95 @@ package roll.util.sets;
 import java.util.Iterator;
 import java.util.TreeSet;
 
+import gnu.trove.list.array.TIntArrayList;
+
 public class UtilISet {
     private UtilISet() {
         
     }
     
+    public static enum SetType {
+        ADAPTIVE,
+        BITS,
+        TINTSET,
+        TREESET
+    }
+    
+    // implementation returned by newISet(), chosen once before any set is created
+    private static SetType setType = SetType.ADAPTIVE;
+    
+    public static void setType(SetType type) {
+        setType = type;
+    }
+    
+    public static SetType getType() {
+        return setType;
+    }
+    
     public static ISet newISet() {
-        return new ISetTreeSet();
+        switch(setType) {
+        case BITS:
+            return new ISetBits();
+        case TINTSET:
+            return new ISetTIntSet();
+        case TREESET:
+            return new ISetTreeSet();
+        default:
+            return new ISetAdaptive();
+        }
+    }
+    
+    // element-wise fallbacks for operands of a different implementation
+    static void or(ISet target, ISet set) {
+        for(final int elem : set) {
+            target.set(elem);
+        }
+    }
+    
+    static void and(ISet target, ISet set) {
+        TIntArrayList removed = new TIntArrayList();
+        for(final int elem : target) {
+            if(! set.get(elem)) {
+                removed.add(elem);
+            }
+        }
+        for(int i = 0; i < removed.size(); i ++) {
+            target.clear(removed.get(i));
+        }
+    }
+    
+    static void andNot(ISet target, ISet set) {
+        for(final int elem : set) {
+            target.clear(elem);
+        }
+    }
+    
+    static boolean subsetOf(ISet subset, ISet set) {
+        if(subset.cardinality() > set.cardinality()) {
+            return false;
+        }
+        for(final int elem : subset) {
+            if(! set.get(elem)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    static boolean contentEq(ISet fst, ISet snd) {
+        return fst.cardinality() == snd.cardinality() && subsetOf(fst, snd);
+    }
+    
+    // sum over the elements, so it does not depend on the order of iteration and
+    // equal sets of different implementations have the same hash code
+    static int hashCode(ISet set) {
+        int result = 0;
+        for(final int elem : set) {
+            // spread the bits, otherwise small sets of small numbers collide a lot
+            int hash = elem * 0x9E3779B9;
+            result += hash ^ (hash >>> 16);
+        }
+        return result;
     }
     
     public static ISet toISet(TreeSet<Integer> set) {
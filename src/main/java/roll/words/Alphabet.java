@@ -36,11 +36,13 @@ import roll.util.Pair;
 public final class Alphabet {
 	
 	private final Word epsilon;
+	private final WordNode root;  // trie of the interned words
 	private final LetterList letterList;
 	public static final Character DOLLAR = '$';
 	
 	public Alphabet() {
 		this.epsilon = new WordEmpty(this);
+		this.root = new WordNode(this);
 		this.letterList = new LetterListSimple();
 	}
 	
@@ -65,7 +67,18 @@ public final class Alphabet {
 	}
 	
 	public Word getLetterWord(int letter) {
-		return new WordLetter(this, letter);
+		return root.getChild(letter);
+	}
+	
+	WordNode getWordRoot() {
+	    return root;
+	}
+	
+	// get the unique word in the trie with the same letters as word
+	public Word intern(Word word) {
+	    if(word.isEmpty()) return epsilon;
+	    if(word instanceof WordNode && word.getAlphabet() == this) return word;
+	    return root.getDescendant(word, 0, word.length());
 	}
 	
 	public Word getArrayWord(int ... word) {
@@ -68,34 +68,17 @@ abstract class WordAbstract implements Word {
 		return new WordArray(alphabet, letters, offset, length);
 	}
 
+	// the result of concatenation is always an interned word
 	@Override
 	public Word concat(Word word) {
 		if(word.isEmpty()) return this;
 		if(isEmpty()) return word;
-		int length = this.length() + word.length();
-		int[] data = new int[length];
-		write(0, data, 0, this.length());
-		word.write(0, data, this.length(), word.length());
-		return new WordArray(alphabet, data);
+		return alphabet.getWordRoot().getDescendant(this, 0, length()).concat(word);
 	}
 
 	@Override
 	public Word concat(Word... words) {
-				
-		int length = this.length();
-		for(Word word : words) {
-			length += word.length();
-		}
-		int[] data = new int[length];
-		int offsetArr = this.length();
-		write(0, data, 0, this.length());
-		for(Word word : words) {
-			word.write(0, data, offsetArr, word.length());
-			offsetArr += word.length();
-		}
-		if(length == 0) return getEmptyWord();
-		if(length == 1) return getLetterWord(data[0]);
-		return new WordArray(alphabet, data);
+		return alphabet.getWordRoot().getDescendant(this, 0, length()).concat(words);
 	}
 	
 	@Override
@@ -107,6 +90,7 @@ abstract class WordAbstract implements Word {
 		Word word = (WordAbstract)o;
 		
 		if(length() != word.length()) return false;
+		if(hashCode() != word.hashCode()) return false;
 		for(int letterNr = 0; letterNr < length(); letterNr ++) {
 			if(getLetter(letterNr) != word.getLetter(letterNr)) 
 				return false;
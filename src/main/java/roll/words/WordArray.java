@@ -28,6 +28,7 @@ class WordArray extends WordAbstract {
 	private final int[] elementData;
 	private int offset;
 	private int length; // exclusive
+	private int hash;   // 0 if not computed yet
 	
 	
 	WordArray(Alphabet context, int[] data) {
@@ -106,32 +107,25 @@ class WordArray extends WordAbstract {
 		return new WordArray(alphabet, elementData, startIndex + offset, length - startIndex);
 	}
 
+	// new words are interned, later appends are then O(1)
 	@Override
 	public Word append(int letter) {
-		int newLength = length + 1; 
-		int candidateIndex = offset + length; 
-		if(candidateIndex < elementData.length && elementData[candidateIndex] == letter) { 
-			return new WordArray(alphabet, elementData, offset, newLength);
-		}
-		// get new array
-		int[] newElementData = new int[newLength];
-		write(0, newElementData, 0, length);
-		newElementData[length] = letter;
-		return new WordArray(alphabet, newElementData);
+		return alphabet.intern(this).append(letter);
 	}
 
 	@Override
 	public Word preappend(int letter) {
-		int candidateIndex = offset - 1; 
-		int newLength = length + 1;
-		if(candidateIndex >= 0 && elementData[candidateIndex] == letter) { 
-			return new WordArray(alphabet, elementData, candidateIndex, newLength);
+		return alphabet.getLetterWord(letter).concat(this);
+	}
+	
+	@Override
+	public int hashCode() {
+		int h = hash;
+		if(h == 0) {
+			h = super.hashCode();
+			hash = h;
 		}
-		// get new array
-		int[] newElementData = new int[newLength];
-		write(0, newElementData, 1, length);
-		newElementData[0] = letter;
-		return new WordArray(alphabet, newElementData);
+		return h;
 	}
 
 	@Override
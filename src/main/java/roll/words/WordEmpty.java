@@ -70,12 +70,17 @@ class WordEmpty extends WordAbstract {
 
 	@Override
 	public Word append(int letter) {
-		return new WordLetter(alphabet, letter);
+		return alphabet.getLetterWord(letter);
 	}
 
 	@Override
 	public Word preappend(int letter) {
-		return new WordLetter(alphabet, letter);
+		return alphabet.getLetterWord(letter);
+	}
+	
+	@Override
+	public int hashCode() {
+		return 1;
 	}
 
 	@Override
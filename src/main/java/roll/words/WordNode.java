@@ -0,0 +1,273 @@
+/* Copyright (c) 2016, 2017                                               */
+/*       Institute of Software, Chinese Academy of Sciences               */
+/* This file is part of ROLL, a Regular Omega Language Learning library.  */
+/* ROLL is free software: you can redistribute it and/or modify           */
+/* it under the terms of the GNU General Public License as published by   */
+/* the Free Software Foundation, either version 3 of the License, or      */
+/* (at your option) any later version.                                    */
+
+/* This program is distributed in the hope that it will be useful,        */
+/* but WITHOUT ANY WARRANTY; without even the implied warranty of         */
+/* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the          */
+/* GNU General Public License for more details.                           */
+
+/* You should have received a copy of the GNU General Public License      */
+/* along with this program.  If not, see <http://www.gnu.org/licenses/>.  */
+
+package roll.words;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+
+/**
+ * @author Yong Li (liyong@ios.ac.cn)
+ * 
+ * Word interned in the trie of its alphabet, every word u has exactly one node,
+ * so two nodes of the same alphabet are equal if and only if they are the
+ * same object. A node keeps its hash code and a pointer to its longest proper
+ * prefix, the letters are stored in an array which is shared along a chain
+ * of appends.
+ * <br>
+ * Children are only weakly referenced, nodes which are no longer used by any
+ * word will be collected.
+ * */
+final class WordNode extends WordAbstract {
+    
+    private final WordNode parent;  // null for the root
+    private final int length;
+    private final int hash;
+    private final Buffer buffer;    // letters are buffer.data[0 .. length)
+    private WeakReference<WordNode>[] children; // guarded by this
+    
+    // root of the trie, i.e., the empty word
+    WordNode(Alphabet alphabet) {
+        super(alphabet);
+        this.parent = null;
+        this.length = 0;
+        this.hash = 1;
+        this.buffer = new Buffer(8);
+    }
+    
+    private WordNode(WordNode parent, int letter) {
+        super(parent.alphabet);
+        this.parent = parent;
+        this.length = parent.length + 1;
+        this.hash = 31 * parent.hash + letter;
+        Buffer buf = parent.buffer;
+        boolean shared = false;
+        synchronized(buf) {
+            // extend the array of the parent if nobody took that slot
+            if(buf.used == parent.length && parent.length < buf.data.length) {
+                buf.data[parent.length] = letter;
+                buf.used = length;
+                shared = true;
+            }
+        }
+        if(! shared) {
+            buf = new Buffer(Math.max(8, length << 1));
+            System.arraycopy(parent.buffer.data, 0, buf.data, 0, parent.length);
+            buf.data[parent.length] = letter;
+            buf.used = length;
+        }
+        this.buffer = buf;
+    }
+    
+    @SuppressWarnings("unchecked")
+    synchronized WordNode getChild(int letter) {
+        assert letter >= 0;
+        if(children == null || letter >= children.length) {
+            int size = Math.max(letter + 1, alphabet.getLetterSize());
+            WeakReference<WordNode>[] newChildren = new WeakReference[size];
+            if(children != null) {
+                System.arraycopy(children, 0, newChildren, 0, children.length);
+            }
+            children = newChildren;
+        }
+        WeakReference<WordNode> ref = children[letter];
+        WordNode child = ref == null ? null : ref.get();
+        if(child == null) {
+            child = new WordNode(this, letter);
+            children[letter] = new WeakReference<>(child);
+        }
+        return child;
+    }
+    
+    // get the node of word[offset .. offset + len) under this node
+    WordNode getDescendant(Word word, int offset, int len) {
+        WordNode node = this;
+        for(int index = offset; index < offset + len; index ++) {
+            node = node.getChild(word.getLetter(index));
+        }
+        return node;
+    }
+    
+    private Word toWord(WordNode node) {
+        return node.length == 0 ? alphabet.getEmptyWord() : node;
+    }
+    
+    private WordNode getRoot() {
+        return alphabet.getWordRoot();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return length == 0;
+    }
+    
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public int getLetter(int index) {
+        assert index >= 0 && index < length : index + " : " + length;
+        return buffer.data[index];
+    }
+    
+    @Override
+    public void write(int offsetWord, int[] letters, int offsetArr, int len) {
+        assert offsetWord >= 0 && offsetWord + len <= length;
+        System.arraycopy(buffer.data, offsetWord, letters, offsetArr, len);
+    }
+    
+    @Override
+    public int getFirstLetter() {
+        return buffer.data[0];
+    }
+
+    @Override
+    public int getLastLetter() {
+        return buffer.data[length - 1];
+    }
+
+    @Override
+    public Word getPrefix(int prefixLength) {
+        assert prefixLength <= length;
+        if(prefixLength <= 0) return alphabet.getEmptyWord();
+        if(prefixLength >= length) return this;
+        WordNode node;
+        if(length - prefixLength <= prefixLength) {
+            node = this;
+            while(node.length > prefixLength) {
+                node = node.parent;
+            }
+        }else {
+            node = getRoot().getDescendant(this, 0, prefixLength);
+        }
+        return node;
+    }
+    
+    @Override
+    public Word getSuffix(int startIndex) {
+        assert startIndex >= 0 && startIndex <= length;
+        if(startIndex == 0) return this;
+        return toWord(getRoot().getDescendant(this, startIndex, length - startIndex));
+    }
+
+    @Override
+    public Word getSubWord(int fromIdx, int len) {
+        assert fromIdx >= 0 && len <= this.length;
+        if(len <= 0 || fromIdx >= this.length) return alphabet.getEmptyWord();
+        if(fromIdx == 0) return getPrefix(len);
+        return getRoot().getDescendant(this, fromIdx, len);
+    }
+
+    @Override
+    public Word append(int letter) {
+        return getChild(letter);
+    }
+
+    @Override
+    public Word preappend(int letter) {
+        return getRoot().getChild(letter).getDescendant(this, 0, length);
+    }
+    
+    @Override
+    public Word concat(Word word) {
+        return getDescendant(word, 0, word.length());
+    }
+
+    @Override
+    public Word concat(Word... words) {
+        WordNode node = this;
+        for(Word word : words) {
+            node = node.getDescendant(word, 0, word.length());
+        }
+        return toWord(node);
+    }
+
+    @Override
+    public boolean isPrefixOf(Word word) {
+        if(length > word.length()) return false;
+        if(word instanceof WordNode && ((WordNode)word).alphabet == alphabet) {
+            return word.getPrefix(length) == this;
+        }
+        for(int letterNr = 0; letterNr < length; letterNr ++) {
+            if(getLetter(letterNr) != word.getLetter(letterNr))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isSuffixOf(Word word) {
+        if(length > word.length()) return false;
+        int otherNr = word.length() - 1;
+        for(int letterNr = length - 1; letterNr >= 0 ; letterNr --, otherNr --) {
+            if(getLetter(letterNr) != word.getLetter(otherNr))
+                return false;
+        }
+        return true;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(o instanceof WordNode && ((WordNode)o).alphabet == alphabet) {
+            return false;
+        }
+        return super.equals(o);
+    }
+    
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<Integer>() {
+            private int cursor = 0;
+            @Override
+            public boolean hasNext() {
+                return cursor < length;
+            }
+
+            @Override
+            public Integer next() {
+                return buffer.data[cursor ++];
+            }
+        };
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(getLetter(0));
+        for(int letterNr = 1; letterNr < length; letterNr ++) {
+            builder.append("." + getLetter(letterNr));
+        }
+        return builder.toString();
+    }
+    
+    // letter array shared by the nodes on one chain, used is the number of taken slots
+    private static class Buffer {
+        final int[] data;
+        int used;
+        Buffer(int capacity) {
+            this.data = new int[capacity];
+        }
+    }
+
+}